@@ -1,16 +1,30 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import game.GamePhysics;
+import analytics.AnalyticsRecorder;
+import game.GameEngine;
 import game.GameState;
 import game.GameWorld;
 import game.GameStateManager;
 import game.Player;
+import game.ReplayRecorder;
+import jfr.FlightRecording;
 import model.Item;
+import replication.ReplicationFollower;
+import server.GameAdmission;
+import server.JitWarmUp;
+import server.OverloadController;
+import server.Readiness;
 import server.ServerManager;
-import util.GameUtils;
+import shard.SessionRegistry;
+import util.GameConsole;
+import util.GameSettings;
+import util.SettingsWatcher;
 import util.LoggerUtil;
 
 public class Main {
@@ -26,15 +40,31 @@ public class Main {
     // Stato globale del gioco
     private static final AtomicBoolean gameActive = new AtomicBoolean(true);
     private static int timerDuration;
-    private static GamePhysics gamePhysics; // Riferimento a GamePhysics
+    private static GameEngine gameEngine; // Proprietario dei thread di fisica e timer
+    private static ReplayRecorder replayRecorder; // Registrazione della partita (null se disattivata)
 
     public static void main(String[] args) {
         logger.info("Inizializzazione del server e della logica di gioco...");
 
+        // Observer Pattern: le modifiche al file di impostazioni vengono applicate senza riavviare il server
+        SettingsWatcher.start();
+        // In produzione la console può essere disattivata: i messaggi diagnostici non vengono nemmeno costruiti
+        GameConsole.setEnabled(GameSettings.getInstance().isConsoleOutput());
+
+        // Registrazione JFR continua: gli eventi di gioco finiscono accanto a GC, lock e I/O della JVM
+        startFlightRecording();
+
+        // Riscaldamento del JIT su mondi usa e getta, prima che il timer della partita reale parta e la porta si apra
+        warmUp();
+
         // Inizializziamo il mondo e il giocatore
         GameWorld gameWorld = new GameWorld();
         Player player = new Player(DEFAULT_PLAYER_X, DEFAULT_PLAYER_Y);
 
+        // Memento Pattern: il replay registra seed e input a partire dal mondo appena creato,
+        // quindi anche il reset iniziale o lo stato caricato da disco di initializeGameState
+        startReplayRecording(gameWorld, player);
+
         // Factory/Builder Pattern: GameStateManager gestisce la creazione e il caricamento dello stato del gioco.
         // Permette di astrarre la logica di persistenza e ripristino dello stato.
         // Delegando questa responsabilità a GameStateManager, il codice principale rimane pulito e focalizzato sulla logica di gioco.
@@ -44,6 +74,11 @@ public class Main {
         // Migliora la reattività e la scalabilità del gioco.
         startGameThreads(gameWorld, player);
 
+        // Observer Pattern: sotto sovraccarico il mondo rallenta tick e aggiornamenti invece di accumulare ritardo
+        OverloadController overloadController = OverloadController.getInstance();
+        overloadController.register("main", gameWorld);
+        overloadController.start();
+
         // Facade Pattern: ServerManager incapsula la complessità della gestione server-client.
         // Espone un'interfaccia semplice per avviare il server.
         startServer(gameWorld, player);
@@ -79,6 +114,7 @@ public class Main {
      * facilitando la manutenzione e l'estensione del sistema.
      */
     private static void createInitialGameState(GameWorld gameWorld) {
+        gameWorld.recordInput(ReplayRecorder.RESTART);
         gameWorld.resetGame(); // Resetta il mondo e crea il terreno e un oggetto iniziale
         GameStateManager.saveGameStateDual( // Salva il nuovo stato iniziale
             DEFAULT_PLAYER_X, 
@@ -97,16 +133,18 @@ public class Main {
      * migliorando la reattività e la scalabilità dell'applicazione.
      */
     private static void startGameThreads(GameWorld gameWorld, Player player) {
-        // Motore di fisica del gioco
-        gamePhysics = new GamePhysics(gameWorld, player);
-        Thread physicsThread = new Thread(gamePhysics);
-        physicsThread.start();
-
-        // Timer del gioco
-        Thread timerThread = new Thread(() -> {
-            GameUtils.startGameTimer(gameWorld, player, gameActive, timerDuration);
-        });
-        timerThread.start();
+        // GameEngine possiede fisica e timer: /start e /restart riusano gli stessi thread invece di crearne di nuovi
+        gameEngine = new GameEngine("main", gameWorld, player, gameActive);
+
+        // Timer del gioco: anche la partita iniziale occupa un posto nel limite di partite contemporanee
+        GameAdmission admission = GameAdmission.getInstance();
+        if (ReplicationFollower.isConfigured()) {
+            // Hot standby: il follower non esegue fisica né timer finché non viene promosso a primario
+            logger.info("Processo avviato come follower di replica: motore in attesa della promozione.");
+            return;
+        }
+        Runnable onGameEnd = admission.tryAdmit() ? admission::release : () -> { };
+        gameEngine.restart(timerDuration, onGameEnd);
     }
 
     /**
@@ -116,7 +154,7 @@ public class Main {
      * offrendo un'interfaccia semplice e chiara per avviare e gestire il server.
      */
     private static void startServer(GameWorld gameWorld, Player player) {
-        ServerManager serverManager = new ServerManager(gameWorld, player, gameActive, timerDuration);
+        ServerManager serverManager = new ServerManager(gameWorld, player, gameActive, timerDuration, gameEngine);
         serverManager.startServer();
         logger.info("Server avviato correttamente e pronto a gestire le richieste.");
     }
@@ -132,11 +170,74 @@ public class Main {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             gameWorld.setGameActive(false); // Ferma ogni logica dipendente dallo stato del gioco
             saveGameState(gameWorld, player);
-            gamePhysics.stop(); // Ferma il thread della fisica
+            SessionRegistry.getInstance().saveAll(); // Sessioni ospitate da questo processo nell'archivio condiviso
+            gameEngine.stop(); // Ferma e attende i thread di fisica e timer
+            closeReplayRecording();
+            FlightRecording.stop(); // Scrive il buffer circolare di JFR nel file configurato
+            AnalyticsRecorder analytics = AnalyticsRecorder.getInstance();
+            if (analytics != null) {
+                analytics.close(); // Scrive il blocco di analisi ancora in memoria
+            }
             logger.info("Il gioco è stato terminato correttamente.");
         }));
     }
 
+    /**
+     * Esegue i tick sintetici di JitWarmUp se configurati in GameSettings; l'esito viene esposto da /ready.
+     */
+    private static void warmUp() {
+        GameSettings settings = GameSettings.getInstance();
+        int ticks = settings.getWarmUpTicks();
+        if (ticks == 0) {
+            return;
+        }
+        logger.info("Riscaldamento del JIT: " + ticks + " tick sintetici...");
+        JitWarmUp.Result result = JitWarmUp.run(ticks, settings.getGameDurationInSeconds(), settings.getWorldWidth(),
+                settings.getWorldHeight(), System.nanoTime());
+        Readiness.getInstance().setWarmUp(result);
+        logger.info("Riscaldamento completato in " + result.elapsedMillis() + " ms (" + result.moves() + " mosse, "
+                + result.encodes() + " codifiche, " + result.compileMillis() + " ms di compilazione JIT)");
+    }
+
+    /**
+     * Avvia la registrazione del replay se è configurato un file in GameSettings.
+     * Memento Pattern: seed del mondo e input con timestamp bastano a rieseguire la partita con ReplayRunner.
+     */
+    private static void startReplayRecording(GameWorld gameWorld, Player player) {
+        String replayFile = GameSettings.getInstance().getReplayFile();
+        if (replayFile.isEmpty()) {
+            return;
+        }
+        replayRecorder = new ReplayRecorder(Path.of(replayFile), gameWorld, player);
+        gameWorld.setReplayRecorder(replayRecorder);
+        logger.info("Registrazione del replay attiva su " + replayFile + " (seed " + gameWorld.getSeed() + ")");
+    }
+
+    /**
+     * Avvia la registrazione JFR continua se è configurato un file in GameSettings.
+     * Ring Buffer: vengono conservati solo gli ultimi minuti, quindi può restare attiva in produzione.
+     */
+    private static void startFlightRecording() {
+        GameSettings settings = GameSettings.getInstance();
+        if (settings.getFlightRecordingFile().isEmpty()) {
+            return;
+        }
+        FlightRecording.start(Path.of(settings.getFlightRecordingFile()),
+                Duration.ofSeconds(settings.getFlightRecordingMaxAgeSeconds()),
+                settings.getFlightRecordingMaxSizeMb() * 1024L * 1024L);
+    }
+
+    private static void closeReplayRecording() {
+        if (replayRecorder == null) {
+            return;
+        }
+        try {
+            replayRecorder.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Errore durante la chiusura del replay: {0}", e.getMessage());
+        }
+    }
+
     /**
      * Salva lo stato corrente del gioco.
      * Factory/Builder Pattern: GameStateManager gestisce la persistenza dello stato.
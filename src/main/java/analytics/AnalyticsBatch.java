@@ -0,0 +1,202 @@
+package analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lotto di eventi in memoria, già in colonne di tipi primitivi: aggiungere una riga non alloca oggetti
+ * (a parte la crescita degli array e le stringhe nuove nel dizionario).
+ *
+ * Formato di un blocco su file:
+ *   lunghezza (int) | righe (int) | dizionario (int n, n stringhe: short byte + UTF-8) | 8 colonne, ciascuna (int byte, dati):
+ *   timestamp (delta zigzag), tipo (RLE), mondo (RLE di id), simbolo (id), valore (zigzag), x, y (zigzag),
+ *   negativo (RLE: valore iniziale, poi lunghezze alternate)
+ */
+final class AnalyticsBatch {
+    static final byte COLLECTED = 0;
+    static final byte EXPIRED = 1;
+    static final byte GAME_ENDED = 2;
+    static final String[] TYPE_NAMES = {"collected", "expired", "ended"};
+    static final int COLUMNS = 8;
+
+    private long[] timestamps;
+    private byte[] types;
+    private int[] worlds;
+    private int[] symbols;
+    private int[] values;
+    private int[] xs;
+    private int[] ys;
+    private int size;
+    // Dizionario condiviso da mondi e simboli: ogni emoji viene scritta una sola volta per blocco
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream column = new ByteArrayOutputStream();
+
+    AnalyticsBatch(int capacity) {
+        timestamps = new long[capacity];
+        types = new byte[capacity];
+        worlds = new int[capacity];
+        symbols = new int[capacity];
+        values = new int[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+    }
+
+    void add(long timestamp, byte type, String world, String symbol, int value, int x, int y) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        timestamps[size] = timestamp;
+        types[size] = type;
+        worlds[size] = intern(world);
+        symbols[size] = intern(symbol);
+        values[size] = value;
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timestamp(int row) {
+        return timestamps[row];
+    }
+
+    void clear() {
+        size = 0;
+        dictionary.clear();
+        strings.clear();
+    }
+
+    private int intern(String value) {
+        String key = value != null ? value : "";
+        Integer id = dictionary.get(key);
+        if (id == null) {
+            id = strings.size();
+            dictionary.put(key, id);
+            strings.add(key);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, timestamps.length * 2);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        types = Arrays.copyOf(types, capacity);
+        worlds = Arrays.copyOf(worlds, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+        values = Arrays.copyOf(values, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+    }
+
+    /**
+     * Scrive come blocco le righe indicate (ad esempio quelle di un solo giorno), nell'ordine dato.
+     */
+    void writeBlock(DataOutputStream out, int[] rows, int count) throws IOException {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(block);
+        data.writeInt(count);
+        data.writeInt(strings.size());
+        for (String value : strings) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            data.writeShort(utf8.length);
+            data.write(utf8);
+        }
+
+        // Timestamp: primo valore assoluto, poi differenze (piccole e quasi sempre positive)
+        column.reset();
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = timestamps[rows[i]];
+            ColumnCodec.writeSigned(column, timestamp - previous);
+            previous = timestamp;
+        }
+        flushColumn(data);
+
+        column.reset();
+        int i = 0;
+        while (i < count) {
+            byte type = types[rows[i]];
+            int run = 1;
+            while (i + run < count && types[rows[i + run]] == type) {
+                run++;
+            }
+            column.write(type);
+            ColumnCodec.writeVarLong(column, run);
+            i += run;
+        }
+        flushColumn(data);
+
+        column.reset();
+        i = 0;
+        while (i < count) {
+            int world = worlds[rows[i]];
+            int run = 1;
+            while (i + run < count && worlds[rows[i + run]] == world) {
+                run++;
+            }
+            ColumnCodec.writeVarLong(column, world);
+            ColumnCodec.writeVarLong(column, run);
+            i += run;
+        }
+        flushColumn(data);
+
+        writeIntColumn(data, symbols, rows, count, false);
+        writeIntColumn(data, values, rows, count, true);
+        writeIntColumn(data, xs, rows, count, true);
+        writeIntColumn(data, ys, rows, count, true);
+
+        // Flag "oggetto negativo": lunghe sequenze uguali, quindi solo le lunghezze delle sequenze
+        column.reset();
+        boolean current = count > 0 && isNegative(rows[0]);
+        column.write(current ? 1 : 0);
+        i = 0;
+        while (i < count) {
+            int run = 0;
+            while (i + run < count && isNegative(rows[i + run]) == current) {
+                run++;
+            }
+            ColumnCodec.writeVarLong(column, run);
+            i += run;
+            current = !current;
+        }
+        flushColumn(data);
+
+        data.flush();
+        out.writeInt(block.size());
+        block.writeTo(out);
+    }
+
+    private boolean isNegative(int row) {
+        return types[row] != GAME_ENDED && values[row] < 0;
+    }
+
+    private void writeIntColumn(DataOutputStream data, int[] source, int[] rows, int count, boolean signed)
+            throws IOException {
+        column.reset();
+        for (int i = 0; i < count; i++) {
+            int value = source[rows[i]];
+            if (signed) {
+                ColumnCodec.writeSigned(column, value);
+            } else {
+                ColumnCodec.writeVarLong(column, value);
+            }
+        }
+        flushColumn(data);
+    }
+
+    private void flushColumn(DataOutputStream data) throws IOException {
+        data.writeInt(column.size());
+        column.writeTo(data);
+    }
+}
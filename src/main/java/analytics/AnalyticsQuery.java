@@ -0,0 +1,311 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Iterator Pattern:
+ *   I file di analisi vengono mappati in memoria e percorsi blocco per blocco; di ogni blocco si decodificano
+ *   solo le colonne richieste dalla query (tipo, valore e la colonna di raggruppamento), le altre si saltano.
+ *
+ * - Strategy Pattern:
+ *   La chiave di raggruppamento (tipo, simbolo, mondo, negativo, giorno, fascia di valore) è scelta dalla riga di comando;
+ *   le chiavi a dizionario vengono aggregate per id nel blocco e tradotte in stringa una sola volta per blocco.
+ *
+ * Uso: AnalyticsQuery <cartella o file...> [--group-by type|symbol|world|negative|day|bucket=N] [--type collected|expired|ended]
+ */
+
+package analytics;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import exception.EmojiCraftException;
+
+public class AnalyticsQuery {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * DTO Pattern: una riga del risultato (valori aggregati sul campo value degli eventi).
+     */
+    public record Row(String key, long count, long sum, long min, long max) {
+        public double average() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+
+    /**
+     * DTO Pattern: risultato della query con le statistiche della scansione.
+     */
+    public record Result(List<Row> rows, long scanned, long matched, int files, long elapsedNanos) {
+    }
+
+    private final String groupBy;
+    private final int bucketSize;
+    private final int typeFilter; // -1 = tutti i tipi
+    private final Map<String, long[]> groups = new HashMap<>();
+    // Colonne decodificate del blocco corrente, riutilizzate tra un blocco e l'altro
+    private long[] timestamps = new long[0];
+    private byte[] types = new byte[0];
+    private int[] worlds = new int[0];
+    private int[] symbols = new int[0];
+    private int[] values = new int[0];
+    private boolean[] negatives = new boolean[0];
+    private long scanned;
+    private long matched;
+
+    public AnalyticsQuery(String groupBy, String type) {
+        if (groupBy.startsWith("bucket=")) {
+            this.groupBy = "bucket";
+            this.bucketSize = Math.max(1, Integer.parseInt(groupBy.substring("bucket=".length())));
+        } else if (List.of("type", "symbol", "world", "negative", "day").contains(groupBy)) {
+            this.groupBy = groupBy;
+            this.bucketSize = 1;
+        } else {
+            throw new EmojiCraftException("Raggruppamento non valido: " + groupBy);
+        }
+        this.typeFilter = type == null ? -1 : List.of(AnalyticsBatch.TYPE_NAMES).indexOf(type);
+        if (type != null && typeFilter < 0) {
+            throw new EmojiCraftException("Tipo di evento non valido: " + type);
+        }
+    }
+
+    /**
+     * Esegue la query su file e cartelle (di una cartella si leggono tutti i file .eca).
+     */
+    public Result run(List<Path> inputs) {
+        long start = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> listing = Files.list(input)) {
+                    listing.filter(path -> path.getFileName().toString().endsWith(AnalyticsRecorder.FILE_SUFFIX))
+                            .sorted()
+                            .forEach(files::add);
+                } catch (IOException e) {
+                    throw new EmojiCraftException("Impossibile leggere la cartella " + input, e);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        for (Path file : files) {
+            scan(file);
+        }
+        List<Row> rows = new ArrayList<>();
+        groups.forEach((key, agg) -> rows.add(new Row(key, agg[0], agg[1], agg[2], agg[3])));
+        rows.sort(Comparator.comparingLong(Row::count).reversed().thenComparing(Row::key));
+        return new Result(rows, scanned, matched, files.size(), System.nanoTime() - start);
+    }
+
+    private void scan(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < Integer.BYTES) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != AnalyticsRecorder.MAGIC) {
+                throw new EmojiCraftException("File di analisi non valido: " + file);
+            }
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break; // Blocco troncato (scrittura interrotta): il resto del file viene ignorato
+                }
+                ByteBuffer block = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                scanBlock(block);
+            }
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile leggere il file di analisi " + file, e);
+        } catch (BufferUnderflowException e) {
+            throw new EmojiCraftException("File di analisi corrotto: " + file, e);
+        }
+    }
+
+    private void scanBlock(ByteBuffer block) {
+        int rows = block.getInt();
+        String[] dictionary = new String[block.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readUtf(block);
+        }
+        ensureCapacity(rows);
+        ByteBuffer[] columns = new ByteBuffer[AnalyticsBatch.COLUMNS];
+        for (int i = 0; i < columns.length; i++) {
+            int length = block.getInt();
+            columns[i] = block.slice(block.position(), length);
+            block.position(block.position() + length);
+        }
+
+        // Solo le colonne che servono: tipo (filtro), valore (aggregati) e la chiave scelta
+        decodeTypes(columns[1], rows);
+        decodeSigned(columns[4], values, rows);
+        switch (groupBy) {
+            case "day" -> decodeTimestamps(columns[0], rows);
+            case "world" -> decodeWorlds(columns[2], rows);
+            case "symbol" -> decodeUnsigned(columns[3], symbols, rows);
+            case "negative" -> decodeNegatives(columns[7], rows);
+            default -> {
+                // type e bucket usano colonne già decodificate
+            }
+        }
+
+        // Chiavi a dizionario: prima si aggrega per id, poi si traduce ogni id in stringa una volta sola
+        Map<Long, long[]> local = new HashMap<>();
+        for (int row = 0; row < rows; row++) {
+            if (typeFilter >= 0 && types[row] != typeFilter) {
+                continue;
+            }
+            long key = switch (groupBy) {
+                case "day" -> Math.floorDiv(timestamps[row], MILLIS_PER_DAY);
+                case "world" -> worlds[row];
+                case "symbol" -> symbols[row];
+                case "negative" -> negatives[row] ? 1 : 0;
+                case "bucket" -> Math.floorDiv(values[row], bucketSize);
+                default -> types[row];
+            };
+            long[] agg = local.get(key);
+            if (agg == null) {
+                agg = new long[] {0, 0, Long.MAX_VALUE, Long.MIN_VALUE};
+                local.put(key, agg);
+            }
+            int value = values[row];
+            agg[0]++;
+            agg[1] += value;
+            agg[2] = Math.min(agg[2], value);
+            agg[3] = Math.max(agg[3], value);
+            matched++;
+        }
+        scanned += rows;
+        local.forEach((key, agg) -> merge(label(key, dictionary), agg));
+    }
+
+    private String label(long key, String[] dictionary) {
+        return switch (groupBy) {
+            case "day" -> LocalDate.ofEpochDay(key).toString();
+            case "world", "symbol" -> dictionary[(int) key].isEmpty() ? "-" : dictionary[(int) key];
+            case "negative" -> key == 1 ? "negative" : "positive";
+            case "bucket" -> (key * bucketSize) + ".." + (key * bucketSize + bucketSize - 1);
+            default -> AnalyticsBatch.TYPE_NAMES[(int) key];
+        };
+    }
+
+    private void merge(String key, long[] agg) {
+        long[] total = groups.get(key);
+        if (total == null) {
+            groups.put(key, agg.clone());
+            return;
+        }
+        total[0] += agg[0];
+        total[1] += agg[1];
+        total[2] = Math.min(total[2], agg[2]);
+        total[3] = Math.max(total[3], agg[3]);
+    }
+
+    private void ensureCapacity(int rows) {
+        if (timestamps.length < rows) {
+            timestamps = new long[rows];
+            types = new byte[rows];
+            worlds = new int[rows];
+            symbols = new int[rows];
+            values = new int[rows];
+            negatives = new boolean[rows];
+        }
+    }
+
+    private void decodeTimestamps(ByteBuffer column, int rows) {
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += ColumnCodec.readSigned(column);
+            timestamps[i] = previous;
+        }
+    }
+
+    private void decodeTypes(ByteBuffer column, int rows) {
+        int row = 0;
+        while (row < rows) {
+            byte type = column.get();
+            int run = (int) ColumnCodec.readVarLong(column);
+            for (int i = 0; i < run; i++) {
+                types[row++] = type;
+            }
+        }
+    }
+
+    private void decodeWorlds(ByteBuffer column, int rows) {
+        int row = 0;
+        while (row < rows) {
+            int world = (int) ColumnCodec.readVarLong(column);
+            int run = (int) ColumnCodec.readVarLong(column);
+            for (int i = 0; i < run; i++) {
+                worlds[row++] = world;
+            }
+        }
+    }
+
+    private void decodeNegatives(ByteBuffer column, int rows) {
+        boolean current = column.get() != 0;
+        int row = 0;
+        while (row < rows) {
+            int run = (int) ColumnCodec.readVarLong(column);
+            for (int i = 0; i < run; i++) {
+                negatives[row++] = current;
+            }
+            current = !current;
+        }
+    }
+
+    private static void decodeUnsigned(ByteBuffer column, int[] target, int rows) {
+        for (int i = 0; i < rows; i++) {
+            target[i] = (int) ColumnCodec.readVarLong(column);
+        }
+    }
+
+    private static void decodeSigned(ByteBuffer column, int[] target, int rows) {
+        for (int i = 0; i < rows; i++) {
+            target[i] = (int) ColumnCodec.readSigned(column);
+        }
+    }
+
+    private static String readUtf(ByteBuffer block) {
+        byte[] bytes = new byte[Short.toUnsignedInt(block.getShort())];
+        block.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) {
+        List<Path> inputs = new ArrayList<>();
+        String groupBy = "type";
+        String type = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--group-by" -> groupBy = args[++i];
+                case "--type" -> type = args[++i];
+                default -> inputs.add(Path.of(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Uso: AnalyticsQuery <cartella o file...> [--group-by type|symbol|world|negative|day|bucket=N]"
+                    + " [--type collected|expired|ended]");
+            return;
+        }
+        Result result = new AnalyticsQuery(groupBy, type).run(inputs);
+        System.out.printf("%-16s %12s %14s %10s %8s %8s%n", groupBy, "eventi", "somma", "media", "min", "max");
+        for (Row row : result.rows()) {
+            System.out.printf("%-16s %12d %14d %10.2f %8d %8d%n", row.key(), row.count(), row.sum(), row.average(),
+                    row.min(), row.max());
+        }
+        System.out.printf("%d eventi letti (%d selezionati) da %d file in %.3f s%n", result.scanned(), result.matched(),
+                result.files(), result.elapsedNanos() / 1e9);
+    }
+}
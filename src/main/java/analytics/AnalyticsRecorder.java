@@ -0,0 +1,231 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   AnalyticsRecorder è un consumatore del ring buffer degli eventi di ogni mondo (raccolte, scadenze, fine partita):
+ *   GameWorld non sa nulla dell'analisi e non stampa nulla per evento.
+ *
+ * - Double Buffering:
+ *   I consumatori aggiungono righe al lotto corrente (colonne di primitivi, senza allocazioni); il thread di scrittura
+ *   scambia il lotto pieno con uno vuoto e lo codifica su disco fuori dal lock.
+ *
+ * - Singleton Pattern:
+ *   Un solo registratore per processo, configurato da GameSettings (analyticsDir vuoto = disattivato).
+ *
+ * File: un file per giorno (UTC), analytics-AAAA-MM-GG.eca, composto da blocchi in colonne
+ * (vedi AnalyticsBatch) preceduti dal magic "ECA1"; i blocchi vengono solo aggiunti in coda.
+ */
+
+package analytics;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import event.EventHandler;
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class AnalyticsRecorder {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    public static final int MAGIC = 0x45434131; // "ECA1"
+    public static final String FILE_PREFIX = "analytics-";
+    public static final String FILE_SUFFIX = ".eca";
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static AnalyticsRecorder instance;
+
+    private final Path directory;
+    private final int batchSize;
+    private final long flushMillis;
+    private final Object lock = new Object();
+    private AnalyticsBatch current;
+    private AnalyticsBatch spare;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong blocks = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    public AnalyticsRecorder(Path directory, int batchSize, long flushMillis) {
+        this.directory = directory;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.current = new AnalyticsBatch(this.batchSize);
+        this.spare = new AnalyticsBatch(this.batchSize);
+    }
+
+    /**
+     * Singleton Pattern: registratore configurato da GameSettings, oppure null se l'analisi è disattivata.
+     */
+    public static synchronized AnalyticsRecorder getInstance() {
+        GameSettings settings = GameSettings.getInstance();
+        if (instance == null && !settings.getAnalyticsDir().isEmpty()) {
+            instance = new AnalyticsRecorder(Path.of(settings.getAnalyticsDir()), settings.getAnalyticsBatchSize(),
+                    settings.getAnalyticsFlushMillis());
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Gestore di eventi per un mondo: da passare a GameEngine.subscribe.
+     * Le righe hanno l'ora di sistema (millisecondi dall'epoch) del momento in cui il consumatore le riceve:
+     * il timestamp dell'evento viene dall'orologio del mondo, che misura solo il tempo trascorso (nanoTime
+     * o VirtualClock) e non indica il giorno del file.
+     */
+    public EventHandler forWorld(String worldId) {
+        return (event, sequence) -> {
+            switch (event.getType()) {
+                case ITEM_COLLECTED -> record(System.currentTimeMillis(), AnalyticsBatch.COLLECTED, worldId,
+                        event.getSymbol(), event.getValue(), event.getX(), event.getY());
+                case ITEM_EXPIRED -> record(System.currentTimeMillis(), AnalyticsBatch.EXPIRED, worldId,
+                        event.getSymbol(), event.getValue(), event.getX(), event.getY());
+                case GAME_ENDED -> record(System.currentTimeMillis(), AnalyticsBatch.GAME_ENDED, worldId,
+                        null, event.getValue(), event.getX(), event.getY());
+                default -> {
+                    // Generazioni, movimenti e avvii non servono all'analisi
+                }
+            }
+        };
+    }
+
+    void record(long timestamp, byte type, String worldId, String symbol, int value, int x, int y) {
+        synchronized (lock) {
+            current.add(timestamp, type, worldId, symbol, value, x, y);
+            if (current.size() >= batchSize) {
+                lock.notifyAll();
+            }
+        }
+        recorded.incrementAndGet();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "analytics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Scrive subito le righe in attesa (usato allo spegnimento e nei test).
+     */
+    public void flush() {
+        synchronized (this) {
+            AnalyticsBatch batch;
+            synchronized (lock) {
+                batch = swap();
+            }
+            write(batch);
+        }
+    }
+
+    public void close() {
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (writer != null) {
+            try {
+                writer.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            synchronized (lock) {
+                long deadline = System.currentTimeMillis() + flushMillis;
+                long wait;
+                while (running && current.size() < batchSize && (wait = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        lock.wait(wait);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    // Scambio dei lotti: chiamato con entrambi i lock, quindi il lotto restituito non è in scrittura altrove
+    private AnalyticsBatch swap() {
+        AnalyticsBatch full = current;
+        current = spare;
+        spare = full;
+        return full;
+    }
+
+    /**
+     * Codifica il lotto in un blocco per ogni giorno presente e lo aggiunge al file del giorno.
+     * Eseguito fuori dal lock: i consumatori scrivono intanto nell'altro lotto.
+     */
+    private void write(AnalyticsBatch batch) {
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+        Map<Long, int[]> rowsByDay = new HashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            long day = Math.floorDiv(batch.timestamp(row), MILLIS_PER_DAY);
+            int[] rows = rowsByDay.computeIfAbsent(day, d -> new int[size]);
+            int count = counts.getOrDefault(day, 0);
+            rows[count] = row;
+            counts.put(day, count + 1);
+        }
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<Long, int[]> entry : rowsByDay.entrySet()) {
+                Path file = fileFor(directory, entry.getKey());
+                boolean created = !Files.exists(file) || Files.size(file) == 0;
+                try (OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024))) {
+                    if (created) {
+                        out.writeInt(MAGIC);
+                    }
+                    batch.writeBlock(out, entry.getValue(), counts.get(entry.getKey()));
+                }
+                blocks.incrementAndGet();
+            }
+            written.addAndGet(size);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Impossibile scrivere i dati di analisi: {0}", e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    static Path fileFor(Path directory, long epochDay) {
+        return directory.resolve(FILE_PREFIX + LocalDate.ofEpochDay(epochDay) + FILE_SUFFIX);
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getBlocks() {
+        return blocks.get();
+    }
+}
@@ -0,0 +1,55 @@
+package analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codifiche delle colonne dei file di analisi: varint (7 bit per byte), zigzag per i valori con segno,
+ * delta per i timestamp e run-length per le colonne che cambiano raramente (tipo, mondo, flag).
+ */
+final class ColumnCodec {
+
+    private ColumnCodec() {
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new BufferUnderflowException();
+            }
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Zigzag: i valori piccoli, positivi o negativi, occupano un solo byte
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, zigzag(value));
+    }
+
+    static long readSigned(ByteBuffer in) {
+        return unzigzag(readVarLong(in));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   Ogni consumatore segue il ring buffer con la propria sequenza e consegna gli eventi al proprio EventHandler.
+ *
+ * - Batching:
+ *   drain legge tutti gli eventi disponibili (fino a un massimo) in un unico passaggio,
+ *   quindi un consumatore rimasto indietro recupera con pochi lotti grandi invece di molte letture singole.
+ *
+ * Motivo dell'utilizzo:
+ * - I consumatori sono indipendenti: uno lento perde gli eventi più vecchi (e li conta),
+ *   ma non rallenta né il produttore né gli altri consumatori.
+ */
+
+package event;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class EventConsumer implements Closeable {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final String name;
+    private final EventRing ring;
+    private final EventHandler handler;
+    // Evento riutilizzato per ogni lettura: drain non alloca
+    private final GameEvent event = new GameEvent();
+    // Prossima sequenza da leggere (scritta solo dal thread che esegue drain)
+    private volatile long nextSequence;
+    private volatile long processed;
+    private volatile long lost;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Crea un consumatore che riceve gli eventi pubblicati da questo momento in poi.
+     */
+    public EventConsumer(String name, EventRing ring, EventHandler handler) {
+        this.name = name;
+        this.ring = ring;
+        this.handler = handler;
+        this.nextSequence = ring.getCursor() + 1;
+    }
+
+    /**
+     * Consegna al gestore fino a maxBatch eventi disponibili. Da chiamare sempre dallo stesso thread.
+     *
+     * @return numero di eventi consegnati
+     */
+    public int drain(int maxBatch) {
+        long available = ring.getCursor();
+        long next = nextSequence;
+        if (available < next) {
+            return 0;
+        }
+        // Consumatore doppiato dal produttore: gli eventi più vecchi del buffer sono persi
+        long oldest = available - ring.getCapacity() + 1;
+        if (next < oldest) {
+            lost += oldest - next;
+            next = oldest;
+        }
+        long end = Math.min(available, next + maxBatch - 1);
+        int delivered = 0;
+        for (; next <= end; next++) {
+            if (ring.read(next, event)) {
+                handler.onEvent(event, next);
+                delivered++;
+            } else {
+                lost++; // Sovrascritto mentre lo si leggeva
+            }
+        }
+        nextSequence = next;
+        if (delivered > 0) {
+            processed += delivered;
+            handler.onBatchEnd();
+        }
+        return delivered;
+    }
+
+    /**
+     * Avvia un thread dedicato che svuota il buffer a lotti e si ferma brevemente quando non ci sono eventi.
+     */
+    public synchronized EventConsumer start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this::run, "events-" + name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    private void run() {
+        while (running) {
+            if (drain(DEFAULT_BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain(Integer.MAX_VALUE); // Consegna gli ultimi eventi prima di fermarsi
+    }
+
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Eventi pubblicati ma non ancora consegnati a questo consumatore.
+     */
+    public long getLag() {
+        return Math.max(0, ring.getCursor() + 1 - nextSequence);
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getLost() {
+        return lost;
+    }
+}
@@ -0,0 +1,16 @@
+package event;
+
+/**
+ * Observer Pattern: consumatore di eventi di gioco (persistenza, metriche, broadcast, analisi).
+ * L'evento ricevuto è riutilizzato dal consumatore: va letto subito e non conservato.
+ */
+@FunctionalInterface
+public interface EventHandler {
+    void onEvent(GameEvent event, long sequence);
+
+    /**
+     * Chiamato alla fine di ogni lotto non vuoto: il punto giusto per flush e scritture raggruppate.
+     */
+    default void onBatchEnd() {
+    }
+}
@@ -0,0 +1,30 @@
+package event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Observer Pattern: consumatore che conta gli eventi per tipo (esposto da /events).
+ */
+public class EventMetrics implements EventHandler {
+    private static final GameEventType[] TYPES = GameEventType.values();
+    private final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+
+    @Override
+    public void onEvent(GameEvent event, long sequence) {
+        counts.incrementAndGet(event.getType().ordinal());
+    }
+
+    public long getCount(GameEventType type) {
+        return counts.get(type.ordinal());
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (GameEventType type : TYPES) {
+            result.put(type.name(), counts.get(type.ordinal()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Ring Buffer (Disruptor) Pattern:
+ *   Gli eventi di un mondo vengono scritti in un array di slot preallocati, indicizzato da una sequenza
+ *   crescente. Il produttore non alloca e non attende mai: quando il buffer è pieno sovrascrive l'evento
+ *   più vecchio, e sono i consumatori lenti a rilevare (e contare) gli eventi persi.
+ *
+ * - Seqlock:
+ *   Ogni slot porta la sequenza dell'evento che contiene; un lettore copia lo slot e poi verifica che
+ *   la sequenza non sia cambiata, quindi non legge mai un evento scritto a metà.
+ *
+ * Motivo dell'utilizzo:
+ * - Il thread della fisica pubblica eventi a ogni tick: qualsiasi attesa o allocazione qui finirebbe
+ *   direttamente nel ritardo dei tick.
+ */
+
+package event;
+
+import java.lang.invoke.VarHandle;
+
+public class EventRing {
+    private final GameEvent[] slots;
+    private final int mask;
+    // Sequenza dell'ultimo evento pubblicato (-1 = nessuno)
+    private volatile long cursor = -1;
+
+    public EventRing(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1; // Potenza di 2 >= richiesta
+        this.slots = new GameEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new GameEvent();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Pubblica un evento. Un solo produttore alla volta: GameWorld pubblica sempre tenendo il proprio monitor.
+     */
+    public void publish(GameEventType type, long tick, long timestamp, int x, int y, int value, String symbol) {
+        long sequence = cursor + 1;
+        GameEvent slot = slots[(int) sequence & mask];
+        slot.sequence = -1; // I lettori che trovano -1 sanno che lo slot è in scrittura
+        VarHandle.storeStoreFence();
+        slot.set(type, tick, timestamp, x, y, value, symbol);
+        slot.sequence = sequence;
+        cursor = sequence;
+    }
+
+    /**
+     * Copia l'evento con la sequenza indicata in target.
+     *
+     * @return false se l'evento è già stato sovrascritto (o è in corso di sovrascrittura)
+     */
+    boolean read(long sequence, GameEvent target) {
+        GameEvent slot = slots[(int) sequence & mask];
+        if (slot.sequence != sequence) {
+            return false;
+        }
+        target.copyFrom(slot);
+        VarHandle.loadLoadFence(); // La copia deve precedere la verifica della sequenza
+        return slot.sequence == sequence;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+}
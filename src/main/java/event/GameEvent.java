@@ -0,0 +1,71 @@
+package event;
+
+/**
+ * Flyweight Pattern: un evento di gioco è uno slot riutilizzabile.
+ * Il ring buffer preallocca i propri slot e ogni consumatore copia l'evento in un'unica istanza personale,
+ * quindi pubblicare e leggere eventi non alloca memoria.
+ *
+ * Significato dei campi per tipo:
+ * - ITEM_SPAWNED / ITEM_EXPIRED / ITEM_COLLECTED: posizione e simbolo dell'oggetto, value = punteggio dell'oggetto
+   (negativo per gli oggetti penalizzanti; il punteggio totale viaggia con PLAYER_MOVED)
+ * - PLAYER_MOVED: nuova posizione ed emoji del giocatore, value = punteggio totale
+ * - GAME_STARTED: value = durata in secondi; GAME_ENDED: value = punteggio finale
+ */
+public final class GameEvent {
+    // Sequenza dell'evento contenuto nello slot (-1 = scrittura in corso), letta dai consumatori senza lock
+    volatile long sequence = -1;
+    private GameEventType type;
+    private long tick;
+    private long timestamp;
+    private int x;
+    private int y;
+    private int value;
+    private String symbol;
+
+    void set(GameEventType type, long tick, long timestamp, int x, int y, int value, String symbol) {
+        this.type = type;
+        this.tick = tick;
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.symbol = symbol;
+    }
+
+    void copyFrom(GameEvent other) {
+        set(other.type, other.tick, other.timestamp, other.x, other.y, other.value, other.symbol);
+    }
+
+    public GameEventType getType() {
+        return type;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{tick=" + tick + ", x=" + x + ", y=" + y + ", value=" + value + ", symbol=" + symbol + "}";
+    }
+}
@@ -0,0 +1,13 @@
+package event;
+
+/**
+ * Tipi di evento pubblicati da GameWorld nel proprio ring buffer.
+ */
+public enum GameEventType {
+    ITEM_SPAWNED,
+    ITEM_COLLECTED,
+    ITEM_EXPIRED,
+    PLAYER_MOVED,
+    GAME_STARTED,
+    GAME_ENDED
+}
@@ -12,14 +12,14 @@
 
 package factory;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import model.Item;
 
 public class ItemFactory {
     private static final String[] EMOJIS = {"🙂", "😄", "😁", "😍", "🤑"};
     private static final int[] SCORES = {5, 10, 20, 25, 50};
-    private static final Random random = new Random();
 
     /**
      * Factory Pattern: servizio di fabbrica per creare oggetti Item.
@@ -27,9 +27,30 @@ public class ItemFactory {
      * in una posizione specifica.
      */
     public static Item createRandomItem(int x, int y) {
+        // ThreadLocalRandom: nessuna contesa sul seed condiviso tra thread e mondi diversi
+        return createRandomItem(x, y, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Factory Pattern: variante che usa il generatore del mondo, così lo spawn è riproducibile a partire dal seed.
+     */
+    public static Item createRandomItem(int x, int y, RandomGenerator random) {
         int index = random.nextInt(EMOJIS.length);
         String emoji = EMOJIS[index];
         int score = SCORES[index];
         return new Item(x, y, emoji, score);
     }
+
+    /**
+     * Factory Pattern: ricrea l'oggetto di un simbolo salvato (positivo o negativo) con il suo punteggio,
+     * oppure null se il simbolo non è un oggetto (cella vuota, muro, giocatore).
+     */
+    public static Item createFromSymbol(int x, int y, String symbol) {
+        for (int i = 0; i < EMOJIS.length; i++) {
+            if (EMOJIS[i].equals(symbol)) {
+                return new Item(x, y, symbol, SCORES[i]);
+            }
+        }
+        return NegativeItemFactory.createFromSymbol(x, y, symbol);
+    }
 }
@@ -12,23 +12,43 @@
 
 package factory;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import model.Item;
 
 public class NegativeItemFactory {
     private static final String[] EMOJIS = {"💩", "👺", "👽", "👻", "☠️"}; // Emoji negative
     private static final int[] SCORES = {-5, -15, -20, -25, -50}; // Punteggi negativi
-    private static final Random random = new Random();
 
     /**
      * Factory Pattern: Metodo per creare un oggetto Item negativo con emoji e punteggio casuali
      * in una posizione specifica.
      */
     public static Item createRandomNegativeItem(int x, int y) {
+        // ThreadLocalRandom: nessuna contesa sul seed condiviso tra thread e mondi diversi
+        return createRandomNegativeItem(x, y, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Factory Pattern: variante che usa il generatore del mondo, così lo spawn è riproducibile a partire dal seed.
+     */
+    public static Item createRandomNegativeItem(int x, int y, RandomGenerator random) {
         int index = random.nextInt(EMOJIS.length);
         String emoji = EMOJIS[index];
         int score = SCORES[index];
         return new Item(x, y, emoji, score);
     }
+
+    /**
+     * Factory Pattern: oggetto negativo corrispondente a un simbolo salvato, oppure null se il simbolo non è negativo.
+     */
+    public static Item createFromSymbol(int x, int y, String symbol) {
+        for (int i = 0; i < EMOJIS.length; i++) {
+            if (EMOJIS[i].equals(symbol)) {
+                return new Item(x, y, symbol, SCORES[i]);
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
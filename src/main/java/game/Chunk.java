@@ -0,0 +1,77 @@
+package game;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Porzione quadrata di mondo di CHUNK_SIZE x CHUNK_SIZE celle, memorizzata in un ByteBuffer compatto.
+ * Ogni cella occupa CELL_BYTES byte: indice del simbolo nella palette (short) e punteggio (short).
+ * Il buffer può essere sull'heap o off-heap (direct); in entrambi i casi il contenuto viene
+ * copiato byte per byte nel file dei chunk quando il chunk viene espulso dalla cache.
+ */
+public class Chunk {
+    public static final int CHUNK_SIZE = 32;
+    public static final int CELL_BYTES = 4;
+    public static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE * CELL_BYTES;
+
+    private final int chunkX;
+    private final int chunkY;
+    private final ByteBuffer cells;
+    private boolean dirty;
+
+    public Chunk(int chunkX, int chunkY, boolean offHeap) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.cells = offHeap ? ByteBuffer.allocateDirect(CHUNK_BYTES) : ByteBuffer.allocate(CHUNK_BYTES);
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    // Coordinate locali (0..CHUNK_SIZE-1)
+    public short getSymbolId(int localX, int localY) {
+        return cells.getShort(offset(localX, localY));
+    }
+
+    public short getScore(int localX, int localY) {
+        return cells.getShort(offset(localX, localY) + 2);
+    }
+
+    public void setCell(int localX, int localY, short symbolId, short score) {
+        int offset = offset(localX, localY);
+        cells.putShort(offset, symbolId);
+        cells.putShort(offset + 2, score);
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markClean() {
+        dirty = false;
+    }
+
+    /**
+     * Buffer di sola lettura sull'intero contenuto, usato per scrivere il chunk su disco.
+     */
+    public ByteBuffer contents() {
+        return cells.asReadOnlyBuffer().clear();
+    }
+
+    // Ripristina il contenuto letto dal file dei chunk
+    void restore(ByteBuffer source) {
+        cells.clear();
+        cells.put(source);
+        cells.clear();
+        dirty = false;
+    }
+
+    private static int offset(int localX, int localY) {
+        return (localY * CHUNK_SIZE + localX) * CELL_BYTES;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Lazy Initialization:
+ *   I chunk vengono generati solo quando un giocatore si avvicina, quindi i mondi molto grandi o infiniti
+ *   non vengono mai creati per intero.
+ *
+ * - Cache LRU con paging su disco:
+ *   I chunk caldi restano in una LinkedHashMap ordinata per accesso; quando la cache è piena il chunk
+ *   usato meno di recente viene copiato nel file mappato in memoria (ChunkStore) e ricaricato byte per byte
+ *   alla richiesta successiva.
+ *
+ * Motivo dell'utilizzo:
+ * - La memoria occupata dipende dall'area attiva attorno ai giocatori e non dalla dimensione totale della mappa.
+ */
+
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import factory.ItemFactory;
+import model.Item;
+
+public class ChunkManager implements Closeable {
+    public static final short EMPTY = 0;
+    private static final String WALL_SYMBOL = "🧱";
+    private static final double ITEM_DENSITY = 0.002; // Probabilità che una cella generata contenga un oggetto
+
+    // Palette condivisa simbolo <-> indice: i chunk memorizzano solo l'indice (2 byte per simbolo)
+    private static final List<String> PALETTE = new CopyOnWriteArrayList<>(List.of(" ", WALL_SYMBOL));
+    private static final Map<String, Short> PALETTE_INDEX = new ConcurrentHashMap<>(Map.of(" ", (short) 0, WALL_SYMBOL, (short) 1));
+
+    private final long seed;
+    private final int groundLevel;
+    private final boolean offHeap;
+    private final ChunkStore store;
+    private final LinkedHashMap<Long, Chunk> cache;
+    private int generatedChunks;
+
+    /**
+     * @param groundLevel prima riga di terreno: le celle con y >= groundLevel sono muri
+     * @param maxLoadedChunks numero massimo di chunk tenuti in memoria
+     */
+    public ChunkManager(long seed, int groundLevel, int maxLoadedChunks, boolean offHeap, Path chunkFile) {
+        this.seed = seed;
+        this.groundLevel = groundLevel;
+        this.offHeap = offHeap;
+        this.store = new ChunkStore(chunkFile);
+        // LinkedHashMap in ordine di accesso: l'elemento più vecchio è il meno usato di recente
+        this.cache = new LinkedHashMap<>(maxLoadedChunks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() <= maxLoadedChunks) {
+                    return false;
+                }
+                evict(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Restituisce il chunk, ricaricandolo dal file se era stato espulso o generandolo se non esiste ancora.
+     */
+    public synchronized Chunk getChunk(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        Chunk chunk = cache.get(key);
+        if (chunk != null) {
+            return chunk;
+        }
+        chunk = new Chunk(chunkX, chunkY, offHeap);
+        if (!store.read(key, chunk)) {
+            generate(chunk);
+            generatedChunks++;
+        }
+        cache.put(key, chunk);
+        return chunk;
+    }
+
+    /**
+     * Carica i chunk entro radius chunk dalla cella (x, y), tipicamente la posizione di un giocatore.
+     */
+    public synchronized void ensureLoadedAround(int x, int y, int radius) {
+        int centerX = Math.floorDiv(x, Chunk.CHUNK_SIZE);
+        int centerY = Math.floorDiv(y, Chunk.CHUNK_SIZE);
+        for (int cy = centerY - radius; cy <= centerY + radius; cy++) {
+            for (int cx = centerX - radius; cx <= centerX + radius; cx++) {
+                getChunk(cx, cy);
+            }
+        }
+    }
+
+    public synchronized String getSymbol(int x, int y) {
+        Chunk chunk = chunkFor(x, y);
+        return PALETTE.get(chunk.getSymbolId(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE)));
+    }
+
+    public synchronized int getScore(int x, int y) {
+        Chunk chunk = chunkFor(x, y);
+        return chunk.getScore(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE));
+    }
+
+    public synchronized boolean isCellEmpty(int x, int y) {
+        Chunk chunk = chunkFor(x, y);
+        return chunk.getSymbolId(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE)) == EMPTY;
+    }
+
+    public synchronized void setCell(int x, int y, String symbol, int score) {
+        chunkFor(x, y).setCell(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE),
+                symbolId(symbol), (short) score);
+    }
+
+    public synchronized void clearCell(int x, int y) {
+        chunkFor(x, y).setCell(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE), EMPTY, (short) 0);
+    }
+
+    /**
+     * Disegna le celle non vuote dei chunk nel viewport; (originX, originY) è la cella del mondo in viewport[0][0].
+     */
+    public synchronized void render(String[][] viewport, int originX, int originY) {
+        for (int vy = 0; vy < viewport.length; vy++) {
+            for (int vx = 0; vx < viewport[vy].length; vx++) {
+                int x = originX + vx;
+                int y = originY + vy;
+                short id = chunkFor(x, y).getSymbolId(Math.floorMod(x, Chunk.CHUNK_SIZE), Math.floorMod(y, Chunk.CHUNK_SIZE));
+                if (id != EMPTY) {
+                    viewport[vy][vx] = PALETTE.get(id);
+                }
+            }
+        }
+    }
+
+    public synchronized int getLoadedChunkCount() {
+        return cache.size();
+    }
+
+    public synchronized int getGeneratedChunkCount() {
+        return generatedChunks;
+    }
+
+    public int getStoredChunkCount() {
+        return store.size();
+    }
+
+    private Chunk chunkFor(int x, int y) {
+        return getChunk(Math.floorDiv(x, Chunk.CHUNK_SIZE), Math.floorDiv(y, Chunk.CHUNK_SIZE));
+    }
+
+    // Solo i chunk modificati dopo l'ultimo salvataggio vengono riscritti nel file
+    private void evict(long key, Chunk chunk) {
+        if (chunk.isDirty() || !store.contains(key)) {
+            store.write(key, chunk.contents());
+            chunk.markClean();
+        }
+    }
+
+    /**
+     * Generazione deterministica: lo stesso seed e le stesse coordinate producono sempre lo stesso chunk.
+     */
+    private void generate(Chunk chunk) {
+        SplittableRandom random = new SplittableRandom(seed ^ chunkKey(chunk.getChunkX(), chunk.getChunkY()) * 0x9E3779B97F4A7C15L);
+        int baseX = chunk.getChunkX() * Chunk.CHUNK_SIZE;
+        int baseY = chunk.getChunkY() * Chunk.CHUNK_SIZE;
+        for (int ly = 0; ly < Chunk.CHUNK_SIZE; ly++) {
+            for (int lx = 0; lx < Chunk.CHUNK_SIZE; lx++) {
+                if (baseY + ly >= groundLevel) {
+                    chunk.setCell(lx, ly, (short) 1, (short) 0);
+                } else if (random.nextDouble() < ITEM_DENSITY) {
+                    Item item = ItemFactory.createRandomItem(baseX + lx, baseY + ly, random);
+                    chunk.setCell(lx, ly, symbolId(item.getSymbol()), (short) item.getScore());
+                }
+            }
+        }
+    }
+
+    private static short symbolId(String symbol) {
+        return PALETTE_INDEX.computeIfAbsent(symbol, s -> {
+            synchronized (PALETTE) {
+                PALETTE.add(s);
+                return (short) (PALETTE.size() - 1);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        store.close();
+    }
+}
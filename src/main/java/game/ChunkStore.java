@@ -0,0 +1,139 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import exception.EmojiCraftException;
+
+/**
+ * File di paging dei chunk mappato in memoria.
+ * Ogni chunk espulso riceve uno slot di dimensione fissa (Chunk.CHUNK_BYTES) che resta suo per tutta la vita
+ * del mondo; l'indice per chunk associa la chiave del chunk allo slot. Ogni mondo ha il proprio file
+ * (vedi newWorldFile), che contiene solo i suoi chunk freddi e viene cancellato alla chiusura.
+ * Una singola mappatura è limitata a 2 GiB, quindi il file è mappato a segmenti di al massimo 1 GiB:
+ * l'offset di uno slot nel file è un long, quello dentro il segmento resta un int.
+ */
+public class ChunkStore implements Closeable {
+    private static final int INITIAL_SLOTS = 64;
+    static final int SEGMENT_SLOTS = (1 << 30) / Chunk.CHUNK_BYTES; // Slot per segmento mappato (1 GiB)
+
+    private final FileChannel channel;
+    private final int segmentSlots;
+    private final Map<Long, Integer> index = new HashMap<>();
+    // Segmenti mappati in ordine di offset: tutti pieni tranne l'ultimo, che raddoppia fino a segmentSlots
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int lastSegmentSlots;
+
+    public ChunkStore(Path file) {
+        this(file, SEGMENT_SLOTS);
+    }
+
+    ChunkStore(Path file, int segmentSlots) {
+        this.segmentSlots = segmentSlots;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+            segments.add(map(0, Math.min(INITIAL_SLOTS, segmentSlots)));
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile aprire il file dei chunk: " + file, e);
+        }
+    }
+
+    /**
+     * Crea un file di paging riservato a un nuovo mondo, nella cartella del file configurato e con lo stesso nome
+     * come prefisso: mondi diversi (sessioni, riscaldamento, simulazioni) non condividono mai una mappatura.
+     */
+    public static Path newWorldFile(Path configured) {
+        Path absolute = configured.toAbsolutePath();
+        String name = absolute.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String prefix = (dot > 0 ? name.substring(0, dot) : name) + "-";
+        String suffix = dot > 0 ? name.substring(dot) : ".dat";
+        try {
+            return Files.createTempFile(absolute.getParent(), prefix, suffix);
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile creare il file dei chunk accanto a " + configured, e);
+        }
+    }
+
+    public synchronized boolean contains(long chunkKey) {
+        return index.containsKey(chunkKey);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Copia il contenuto del chunk nel suo slot, allocandone uno nuovo alla prima espulsione.
+     */
+    public synchronized void write(long chunkKey, ByteBuffer contents) {
+        Integer slot = index.get(chunkKey);
+        if (slot == null) {
+            slot = index.size();
+            ensureCapacity(slot);
+            index.put(chunkKey, slot);
+        }
+        ByteBuffer target = slotBuffer(slot);
+        target.put(contents.duplicate());
+    }
+
+    /**
+     * Ripristina nel chunk i byte salvati; restituisce false se il chunk non è mai stato espulso.
+     */
+    public synchronized boolean read(long chunkKey, Chunk chunk) {
+        Integer slot = index.get(chunkKey);
+        if (slot == null) {
+            return false;
+        }
+        chunk.restore(slotBuffer(slot));
+        return true;
+    }
+
+    // Vista dello slot dentro il proprio segmento: posizione e limite sempre entro 1 GiB
+    private ByteBuffer slotBuffer(int slot) {
+        int offset = (slot % segmentSlots) * Chunk.CHUNK_BYTES;
+        ByteBuffer buffer = segments.get(slot / segmentSlots).duplicate();
+        buffer.position(offset).limit(offset + Chunk.CHUNK_BYTES);
+        return buffer;
+    }
+
+    // Gli slot sono assegnati in sequenza: l'ultimo segmento raddoppia finché non è pieno,
+    // poi se ne mappa uno nuovo all'offset (long) successivo
+    private void ensureCapacity(int slot) {
+        int segment = slot / segmentSlots;
+        if (segment == segments.size()) {
+            segments.add(map(segment, Math.min(INITIAL_SLOTS, segmentSlots)));
+        } else if (slot % segmentSlots >= lastSegmentSlots) {
+            segments.set(segment, map(segment, Math.min(lastSegmentSlots * 2, segmentSlots)));
+        }
+    }
+
+    private MappedByteBuffer map(int segment, int slots) {
+        long position = (long) segment * segmentSlots * Chunk.CHUNK_BYTES;
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    (long) slots * Chunk.CHUNK_BYTES);
+            lastSegmentSlots = slots;
+            return mapped;
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile estendere il file dei chunk", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // Il file viene cancellato alla chiusura: nessun force, i chunk freddi non servono oltre la vita del mondo
+        channel.close();
+    }
+}
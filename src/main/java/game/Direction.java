@@ -0,0 +1,79 @@
+package game;
+
+/**
+ * Direzioni di movimento del giocatore.
+ * La conversione da carattere usa una tabella precalcolata: nessuna regex, nessuna stringa temporanea
+ * e nessuna allocazione nel percorso di /move.
+ */
+public enum Direction {
+    W(0, -1, "🤸🏻‍♂️", ReplayRecorder.MOVE_W),
+    A(-1, 0, "🚶🏻‍♂️", ReplayRecorder.MOVE_A),
+    S(0, 1, "🧎🏻‍♂️‍➡️", ReplayRecorder.MOVE_S),
+    D(1, 0, "🚶🏻‍♂️‍➡️", ReplayRecorder.MOVE_D);
+
+    // Tabella indicizzata per carattere ASCII (maiuscole e minuscole); null = direzione non valida
+    private static final Direction[] BY_CHAR = new Direction[128];
+    // Copia unica di values(): values() crea un nuovo array a ogni chiamata
+    private static final Direction[] VALUES = values();
+
+    static {
+        for (Direction direction : VALUES) {
+            char letter = direction.name().charAt(0);
+            BY_CHAR[letter] = direction;
+            BY_CHAR[Character.toLowerCase(letter)] = direction;
+        }
+    }
+
+    private final int dx;
+    private final int dy;
+    private final String emoji;
+    private final int replayType;
+
+    Direction(int dx, int dy, String emoji, int replayType) {
+        this.dx = dx;
+        this.dy = dy;
+        this.emoji = emoji;
+        this.replayType = replayType;
+    }
+
+    /**
+     * @return la direzione corrispondente al carattere, oppure null se non è una di W, A, S, D
+     */
+    public static Direction fromChar(char c) {
+        return c < BY_CHAR.length ? BY_CHAR[c] : null;
+    }
+
+    /**
+     * @return la direzione indicata da una stringa di un solo carattere, oppure null se non valida
+     */
+    public static Direction parse(String value) {
+        return value != null && value.length() == 1 ? fromChar(value.charAt(0)) : null;
+    }
+
+    /**
+     * Direzione per indice (0 = W, 1 = A, 2 = S, 3 = D), nello stesso ordine dei tipi di input del replay.
+     */
+    public static Direction byIndex(int index) {
+        return VALUES[index];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public int getDx() {
+        return dx;
+    }
+
+    public int getDy() {
+        return dy;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public int getReplayType() {
+        return replayType;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Lifecycle/Owner Pattern:
+ *   GameEngine possiede tutti i thread di un mondo (fisica e timer della partita): nessun altro componente
+ *   crea thread di gioco, quindi nessun thread può restare orfano.
+ *
+ * - Thread Pattern:
+ *   Fisica e timer restano in thread dedicati, ma avvio, arresto e riavvio sono idempotenti e interrompibili:
+ *   riavviare una partita sostituisce il timer invece di aggiungerne un altro, e la fisica non viene mai duplicata.
+ *
+ * Motivo dell'utilizzo:
+ * - Un server in esecuzione da giorni mantiene un numero di thread e un profilo di CPU costanti,
+ *   qualunque sia il numero di /start e /restart ricevuti.
+ */
+
+package game;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import event.EventConsumer;
+import event.EventHandler;
+import event.GameEventType;
+import util.GameUtils;
+import util.LoggerUtil;
+
+public class GameEngine {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final long JOIN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    private final String name;
+    private final GameWorld gameWorld;
+    private final Player player;
+    private final AtomicBoolean gameActive;
+    // Thread posseduti dal motore (accesso solo nei metodi synchronized)
+    private GamePhysics physics;
+    private Thread physicsThread;
+    private Thread timerThread;
+    private final AtomicLong startedWorkers = new AtomicLong();
+    // Consumatori degli eventi del mondo, ciascuno con il proprio thread
+    private final List<EventConsumer> consumers = new CopyOnWriteArrayList<>();
+
+    public GameEngine(String name, GameWorld gameWorld, Player player, AtomicBoolean gameActive) {
+        this.name = name;
+        this.gameWorld = gameWorld;
+        this.player = player;
+        this.gameActive = gameActive;
+        gameWorld.setWorldId(name); // Il nome del motore identifica il mondo negli eventi JFR
+    }
+
+    /**
+     * Avvia il thread della fisica se non è già in esecuzione (chiamate ripetute non hanno effetto).
+     */
+    public synchronized void startPhysics() {
+        if (physicsThread != null && physicsThread.isAlive()) {
+            return;
+        }
+        physics = new GamePhysics(gameWorld, player);
+        gameWorld.setPhysics(physics); // Le mosse riutilizzano questo handle
+        physicsThread = startWorker("physics", physics);
+    }
+
+    /**
+     * Avvia il timer di una nuova partita, sostituendo quello in corso: il timer precedente viene interrotto
+     * e atteso prima di attivare la nuova partita. onGameEnd viene eseguito una volta per ogni timer,
+     * sia alla scadenza sia quando viene sostituito o fermato.
+     */
+    public synchronized void startTimer(int durationInSeconds, Runnable onGameEnd) {
+        stopTimer();
+        gameActive.set(true);
+        gameWorld.publishEvent(GameEventType.GAME_STARTED, player.getX(), player.getY(), durationInSeconds, null);
+        timerThread = startWorker("timer", () -> GameUtils.runGameTimer(gameWorld, gameActive, durationInSeconds, () -> {
+            gameWorld.publishEvent(GameEventType.GAME_ENDED, player.getX(), player.getY(), gameWorld.getScore(), null);
+            onGameEnd.run();
+        }));
+    }
+
+    /**
+     * Avvia fisica e timer: usato all'avvio del server e a ogni /restart.
+     */
+    public synchronized void restart(int durationInSeconds, Runnable onGameEnd) {
+        startPhysics();
+        startTimer(durationInSeconds, onGameEnd);
+    }
+
+    /**
+     * Registra un consumatore degli eventi del mondo e ne avvia il thread; viene fermato insieme al motore.
+     */
+    public EventConsumer subscribe(String consumerName, EventHandler handler) {
+        EventConsumer consumer = new EventConsumer(consumerName + "-" + name, gameWorld.getEvents(), handler);
+        consumers.add(consumer);
+        return consumer.start();
+    }
+
+    public List<EventConsumer> getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * Interrompe il timer in corso, se presente, e ne attende la fine.
+     */
+    public synchronized void stopTimer() {
+        if (timerThread != null) {
+            timerThread.interrupt();
+            join(timerThread);
+            timerThread = null;
+        }
+    }
+
+    /**
+     * Ferma tutti i thread del motore e rilascia le risorse del mondo, che da qui in poi viene scartato
+     * (chiamate ripetute non hanno effetto).
+     */
+    public synchronized void stop() {
+        stopTimer();
+        if (physicsThread != null) {
+            physics.stop();
+            physicsThread.interrupt();
+            join(physicsThread);
+            physicsThread = null;
+        }
+        consumers.forEach(EventConsumer::close);
+        consumers.clear();
+        gameWorld.dispose();
+    }
+
+    public synchronized boolean isPhysicsRunning() {
+        return physicsThread != null && physicsThread.isAlive();
+    }
+
+    public synchronized boolean isTimerRunning() {
+        return timerThread != null && timerThread.isAlive();
+    }
+
+    /**
+     * Thread del motore attualmente vivi (al massimo 2: fisica e timer).
+     */
+    public synchronized int getLiveWorkers() {
+        return (isPhysicsRunning() ? 1 : 0) + (isTimerRunning() ? 1 : 0);
+    }
+
+    /**
+     * Thread avviati dall'inizio: cresce a ogni riavvio, mentre i thread vivi restano costanti.
+     */
+    public long getStartedWorkers() {
+        return startedWorkers.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private Thread startWorker(String role, Runnable task) {
+        Thread thread = new Thread(task, role + "-" + name + "-" + startedWorkers.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void join(Thread thread) {
+        try {
+            thread.join(JOIN_TIMEOUT_MILLIS);
+            if (thread.isAlive()) {
+                logger.warning("Il thread " + thread.getName() + " non si è fermato entro il timeout.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -18,6 +18,9 @@ package game;
 
 import java.util.logging.Logger;
 
+import jfr.TickEvent;
+import util.GameClock;
+import util.GameConsole;
 import util.LoggerUtil;
 import util.GameSettings;
 
@@ -26,16 +29,19 @@ public class GamePhysics implements Runnable {
     private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
     private final GameWorld gameWorld;
     private final Player player;
-    private boolean running = true;
+    private volatile boolean running = true; // Letto dal thread della fisica, scritto da chi lo ferma
     private long lastGroundTime = 0;
     private static final long GROUND_THRESHOLD = 1000; // Millisecondi
     private volatile boolean manualMovement = false; // Meccanismo di blocco per movimento manuale
-    // Singleton Pattern: Configurazione globale della fisica
-    private static final long PHYSICS_INTERVAL = GameSettings.getInstance().getPhysicsStrength(); // Forza fisica
+
+    // Strategy Pattern: l'orologio del mondo scandisce il ritmo della fisica
+    private final GameClock clock;
+    private long tickCount = 0;
 
     public GamePhysics(GameWorld gameWorld, Player player) {
         this.gameWorld = gameWorld;
         this.player = player;
+        this.clock = gameWorld.getClock();
     }
 
     /**
@@ -43,24 +49,68 @@ public class GamePhysics implements Runnable {
      */
     @Override
     public void run() {
-        System.out.println("Thread della fisica avviato.");
+        GameConsole.println("Thread della fisica avviato.");
         while (running) {
             try {
-                Thread.sleep(PHYSICS_INTERVAL); // Usa l'intervallo configurato
-                applyGravity();
-                gameWorld.updateItems(); // Aggiorna gli oggetti scaduti
+                long interval = getInterval(); // Intervallo riletto a ogni tick: segue il ricaricamento a caldo
+                long deadline = clock.millis() + interval;
+                clock.sleep(interval);
+                tick();
+                // Ritardo rispetto alla scadenza: cresce quando l'host è saturo (sleep in ritardo o tick lenti)
+                gameWorld.recordTickLag(clock.millis() - deadline);
             } catch (InterruptedException e) {
+                // Interruzione = richiesta di arresto: uscire dal ciclo invece di riprovare con il flag ancora attivo
                 Thread.currentThread().interrupt();
                 System.err.println("Thread della fisica interrotto: " + e.getMessage());
+                running = false;
             }
         }
     }
 
+    /**
+     * Esegue un singolo passo della fisica: gravità e scadenza degli oggetti.
+     * Il ciclo run() lo chiama ogni getInterval() millisecondi; le simulazioni headless lo chiamano direttamente.
+     */
+    public void tick() {
+        gameWorld.recordTick(); // Istante e impostazioni del tick nel replay, se attivo
+        TickEvent event = new TickEvent();
+        event.begin();
+        applyGravity();
+        gameWorld.updateItems(); // Aggiorna gli oggetti scaduti
+        gameWorld.advanceTick();
+        tickCount++;
+        if (event.shouldCommit()) {
+            event.worldId = gameWorld.getWorldId();
+            event.tick = tickCount;
+            event.items = gameWorld.getActiveItemCount();
+            event.width = gameWorld.getWidth();
+            event.height = gameWorld.getHeight();
+            event.commit();
+        }
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Intervallo di fisica corrente del mondo, comprese le sovrascritture del singolo mondo
+     * e l'eventuale degrado deciso da OverloadController.
+     */
+    public long getInterval() {
+        return (long) gameWorld.getSettings().getPhysicsStrength() * gameWorld.getRateMultiplier();
+    }
+
+    // Singleton Pattern: intervallo globale corrente (senza sovrascritture)
+    public static long getPhysicsInterval() {
+        return GameSettings.getInstance().getPhysicsStrength();
+    }
+
     private void applyGravity() {
         try {
             if (manualMovement) {
                 // Salta il ciclo della fisica se il movimento manuale è in corso
-                System.out.println("Fisica in pausa per movimento manuale.");
+                GameConsole.println("Fisica in pausa per movimento manuale.");
                 return;
             }
 
@@ -70,12 +120,12 @@ public class GamePhysics implements Runnable {
             // Controlla se il giocatore può scendere di una posizione
             if (playerY + 1 < gameWorld.getHeight() - 2) {
                 player.move(0, 1, "🧍‍♂️"); // Sposta il giocatore di una posizione verso il basso
-                System.out.println("Il giocatore è sceso in posizione: X=" + player.getX() + ", Y=" + player.getY());
+                GameConsole.println("Il giocatore è sceso in posizione: X=" + player.getX() + ", Y=" + player.getY());
 
                 // Aggiungi controllo collisione dopo il movimento
                 boolean itemCollected = gameWorld.checkItemCollision(player);
                 if (itemCollected) {
-                    System.out.println("Oggetto raccolto tramite gravità!");
+                    GameConsole.println("Oggetto raccolto tramite gravità!");
                 }
             }
         } catch (Exception e) {
@@ -88,16 +138,16 @@ public class GamePhysics implements Runnable {
 
         // Controlla se il giocatore è fermo a terra
         if (playerY + 1 >= gameWorld.getHeight() || !gameWorld.isCellEmpty(player.getX(), playerY + 1)) {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = clock.millis();
             if (currentTime - lastGroundTime > GROUND_THRESHOLD) {
                 // Imposta l'animazione corretta per il giocatore fermo a terra
                 player.setEmoji("🧍🏻‍♂️"); // Usa un'emoji o un'animazione per il giocatore fermo
                 lastGroundTime = currentTime; // Aggiorna il tempo dell'ultimo movimento
-                System.out.println("Il giocatore è fermo a terra con animazione: 🧎");
+                GameConsole.println("Il giocatore è fermo a terra con animazione: 🧎");
             }
         } else {
             // Aggiorna il tempo dell'ultimo movimento se il giocatore non è fermo
-            lastGroundTime = System.currentTimeMillis();
+            lastGroundTime = clock.millis();
         }
     }
 
@@ -2,7 +2,9 @@ package game;
 
 import java.io.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
+import jfr.GameStateIoEvent;
 import model.Item;
 import util.LoggerUtil;
 import com.google.gson.Gson;
@@ -33,6 +35,9 @@ public class GameStateManager {
      * Permette di modificare la logica di salvataggio senza impattare il resto del sistema.
      */
     public static void saveGameStateDual(int playerX, int playerY, int score, String[][] grid, int timeRemaining) {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        boolean success = false;
         try {
             Gson gson = new GsonBuilder().setPrettyPrinting().create(); // Oggetto Gson per JSON leggibile
 
@@ -44,9 +49,12 @@ public class GameStateManager {
                 gson.toJson(gameState, writer); // Converte l'oggetto in JSON e lo salva
                 System.out.println("Game state salvato correttamente in game_state.json!");
             }
+            success = true;
         } catch (IOException e) {
             e.printStackTrace();
             System.err.println("Errore durante il salvataggio dello stato di gioco.");
+        } finally {
+            commit(event, "save", "json", "main", grid, success);
         }
     }
 
@@ -55,11 +63,17 @@ public class GameStateManager {
      * Serializza lo stato del gioco in formato JSON.
      */
     public static void saveGameStateToJson(GameState gameState) {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        boolean success = false;
         try (FileWriter writer = new FileWriter(SAVE_FILE_JSON)) {
             gson.toJson(gameState, writer); // Serializza in JSON
             System.out.println("Stato del gioco salvato correttamente in formato JSON.");
+            success = true;
         } catch (IOException e) {
             System.err.println("Errore durante il salvataggio in JSON: " + e.getMessage());
+        } finally {
+            commit(event, "save", "json", "main", gameState != null ? gameState.getGrid() : null, success);
         }
     }
 
@@ -68,13 +82,18 @@ public class GameStateManager {
      * Carica lo stato del gioco da file JSON.
      */
     public static GameState loadGameStateFromJson() {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        GameState gameState = null;
         try (FileReader reader = new FileReader("game_state.json")) {
             Gson gson = new Gson(); // Creazione di un oggetto Gson
-            GameState gameState = gson.fromJson(reader, GameState.class); // Converti il JSON in GameState
+            gameState = gson.fromJson(reader, GameState.class); // Converti il JSON in GameState
             System.out.println("Game state caricato correttamente da game_state.json!");
             return gameState; // Ritorna lo stato del gioco
         } catch (IOException e) {
             System.err.println("Errore durante il caricamento dello stato di gioco dal file JSON: " + e.getMessage());
+        } finally {
+            commit(event, "load", "json", "main", gameState != null ? gameState.getGrid() : null, gameState != null);
         }
         return null;
     }
@@ -84,12 +103,18 @@ public class GameStateManager {
      * Carica lo stato del gioco da file binario.
      */
     public static GameState loadGameState() {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        GameState gameState = null;
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(SAVE_FILE))) {
-            return (GameState) ois.readObject();
+            gameState = (GameState) ois.readObject();
+            return gameState;
         } catch (FileNotFoundException e) {
             System.out.println("Nessun file di salvataggio trovato. Avvio di una nuova partita.");
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Errore durante il caricamento dello stato del gioco: " + e.getMessage());
+        } finally {
+            commit(event, "load", "binary", "main", gameState != null ? gameState.getGrid() : null, gameState != null);
         }
         return null;
     }
@@ -120,4 +145,62 @@ public class GameStateManager {
         System.err.println("Errore: impossibile trovare uno stato del gioco valido.");
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Factory/Builder Pattern:
+     * Salva lo stato di una specifica sessione nell'archivio log-structured condiviso (SessionStore).
+     * Il salvataggio viene accodato e reso persistente dal prossimo group commit.
+     */
+    public static void saveGameStateDual(String sessionId, int playerX, int playerY, int score, String[][] grid, int timeRemaining) {
+        saveGameState(SessionStore.getInstance(), sessionId, new GameState(playerX, playerY, score, grid, timeRemaining));
+    }
+
+    /**
+     * Come saveGameStateDual, sull'archivio indicato; il future si completa dopo il group commit.
+     */
+    public static CompletableFuture<Void> saveGameState(SessionStore store, String sessionId, GameState gameState) {
+        // L'evento misura solo l'accodamento: la scrittura su disco avviene nel group commit di SessionStore
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        CompletableFuture<Void> saved = store.save(sessionId, gameState).exceptionally(e -> {
+            System.err.println("Errore durante il salvataggio della sessione " + sessionId + ": " + e.getMessage());
+            return null;
+        });
+        commit(event, "save", "session", sessionId, gameState.getGrid(), true);
+        return saved;
+    }
+
+    /**
+     * Factory/Builder Pattern:
+     * Carica lo stato di una sessione dall'archivio. Una sessione mai salvata restituisce null
+     * (nessun ricorso al salvataggio del mondo principale: una sessione nuova parte da zero).
+     */
+    public static GameState loadGameState(String sessionId) {
+        return loadGameState(SessionStore.getInstance(), sessionId);
+    }
+
+    public static GameState loadGameState(SessionStore store, String sessionId) {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        GameState gameState = store.load(sessionId);
+        commit(event, "load", "session", sessionId, gameState != null ? gameState.getGrid() : null, gameState != null);
+        if (gameState != null) {
+            System.out.println("Caricato lo stato della sessione " + sessionId + " dall'archivio delle sessioni.");
+        }
+        return gameState;
+    }
+
+    // Evento JFR del salvataggio o caricamento appena concluso (ignorato se JFR non registra)
+    private static void commit(GameStateIoEvent event, String operation, String format, String worldId,
+                               String[][] grid, boolean success) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.format = format;
+            event.worldId = worldId;
+            event.rows = grid != null ? grid.length : 0;
+            event.columns = grid != null && grid.length > 0 && grid[0] != null ? grid[0].length : 0;
+            event.success = success;
+            event.commit();
+        }
+    }
+}
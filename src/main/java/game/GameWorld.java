@@ -1,39 +1,124 @@
 package game;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
+import event.EventRing;
+import event.GameEventType;
+import exception.EmojiCraftException;
 import factory.ItemFactory;
+import jfr.CollisionEvent;
+import jfr.ItemSpawnEvent;
+import jfr.ItemSweepEvent;
 import factory.NegativeItemFactory;
 import map.ItemGroup;
 import map.MapComponent;
+import map.RegionNode;
 import model.Item;
 import model.Wall;
 import response.MoveResponse;
+import util.GameClock;
+import util.GameConsole;
 import util.GameSettings;
+import util.SettingsOverrides;
 
 public class GameWorld {
-    // Singleton Pattern: Utilizzo di GameSettings come configurazione globale condivisa
-    private static final util.GameSettings gameSettings = util.GameSettings.getInstance();
-    private static final long ITEM_LIFETIME = gameSettings.getSpawnItemInterval(); // Intervallo spawn item
-
-    private static final int WIDTH = 24;
-    private static final int HEIGHT = 10;
+    // Dimensioni del mondo, configurabili tramite GameSettings o costruttore
+    private final int width;
+    private final int height;
+    // Fork/Join Pattern: indice per regioni usato solo sulle mappe grandi (null sulle mappe piccole)
+    private final RegionPartition regions;
     private final ItemGroup items = new ItemGroup();
+    // Composite Pattern gerarchico: quadtree usato per le query e il rendering del viewport
+    private final RegionNode mapTree;
+    // Lazy Initialization: chunk generati attorno al giocatore e paginati su disco (null se disattivato)
+    private final ChunkManager chunks;
+    private static final int CHUNK_LOAD_RADIUS = 1;
+    // Lato massimo di una griglia renderizzata nel mondo a chunk: la griglia completa non viene mai allocata
+    public static final int MAX_CHUNKED_VIEW = 4 * Chunk.CHUNK_SIZE;
+    // Strategy Pattern: sorgente del tempo (reale o virtuale per le simulazioni headless)
+    private final GameClock clock;
+    // Generatore casuale del mondo: ogni mondo ha il proprio SplittableRandom, nessuna contesa tra mondi
+    private final long seed;
+    private final SplittableRandom random;
+    private final long createdMillis; // Istante di creazione: riferimento temporale del replay
+    private long tick = 0;
+    private ReplayRecorder replayRecorder;
+    // Observer Pattern: eventi di gioco per i consumatori esterni (metriche, persistenza, broadcast), senza allocazioni
+    private final EventRing events;
+    // Handle della fisica in esecuzione, riutilizzato da ogni mossa invece di crearne uno nuovo per richiesta
+    private volatile GamePhysics physics;
+    // Impostazioni del mondo: istantanea globale, sovrascritture e unione pubblicate insieme in un solo riferimento
+    private final AtomicReference<SettingsView> settingsView = new AtomicReference<>(SettingsView.GLOBAL);
+    // Controllo del sovraccarico: livello di degrado (ogni livello raddoppia gli intervalli), ritardo dei tick, ultimo input
+    private volatile int degradationLevel = 0;
+    private volatile long tickLagMillis = 0;
+    private volatile long lastInputMillis;
+    // Spettatori collegati (aggiornato da SpectatorHub): i mondi seguiti vengono degradati per ultimi
+    private volatile int spectatorCount;
+    // Identificativo del mondo negli eventi JFR (nome del motore: "main" o l'id della sessione)
+    private volatile String worldId = "main";
     private List<Item> itemList = new ArrayList<>();
     private int score = 0;
     private int recentScoreGained = 0;
     private boolean itemCollected = false;
-    // Thread-safe Collection Pattern: uso di ConcurrentHashMap per gestire i timer degli oggetti in modo sicuro tra thread
-    private final Map<Item, Long> itemTimers = new ConcurrentHashMap<>();
+    // Thread-safe Collection Pattern: mappa sincronizzata per gestire i timer degli oggetti in modo sicuro tra thread.
+    // LinkedHashMap mantiene l'ordine di spawn, quindi gli oggetti scadono sempre nello stesso ordine (partite riproducibili).
+    private final Map<Item, Long> itemTimers = Collections.synchronizedMap(new LinkedHashMap<>());
     private int timeRemaining;
     private int itemSpawnCounter = 0;
     private boolean gameActive = true;
     private boolean spawnNegativeNext = false;
     private static final int PLAYER_START_X = 5;
     private static final int PLAYER_START_Y = 3;
+    private static final String DEFAULT_PLAYER_EMOJI = "🧍‍♂️";
 
     public GameWorld() {
+        this(GameSettings.getInstance().getWorldWidth(), GameSettings.getInstance().getWorldHeight());
+    }
+
+    /**
+     * Crea un mondo con dimensioni personalizzate.
+     * Oltre la soglia parallelRegionThreshold il mondo viene diviso in regioni aggiornate in parallelo.
+     */
+    public GameWorld(int width, int height) {
+        this(width, height, GameClock.system());
+    }
+
+    /**
+     * Crea un mondo che legge il tempo dall'orologio indicato, ad esempio un VirtualClock per le simulazioni.
+     */
+    public GameWorld(int width, int height, GameClock clock) {
+        this(width, height, clock, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Crea un mondo riproducibile: lo stesso seed e gli stessi input producono la stessa partita.
+     */
+    public GameWorld(int width, int height, GameClock clock, long seed) {
+        if (width <= 0 || height <= 2) {
+            throw new EmojiCraftException("Dimensioni del mondo non valide: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.clock = clock;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.createdMillis = clock.millis();
+        this.lastInputMillis = createdMillis;
+        GameSettings gameSettings = GameSettings.getInstance();
+        this.events = new EventRing(gameSettings.getEventBufferSize());
+        this.regions = (long) width * height >= gameSettings.getParallelRegionThreshold()
+                ? new RegionPartition(width, height, gameSettings.getRegionSize())
+                : null;
+        this.mapTree = new RegionNode(0, 0, width, height);
+        this.chunks = gameSettings.isChunkedWorld()
+                ? new ChunkManager(seed, height - 2, gameSettings.getMaxLoadedChunks(),
+                        gameSettings.isOffHeapChunks(), ChunkStore.newWorldFile(Path.of(gameSettings.getChunkFile())))
+                : null;
         createGround();
         spawnNewItem();
     }
@@ -44,6 +129,10 @@ public class GameWorld {
     }
 
     public synchronized void setGameActive(boolean isActive) {
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder != null && gameActive != isActive) {
+            recorder.recordGameActive(isActive, tick, clock.millis()); // Fine e ripresa della partita nel replay
+        }
         this.gameActive = isActive;
     }
 
@@ -65,7 +154,58 @@ public class GameWorld {
     }
 
     public GameWorld(ItemGroup items) {
+        GameSettings gameSettings = GameSettings.getInstance();
+        this.width = gameSettings.getWorldWidth();
+        this.height = gameSettings.getWorldHeight();
+        this.regions = null;
+        this.clock = GameClock.system();
+        this.createdMillis = clock.millis();
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.random = new SplittableRandom(seed);
+        this.events = new EventRing(gameSettings.getEventBufferSize());
+        this.mapTree = new RegionNode(0, 0, width, height);
+        this.chunks = null;
         this.items.getComponents().addAll(items.getComponents());
+        this.items.getComponents().forEach(mapTree::add);
+    }
+
+    /**
+     * Applica in ordine una sequenza di mosse (es. "DDWA") tenendo il lock del mondo per l'intero lotto:
+     * scadenza degli oggetti e collisioni della fisica non si inseriscono tra una mossa e l'altra.
+     *
+     * @return true se almeno una mossa ha raccolto un oggetto
+     */
+    public boolean movePlayerBatch(Player player, String directions, GamePhysics gamePhysics) {
+        return movePlayerBatch(player, directions, null, gamePhysics);
+    }
+
+    /**
+     * Come movePlayerBatch, con il numero di sequenza del client per ogni mossa.
+     * Le mosse con sequenza già applicata (invii ripetuti) vengono ignorate, così il risultato dipende solo
+     * da posizione e input: il client può prevedere la mossa e riconciliarsi con l'ultima sequenza confermata.
+     */
+    public synchronized boolean movePlayerBatch(Player player, String directions, long[] sequences, GamePhysics gamePhysics) {
+        boolean collected = false;
+        for (int i = 0; i < directions.length(); i++) {
+            Direction direction = Direction.fromChar(directions.charAt(i));
+            collected |= sequences != null
+                    ? movePlayer(player, direction, sequences[i], gamePhysics)
+                    : movePlayer(player, direction, gamePhysics);
+        }
+        itemCollected = collected;
+        return collected;
+    }
+
+    /**
+     * Mossa singola con numero di sequenza del client: ignorata se la sequenza è già stata applicata.
+     */
+    public synchronized boolean movePlayer(Player player, Direction direction, long sequence, GamePhysics gamePhysics) {
+        if (sequence <= player.getLastSequence()) {
+            itemCollected = false;
+            return false;
+        }
+        player.setLastSequence(sequence);
+        return movePlayer(player, direction, gamePhysics);
     }
 
     /**
@@ -73,91 +213,146 @@ public class GameWorld {
      * nascondendo la complessità della gestione della fisica e delle collisioni.
      */
     public boolean movePlayer(Player player, String direction, GamePhysics gamePhysics) {
+        return movePlayer(player, Direction.parse(direction), gamePhysics);
+    }
+
+    /**
+     * Percorso senza allocazioni: direzione già convertita, handle di fisica riutilizzato
+     * e messaggi diagnostici costruiti solo se la console è attiva.
+     */
+    public boolean movePlayer(Player player, Direction direction, GamePhysics gamePhysics) {
         itemCollected = false;
+        if (direction != null) {
+            recordInput(direction.getReplayType());
+        }
 
         // Thread Pattern: Notifica che il movimento manuale è in corso
         gamePhysics.startManualMovement();
 
-        int newX = player.getX();
-        int newY = player.getY();
-
-        // Calcola la nuova posizione in base alla direzione
-        switch (direction) {
-            case "W" -> newY -= 1;
-            case "S" -> newY += 1;
-            case "A" -> newX -= 1;
-            case "D" -> newX += 1;
-        }
+        // Calcola la nuova posizione in base alla direzione (direzione non valida = nessuno spostamento)
+        int newX = player.getX() + (direction != null ? direction.getDx() : 0);
+        int newY = player.getY() + (direction != null ? direction.getDy() : 0);
 
         // Controlla se la nuova posizione è valida
-        if (newX >= 0 && newX < WIDTH && newY >= 0 && newY < HEIGHT - 2) {
-            player.move(newX - player.getX(), newY - player.getY(), directionToEmoji(direction));
+        if (newX >= 0 && newX < width && newY >= 0 && newY < height - 2) {
+            player.move(newX - player.getX(), newY - player.getY(), direction != null ? direction.getEmoji() : DEFAULT_PLAYER_EMOJI);
+            if (chunks != null) {
+                chunks.ensureLoadedAround(player.getX(), player.getY(), CHUNK_LOAD_RADIUS);
+            }
             itemCollected = checkItemCollision(player);
+            publishEvent(GameEventType.PLAYER_MOVED, player.getX(), player.getY(), score, player.getEmoji());
         } else {
-            System.out.println("Movimento non valido: il giocatore ha raggiunto il limite della griglia.");
+            GameConsole.println("Movimento non valido: il giocatore ha raggiunto il limite della griglia.");
         }
 
         // Thread Pattern: Fine del movimento manuale, riattiva la fisica
         gamePhysics.endManualMovement();
 
-        System.out.println("Posizione giocatore: X=" + player.getX() + ", Y=" + player.getY());
+        if (GameConsole.isEnabled()) {
+            GameConsole.println("Posizione giocatore: X=" + player.getX() + ", Y=" + player.getY());
+        }
         return itemCollected;
     }
 
-    // Metodo di supporto per ottenere l'emoji della direzione
-    private String directionToEmoji(String direction) {
-        return switch (direction) {
-            case "W" -> "🤸🏻‍♂️";
-            case "S" -> "🧎🏻‍♂️‍➡️";
-            case "A" -> "🚶🏻‍♂️";
-            case "D" -> "🚶🏻‍♂️‍➡️";
-            default -> "🧍‍♂️";
-        };
-    }
-
     /**
      * Facade Pattern: checkItemCollision incapsula la logica di raccolta oggetti e aggiornamento punteggio,
      * semplificando l'interazione con il mondo di gioco.
      */
     public synchronized boolean checkItemCollision(Player player) {
-        System.out.println("Controllo collisione per il giocatore in X=" + player.getX() + ", Y=" + player.getY());
-        System.out.println("Oggetti presenti nel mondo:");
-        items.getComponents().forEach(item -> {
-            System.out.println("- Oggetto: " + item.getSymbol() + ", X=" + item.getX() + ", Y=" + item.getY());
-        });
-
-        boolean collected = items.getComponents().removeIf(component -> {
-            if (component instanceof Item item && item.getX() == player.getX() && item.getY() == player.getY()) {
-                recentScoreGained = item.getScore();
-                score += recentScoreGained;
-                System.out.println("Oggetto raccolto: " + item.getSymbol());
-                return true;
+        // Evento JFR: begin/commit non allocano nulla oltre all'evento, che il JIT elimina se JFR non registra
+        CollisionEvent event = new CollisionEvent();
+        event.begin();
+        boolean collected = collide(player);
+        if (event.shouldCommit()) {
+            event.worldId = worldId;
+            event.playerX = player.getX();
+            event.playerY = player.getY();
+            event.collected = collected;
+            event.items = items.getComponents().size();
+            event.commit();
+        }
+        return collected;
+    }
+
+    private boolean collide(Player player) {
+        if (GameConsole.isEnabled()) {
+            GameConsole.println("Controllo collisione per il giocatore in X=" + player.getX() + ", Y=" + player.getY());
+        }
+        if (regions == null && GameConsole.isEnabled()) {
+            // Sulle mappe partizionate l'elenco completo sarebbe troppo lungo per la console
+            GameConsole.println("Oggetti presenti nel mondo:");
+            items.getComponents().forEach(item -> {
+                System.out.println("- Oggetto: " + item.getSymbol() + ", X=" + item.getX() + ", Y=" + item.getY());
+            });
+        }
+
+        boolean collected = false;
+        if (regions != null) {
+            // Mappe grandi: la collisione è una ricerca locale alla regione del giocatore
+            collected = regions.findAt(player.getX(), player.getY()) instanceof Item item && collectItem(item);
+        } else {
+            // Scansione per indice: nessuna lambda catturata né iteratore a ogni mossa
+            List<MapComponent> components = items.getComponents();
+            for (int i = 0; i < components.size(); i++) {
+                if (components.get(i) instanceof Item item && item.getX() == player.getX() && item.getY() == player.getY()) {
+                    components.remove(i);
+                    collected = scoreItem(item);
+                    break;
+                }
             }
-            return false;
-        });
+        }
 
         if (collected) {
             spawnNewItem();
+        } else if (chunks != null && !chunks.isCellEmpty(player.getX(), player.getY())) {
+            // Oggetto generato nel chunk: il punteggio è memorizzato direttamente nella cella
+            recentScoreGained = chunks.getScore(player.getX(), player.getY());
+            score += recentScoreGained;
+            publishEvent(GameEventType.ITEM_COLLECTED, player.getX(), player.getY(), recentScoreGained,
+                    chunks.getSymbol(player.getX(), player.getY()));
+            chunks.clearCell(player.getX(), player.getY());
+            collected = true;
         }
 
         return collected;
     }
 
+    private boolean collectItem(Item item) {
+        removeComponent(item);
+        return scoreItem(item);
+    }
+
+    private boolean scoreItem(Item item) {
+        mapTree.remove(item);
+        itemTimers.remove(item); // Un oggetto raccolto non deve più scadere (né essere sostituito una seconda volta)
+        recentScoreGained = item.getScore();
+        score += recentScoreGained;
+        publishEvent(GameEventType.ITEM_COLLECTED, item.getX(), item.getY(), recentScoreGained, item.getSymbol());
+        GameConsole.println("Oggetto raccolto: " + item.getSymbol());
+        return true;
+    }
+
     /**
      * DTO Pattern: getWorldState restituisce una rappresentazione compatta dello stato del mondo,
      * utile per il trasferimento tra componenti e per la serializzazione.
+     * Nel mondo a chunk la griglia è limitata all'area attorno al giocatore (getMaxViewWidth x getMaxViewHeight),
+     * con origine in getViewportOriginX/Y: la memoria dipende dall'area attiva e non dalla mappa.
      */
     public String[][] getWorldState(Player player) {
-        String[][] grid = new String[HEIGHT][WIDTH];
-        for (int y = 0; y < HEIGHT; y++) {
-            for (int x = 0; x < WIDTH; x++) {
+        if (chunks != null) {
+            return getWorldState(player, getViewportOriginX(player, getMaxViewWidth()),
+                    getViewportOriginY(player, getMaxViewHeight()), getMaxViewWidth(), getMaxViewHeight());
+        }
+        String[][] grid = new String[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
                 grid[y][x] = " ";
             }
         }
 
         items.render(grid);
 
-        if (player.getY() >= 0 && player.getY() < HEIGHT && player.getX() >= 0 && player.getX() < WIDTH) {
+        if (player.getY() >= 0 && player.getY() < height && player.getX() >= 0 && player.getX() < width) {
             grid[player.getY()][player.getX()] = player.getEmoji();
         } else {
             System.err.println("Errore: il giocatore è fuori dai limiti della griglia!");
@@ -166,6 +361,62 @@ public class GameWorld {
         return grid;
     }
 
+    /**
+     * DTO Pattern con culling: restituisce solo la porzione di mondo (x, y, w, h), renderizzata tramite il quadtree.
+     * Il viewport viene limitato ai confini del mondo; le celle visitate dipendono dall'area richiesta, non dalla mappa.
+     */
+    public synchronized String[][] getWorldState(Player player, int x, int y, int w, int h) {
+        int viewWidth = Math.max(1, Math.min(w, width));
+        int viewHeight = Math.max(1, Math.min(h, height));
+        int originX = clampOrigin(x, viewWidth, width);
+        int originY = clampOrigin(y, viewHeight, height);
+
+        String[][] viewport = new String[viewHeight][viewWidth];
+        for (String[] row : viewport) {
+            Arrays.fill(row, " ");
+        }
+        if (chunks != null) {
+            chunks.render(viewport, originX, originY);
+        }
+        mapTree.render(viewport, originX, originY);
+
+        int playerX = player.getX() - originX;
+        int playerY = player.getY() - originY;
+        if (playerX >= 0 && playerX < viewWidth && playerY >= 0 && playerY < viewHeight) {
+            viewport[playerY][playerX] = player.getEmoji();
+        }
+        return viewport;
+    }
+
+    // Origine del viewport centrato sul giocatore, già limitata ai confini del mondo
+    public int getViewportOriginX(Player player, int w) {
+        int viewWidth = Math.max(1, Math.min(w, width));
+        return clampOrigin(player.getX() - viewWidth / 2, viewWidth, width);
+    }
+
+    public int getViewportOriginY(Player player, int h) {
+        int viewHeight = Math.max(1, Math.min(h, height));
+        return clampOrigin(player.getY() - viewHeight / 2, viewHeight, height);
+    }
+
+    // Dimensioni massime di una griglia renderizzata: il mondo intero, oppure MAX_CHUNKED_VIEW nel mondo a chunk
+    public int getMaxViewWidth() {
+        return chunks != null ? Math.min(width, MAX_CHUNKED_VIEW) : width;
+    }
+
+    public int getMaxViewHeight() {
+        return chunks != null ? Math.min(height, MAX_CHUNKED_VIEW) : height;
+    }
+
+    public static int clampOrigin(int origin, int viewSize, int worldSize) {
+        return Math.max(0, Math.min(origin, worldSize - viewSize));
+    }
+
+    // Composite Pattern: query sul quadtree per i componenti in un'area
+    public synchronized List<MapComponent> queryArea(int x, int y, int w, int h) {
+        return mapTree.query(x, y, w, h);
+    }
+
     public int getScore() {
         return score;
     }
@@ -181,13 +432,17 @@ public class GameWorld {
     /**
      * Composite Pattern: createGround aggiunge oggetti Wall al gruppo di oggetti (ItemGroup),
      * permettendo di gestire oggetti multipli come un'unica entità.
+     * Nel mondo a chunk il terreno viene generato da ChunkManager insieme a ogni chunk, quindi qui non si crea nulla.
      */
     public void createGround() {
-        for (int y = HEIGHT - 2; y < HEIGHT; y++) {
-            for (int x = 0; x < WIDTH; x++) {
+        if (chunks != null) {
+            return;
+        }
+        for (int y = height - 2; y < height; y++) {
+            for (int x = 0; x < width; x++) {
                 Wall wall = new Wall(x, y);
-                items.add(wall);
-                System.out.println("Muro aggiunto in posizione X=" + x + ", Y=" + y);
+                addComponent(wall, -1);
+                GameConsole.println("Muro aggiunto in posizione X=" + x + ", Y=" + y);
             }
         }
     }
@@ -196,42 +451,313 @@ public class GameWorld {
         return new MoveResponse(player.getX(), player.getY(), score, itemCollected);
     }
 
+    public synchronized MoveResponse getMoveResponse(Player player, boolean itemCollected, long lastSequence) {
+        return new MoveResponse(player.getX(), player.getY(), score, itemCollected, lastSequence);
+    }
+
     public boolean isCellEmpty(int x, int y) {
+        // Oggetti e terreno generati nei chunk occupano la cella come gli oggetti del gruppo
+        if (chunks != null && !chunks.isCellEmpty(x, y)) {
+            return false;
+        }
+        if (regions != null) {
+            return regions.isCellEmpty(x, y);
+        }
         return items.getComponents().stream()
                 .noneMatch(component -> component.getX() == x && component.getY() == y);
     }
 
     public int getHeight() {
-        return HEIGHT;
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isChunked() {
+        return chunks != null;
+    }
+
+    public boolean isPartitioned() {
+        return regions != null;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Value Object Pattern: istantanea globale da cui è stata calcolata l'unione, sovrascritture e unione.
+     * I tre valori cambiano sempre insieme, quindi un lettore non vede mai un'unione di sovrascritture diverse.
+     */
+    private record SettingsView(GameSettings base, SettingsOverrides overrides, GameSettings merged) {
+        static final SettingsView GLOBAL = new SettingsView(null, null, null);
+    }
+
+    /**
+     * Impostazioni effettive del mondo: l'istantanea globale corrente con le sovrascritture del mondo.
+     * L'unione viene ricalcolata solo quando cambia l'istantanea globale o le sovrascritture; il CAS scarta
+     * un'unione calcolata su sovrascritture sostituite nel frattempo.
+     */
+    public GameSettings getSettings() {
+        GameSettings base = GameSettings.getInstance();
+        while (true) {
+            SettingsView view = settingsView.get();
+            if (view.overrides() == null) {
+                return base;
+            }
+            if (view.base() == base) {
+                return view.merged();
+            }
+            SettingsView updated = new SettingsView(base, view.overrides(), base.withOverrides(view.overrides()));
+            if (settingsView.compareAndSet(view, updated)) {
+                return updated.merged();
+            }
+        }
+    }
+
+    /**
+     * Imposta le sovrascritture del mondo (null per tornare ai valori globali); valgono dal tick successivo.
+     * Valori non validi vengono rifiutati con le stesse regole del ricaricamento delle impostazioni.
+     */
+    public void setSettingsOverrides(SettingsOverrides overrides) {
+        if (overrides == null) {
+            settingsView.set(SettingsView.GLOBAL);
+            return;
+        }
+        List<String> errors = GameSettings.validate(overrides);
+        if (!errors.isEmpty()) {
+            throw new EmojiCraftException("Sovrascritture non valide: " + String.join("; ", errors));
+        }
+        GameSettings base = GameSettings.getInstance();
+        settingsView.set(new SettingsView(base, overrides, base.withOverrides(overrides)));
+    }
+
+    public SettingsOverrides getSettingsOverrides() {
+        return settingsView.get().overrides();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    // Numero di tick di fisica eseguiti: è il riferimento temporale degli input registrati
+    public synchronized long getTick() {
+        return tick;
+    }
+
+    synchronized void advanceTick() {
+        tick++;
+    }
+
+    public GamePhysics getPhysics() {
+        return physics;
+    }
+
+    public void setPhysics(GamePhysics physics) {
+        this.physics = physics;
+    }
+
+    public void setReplayRecorder(ReplayRecorder replayRecorder) {
+        this.replayRecorder = replayRecorder;
+    }
+
+    /**
+     * Memento Pattern: registra un input (movimento, start, restart) con il tick e l'istante correnti.
+     */
+    public void recordInput(int type) {
+        lastInputMillis = clock.millis();
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder != null && type >= 0) {
+            recorder.record(type, getTick(), clock.millis());
+        }
+    }
+
+    /**
+     * Memento Pattern: registra l'istante del prossimo tick di fisica e le impostazioni che il tick leggerà.
+     */
+    void recordTick() {
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder != null) {
+            recorder.recordTick(getTick(), clock.millis(), getSettings(), degradationLevel);
+        }
+    }
+
+    /**
+     * Pubblica un evento di gioco nel ring buffer del mondo. Il monitor del mondo garantisce un solo produttore
+     * alla volta; la pubblicazione non alloca e non attende i consumatori.
+     */
+    public synchronized void publishEvent(GameEventType type, int x, int y, int value, String symbol) {
+        events.publish(type, tick, clock.millis(), x, y, value, symbol);
+    }
+
+    public EventRing getEvents() {
+        return events;
+    }
+
+    public String getWorldId() {
+        return worldId;
+    }
+
+    public void setWorldId(String worldId) {
+        this.worldId = worldId;
+    }
+
+    /**
+     * Numero di oggetti attivi, senza copiarne l'elenco (usato dagli eventi JFR).
+     */
+    public synchronized int getActiveItemCount() {
+        return items.getComponents().size();
+    }
+
+    public long getLastInputMillis() {
+        return lastInputMillis;
+    }
+
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    public void setSpectatorCount(int spectatorCount) {
+        this.spectatorCount = spectatorCount;
+    }
+
+    public int getDegradationLevel() {
+        return degradationLevel;
+    }
+
+    /**
+     * Imposta il livello di degrado deciso da OverloadController; vale dal tick successivo.
+     */
+    public void setDegradationLevel(int degradationLevel) {
+        this.degradationLevel = Math.max(0, degradationLevel);
+    }
+
+    /**
+     * Moltiplicatore degli intervalli di tick e di aggiornamento dei client (1 = velocità normale).
+     */
+    public int getRateMultiplier() {
+        return 1 << degradationLevel;
+    }
+
+    /**
+     * Intervallo di aggiornamento dei client e del rendering (ms): 1000 / gameUpdateFPS del mondo,
+     * moltiplicato dal livello di degrado sotto sovraccarico.
+     */
+    public int getUpdateIntervalMillis() {
+        return Math.max(1, 1000 / getSettings().getGameUpdateFPS()) * getRateMultiplier();
+    }
+
+    /**
+     * Registra il ritardo di un tick rispetto alla scadenza prevista (media mobile esponenziale).
+     * Scritto solo dal thread della fisica, letto da OverloadController.
+     */
+    public void recordTickLag(long lagMillis) {
+        tickLagMillis = (tickLagMillis * 3 + Math.max(0, lagMillis)) / 4;
+    }
+
+    public long getTickLagMillis() {
+        return tickLagMillis;
+    }
+
+    public ChunkManager getChunkManager() {
+        return chunks;
+    }
+
+    /**
+     * Rilascia le risorse esterne del mondo (file dei chunk e relativa mappatura) quando il mondo viene scartato.
+     * Chiamate ripetute non hanno effetto.
+     */
+    public synchronized void dispose() {
+        if (chunks != null) {
+            try {
+                chunks.close();
+            } catch (IOException e) {
+                System.err.println("Errore durante la chiusura del file dei chunk: " + e.getMessage());
+            }
+        }
+    }
+
+    // Composite Pattern: ogni componente passa da qui per restare allineato con l'indice per regioni
+    private void addComponent(MapComponent component, long creationTime) {
+        items.add(component);
+        mapTree.add(component);
+        if (regions != null) {
+            regions.add(component, creationTime);
+        }
+    }
+
+    private void removeComponent(MapComponent component) {
+        items.remove(component);
+        mapTree.remove(component);
+        if (regions != null) {
+            regions.remove(component);
+        }
     }
 
     /**
      * Thread-safe Collection Pattern: updateItems gestisce la rimozione e lo spawn degli oggetti
-     * in modo sicuro tra thread, grazie all'uso di ConcurrentHashMap.
+     * in modo sicuro tra thread, grazie alla mappa sincronizzata e al monitor di GameWorld.
      */
     public synchronized void updateItems() {
         if (!gameActive) {
             return;
         }
+        ItemSweepEvent event = new ItemSweepEvent();
+        event.begin();
+        int expired = sweepExpiredItems();
+        if (event.shouldCommit()) {
+            event.worldId = worldId;
+            event.items = items.getComponents().size();
+            event.expired = expired;
+            event.commit();
+        }
+    }
+
+    // Rimuove gli oggetti scaduti e ne crea i sostituti; restituisce il numero di oggetti scaduti
+    private int sweepExpiredItems() {
+        long currentTime = clock.millis();
+        long itemLifetime = getSettings().getSpawnItemInterval(); // Letto a ogni tick: segue il ricaricamento a caldo
+        if (regions != null) {
+            // Fork/Join Pattern: la scadenza viene calcolata in parallelo per regione
+            List<Item> expiredItems = regions.collectExpired(currentTime, itemLifetime);
+            for (Item item : expiredItems) {
+                items.remove(item);
+                mapTree.remove(item);
+                publishEvent(GameEventType.ITEM_EXPIRED, item.getX(), item.getY(), item.getScore(), item.getSymbol());
+                GameConsole.println("Oggetto scaduto rimosso: " + item.getSymbol());
+                spawnNewItem();
+            }
+            return expiredItems.size();
+        }
 
-        long currentTime = System.currentTimeMillis();
         Iterator<Map.Entry<Item, Long>> iterator = itemTimers.entrySet().iterator();
+        int expired = 0;
 
         while (iterator.hasNext()) {
             Map.Entry<Item, Long> entry = iterator.next();
             Item item = entry.getKey();
             long creationTime = entry.getValue();
 
-            if (currentTime - creationTime > ITEM_LIFETIME) {
-                items.remove(item);
+            if (currentTime - creationTime > itemLifetime) {
+                removeComponent(item);
                 iterator.remove();
-                System.out.println("Oggetto scaduto rimosso: " + item.getSymbol());
-
-                if (gameActive) {
-                    spawnNewItem();
-                }
+                publishEvent(GameEventType.ITEM_EXPIRED, item.getX(), item.getY(), item.getScore(), item.getSymbol());
+                GameConsole.println("Oggetto scaduto rimosso: " + item.getSymbol());
+                expired++;
             }
         }
+
+        // Gli oggetti sostitutivi vengono creati dopo la scansione, nello stesso ordine di scadenza
+        for (int i = 0; i < expired && gameActive; i++) {
+            spawnNewItem();
+        }
+        return expired;
     }
 
     /**
@@ -241,23 +767,40 @@ public class GameWorld {
     public synchronized void spawnNewItem() {
         if (!gameActive) return;
 
-        Random random = new Random();
+        ItemSpawnEvent event = new ItemSpawnEvent();
+        event.begin();
+        Item spawned = placeNewItem();
+        if (event.shouldCommit()) {
+            event.worldId = worldId;
+            event.x = spawned.getX();
+            event.y = spawned.getY();
+            event.items = items.getComponents().size();
+            event.commit();
+        }
+    }
+
+    private Item placeNewItem() {
         int x, y;
 
         do {
-            x = random.nextInt(WIDTH);
-            y = random.nextInt(HEIGHT - 2);
+            x = random.nextInt(width);
+            y = random.nextInt(height - 2);
         } while (!isCellEmpty(x, y));
 
         Item newItem = spawnNegativeNext
-            ? NegativeItemFactory.createRandomNegativeItem(x, y)
-            : ItemFactory.createRandomItem(x, y);
+            ? NegativeItemFactory.createRandomNegativeItem(x, y, random)
+            : ItemFactory.createRandomItem(x, y, random);
 
         spawnNegativeNext = !spawnNegativeNext;
 
-        items.add(newItem);
-        itemTimers.put(newItem, System.currentTimeMillis());
-        System.out.println("Oggetto registrato: " + newItem.getSymbol() + " in posizione X=" + x + ", Y=" + y);
+        long creationTime = clock.millis();
+        addComponent(newItem, creationTime);
+        if (regions == null) {
+            itemTimers.put(newItem, creationTime);
+        }
+        publishEvent(GameEventType.ITEM_SPAWNED, x, y, newItem.getScore(), newItem.getSymbol());
+        GameConsole.println("Oggetto registrato: " + newItem.getSymbol() + " in posizione X=" + x + ", Y=" + y);
+        return newItem;
     }
 
     /**
@@ -271,7 +814,7 @@ public class GameWorld {
 
             if (x >= 0 && x < grid[0].length && y >= 0 && y < grid.length) {
                 grid[y][x] = component.getSymbol();
-                System.out.println("Render Oggetto: " + component.getSymbol() + " in posizione X=" + x + ", Y=" + y);
+                GameConsole.println("Render Oggetto: " + component.getSymbol() + " in posizione X=" + x + ", Y=" + y);
             } else {
                 System.err.println("Errore: componente fuori dai limiti! X=" + x + ", Y=" + y);
             }
@@ -291,12 +834,72 @@ public class GameWorld {
                 getWorldState(player),
                 timeRemaining
             );
-            System.out.println("Stato del gioco salvato correttamente.");
+            GameConsole.println("Stato del gioco salvato correttamente.");
         } catch (Exception e) {
             System.err.println("Errore durante il salvataggio dello stato del gioco: " + e.getMessage());
         }
     }
 
+    /**
+     * Memento Pattern: oggetti attivi con il loro punteggio, per trasferire una sessione a un altro processo.
+     */
+    public synchronized List<Item> getActiveItems() {
+        List<Item> active = new ArrayList<>();
+        for (MapComponent component : items.getComponents()) {
+            if (component instanceof Item item) {
+                active.add(item);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Memento Pattern: ripristina una sessione trasferita (giocatore, punteggio, tempo e oggetti attivi).
+     * A differenza di loadGame gli oggetti mantengono simbolo e punteggio; la loro durata riparte da adesso.
+     */
+    public synchronized void restoreSession(GameState gameState, List<Item> activeItems, Player player) {
+        items.getComponents().clear();
+        itemTimers.clear();
+        mapTree.clear();
+        if (regions != null) {
+            regions.clear();
+        }
+        createGround();
+        long now = clock.millis();
+        for (Item item : activeItems) {
+            addComponent(item, now);
+            if (regions == null) {
+                itemTimers.put(item, now);
+            }
+        }
+        score = gameState.getScore();
+        timeRemaining = gameState.getTimeRemaining();
+        player.setPosition(gameState.getPlayerX(), gameState.getPlayerY());
+    }
+
+    /**
+     * Memento Pattern: ripristina una sessione salvata in SessionStore. Gli oggetti vengono ricreati dai simboli
+     * della griglia salvata quando copre il mondo intero; altrimenti (mondo a chunk) si riparte con un oggetto nuovo.
+     */
+    public synchronized void restoreSession(GameState gameState, Player player) {
+        List<Item> activeItems = new ArrayList<>();
+        String[][] grid = gameState.getGrid();
+        if (grid != null && grid.length == height && grid[0].length == width) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    Item item = ItemFactory.createFromSymbol(x, y, grid[y][x]);
+                    if (item != null) {
+                        activeItems.add(item);
+                    }
+                }
+            }
+        }
+        restoreSession(gameState, activeItems, player);
+        if (activeItems.isEmpty()) {
+            spawnNewItem();
+        }
+    }
+
     /**
      * Facade Pattern: loadGame incapsula la logica di caricamento dello stato del gioco,
      * semplificando l'interazione con GameStateManager.
@@ -305,30 +908,8 @@ public class GameWorld {
         try {
             GameState gameState = GameStateManager.loadGameState();
             if (gameState != null) {
-                player.move(gameState.getPlayerX() - player.getX(), gameState.getPlayerY() - player.getY(), "🧍");
-                score = gameState.getScore();
-                timeRemaining = gameState.getTimeRemaining();
-                items.getComponents().clear();
-
-                String[][] loadedGrid = gameState.getGrid();
-
-                if (loadedGrid != null) {
-                    for (int y = 0; y < loadedGrid.length; y++) {
-                        for (int x = 0; x < loadedGrid[0].length; x++) {
-                            String symbol = loadedGrid[y][x];
-                            if (symbol != null && !symbol.equals(" ")) {
-                                MapComponent mapComponent = new Wall(x,y);
-                                if (mapComponent != null) {
-                                    items.add(mapComponent);
-                                }
-                            }
-                        }
-                    }
-                } else {
-                    System.err.println("Attenzione: non è stata trovata alcuna griglia salvata!");
-                }
-
-                System.out.println("Stato del gioco caricato con successo.");
+                applyLoadedState(gameState, player);
+                GameConsole.println("Stato del gioco caricato con successo.");
             } else {
                 System.err.println("Errore: impossibile caricare lo stato del gioco!");
             }
@@ -337,6 +918,46 @@ public class GameWorld {
         }
     }
 
+    /**
+     * Applica uno stato caricato da disco; viene registrato nel replay perché non deriva dal seed.
+     * ReplayRunner lo riapplica con lo stesso metodo.
+     */
+    void applyLoadedState(GameState gameState, Player player) {
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder != null) {
+            recorder.recordLoad(gameState, getTick(), clock.millis());
+        }
+        player.move(gameState.getPlayerX() - player.getX(), gameState.getPlayerY() - player.getY(), "🧍");
+        score = gameState.getScore();
+        timeRemaining = gameState.getTimeRemaining();
+        items.getComponents().clear();
+        mapTree.clear();
+        if (regions != null) {
+            regions.clear();
+        }
+
+        String[][] loadedGrid = gameState.getGrid();
+
+        if (chunks != null) {
+            // Mondo a chunk: il terreno si rigenera dai chunk, la griglia salvata è solo l'area del giocatore
+            GameConsole.println("Mondo a chunk: griglia salvata ignorata.");
+        } else if (loadedGrid != null) {
+            for (int y = 0; y < loadedGrid.length; y++) {
+                for (int x = 0; x < loadedGrid[0].length; x++) {
+                    String symbol = loadedGrid[y][x];
+                    if (symbol != null && !symbol.equals(" ")) {
+                        MapComponent mapComponent = new Wall(x,y);
+                        if (mapComponent != null) {
+                            addComponent(mapComponent, -1);
+                        }
+                    }
+                }
+            }
+        } else {
+            System.err.println("Attenzione: non è stata trovata alcuna griglia salvata!");
+        }
+    }
+
     /**
      * Hook Pattern: registerShutdownHook registra un hook per salvare automaticamente lo stato del gioco
      * alla chiusura dell'applicazione.
@@ -349,12 +970,12 @@ public class GameWorld {
 
     public static void validateOrInitializePlayer(GameWorld gameWorld, Player player) {
         if (!gameWorld.isValidPosition(player.getX(), player.getY())) {
-            System.out.println("Giocatore fuori dai confini. Reinserito nella posizione iniziale.");
+            GameConsole.println("Giocatore fuori dai confini. Reinserito nella posizione iniziale.");
             player.setPosition(5, 3);
         }
     }
     public boolean isValidPosition(int x, int y) {
-        return x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT - 2;
+        return x >= 0 && x < width && y >= 0 && y < height - 2;
     }
 
     /**
@@ -364,16 +985,21 @@ public class GameWorld {
      * migliorando la leggibilità e la manutenzione del codice.
      * Facade significa "facciata", indicando che questo metodo fornisce un'interfaccia semplice per operazioni complesse.
      */
-    public void resetGame() {
+    public synchronized void resetGame() {
+        this.gameActive = true; // Una partita nuova riparte anche se la precedente era conclusa
         this.items.getComponents().clear(); 
         this.itemTimers.clear();
+        this.mapTree.clear();
+        if (regions != null) {
+            regions.clear();
+        }
         this.score = 0;
         this.timeRemaining = 60;
         this.recentScoreGained = 0;
         this.itemCollected = false;
         createGround(); 
         spawnNewItem(); 
-        System.out.println("Gioco completamente ripristinato. Oggetti, timer e punteggio resettati.");
+        GameConsole.println("Gioco completamente ripristinato. Oggetti, timer e punteggio resettati.");
     }
 
     public ItemGroup getItemsGroup() {
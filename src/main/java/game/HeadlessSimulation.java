@@ -0,0 +1,91 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Strategy Pattern:
+ *   La simulazione sostituisce l'orologio reale con un VirtualClock: la stessa logica di GameWorld e GamePhysics
+ *   gira senza Thread.sleep, senza server HTTP e senza output su console.
+ *
+ * Motivo dell'utilizzo:
+ * - Permette di fare soak test delle modifiche al motore simulando partite complete.
+ * - Misura il throughput grezzo del motore in tick al secondo.
+ */
+
+package game;
+
+import java.util.SplittableRandom;
+
+import util.GameConsole;
+import util.GameSettings;
+import util.VirtualClock;
+
+public class HeadlessSimulation {
+    private static final double MOVE_PROBABILITY = 0.5; // Probabilità di un input del giocatore a ogni tick
+    private static final int PLAYER_START_X = 2;
+    private static final int PLAYER_START_Y = 5;
+
+    /**
+     * DTO Pattern: risultato aggregato di una serie di partite simulate.
+     */
+    public record Result(int games, long ticks, long moves, long totalScore, long elapsedNanos) {
+        public double ticksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticks * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Simula il numero indicato di partite complete, ognuna con il proprio orologio virtuale.
+     */
+    public static Result run(int games, int durationSeconds, int width, int height, long seed) {
+        boolean consoleWasEnabled = GameConsole.isEnabled();
+        GameConsole.setEnabled(false);
+        try {
+            SplittableRandom inputs = new SplittableRandom(seed);
+            long ticks = 0;
+            long moves = 0;
+            long totalScore = 0;
+            long start = System.nanoTime();
+            for (int game = 0; game < games; game++) {
+                VirtualClock clock = new VirtualClock();
+                // Anche il mondo deriva dal seed: stesso seed, stesse partite
+                GameWorld gameWorld = new GameWorld(width, height, clock, inputs.nextLong());
+                Player player = new Player(Math.min(PLAYER_START_X, width - 1), Math.min(PLAYER_START_Y, height - 3));
+                GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+
+                long interval = Math.max(1, gamePhysics.getInterval());
+                long gameTicks = durationSeconds * 1000L / interval;
+                for (long tick = 0; tick < gameTicks; tick++) {
+                    if (inputs.nextDouble() < MOVE_PROBABILITY) {
+                        gameWorld.movePlayer(player, Direction.byIndex(inputs.nextInt(Direction.count())), gamePhysics);
+                        moves++;
+                    }
+                    clock.advance(interval);
+                    gamePhysics.tick();
+                    gameWorld.setTimeRemaining((int) (durationSeconds - clock.millis() / 1000));
+                }
+                gameWorld.setGameActive(false);
+                gameWorld.dispose();
+                ticks += gameTicks;
+                totalScore += gameWorld.getScore();
+            }
+            return new Result(games, ticks, moves, totalScore, System.nanoTime() - start);
+        } finally {
+            GameConsole.setEnabled(consoleWasEnabled);
+        }
+    }
+
+    /**
+     * Uso: HeadlessSimulation [partite] [larghezza] [altezza] [seed]
+     */
+    public static void main(String[] args) {
+        GameSettings settings = GameSettings.getInstance();
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : settings.getWorldWidth();
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : settings.getWorldHeight();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        Result result = run(games, settings.getGameDurationInSeconds(), width, height, seed);
+        System.out.printf("Partite: %d, tick: %d, mosse: %d, punteggio medio: %.1f%n",
+                result.games(), result.ticks(), result.moves(), (double) result.totalScore() / result.games());
+        System.out.printf("Tempo: %.2f s, throughput: %.0f tick/s%n",
+                result.elapsedNanos() / 1e9, result.ticksPerSecond());
+    }
+}
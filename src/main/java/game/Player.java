@@ -4,6 +4,8 @@ public class Player {
     private int x;
     private int y;
     private String emoji = "🧍🏻‍♂️"; // Emoji predefinita
+    // Numero di sequenza dell'ultimo input del client applicato dal server (0 = nessuno)
+    private volatile long lastSequence = 0;
 
     /**
      * DTO Pattern: Data Transfer Object
@@ -44,6 +46,14 @@ public class Player {
         this.emoji = newEmoji; // Aggiorna l'emoji in base alla direzione
     }
 
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
     public void setPosition(int x, int y) {
 
         this.x = x;
@@ -0,0 +1,250 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Fork/Join (Divide et Impera):
+ *   Il mondo viene diviso in regioni di dimensione fissa che vengono aggiornate in parallelo
+ *   su un ForkJoinPool. Ogni regione lavora solo sui propri dati, quindi la fase parallela non richiede lock.
+ *
+ * - Two-Phase Tick:
+ *   Ogni tick è diviso in una fase parallela (calcolo per regione) e una fase sequenziale
+ *   (applicazione dei risultati in ordine di regione), così il risultato è deterministico
+ *   indipendentemente dal numero di core.
+ *
+ * Motivo dell'utilizzo:
+ * - Sulle mappe con centinaia di migliaia di celle scadenza e collisioni non devono scandire tutto il mondo
+ *   su un solo thread.
+ * - Le entità che attraversano il confine di una regione vengono passate alla regione di destinazione
+ *   solo nella fase sequenziale, sempre nello stesso ordine.
+ */
+
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import map.MapComponent;
+import model.Item;
+
+public class RegionPartition {
+    // Pool condiviso da tutti i mondi partizionati: un worker per core, thread daemon
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    // Sotto questa soglia di regioni un task non viene più suddiviso
+    private static final int SEQUENTIAL_REGIONS = 4;
+
+    private final int width;
+    private final int height;
+    private final int regionSize;
+    private final int columns;
+    private final Region[] regions;
+
+    public RegionPartition(int width, int height, int regionSize) {
+        this.width = width;
+        this.height = height;
+        this.regionSize = regionSize;
+        this.columns = (width + regionSize - 1) / regionSize;
+        int rows = (height + regionSize - 1) / regionSize;
+        this.regions = new Region[columns * rows];
+        for (int i = 0; i < regions.length; i++) {
+            int originX = (i % columns) * regionSize;
+            int originY = (i / columns) * regionSize;
+            regions[i] = new Region(originX, originY,
+                    Math.min(regionSize, width - originX), Math.min(regionSize, height - originY));
+        }
+    }
+
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    /**
+     * Registra un componente nella regione che contiene la sua cella.
+     * Se creationTime è maggiore o uguale a zero il componente è un oggetto con scadenza.
+     */
+    public void add(MapComponent component, long creationTime) {
+        Region region = regionAt(component.getX(), component.getY());
+        if (region == null) {
+            return;
+        }
+        region.cells.put(cellKey(component.getX(), component.getY()), component);
+        if (creationTime >= 0 && component instanceof Item item) {
+            region.timers.put(item, creationTime);
+        }
+    }
+
+    public void remove(MapComponent component) {
+        Region region = regionAt(component.getX(), component.getY());
+        if (region == null) {
+            return;
+        }
+        region.cells.remove(cellKey(component.getX(), component.getY()), component);
+        if (component instanceof Item item) {
+            region.timers.remove(item);
+        }
+    }
+
+    public void clear() {
+        for (Region region : regions) {
+            region.cells.clear();
+            region.timers.clear();
+            region.outbox.clear();
+            region.expired.clear();
+        }
+    }
+
+    /**
+     * Ricerca locale alla regione: costa O(1) invece di una scansione di tutti i componenti del mondo.
+     */
+    public MapComponent findAt(int x, int y) {
+        Region region = regionAt(x, y);
+        return region == null ? null : region.cells.get(cellKey(x, y));
+    }
+
+    public boolean isCellEmpty(int x, int y) {
+        return findAt(x, y) == null;
+    }
+
+    /**
+     * Tick a due fasi.
+     * Fase parallela: ogni regione individua gli oggetti scaduti e le entità uscite dai propri confini.
+     * Fase sequenziale: le entità uscite vengono consegnate alle regioni di destinazione e gli oggetti
+     * scaduti vengono restituiti, sempre in ordine di indice di regione.
+     */
+    public List<Item> collectExpired(long currentTime, long lifetime) {
+        POOL.invoke(new RegionTask(0, regions.length, currentTime, lifetime));
+
+        List<Item> expired = new ArrayList<>();
+        for (Region region : regions) {
+            for (MapComponent moved : region.outbox) {
+                Region target = regionAt(moved.getX(), moved.getY());
+                if (target == null) {
+                    continue; // Uscita dal mondo: l'entità viene scartata
+                }
+                target.cells.put(cellKey(moved.getX(), moved.getY()), moved);
+                Long creationTime = region.timers.remove(moved);
+                if (creationTime != null && moved instanceof Item item) {
+                    target.timers.put(item, creationTime);
+                }
+            }
+            region.outbox.clear();
+            expired.addAll(region.expired);
+            region.expired.clear();
+        }
+        return expired;
+    }
+
+    private Region regionAt(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return null;
+        }
+        return regions[(y / regionSize) * columns + (x / regionSize)];
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Fork/Join: divide l'intervallo di regioni finché non è abbastanza piccolo da essere elaborato direttamente.
+     */
+    private final class RegionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long currentTime;
+        private final long lifetime;
+
+        RegionTask(int from, int to, long currentTime, long lifetime) {
+            this.from = from;
+            this.to = to;
+            this.currentTime = currentTime;
+            this.lifetime = lifetime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_REGIONS) {
+                for (int i = from; i < to; i++) {
+                    regions[i].tick(currentTime, lifetime);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RegionTask(from, middle, currentTime, lifetime),
+                    new RegionTask(middle, to, currentTime, lifetime));
+        }
+    }
+
+    /**
+     * Una regione possiede le proprie celle e i propri timer; durante la fase parallela
+     * viene modificata solo dal worker che la sta elaborando.
+     */
+    private static final class Region {
+        private final int originX;
+        private final int originY;
+        private final int regionWidth;
+        private final int regionHeight;
+        private final Map<Long, MapComponent> cells = new HashMap<>();
+        // LinkedHashMap: l'ordine di inserimento rende deterministico l'ordine degli oggetti scaduti
+        private final Map<Item, Long> timers = new LinkedHashMap<>();
+        // LinkedHashSet: consegna in ordine deterministico e verifica O(1) durante la scansione dei timer
+        private final Set<MapComponent> outbox = new LinkedHashSet<>();
+        private final List<Item> expired = new ArrayList<>();
+
+        Region(int originX, int originY, int regionWidth, int regionHeight) {
+            this.originX = originX;
+            this.originY = originY;
+            this.regionWidth = regionWidth;
+            this.regionHeight = regionHeight;
+        }
+
+        void tick(long currentTime, long lifetime) {
+            Iterator<Map.Entry<Long, MapComponent>> cellIterator = cells.entrySet().iterator();
+            List<MapComponent> rekeyed = null;
+            while (cellIterator.hasNext()) {
+                Map.Entry<Long, MapComponent> entry = cellIterator.next();
+                MapComponent component = entry.getValue();
+                if (entry.getKey() == cellKey(component.getX(), component.getY())) {
+                    continue;
+                }
+                // Il componente si è spostato: lo si rimuove dalla vecchia cella
+                cellIterator.remove();
+                if (contains(component.getX(), component.getY())) {
+                    if (rekeyed == null) {
+                        rekeyed = new ArrayList<>();
+                    }
+                    rekeyed.add(component);
+                } else {
+                    outbox.add(component);
+                }
+            }
+            if (rekeyed != null) {
+                for (MapComponent component : rekeyed) {
+                    cells.put(cellKey(component.getX(), component.getY()), component);
+                }
+            }
+
+            Iterator<Map.Entry<Item, Long>> timerIterator = timers.entrySet().iterator();
+            while (timerIterator.hasNext()) {
+                Map.Entry<Item, Long> entry = timerIterator.next();
+                Item item = entry.getKey();
+                if (currentTime - entry.getValue() > lifetime && !outbox.contains(item)) {
+                    timerIterator.remove();
+                    cells.remove(cellKey(item.getX(), item.getY()), item);
+                    expired.add(item);
+                }
+            }
+        }
+
+        private boolean contains(int x, int y) {
+            return x >= originX && x < originX + regionWidth && y >= originY && y < originY + regionHeight;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Memento Pattern:
+ *   Il seed del mondo più la sequenza ordinata degli input è sufficiente a ricostruire l'intera partita,
+ *   quindi il file di replay è un memento compatto dello stato invece di una serie di snapshot.
+ *
+ * Formato del file (binario, compatto):
+ *   header: magic "ECRP", versione, seed, larghezza, altezza, posizione iniziale del giocatore
+ *   record: tipo (1 byte), delta di tick e delta di millisecondi dal record precedente (varint), eventuale payload
+ *
+ * Oltre agli input vengono registrati tutti i fattori esterni che la sola sequenza di input non fissa:
+ * l'istante di ogni tick di fisica (l'intervallo reale cambia con il degrado e con il ricaricamento a caldo),
+ * le impostazioni che il tick legge, la fine e la ripresa della partita e lo stato caricato da disco.
+ */
+
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import exception.EmojiCraftException;
+import util.GameSettings;
+
+public class ReplayRecorder implements Closeable {
+    public static final int MAGIC = 0x45435250; // "ECRP"
+    public static final int VERSION = 2;
+
+    // Tipi di input registrati
+    public static final int MOVE_W = 0;
+    public static final int MOVE_A = 1;
+    public static final int MOVE_S = 2;
+    public static final int MOVE_D = 3;
+    public static final int START = 4;
+    public static final int RESTART = 5;
+    public static final int END = 6; // Fine della registrazione: fissa il numero totale di tick
+
+    // Fattori esterni registrati insieme agli input
+    public static final int TICK = 7;        // Tick di fisica all'istante registrato
+    public static final int SETTINGS = 8;    // payload: physicsStrength, spawnItemInterval, livello di degrado
+    public static final int GAME_ACTIVE = 9; // payload: 1 = partita ripresa, 0 = partita conclusa
+    public static final int LOAD = 10;       // payload: GameState caricato da disco
+
+    private static final int FLUSH_EVERY = 64; // Record scritti tra un flush e l'altro
+
+    private final DataOutputStream out;
+    private final GameWorld gameWorld;
+    private final long startMillis;
+    private long lastTick;
+    private long lastMillis;
+    private int unflushed;
+    private boolean closed;
+    // Ultime impostazioni scritte: un record SETTINGS solo quando cambiano
+    private long lastPhysicsStrength = -1;
+    private long lastSpawnItemInterval = -1;
+    private long lastDegradationLevel = -1;
+
+    public ReplayRecorder(Path file, GameWorld gameWorld, Player player) {
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(gameWorld.getSeed());
+            writeVarLong(out, gameWorld.getWidth());
+            writeVarLong(out, gameWorld.getHeight());
+            writeVarLong(out, player.getX());
+            writeVarLong(out, player.getY());
+            out.flush();
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile creare il file di replay: " + file, e);
+        }
+        this.gameWorld = gameWorld;
+        // I delta partono dalla creazione del mondo: il replay ricrea il mondo all'istante zero del tempo virtuale
+        this.startMillis = gameWorld.getCreatedMillis();
+        this.lastTick = gameWorld.getTick();
+        this.lastMillis = startMillis;
+        recordSettings(gameWorld.getSettings(), gameWorld.getDegradationLevel(), lastTick, startMillis);
+    }
+
+    public synchronized void record(int type, long tick, long millis) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeHeader(type, tick, millis);
+            afterRecord();
+        } catch (IOException e) {
+            System.err.println("Errore durante la registrazione del replay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registra un tick di fisica con il suo istante, preceduto dalle impostazioni se sono cambiate
+     * dall'ultimo tick (ricaricamento a caldo, sovrascritture del mondo o degrado per sovraccarico).
+     */
+    public synchronized void recordTick(long tick, long millis, GameSettings settings, int degradationLevel) {
+        recordSettings(settings, degradationLevel, tick, millis);
+        record(TICK, tick, millis);
+    }
+
+    public synchronized void recordGameActive(boolean active, long tick, long millis) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeHeader(GAME_ACTIVE, tick, millis);
+            out.writeBoolean(active);
+            afterRecord();
+        } catch (IOException e) {
+            System.err.println("Errore durante la registrazione del replay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Memento Pattern: lo stato caricato da disco non deriva dal seed, quindi viene registrato per intero.
+     */
+    public synchronized void recordLoad(GameState gameState, long tick, long millis) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeHeader(LOAD, tick, millis);
+            SessionStore.encodeState(out, gameState);
+            afterRecord();
+        } catch (IOException e) {
+            System.err.println("Errore durante la registrazione del replay: " + e.getMessage());
+        }
+    }
+
+    private void recordSettings(GameSettings settings, int degradationLevel, long tick, long millis) {
+        if (closed || (settings.getPhysicsStrength() == lastPhysicsStrength
+                && settings.getSpawnItemInterval() == lastSpawnItemInterval
+                && degradationLevel == lastDegradationLevel)) {
+            return;
+        }
+        try {
+            writeHeader(SETTINGS, tick, millis);
+            writeVarLong(out, settings.getPhysicsStrength());
+            writeVarLong(out, settings.getSpawnItemInterval());
+            writeVarLong(out, degradationLevel);
+            lastPhysicsStrength = settings.getPhysicsStrength();
+            lastSpawnItemInterval = settings.getSpawnItemInterval();
+            lastDegradationLevel = degradationLevel;
+            afterRecord();
+        } catch (IOException e) {
+            System.err.println("Errore durante la registrazione del replay: " + e.getMessage());
+        }
+    }
+
+    private void writeHeader(int type, long tick, long millis) throws IOException {
+        out.writeByte(type);
+        writeVarLong(out, Math.max(0, tick - lastTick));
+        writeVarLong(out, Math.max(0, millis - lastMillis));
+        lastTick = Math.max(lastTick, tick);
+        lastMillis = Math.max(lastMillis, millis);
+    }
+
+    private void afterRecord() throws IOException {
+        if (++unflushed >= FLUSH_EVERY) {
+            out.flush();
+            unflushed = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Tick e istante letti fuori dal monitor del recorder: il mondo registra tenendo il proprio monitor
+        long tick = gameWorld.getTick();
+        long millis = gameWorld.getClock().millis();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            record(END, tick, millis);
+            closed = true;
+            out.close();
+        }
+    }
+
+    // Interi senza segno a lunghezza variabile: 7 bit per byte, quasi sempre 1 byte per i delta
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
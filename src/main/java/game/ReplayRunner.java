@@ -0,0 +1,146 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Memento Pattern:
+ *   ReplayRunner ricostruisce una partita a partire dal memento registrato da ReplayRecorder
+ *   (seed del mondo, input, istanti dei tick, impostazioni, fine partita e stato caricato).
+ *
+ * - Strategy Pattern:
+ *   La partita viene rieseguita su un VirtualClock, senza attese e senza output su console,
+ *   quindi una traccia di produzione diventa un carico di benchmark riproducibile.
+ */
+
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import exception.EmojiCraftException;
+import util.GameConsole;
+import util.SettingsOverrides;
+import util.VirtualClock;
+
+public class ReplayRunner {
+    private static final int RESTART_X = 2;
+    private static final int RESTART_Y = 5;
+
+    /**
+     * DTO Pattern: esito della riesecuzione.
+     */
+    public record Result(long seed, long inputs, long ticks, int score, int playerX, int playerY, long elapsedNanos) {
+    }
+
+    public static Result replay(Path file) {
+        boolean consoleWasEnabled = GameConsole.isEnabled();
+        GameConsole.setEnabled(false);
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != ReplayRecorder.MAGIC || in.readUnsignedByte() != ReplayRecorder.VERSION) {
+                throw new EmojiCraftException("File di replay non valido: " + file);
+            }
+            long seed = in.readLong();
+            int width = (int) readVarLong(in);
+            int height = (int) readVarLong(in);
+            Player player = new Player((int) readVarLong(in), (int) readVarLong(in));
+
+            VirtualClock clock = new VirtualClock();
+            GameWorld gameWorld = new GameWorld(width, height, clock, seed);
+            GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+
+            long inputs = 0;
+            long targetMillis = clock.millis();
+            int type;
+            while ((type = in.read()) >= 0) {
+                readVarLong(in); // Delta di tick: i tick vengono rieseguiti dai record TICK
+                targetMillis += readVarLong(in);
+                // Il tempo virtuale segue gli istanti registrati, compresi gli intervalli irregolari tra i tick
+                if (clock.millis() < targetMillis) {
+                    clock.advance(targetMillis - clock.millis());
+                }
+                if (apply(type, in, gameWorld, player, gamePhysics)) {
+                    inputs++;
+                }
+            }
+            gameWorld.dispose();
+            return new Result(seed, inputs, gameWorld.getTick(), gameWorld.getScore(), player.getX(), player.getY(),
+                    System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new EmojiCraftException("Errore durante la lettura del replay: " + file, e);
+        } finally {
+            GameConsole.setEnabled(consoleWasEnabled);
+        }
+    }
+
+    // Command Pattern: ogni record viene rieseguito come lo eseguirebbe ServerManager; true se è un input
+    private static boolean apply(int type, DataInputStream in, GameWorld gameWorld, Player player,
+            GamePhysics gamePhysics) throws IOException {
+        switch (type) {
+            case ReplayRecorder.MOVE_W, ReplayRecorder.MOVE_A, ReplayRecorder.MOVE_S, ReplayRecorder.MOVE_D ->
+                    gameWorld.movePlayer(player, Direction.byIndex(type), gamePhysics);
+            case ReplayRecorder.START -> {
+                gameWorld.setGameActive(true);
+                player.setPosition(RESTART_X, RESTART_Y);
+                gameWorld.createGround();
+            }
+            case ReplayRecorder.RESTART -> {
+                gameWorld.resetGame();
+                player.setPosition(RESTART_X, RESTART_Y);
+                gameWorld.setGameActive(true);
+            }
+            case ReplayRecorder.END -> {
+                // I tick fino alla fine della partita sono già stati eseguiti
+            }
+            case ReplayRecorder.TICK -> {
+                gamePhysics.tick();
+                return false;
+            }
+            case ReplayRecorder.SETTINGS -> {
+                int physicsStrength = (int) readVarLong(in);
+                int spawnItemInterval = (int) readVarLong(in);
+                gameWorld.setSettingsOverrides(new SettingsOverrides(physicsStrength, spawnItemInterval, null));
+                gameWorld.setDegradationLevel((int) readVarLong(in));
+                return false;
+            }
+            case ReplayRecorder.GAME_ACTIVE -> {
+                gameWorld.setGameActive(in.readBoolean());
+                return false;
+            }
+            case ReplayRecorder.LOAD -> gameWorld.applyLoadedState(SessionStore.decodeState(in), player);
+            default -> throw new EmojiCraftException("Tipo di input sconosciuto nel replay: " + type);
+        }
+        return true;
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Replay troncato");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Uso: ReplayRunner file.replay
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: ReplayRunner <file di replay>");
+            return;
+        }
+        Result result = replay(Path.of(args[0]));
+        System.out.printf("Seed: %d, input: %d, tick: %d, punteggio finale: %d, giocatore: X=%d, Y=%d%n",
+                result.seed(), result.inputs(), result.ticks(), result.score(), result.playerX(), result.playerY());
+        System.out.printf("Riesecuzione completata in %.3f s%n", result.elapsedNanos() / 1e9);
+    }
+}
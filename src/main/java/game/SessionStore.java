@@ -0,0 +1,495 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Log-Structured Storage:
+ *   Tutti i salvataggi di tutte le sessioni vengono aggiunti in coda a un unico file di segmento.
+ *   Un indice in memoria (sessione -> offset dell'ultimo record) viene ricostruito all'avvio scandendo il file.
+ *
+ * - Group Commit:
+ *   Un thread di scrittura raccoglie tutti i salvataggi in coda e li scrive con una sola write e un solo fsync.
+ *
+ * - Compattazione in background:
+ *   Quando i record superati occupano più spazio di quelli validi, il segmento viene riscritto con
+ *   i soli record più recenti e sostituito in modo atomico.
+ *
+ * - Lock esclusivo:
+ *   Un FileLock sul file "<segmento>.lock" impedisce a un secondo processo (shard o replica avviati
+ *   nella stessa directory) di scrivere sullo stesso segmento: l'apertura fallisce subito.
+ *
+ * Motivo dell'utilizzo:
+ * - Salvare 100k sessioni non significa 100k file piccoli e 100k fsync.
+ */
+
+package game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import exception.EmojiCraftException;
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class SessionStore implements Closeable {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final int HEADER_BYTES = Integer.BYTES * 2; // lunghezza + CRC32 del corpo
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int MAX_BATCH = 1024;              // Record per group commit
+    private static final long MIN_COMPACTION_BYTES = 1 << 20; // Sotto 1 MiB non si compatta
+
+    private static SessionStore instance;
+
+    private final Path file;
+    private final Map<String, Long> index = new ConcurrentHashMap<>();      // sessione -> offset del record
+    private final Map<String, Integer> recordSizes = new ConcurrentHashMap<>(); // sessione -> byte del record
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
+    private final Thread writerThread;
+    private final FileChannel lockChannel;
+    private final FileLock ownerLock;
+    private FileChannel channel;
+    private long endOffset;
+    private long liveBytes;
+    private volatile boolean running = true;
+
+    // Salvataggio in attesa del prossimo group commit
+    private record PendingWrite(String sessionId, byte op, byte[] body, CompletableFuture<Void> done) {
+    }
+
+    public SessionStore(Path file) {
+        this.file = file;
+        this.lockChannel = openLockChannel(file);
+        this.ownerLock = acquireOwnerLock(file, lockChannel);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rebuildIndex();
+        } catch (IOException e) {
+            releaseOwnerLock();
+            throw new EmojiCraftException("Impossibile aprire l'archivio delle sessioni: " + file, e);
+        }
+        this.writerThread = new Thread(this::writeLoop, "session-store-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static FileChannel openLockChannel(Path file) {
+        try {
+            return FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile aprire il lock dell'archivio delle sessioni: " + file, e);
+        }
+    }
+
+    /**
+     * Lock esclusivo sul segmento: se un altro processo (o un altro archivio in questa JVM) lo possiede,
+     * l'apertura fallisce invece di intrecciare i record dei due scrittori.
+     */
+    private static FileLock acquireOwnerLock(Path file, FileChannel lockChannel) {
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw new EmojiCraftException("Impossibile bloccare l'archivio delle sessioni: " + file, e);
+        }
+        if (lock == null) {
+            closeQuietly(lockChannel);
+            throw new EmojiCraftException("Archivio delle sessioni già in uso da un altro processo: " + file
+                    + " (configurare un sessionStoreFile diverso per ogni nodo)");
+        }
+        return lock;
+    }
+
+    private void releaseOwnerLock() {
+        try {
+            ownerLock.release();
+        } catch (IOException e) {
+            logger.warning("Rilascio del lock dell'archivio delle sessioni fallito: " + e.getMessage());
+        }
+        closeQuietly(lockChannel);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nulla da fare: il canale del lock viene comunque abbandonato
+        }
+    }
+
+    // Singleton Pattern: archivio condiviso configurato da GameSettings
+    public static synchronized SessionStore getInstance() {
+        if (instance == null) {
+            instance = new SessionStore(Path.of(GameSettings.getInstance().getSessionStoreFile()));
+        }
+        return instance;
+    }
+
+    /**
+     * Accoda il salvataggio di una sessione; il future si completa dopo il group commit (write + fsync).
+     */
+    public CompletableFuture<Void> save(String sessionId, GameState gameState) {
+        return enqueue(sessionId, OP_PUT, encode(sessionId, OP_PUT, gameState));
+    }
+
+    public CompletableFuture<Void> delete(String sessionId) {
+        return enqueue(sessionId, OP_DELETE, encode(sessionId, OP_DELETE, null));
+    }
+
+    /**
+     * Legge l'ultimo stato salvato della sessione con una lettura posizionale, o null se non esiste.
+     */
+    public GameState load(String sessionId) {
+        channelLock.readLock().lock();
+        try {
+            Long offset = index.get(sessionId);
+            Integer size = recordSizes.get(sessionId);
+            if (offset == null || size == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Record troncato per la sessione " + sessionId);
+                }
+            }
+            buffer.flip();
+            buffer.position(HEADER_BYTES);
+            byte[] body = new byte[buffer.remaining()];
+            buffer.get(body);
+            return decodeState(body);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Errore durante la lettura della sessione {0}: {1}", new Object[] {sessionId, e.getMessage()});
+            return null;
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    public int getSessionCount() {
+        return index.size();
+    }
+
+    public long getFileSize() {
+        channelLock.readLock().lock();
+        try {
+            return endOffset;
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Attende che tutti i salvataggi accodati finora siano su disco.
+     */
+    public void flush() {
+        enqueue(null, (byte) 0, null).join();
+    }
+
+    private CompletableFuture<Void> enqueue(String sessionId, byte op, byte[] body) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new EmojiCraftException("Archivio delle sessioni chiuso"));
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new PendingWrite(sessionId, op, body, done));
+        return done;
+    }
+
+    /**
+     * Thread Pattern: ciclo del thread di scrittura, un group commit per ogni lotto di salvataggi in coda.
+     */
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch);
+                compactQuietly();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Group commit dell'archivio delle sessioni fallito: {0}", e.getMessage());
+                batch.forEach(write -> write.done().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) throws IOException {
+        int total = 0;
+        for (PendingWrite write : batch) {
+            if (write.body() != null) {
+                total += HEADER_BYTES + write.body().length;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (PendingWrite write : batch) {
+            if (write.body() != null) {
+                appendRecord(buffer, write.body());
+            }
+        }
+        buffer.flip();
+
+        channelLock.writeLock().lock();
+        try {
+            long position = endOffset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (total > 0) {
+                channel.force(false); // Un solo fsync per l'intero lotto
+            }
+            long offset = endOffset;
+            for (PendingWrite write : batch) {
+                if (write.body() == null) {
+                    continue;
+                }
+                int size = HEADER_BYTES + write.body().length;
+                applyToIndex(write.sessionId(), write.op(), offset, size);
+                offset += size;
+            }
+            endOffset = position;
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+        batch.forEach(write -> write.done().complete(null));
+    }
+
+    private void applyToIndex(String sessionId, byte op, long offset, int size) {
+        Integer previous = recordSizes.get(sessionId);
+        if (previous != null) {
+            liveBytes -= previous;
+        }
+        if (op == OP_PUT) {
+            index.put(sessionId, offset);
+            recordSizes.put(sessionId, size);
+            liveBytes += size;
+        } else {
+            index.remove(sessionId);
+            recordSizes.remove(sessionId);
+        }
+    }
+
+    // Una compattazione fallita non tocca il lotto già confermato: il segmento originale resta in uso
+    private void compactQuietly() {
+        try {
+            maybeCompact();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Compattazione dell'archivio delle sessioni fallita: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compattazione: se i record superati occupano più della metà del file, riscrive solo i record validi.
+     */
+    private void maybeCompact() throws IOException {
+        if (endOffset < MIN_COMPACTION_BYTES || endOffset - liveBytes <= liveBytes) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        Map<String, Long> newIndex = new ConcurrentHashMap<>();
+        long position = 0;
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Long> entry : index.entrySet()) {
+                int size = recordSizes.get(entry.getKey());
+                ByteBuffer record = ByteBuffer.allocate(size);
+                while (record.hasRemaining()) {
+                    channel.read(record, entry.getValue() + record.position());
+                }
+                record.flip();
+                newIndex.put(entry.getKey(), position);
+                while (record.hasRemaining()) {
+                    position += target.write(record);
+                }
+            }
+            target.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp); // Copia parziale: il segmento originale resta in uso
+            throw e;
+        }
+
+        channelLock.writeLock().lock();
+        try {
+            channel.close();
+            try {
+                replaceSegment(temp);
+            } catch (IOException e) {
+                // Sostituzione fallita: si riapre il segmento originale, ancora intatto, e si scarta la copia
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.putAll(newIndex);
+            logger.info("Archivio delle sessioni compattato: " + endOffset + " -> " + position + " byte.");
+            endOffset = position;
+            liveBytes = position;
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+    }
+
+    // Sostituzione atomica del segmento con la copia compattata
+    void replaceSegment(Path temp) throws IOException {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Ricostruisce l'indice scandendo il segmento; un record finale incompleto o corrotto viene troncato.
+     */
+    private void rebuildIndex() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            channel.read(body, position + HEADER_BYTES);
+            if (crc32(body.array()) != crc) {
+                break;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()))) {
+                String sessionId = in.readUTF();
+                byte op = in.readByte();
+                applyToIndex(sessionId, op, position, HEADER_BYTES + length);
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            logger.warning("Archivio delle sessioni: troncati " + (size - position) + " byte finali non validi.");
+            channel.truncate(position);
+        }
+        endOffset = position;
+        logger.info("Indice delle sessioni ricostruito: " + index.size() + " sessioni.");
+    }
+
+    // Corpo del record: id sessione, operazione e stato binario del gioco
+    private static byte[] encode(String sessionId, byte op, GameState gameState) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(sessionId);
+            out.writeByte(op);
+            if (gameState != null) {
+                encodeState(out, gameState);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile codificare la sessione " + sessionId, e);
+        }
+    }
+
+    /**
+     * Codifica binaria compatta di GameState, condivisa con chi deve trasferire lo stato di una sessione.
+     */
+    public static void encodeState(DataOutputStream out, GameState gameState) throws IOException {
+        out.writeInt(gameState.getPlayerX());
+        out.writeInt(gameState.getPlayerY());
+        out.writeInt(gameState.getScore());
+        out.writeInt(gameState.getTimeRemaining());
+        String[][] grid = gameState.getGrid();
+        int rows = grid == null ? 0 : grid.length;
+        int columns = rows == 0 ? 0 : grid[0].length;
+        out.writeInt(rows);
+        out.writeInt(columns);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                out.writeUTF(grid[y][x] == null ? " " : grid[y][x]);
+            }
+        }
+    }
+
+    public static GameState decodeState(DataInputStream in) throws IOException {
+        int playerX = in.readInt();
+        int playerY = in.readInt();
+        int score = in.readInt();
+        int timeRemaining = in.readInt();
+        int rows = in.readInt();
+        int columns = in.readInt();
+        String[][] grid = new String[rows][columns];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                grid[y][x] = in.readUTF();
+            }
+        }
+        return new GameState(playerX, playerY, score, grid, timeRemaining);
+    }
+
+    private static GameState decodeState(byte[] body) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            in.readUTF();
+            if (in.readByte() != OP_PUT) {
+                return null;
+            }
+            return decodeState(in);
+        }
+    }
+
+    private static void appendRecord(ByteBuffer buffer, byte[] body) {
+        buffer.putInt(body.length);
+        buffer.putInt(crc32(body));
+        buffer.put(body);
+    }
+
+    private static int crc32(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(); // Nessuna compattazione ancora in corso quando il canale viene chiuso
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channelLock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            channelLock.writeLock().unlock();
+            releaseOwnerLock();
+        }
+    }
+}
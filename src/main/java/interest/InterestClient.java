@@ -0,0 +1,91 @@
+package interest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import game.Player;
+
+/**
+ * Stato di un client iscritto: area di interesse, entità che conosce e aggiornamenti non ancora consegnati.
+ * Accesso solo sotto il lock di InterestManager.
+ */
+public class InterestClient {
+    private final String id;
+    private final Player player;
+    private final int radius;
+    private final int maxQueued;
+    // Centro dell'area all'ultimo aggiornamento (MIN_VALUE = area non ancora calcolata)
+    int centerX = Integer.MIN_VALUE;
+    int centerY = Integer.MIN_VALUE;
+    // Entità visibili dal client: celle per posizione, altri giocatori per id
+    final Map<Long, String> visibleCells = new HashMap<>();
+    final Map<String, Long> visiblePlayers = new HashMap<>();
+    private final ArrayDeque<InterestUpdate> queue = new ArrayDeque<>();
+    private boolean resync;
+    private long delivered;
+
+    InterestClient(String id, Player player, int radius, int maxQueued) {
+        this.id = id;
+        this.player = player;
+        this.radius = radius;
+        this.maxQueued = maxQueued;
+    }
+
+    void enqueue(InterestUpdate update) {
+        if (resync) {
+            return; // Il client ricaricherà comunque lo stato completo
+        }
+        if (queue.size() >= maxQueued) {
+            // Client troppo lento: invece di accumulare senza limite gli si chiede di risincronizzarsi con /world
+            queue.clear();
+            resync = true;
+            return;
+        }
+        queue.add(update);
+    }
+
+    List<InterestUpdate> drain() {
+        List<InterestUpdate> updates = new ArrayList<>(queue);
+        queue.clear();
+        delivered += updates.size();
+        return updates;
+    }
+
+    /**
+     * Consuma la richiesta di risincronizzazione: l'area verrà ricalcolata da zero al prossimo aggiornamento.
+     */
+    boolean takeResync() {
+        if (!resync) {
+            return false;
+        }
+        resync = false;
+        centerX = Integer.MIN_VALUE;
+        centerY = Integer.MIN_VALUE;
+        visibleCells.clear();
+        visiblePlayers.clear();
+        return true;
+    }
+
+    boolean contains(int x, int y) {
+        return Math.abs(x - centerX) <= radius && Math.abs(y - centerY) <= radius;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+}
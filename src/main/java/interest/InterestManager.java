@@ -0,0 +1,267 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   InterestManager è un consumatore del ring buffer degli eventi del mondo: spawn, raccolta e scadenza degli oggetti
+ *   arrivano come eventi, senza nuovi agganci dentro GameWorld.
+ *
+ * - Spatial Hashing:
+ *   Le modifiche di ogni lotto di eventi vengono raggruppate in celle spaziali di lato fisso; per ogni client si
+ *   visitano solo le celle che intersecano la sua area di interesse (un quadrato di raggio fisso attorno al giocatore).
+ *
+ * - Enter/Leave (Area of Interest):
+ *   Ogni client ricorda le entità che conosce. Quando l'area si sposta con il giocatore, le differenze con il nuovo
+ *   contenuto dell'area (letto dal quadtree del mondo) diventano messaggi di ingresso e uscita.
+ *
+ * Motivo dell'utilizzo:
+ * - I byte inviati a un client dipendono dall'attività vicino al suo giocatore, non dalle dimensioni del mondo.
+ */
+
+package interest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import event.EventHandler;
+import event.GameEvent;
+import game.GameWorld;
+import game.Player;
+import map.MapComponent;
+import util.GameSettings;
+
+public class InterestManager implements EventHandler {
+    private static final long CLIENT_TIMEOUT_MILLIS = 60_000; // Client che non interrogano più /updates
+
+    /**
+     * DTO Pattern: aggiornamenti consegnati a un client in una singola richiesta.
+     *
+     * @param resync true se il client è rimasto troppo indietro e deve ricaricare lo stato completo
+     */
+    public record Poll(boolean resync, int x, int y, int radius, List<InterestUpdate> updates) {
+    }
+
+    private final GameWorld gameWorld;
+    private final int cellSize;
+    private final int maxQueued;
+    private final Map<String, InterestClient> clients = new LinkedHashMap<>();
+    private final Map<InterestClient, Long> lastPolled = new HashMap<>();
+    // Modifiche del lotto di eventi corrente, raggruppate per cella spaziale
+    private final Map<Long, List<InterestUpdate>> buckets = new HashMap<>();
+
+    public InterestManager(GameWorld gameWorld) {
+        this(gameWorld, GameSettings.getInstance().getInterestCellSize(), GameSettings.getInstance().getInterestQueueSize());
+    }
+
+    public InterestManager(GameWorld gameWorld, int cellSize, int maxQueued) {
+        this.gameWorld = gameWorld;
+        this.cellSize = Math.max(1, cellSize);
+        this.maxQueued = Math.max(1, maxQueued);
+    }
+
+    /**
+     * Iscrive un client (o restituisce quello già iscritto con lo stesso giocatore e raggio).
+     * Il primo aggiornamento contiene l'ingresso di tutto ciò che è visibile nell'area.
+     */
+    public synchronized InterestClient subscribe(String clientId, Player player, int radius) {
+        InterestClient client = clients.get(clientId);
+        if (client == null || client.getPlayer() != player || client.getRadius() != radius) {
+            if (client != null) {
+                lastPolled.remove(client);
+            }
+            client = new InterestClient(clientId, player, Math.max(0, radius), maxQueued);
+            clients.put(clientId, client);
+        }
+        lastPolled.put(client, gameWorld.getClock().millis());
+        return client;
+    }
+
+    public synchronized void unsubscribe(String clientId) {
+        InterestClient client = clients.remove(clientId);
+        if (client != null) {
+            lastPolled.remove(client);
+        }
+    }
+
+    /**
+     * Aggiorna l'area del client e restituisce gli aggiornamenti accumulati dall'ultima richiesta.
+     */
+    public synchronized Poll poll(String clientId) {
+        InterestClient client = clients.get(clientId);
+        if (client == null) {
+            return null;
+        }
+        lastPolled.put(client, gameWorld.getClock().millis());
+        boolean resync = client.takeResync();
+        // Il giocatore può essersi spostato senza eventi (ad esempio per la gravità): l'area segue sempre la sua posizione
+        update(client, indexPlayers(), false);
+        return new Poll(resync, client.centerX, client.centerY, client.getRadius(), client.drain());
+    }
+
+    @Override
+    public synchronized void onEvent(GameEvent event, long sequence) {
+        switch (event.getType()) {
+            case ITEM_SPAWNED -> bucket(InterestUpdate.ENTER, event);
+            case ITEM_COLLECTED, ITEM_EXPIRED -> bucket(InterestUpdate.LEAVE, event);
+            default -> {
+                // Movimenti e inizio/fine partita: le aree vengono comunque ricalcolate a fine lotto
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onBatchEnd() {
+        Map<Long, List<InterestClient>> players = indexPlayers();
+        long now = gameWorld.getClock().millis();
+        Iterator<InterestClient> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            InterestClient client = iterator.next();
+            if (now - lastPolled.getOrDefault(client, now) > CLIENT_TIMEOUT_MILLIS) {
+                iterator.remove();
+                lastPolled.remove(client);
+                continue;
+            }
+            update(client, players, true);
+        }
+        buckets.clear();
+    }
+
+    public synchronized int getClientCount() {
+        return clients.size();
+    }
+
+    private void bucket(String type, GameEvent event) {
+        buckets.computeIfAbsent(cellKey(event.getX(), event.getY()), key -> new ArrayList<>())
+                .add(new InterestUpdate(type, InterestUpdate.CELL, null, event.getX(), event.getY(), event.getSymbol()));
+    }
+
+    private void update(InterestClient client, Map<Long, List<InterestClient>> players, boolean applyBuckets) {
+        int x = client.getPlayer().getX();
+        int y = client.getPlayer().getY();
+        if (x != client.centerX || y != client.centerY) {
+            moveArea(client, x, y);
+        } else if (applyBuckets) {
+            applyBuckets(client);
+        }
+        updatePlayers(client, players);
+    }
+
+    // L'area si è spostata: differenza tra le celle note e il contenuto attuale dell'area (query locale sul quadtree)
+    private void moveArea(InterestClient client, int x, int y) {
+        client.centerX = x;
+        client.centerY = y;
+        int radius = client.getRadius();
+        Map<Long, MapComponent> current = new HashMap<>();
+        for (MapComponent component : gameWorld.queryArea(x - radius, y - radius, 2 * radius + 1, 2 * radius + 1)) {
+            if (client.contains(component.getX(), component.getY())) {
+                current.put(positionKey(component.getX(), component.getY()), component);
+            }
+        }
+        Iterator<Map.Entry<Long, String>> known = client.visibleCells.entrySet().iterator();
+        while (known.hasNext()) {
+            Map.Entry<Long, String> entry = known.next();
+            if (!current.containsKey(entry.getKey())) {
+                known.remove();
+                client.enqueue(new InterestUpdate(InterestUpdate.LEAVE, InterestUpdate.CELL, null,
+                        keyX(entry.getKey()), keyY(entry.getKey()), entry.getValue()));
+            }
+        }
+        for (Map.Entry<Long, MapComponent> entry : current.entrySet()) {
+            MapComponent component = entry.getValue();
+            String previous = client.visibleCells.put(entry.getKey(), component.getSymbol());
+            if (!component.getSymbol().equals(previous)) {
+                client.enqueue(new InterestUpdate(InterestUpdate.ENTER, InterestUpdate.CELL, null,
+                        component.getX(), component.getY(), component.getSymbol()));
+            }
+        }
+    }
+
+    // Area ferma: solo le modifiche del lotto nelle celle spaziali che intersecano l'area
+    private void applyBuckets(InterestClient client) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        int radius = client.getRadius();
+        for (int bx = Math.floorDiv(client.centerX - radius, cellSize); bx <= Math.floorDiv(client.centerX + radius, cellSize); bx++) {
+            for (int by = Math.floorDiv(client.centerY - radius, cellSize); by <= Math.floorDiv(client.centerY + radius, cellSize); by++) {
+                List<InterestUpdate> changes = buckets.get(positionKey(bx, by));
+                if (changes == null) {
+                    continue;
+                }
+                for (InterestUpdate change : changes) {
+                    if (!client.contains(change.x(), change.y())) {
+                        continue;
+                    }
+                    long key = positionKey(change.x(), change.y());
+                    if (InterestUpdate.ENTER.equals(change.type())) {
+                        client.visibleCells.put(key, change.symbol());
+                        client.enqueue(change);
+                    } else if (client.visibleCells.remove(key) != null) {
+                        client.enqueue(change);
+                    }
+                }
+            }
+        }
+    }
+
+    // Altri giocatori: ingresso, spostamento e uscita rispetto all'area del client
+    private void updatePlayers(InterestClient client, Map<Long, List<InterestClient>> players) {
+        int radius = client.getRadius();
+        Map<String, InterestClient> seen = new HashMap<>();
+        for (int bx = Math.floorDiv(client.centerX - radius, cellSize); bx <= Math.floorDiv(client.centerX + radius, cellSize); bx++) {
+            for (int by = Math.floorDiv(client.centerY - radius, cellSize); by <= Math.floorDiv(client.centerY + radius, cellSize); by++) {
+                for (InterestClient other : players.getOrDefault(positionKey(bx, by), List.of())) {
+                    Player player = other.getPlayer();
+                    if (other != client && player != client.getPlayer() && client.contains(player.getX(), player.getY())) {
+                        seen.put(other.getId(), other);
+                    }
+                }
+            }
+        }
+        Iterator<Map.Entry<String, Long>> known = client.visiblePlayers.entrySet().iterator();
+        while (known.hasNext()) {
+            Map.Entry<String, Long> entry = known.next();
+            if (!seen.containsKey(entry.getKey())) {
+                known.remove();
+                client.enqueue(new InterestUpdate(InterestUpdate.LEAVE, InterestUpdate.PLAYER, entry.getKey(),
+                        keyX(entry.getValue()), keyY(entry.getValue()), null));
+            }
+        }
+        for (InterestClient other : seen.values()) {
+            Player player = other.getPlayer();
+            long position = positionKey(player.getX(), player.getY());
+            Long previous = client.visiblePlayers.put(other.getId(), position);
+            if (previous == null || previous != position) {
+                client.enqueue(new InterestUpdate(previous == null ? InterestUpdate.ENTER : InterestUpdate.MOVE,
+                        InterestUpdate.PLAYER, other.getId(), player.getX(), player.getY(), player.getEmoji()));
+            }
+        }
+    }
+
+    private Map<Long, List<InterestClient>> indexPlayers() {
+        Map<Long, List<InterestClient>> index = new HashMap<>();
+        for (InterestClient client : clients.values()) {
+            Player player = client.getPlayer();
+            index.computeIfAbsent(cellKey(player.getX(), player.getY()), key -> new ArrayList<>()).add(client);
+        }
+        return index;
+    }
+
+    private long cellKey(int x, int y) {
+        return positionKey(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize));
+    }
+
+    private static long positionKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int keyY(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,16 @@
+package interest;
+
+/**
+ * DTO Pattern: una modifica nell'area di interesse di un client.
+ *
+ * @param type   "enter" (entra nell'area), "leave" (esce dall'area) o "move" (giocatore che si sposta nell'area)
+ * @param entity "cell" per i componenti della mappa, "player" per gli altri giocatori
+ * @param id     id del client per i giocatori, null per le celle
+ */
+public record InterestUpdate(String type, String entity, String id, int x, int y, String symbol) {
+    public static final String ENTER = "enter";
+    public static final String LEAVE = "leave";
+    public static final String MOVE = "move";
+    public static final String CELL = "cell";
+    public static final String PLAYER = "player";
+}
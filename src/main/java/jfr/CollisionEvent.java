@@ -0,0 +1,35 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Controllo di collisione tra il giocatore e gli oggetti (GameWorld.checkItemCollision).
+ */
+@Name("emojicraft.Collision")
+@Label("Item Collision Check")
+@Category({"EmojiCraft", "World"})
+@Description("Ricerca di un oggetto nella cella del giocatore dopo una mossa")
+@Threshold("100 us")
+@StackTrace(false)
+public class CollisionEvent extends Event {
+    @Label("World")
+    public String worldId;
+
+    @Label("Player X")
+    public int playerX;
+
+    @Label("Player Y")
+    public int playerY;
+
+    @Label("Collected")
+    public boolean collected;
+
+    @Label("Active Items")
+    public int items;
+}
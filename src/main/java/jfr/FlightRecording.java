@@ -0,0 +1,77 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Singleton Pattern:
+ *   Una sola registrazione continua per processo, avviata da Main e chiusa dallo shutdown hook.
+ *
+ * - Ring Buffer:
+ *   La registrazione conserva solo gli ultimi maxAge/maxSize di dati: può restare attiva in produzione
+ *   e viene scritta su file allo spegnimento (o con jcmd JFR.dump) con gli eventi di gioco accanto a GC e lock.
+ */
+
+package jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import util.LoggerUtil;
+
+public final class FlightRecording {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    public static final String RECORDING_NAME = "emojicraft";
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Avvia la registrazione continua con la configurazione "default" di JFR (overhead inferiore all'1%)
+     * più gli eventi di EmojiCraft, che sono attivi con le soglie dichiarate nelle loro annotazioni.
+     */
+    public static synchronized void start(Path destination, Duration maxAge, long maxSizeBytes) {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration("default"));
+            continuous.setName(RECORDING_NAME);
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(maxSizeBytes);
+            continuous.setDestination(destination);
+            continuous.start();
+            recording = continuous;
+            logger.info("Registrazione JFR continua attiva: ultimi " + maxAge.toSeconds() + " s su " + destination);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            logger.log(Level.WARNING, "Impossibile avviare la registrazione JFR: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ferma la registrazione: JFR scrive il contenuto del buffer nel file di destinazione.
+     */
+    public static synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+            logger.info("Registrazione JFR salvata in " + recording.getDestination());
+        } catch (IllegalStateException e) {
+            logger.log(Level.WARNING, "Registrazione JFR già chiusa: {0}", e.getMessage());
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+}
@@ -0,0 +1,38 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Salvataggio o caricamento dello stato di gioco (GameStateManager); la traccia dello stack indica chi l'ha chiesto.
+ */
+@Name("emojicraft.GameStateIo")
+@Label("Game State I/O")
+@Category({"EmojiCraft", "Persistence"})
+@Description("Salvataggio o caricamento dello stato di gioco")
+@Threshold("0 ms")
+@StackTrace(true)
+public class GameStateIoEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Format")
+    public String format;
+
+    @Label("World")
+    public String worldId;
+
+    @Label("Grid Rows")
+    public int rows;
+
+    @Label("Grid Columns")
+    public int columns;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,32 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creazione di un nuovo oggetto (GameWorld.spawnNewItem): comprende la ricerca di una cella libera.
+ */
+@Name("emojicraft.ItemSpawn")
+@Label("Item Spawn")
+@Category({"EmojiCraft", "World"})
+@Description("Ricerca di una cella libera e registrazione di un nuovo oggetto")
+@Threshold("100 us")
+@StackTrace(false)
+public class ItemSpawnEvent extends Event {
+    @Label("World")
+    public String worldId;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Active Items")
+    public int items;
+}
@@ -0,0 +1,29 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Scansione degli oggetti scaduti (GameWorld.updateItems), compresi gli oggetti sostitutivi.
+ */
+@Name("emojicraft.ItemSweep")
+@Label("Item Expiry Sweep")
+@Category({"EmojiCraft", "World"})
+@Description("Rimozione degli oggetti scaduti e creazione dei sostituti")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ItemSweepEvent extends Event {
+    @Label("World")
+    public String worldId;
+
+    @Label("Active Items")
+    public int items;
+
+    @Label("Expired")
+    public int expired;
+}
@@ -0,0 +1,32 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Una richiesta HTTP servita da ServerManager, dai filtri iniziali fino all'ultimo afterAfter.
+ */
+@Name("emojicraft.Request")
+@Label("HTTP Request")
+@Category({"EmojiCraft", "Server"})
+@Description("Richiesta HTTP gestita da una rotta di ServerManager")
+@Threshold("10 ms")
+@StackTrace(false)
+public class RequestEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    public String route;
+
+    @Label("World")
+    public String worldId;
+
+    @Label("Status")
+    public int status;
+}
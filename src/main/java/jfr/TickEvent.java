@@ -0,0 +1,35 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Un tick di GamePhysics (gravità, scadenza degli oggetti, avanzamento del tick).
+ */
+@Name("emojicraft.Tick")
+@Label("Game Tick")
+@Category({"EmojiCraft", "Physics"})
+@Description("Tick di fisica di un mondo")
+@Threshold("1 ms")
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("World")
+    public String worldId;
+
+    @Label("Tick")
+    public long tick;
+
+    @Label("Active Items")
+    public int items;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
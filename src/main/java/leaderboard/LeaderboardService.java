@@ -0,0 +1,240 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Singleton Pattern:
+ *   LeaderboardService mantiene un'unica classifica condivisa da tutte le partite del processo.
+ *
+ * - Copy-on-Write Snapshot:
+ *   I primi K punteggi vivono in un TreeSet (inserimento O(log K)); controllo di capacità, inserimento e taglio
+ *   avvengono sotto un unico lock. La lista immutabile letta dai client viene ripubblicata solo alla prima lettura
+ *   dopo una o più modifiche, quindi una raffica di punteggi costa una sola copia e le letture senza modifiche
+ *   restano O(1) e lock-free.
+ *
+ * - Append-only Log con compattazione:
+ *   Ogni punteggio finale viene aggiunto in coda al file da un thread dedicato, su uno stream che resta aperto;
+ *   periodicamente il file viene riscritto con i soli primi K punteggi e sostituito in modo atomico.
+ *
+ * Motivo dell'utilizzo:
+ * - I punteggi sopravvivono a /restart e al riavvio del server.
+ * - Le letture restano lock-free anche quando migliaia di partite terminano ogni minuto.
+ */
+
+package leaderboard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class LeaderboardService {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final int COMPACTION_FACTOR = 10; // Compatta quando il log supera K * fattore record
+
+    // Ordine della classifica: punteggio decrescente, poi il più vecchio, poi l'id
+    private static final Comparator<ScoreEntry> RANKING = Comparator
+            .comparingInt(ScoreEntry::getScore).reversed()
+            .thenComparingLong(ScoreEntry::getTimestamp)
+            .thenComparingLong(ScoreEntry::getId);
+
+    private static LeaderboardService instance;
+
+    private final int capacity;
+    private final Path file;
+    private final TreeSet<ScoreEntry> ranking = new TreeSet<>(RANKING); // Protetto da rankingLock
+    private final AtomicReference<List<ScoreEntry>> snapshot = new AtomicReference<>(List.of());
+    private final AtomicLong nextId = new AtomicLong();
+    private final Object rankingLock = new Object();
+    private volatile boolean stale; // La classifica è cambiata dopo l'ultima pubblicazione
+    // Thread dedicato alla scrittura: chi registra un punteggio non attende mai il disco
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Id dei punteggi già presenti nel file (accesso solo dal thread di scrittura):
+    // la compattazione non deve riscrivere punteggi il cui append è ancora in coda
+    private final Set<Long> persistedIds = new HashSet<>();
+    // Stream di append aperto una sola volta (accesso solo dal thread di scrittura), riaperto dopo la compattazione
+    private DataOutputStream log;
+
+    public LeaderboardService(Path file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        load();
+    }
+
+    // Singleton Pattern: classifica globale configurata da GameSettings
+    public static synchronized LeaderboardService getInstance() {
+        if (instance == null) {
+            GameSettings settings = GameSettings.getInstance();
+            instance = new LeaderboardService(Path.of(settings.getLeaderboardFile()), settings.getLeaderboardSize());
+        }
+        return instance;
+    }
+
+    /**
+     * Registra il punteggio finale di una partita: inserimento O(log K) nella skip list e append asincrono su file.
+     */
+    public ScoreEntry recordScore(int score) {
+        ScoreEntry entry = new ScoreEntry(nextId.getAndIncrement(), score, System.currentTimeMillis());
+        insert(entry);
+        writer.execute(() -> append(entry));
+        return entry;
+    }
+
+    /**
+     * Primi N punteggi: legge l'ultima lista pubblicata, senza lock se la classifica non è cambiata.
+     */
+    public List<ScoreEntry> getTop(int limit) {
+        List<ScoreEntry> current = stale ? publish() : snapshot.get();
+        return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Attende che tutte le scritture in coda siano su disco (usato allo spegnimento e nei test).
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Flush della classifica non completato: {0}", e.getMessage());
+        }
+    }
+
+    // Controllo, inserimento e taglio sono un'unica operazione: la classifica non supera mai K punteggi
+    private void insert(ScoreEntry entry) {
+        synchronized (rankingLock) {
+            if (ranking.size() >= capacity && RANKING.compare(entry, ranking.last()) >= 0) {
+                return; // Non entra nei primi K: nessuna modifica alla classifica
+            }
+            ranking.add(entry);
+            if (ranking.size() > capacity) {
+                ranking.pollLast();
+            }
+            stale = true;
+        }
+    }
+
+    // Ripubblica la lista immutabile se la classifica è cambiata; i lettori vedono sempre una lista completa
+    private List<ScoreEntry> publish() {
+        synchronized (rankingLock) {
+            if (stale) {
+                snapshot.set(Collections.unmodifiableList(new ArrayList<>(ranking)));
+                stale = false;
+            }
+            return snapshot.get();
+        }
+    }
+
+    private void append(ScoreEntry entry) {
+        try {
+            if (log == null) {
+                log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+            }
+            log.writeLong(entry.getTimestamp());
+            log.writeInt(entry.getScore());
+            log.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Impossibile salvare il punteggio in classifica: {0}", e.getMessage());
+            closeLog(); // Al prossimo punteggio lo stream viene riaperto
+            return;
+        }
+        persistedIds.add(entry.getId());
+        if (persistedIds.size() > capacity * COMPACTION_FACTOR) {
+            compact();
+        }
+    }
+
+    private void closeLog() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Chiusura del file della classifica fallita: {0}", e.getMessage());
+        }
+        log = null;
+    }
+
+    /**
+     * Riscrive il log con i soli primi K punteggi e lo sostituisce in modo atomico.
+     */
+    private void compact() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<ScoreEntry> top = new ArrayList<>();
+        for (ScoreEntry entry : publish()) {
+            if (persistedIds.contains(entry.getId())) {
+                top.add(entry);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (ScoreEntry entry : top) {
+                out.writeLong(entry.getTimestamp());
+                out.writeInt(entry.getScore());
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Compattazione della classifica fallita: {0}", e.getMessage());
+            return;
+        }
+        closeLog(); // Lo stream punta al file sostituito: il prossimo append apre quello compattato
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            persistedIds.clear();
+            top.forEach(entry -> persistedIds.add(entry.getId()));
+            logger.info("Classifica compattata: " + top.size() + " punteggi mantenuti.");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Sostituzione del file della classifica fallita: {0}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long timestamp = in.readLong();
+                int score = in.readInt();
+                ScoreEntry entry = new ScoreEntry(nextId.getAndIncrement(), score, timestamp);
+                insert(entry);
+                persistedIds.add(entry.getId());
+                count++;
+            }
+        } catch (EOFException e) {
+            // Fine del log (un eventuale record parziale in coda viene ignorato)
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Errore durante il caricamento della classifica: {0}", e.getMessage());
+        }
+        publish();
+        logger.info("Classifica caricata: " + count + " punteggi letti, " + snapshot.get().size() + " in classifica.");
+    }
+}
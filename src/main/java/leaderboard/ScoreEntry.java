@@ -0,0 +1,29 @@
+package leaderboard;
+
+/**
+ * DTO Pattern: ScoreEntry rappresenta un punteggio finale registrato nella classifica.
+ * È immutabile, quindi può essere condiviso tra thread e restituito ai client senza copie difensive.
+ */
+public class ScoreEntry {
+    private final long id;
+    private final int score;
+    private final long timestamp;
+
+    public ScoreEntry(long id, int score, long timestamp) {
+        this.id = id;
+        this.score = score;
+        this.timestamp = timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,191 @@
+package map;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composite Pattern (gerarchico):
+ * La classe RegionNode è un nodo composito con un rettangolo di confine (bounding box) che contiene
+ * altri MapComponent. Quando un nodo foglia supera la sua capacità viene diviso in quattro quadranti
+ * (quadtree), quindi ogni ricerca e ogni renderizzazione visita solo i nodi che intersecano l'area richiesta.
+ *
+ * Motivo dell'utilizzo:
+ * - Sulle mappe grandi ogni client paga solo le celle che può effettivamente vedere.
+ * - Mantiene la stessa interfaccia MapComponent di ItemGroup, quindi un nodo può essere trattato come un singolo componente.
+ */
+public class RegionNode implements MapComponent, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int LEAF_CAPACITY = 16; // Componenti oltre i quali una foglia viene divisa
+    private static final int MIN_SIZE = 4;       // Lato minimo di un quadrante
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final List<MapComponent> children = new ArrayList<>();
+    private RegionNode[] quadrants; // null finché il nodo è una foglia
+    private int size;
+
+    public RegionNode(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Composite Pattern: aggiunge un componente nel nodo più profondo che lo contiene
+    public boolean add(MapComponent component) {
+        if (!contains(component.getX(), component.getY())) {
+            return false;
+        }
+        size++;
+        if (quadrants != null) {
+            quadrantFor(component.getX(), component.getY()).add(component);
+            return true;
+        }
+        children.add(component);
+        if (children.size() > LEAF_CAPACITY && width > MIN_SIZE && height > MIN_SIZE) {
+            split();
+        }
+        return true;
+    }
+
+    // Composite Pattern: rimuove un componente cercandolo solo nel quadrante che lo contiene
+    public boolean remove(MapComponent component) {
+        if (!contains(component.getX(), component.getY())) {
+            return false;
+        }
+        boolean removed = quadrants != null
+                ? quadrantFor(component.getX(), component.getY()).remove(component)
+                : children.remove(component);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        children.clear();
+        quadrants = null;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce i componenti contenuti nel rettangolo (qx, qy, qw, qh),
+     * scartando interi sottoalberi che non lo intersecano.
+     */
+    public List<MapComponent> query(int qx, int qy, int qw, int qh) {
+        List<MapComponent> result = new ArrayList<>();
+        query(qx, qy, qw, qh, result);
+        return result;
+    }
+
+    public void query(int qx, int qy, int qw, int qh, List<MapComponent> result) {
+        if (size == 0 || !intersects(qx, qy, qw, qh)) {
+            return;
+        }
+        if (quadrants != null) {
+            for (RegionNode quadrant : quadrants) {
+                quadrant.query(qx, qy, qw, qh, result);
+            }
+            return;
+        }
+        for (MapComponent component : children) {
+            int cx = component.getX();
+            int cy = component.getY();
+            if (cx >= qx && cx < qx + qw && cy >= qy && cy < qy + qh) {
+                result.add(component);
+            }
+        }
+    }
+
+    /**
+     * Composite Pattern: renderizzazione sull'intera griglia, come ItemGroup.
+     */
+    @Override
+    public void render(String[][] grid) {
+        render(grid, 0, 0);
+    }
+
+    /**
+     * Renderizzazione con culling: il buffer ha le dimensioni del viewport e (originX, originY)
+     * è la cella del mondo corrispondente a viewport[0][0].
+     */
+    public void render(String[][] viewport, int originX, int originY) {
+        int viewHeight = viewport.length;
+        int viewWidth = viewHeight == 0 ? 0 : viewport[0].length;
+        if (size == 0 || !intersects(originX, originY, viewWidth, viewHeight)) {
+            return;
+        }
+        if (quadrants != null) {
+            for (RegionNode quadrant : quadrants) {
+                quadrant.render(viewport, originX, originY);
+            }
+            return;
+        }
+        for (MapComponent component : children) {
+            int vx = component.getX() - originX;
+            int vy = component.getY() - originY;
+            if (vx >= 0 && vx < viewWidth && vy >= 0 && vy < viewHeight) {
+                viewport[vy][vx] = component.getSymbol();
+            }
+        }
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Un nodo regione non ha un simbolo proprio: sono i figli a essere disegnati
+    @Override
+    public String getSymbol() {
+        return "";
+    }
+
+    private boolean contains(int px, int py) {
+        return px >= x && px < x + width && py >= y && py < y + height;
+    }
+
+    private boolean intersects(int qx, int qy, int qw, int qh) {
+        return qx < x + width && qx + qw > x && qy < y + height && qy + qh > y;
+    }
+
+    private void split() {
+        int halfWidth = width / 2;
+        int halfHeight = height / 2;
+        quadrants = new RegionNode[] {
+                new RegionNode(x, y, halfWidth, halfHeight),
+                new RegionNode(x + halfWidth, y, width - halfWidth, halfHeight),
+                new RegionNode(x, y + halfHeight, halfWidth, height - halfHeight),
+                new RegionNode(x + halfWidth, y + halfHeight, width - halfWidth, height - halfHeight)
+        };
+        for (MapComponent component : children) {
+            quadrantFor(component.getX(), component.getY()).add(component);
+        }
+        children.clear();
+    }
+
+    private RegionNode quadrantFor(int px, int py) {
+        int index = (px < x + width / 2 ? 0 : 1) + (py < y + height / 2 ? 0 : 2);
+        return quadrants[index];
+    }
+}
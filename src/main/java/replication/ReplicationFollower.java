@@ -0,0 +1,268 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Hot Standby:
+ *   Il follower mantiene una copia aggiornata di tutti i mondi del primario senza eseguirne la fisica;
+ *   alla promozione avvia i motori e diventa primario con le sessioni intatte.
+ *
+ * - Memento Pattern:
+ *   Ogni voce di un batch è lo stato completo di una sessione, applicato con SessionRegistry.decode.
+ *
+ * Il ritardo di replica è misurato sull'orologio del primario riportato in ogni batch (anche negli heartbeat),
+ * quindi cresce da solo se il primario smette di rispondere.
+ */
+
+package replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import exception.EmojiCraftException;
+import game.GameWorld;
+import game.Player;
+import shard.SessionRegistry;
+import util.LoggerUtil;
+
+public class ReplicationFollower {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    public static final String PRIMARY_PROPERTY = "emojicraft.replication.primary";
+    private static final long RECONNECT_MILLIS = 500;
+
+    private final InetSocketAddress primary;
+    private final GameWorld mainWorld;
+    private final Player mainPlayer;
+    private final SessionRegistry registry;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private ByteBuffer body = ByteBuffer.allocate(64 * 1024);
+    private volatile SocketChannel channel;
+    private volatile boolean connected;
+    private volatile boolean promoted;
+    private volatile long appliedSequence;
+    private volatile long primaryMillis;
+    private Thread thread;
+
+    public ReplicationFollower(InetSocketAddress primary, GameWorld mainWorld, Player mainPlayer,
+                               SessionRegistry registry) {
+        this.primary = primary;
+        this.mainWorld = mainWorld;
+        this.mainPlayer = mainPlayer;
+        this.registry = registry;
+        registry.setReadOnly(true); // Fino alla promozione le sessioni arrivano solo dal primario
+    }
+
+    /**
+     * Follower configurato dalle proprietà di sistema (host:porta del primario), oppure null se non attivo.
+     */
+    public static ReplicationFollower fromSystemProperties(GameWorld mainWorld, Player mainPlayer,
+                                                           SessionRegistry registry) {
+        if (!isConfigured()) {
+            return null;
+        }
+        String address = System.getProperty(PRIMARY_PROPERTY).trim();
+        int separator = address.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new EmojiCraftException("Indirizzo del primario non valido (atteso host:porta): " + address);
+        }
+        return new ReplicationFollower(new InetSocketAddress(address.substring(0, separator),
+                Integer.parseInt(address.substring(separator + 1))), mainWorld, mainPlayer, registry);
+    }
+
+    /**
+     * Vero se questo processo parte come follower: in tal caso il motore principale non va avviato.
+     */
+    public static boolean isConfigured() {
+        String address = System.getProperty(PRIMARY_PROPERTY);
+        return address != null && !address.isBlank();
+    }
+
+    public synchronized void start() {
+        if (thread != null || promoted) {
+            return;
+        }
+        thread = new Thread(this::run, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Smette di seguire il primario e avvia la fisica delle sessioni replicate.
+     * L'avvio del mondo principale (motore e timer) è compito del chiamante.
+     *
+     * @return false se il follower era già stato promosso
+     */
+    public boolean promote() {
+        synchronized (this) {
+            if (promoted) {
+                return false;
+            }
+            promoted = true;
+        }
+        closeChannel();
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        registry.setReadOnly(false);
+        registry.startAll();
+        logger.info("Follower promosso a primario: sequenza applicata " + appliedSequence + ", "
+                + registry.size() + " sessioni.");
+        return true;
+    }
+
+    private void run() {
+        while (!promoted) {
+            try (SocketChannel socket = SocketChannel.open(primary)) {
+                channel = socket;
+                connected = true;
+                connections.incrementAndGet();
+                logger.info("Replica collegata al primario " + primary);
+                while (!promoted) {
+                    applyBatch(readBatch(socket));
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!promoted) {
+                    logger.log(Level.WARNING, "Replica dal primario interrotta: {0}", e.getMessage());
+                }
+            } finally {
+                connected = false;
+                channel = null;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private ByteBuffer readBatch(SocketChannel socket) throws IOException {
+        header.clear();
+        readFully(socket, header);
+        int length = header.getInt(0);
+        if (length < 0 || length > ReplicationProtocol.MAX_BATCH_BYTES) {
+            throw new IOException("Batch di replica non valido: " + length + " byte");
+        }
+        if (body.capacity() < length) {
+            body = ByteBuffer.allocate(Math.max(length, body.capacity() * 2));
+        }
+        body.clear().limit(length);
+        readFully(socket, body);
+        body.flip();
+        bytesReceived.addAndGet(Integer.BYTES + length);
+        return body;
+    }
+
+    private static void readFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (socket.read(buffer) < 0) {
+                throw new EOFException("Il primario ha chiuso la connessione");
+            }
+        }
+    }
+
+    /**
+     * Applica un batch ricevuto (visibile ai test senza socket).
+     */
+    void applyBatch(ByteBuffer batch) throws IOException {
+        long sequence = batch.getLong();
+        long millis = batch.getLong();
+        boolean full = (batch.get() & ReplicationProtocol.FLAG_FULL) != 0;
+        int count = batch.getInt();
+        Set<String> present = full ? new HashSet<>() : null;
+        for (int i = 0; i < count; i++) {
+            byte op = batch.get();
+            String sessionId = readUtf(batch);
+            if (op == ReplicationProtocol.OP_DELETE) {
+                registry.remove(sessionId);
+                continue;
+            }
+            byte[] state = new byte[batch.getInt()];
+            batch.get(state);
+            if (sessionId.equals(ReplicationProtocol.MAIN_SESSION)) {
+                SessionRegistry.decode(state, mainWorld, mainPlayer);
+            } else {
+                registry.apply(sessionId, state);
+            }
+            if (present != null) {
+                present.add(sessionId);
+            }
+        }
+        if (present != null) {
+            // Risincronizzazione: le sessioni assenti dallo snapshot completo non esistono più sul primario
+            for (String sessionId : List.copyOf(registry.getSessionIds())) {
+                if (!present.contains(sessionId)) {
+                    registry.remove(sessionId);
+                }
+            }
+        }
+        appliedSequence = sequence;
+        primaryMillis = millis;
+        batches.incrementAndGet();
+    }
+
+    private static String readUtf(ByteBuffer batch) throws IOException {
+        int length = Short.toUnsignedInt(batch.getShort(batch.position()));
+        byte[] encoded = new byte[Short.BYTES + length];
+        batch.get(encoded);
+        return new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+    }
+
+    private void closeChannel() {
+        SocketChannel current = channel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Già chiuso
+            }
+        }
+    }
+
+    /**
+     * Ritardo rispetto al primario in millisecondi, oppure -1 se non è ancora arrivato alcun batch.
+     */
+    public long getLagMillis() {
+        return appliedSequence == 0 ? -1 : Math.max(0, System.currentTimeMillis() - primaryMillis);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+}
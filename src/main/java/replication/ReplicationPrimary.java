@@ -0,0 +1,365 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   Il primario osserva i propri mondi (cursore degli eventi, giocatore, punteggio, tempo) e invia ai follower
+ *   lo stato delle sole sessioni cambiate dall'ultimo giro; un giro senza modifiche invia solo un heartbeat.
+ *
+ * - Reactor Pattern:
+ *   Un unico thread con Selector NIO accetta i follower e scrive in modo non bloccante: i batch in coda di un
+ *   follower vengono inviati con una sola scrittura gather, e un follower lento non rallenta mai gli altri.
+ *
+ * - Memento Pattern:
+ *   Lo stato di ogni sessione viaggia nello stesso formato usato per i trasferimenti tra shard (SessionRegistry).
+ *
+ * Motivo dell'utilizzo:
+ * - Il thread di fisica non partecipa alla replica: il replicatore legge il mondo come una qualunque richiesta
+ *   /world, quindi un follower lento o disconnesso non può mai bloccare il tick.
+ * - Un follower che accumula troppi dati non viene atteso: il suo arretrato viene scartato e al giro successivo
+ *   riceve uno snapshot completo.
+ */
+
+package replication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import game.GameWorld;
+import game.Player;
+import shard.GameSession;
+import shard.SessionRegistry;
+import util.LoggerUtil;
+
+public class ReplicationPrimary {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    public static final String PORT_PROPERTY = "emojicraft.replication.port";
+    private static final long DEFAULT_INTERVAL_MILLIS = 50;
+    private static final int MAX_PENDING_BYTES = 8 << 20; // Arretrato oltre il quale il follower viene risincronizzato
+
+    private final GameWorld mainWorld;
+    private final Player mainPlayer;
+    private final SessionRegistry registry;
+    private final long intervalMillis;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    // Stato dell'ultimo giro (accesso solo dal thread di replica)
+    private final Map<String, Stamp> stamps = new HashMap<>();
+    private final Map<String, byte[]> snapshots = new HashMap<>();
+    private final Map<SocketChannel, Follower> followers = new HashMap<>();
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private volatile long sequence;
+    private volatile int followerCount;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Firma dello stato di una sessione: se non cambia, la sessione non viene serializzata di nuovo.
+     */
+    private record Stamp(long eventCursor, int playerX, int playerY, int score, int timeRemaining) {
+    }
+
+    /**
+     * Connessione di un follower con i batch ancora da scrivere.
+     */
+    private static final class Follower {
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        private boolean needsFull = true;
+
+        private long pendingBytes() {
+            long total = 0;
+            for (ByteBuffer buffer : pending) {
+                total += buffer.remaining();
+            }
+            return total;
+        }
+
+        // Scarta i batch non ancora iniziati; uno scritto a metà va completato per non rompere il flusso
+        private void dropBacklog() {
+            ByteBuffer head = pending.peek();
+            pending.clear();
+            if (head != null && head.position() > 0) {
+                pending.add(head);
+            }
+        }
+    }
+
+    public ReplicationPrimary(int port, GameWorld mainWorld, Player mainPlayer, SessionRegistry registry)
+            throws IOException {
+        this(port, mainWorld, mainPlayer, registry, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public ReplicationPrimary(int port, GameWorld mainWorld, Player mainPlayer, SessionRegistry registry,
+                              long intervalMillis) throws IOException {
+        this.mainWorld = mainWorld;
+        this.mainPlayer = mainPlayer;
+        this.registry = registry;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Primario configurato dalle proprietà di sistema, oppure null se la replica non è attiva.
+     */
+    public static ReplicationPrimary fromSystemProperties(GameWorld mainWorld, Player mainPlayer,
+                                                          SessionRegistry registry) throws IOException {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null || port.isBlank()) {
+            return null;
+        }
+        return new ReplicationPrimary(Integer.parseInt(port.trim()), mainWorld, mainPlayer, registry);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::loop, "replication-primary");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            for (SocketChannel channel : followers.keySet()) {
+                channel.close();
+            }
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Errore durante la chiusura della replica: {0}", e.getMessage());
+        }
+    }
+
+    private void loop() {
+        long nextRound = System.currentTimeMillis();
+        while (running) {
+            try {
+                long wait = nextRound - System.currentTimeMillis();
+                if (wait > 0) {
+                    selector.select(wait);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                if (System.currentTimeMillis() >= nextRound) {
+                    round();
+                    nextRound = System.currentTimeMillis() + intervalMillis;
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Errore nel thread di replica: {0}", e.getMessage());
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            if (key.isReadable()) {
+                // Il follower non invia nulla: una lettura serve solo ad accorgersi della chiusura
+                discard.clear();
+                if (channel.read(discard) < 0) {
+                    disconnect(channel);
+                    return;
+                }
+            }
+            if (key.isWritable()) {
+                flush(channel, followers.get(channel));
+            }
+        } catch (IOException e) {
+            disconnect(channel);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ);
+            followers.put(channel, new Follower());
+            followerCount = followers.size();
+            logger.info("Follower di replica connesso: " + channel.getRemoteAddress());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Connessione del follower rifiutata: {0}", e.getMessage());
+        }
+    }
+
+    private void disconnect(SocketChannel channel) {
+        followers.remove(channel);
+        followerCount = followers.size();
+        try {
+            logger.info("Follower di replica disconnesso: " + channel.getRemoteAddress());
+            channel.close();
+        } catch (IOException e) {
+            // Già chiuso
+        }
+    }
+
+    /**
+     * Un giro di replica: serializza le sessioni cambiate e accoda a ogni follower il delta (o lo snapshot completo).
+     */
+    private void round() {
+        if (followers.isEmpty()) {
+            // Nessuno da aggiornare: il primo follower riceverà comunque uno snapshot completo
+            stamps.clear();
+            snapshots.clear();
+            return;
+        }
+        Map<String, byte[]> changed = collectChanges();
+        long seq = ++sequence;
+        long now = System.currentTimeMillis();
+        ByteBuffer delta = ReplicationProtocol.encodeBatch(seq, now, false, changed);
+        ByteBuffer full = null;
+        for (Map.Entry<SocketChannel, Follower> entry : Map.copyOf(followers).entrySet()) {
+            Follower follower = entry.getValue();
+            if (follower.pendingBytes() > MAX_PENDING_BYTES) {
+                follower.dropBacklog();
+                follower.needsFull = true;
+                resyncs.incrementAndGet();
+            }
+            if (follower.needsFull) {
+                if (full == null) {
+                    full = ReplicationProtocol.encodeBatch(seq, now, true, snapshots);
+                }
+                follower.pending.add(full.duplicate());
+                follower.needsFull = false;
+            } else {
+                follower.pending.add(delta.duplicate());
+            }
+            try {
+                flush(entry.getKey(), follower);
+            } catch (IOException e) {
+                disconnect(entry.getKey());
+            }
+        }
+        batches.incrementAndGet();
+    }
+
+    private Map<String, byte[]> collectChanges() {
+        Map<String, byte[]> changed = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        collect(ReplicationProtocol.MAIN_SESSION, mainWorld, mainPlayer, changed);
+        seen.add(ReplicationProtocol.MAIN_SESSION);
+        for (String sessionId : registry.getSessionIds()) {
+            GameSession session = registry.get(sessionId);
+            if (session != null && session.getMovedTo() == null) {
+                collect(sessionId, session.getWorld(), session.getPlayer(), changed);
+                seen.add(sessionId);
+            }
+        }
+        // Sessioni non più ospitate qui (ad esempio trasferite a un altro shard)
+        for (Iterator<String> ids = snapshots.keySet().iterator(); ids.hasNext(); ) {
+            String sessionId = ids.next();
+            if (!seen.contains(sessionId)) {
+                ids.remove();
+                stamps.remove(sessionId);
+                changed.put(sessionId, null);
+            }
+        }
+        return changed;
+    }
+
+    private void collect(String sessionId, GameWorld world, Player player, Map<String, byte[]> changed) {
+        Stamp stamp = new Stamp(world.getEvents().getCursor(), player.getX(), player.getY(), world.getScore(),
+                world.getTimeRemaining());
+        if (stamp.equals(stamps.get(sessionId))) {
+            return;
+        }
+        byte[] state = SessionRegistry.encode(world, player);
+        stamps.put(sessionId, stamp);
+        snapshots.put(sessionId, state);
+        changed.put(sessionId, state);
+    }
+
+    // Scrive tutti i batch in coda con una sola gather write; quello che resta aspetta OP_WRITE
+    private void flush(SocketChannel channel, Follower follower) throws IOException {
+        if (follower == null) {
+            return;
+        }
+        if (!follower.pending.isEmpty()) {
+            long written = channel.write(follower.pending.toArray(new ByteBuffer[0]));
+            bytesSent.addAndGet(written);
+            while (!follower.pending.isEmpty() && !follower.pending.peek().hasRemaining()) {
+                follower.pending.poll();
+            }
+        }
+        SelectionKey key = channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(follower.pending.isEmpty()
+                    ? SelectionKey.OP_READ
+                    : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getFollowerCount() {
+        return followerCount;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getResyncs() {
+        return resyncs.get();
+    }
+}
@@ -0,0 +1,56 @@
+package replication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import exception.EmojiCraftException;
+
+/**
+ * Formato del flusso di replica (TCP, big-endian):
+ *   batch:  lunghezza (int, esclusa) | sequenza (long) | orologio del primario in ms (long) | flag (byte) | voci (int)
+ *   voce:   operazione (byte) | id della sessione (UTF) | [lunghezza (int) | stato serializzato da SessionRegistry]
+ * Un batch senza voci è un heartbeat: il follower misura il ritardo anche quando il mondo non cambia.
+ * Con FLAG_FULL il batch contiene tutte le sessioni e quelle assenti vanno rimosse (risincronizzazione).
+ */
+final class ReplicationProtocol {
+    static final byte OP_PUT = 1;
+    static final byte OP_DELETE = 2;
+    static final byte FLAG_FULL = 1;
+    // Id con cui viaggia il mondo principale del processo (le sessioni hanno sempre un id non vuoto)
+    static final String MAIN_SESSION = "";
+    static final int MAX_BATCH_BYTES = 64 << 20;
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * Serializza un batch: le voci con stato null sono rimozioni.
+     */
+    static ByteBuffer encodeBatch(long sequence, long millis, boolean full, Map<String, byte[]> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0); // Lunghezza, scritta alla fine
+            out.writeLong(sequence);
+            out.writeLong(millis);
+            out.writeByte(full ? FLAG_FULL : 0);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                byte[] state = entry.getValue();
+                out.writeByte(state != null ? OP_PUT : OP_DELETE);
+                out.writeUTF(entry.getKey());
+                if (state != null) {
+                    out.writeInt(state.length);
+                    out.write(state);
+                }
+            }
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile serializzare il batch di replica", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        buffer.putInt(0, buffer.capacity() - Integer.BYTES);
+        return buffer.asReadOnlyBuffer();
+    }
+}
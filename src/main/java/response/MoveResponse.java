@@ -15,12 +15,19 @@ public class MoveResponse {
     private final int playerY;
     private final int score;
     private final boolean itemCollected;
+    // Numero di sequenza del client dell'ultima mossa applicata (-1 se la richiesta non ne indicava)
+    private final long lastSequence;
 
     public MoveResponse(int playerX, int playerY, int score, boolean itemCollected) {
+        this(playerX, playerY, score, itemCollected, -1);
+    }
+
+    public MoveResponse(int playerX, int playerY, int score, boolean itemCollected, long lastSequence) {
         this.playerX = playerX;
         this.playerY = playerY;
         this.score = score;
         this.itemCollected = itemCollected;
+        this.lastSequence = lastSequence;
     }
 
     public int getPlayerX() {
@@ -38,4 +45,8 @@ public class MoveResponse {
     public boolean isItemCollected() {
         return itemCollected;
     }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
 }
@@ -0,0 +1,93 @@
+package response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codifica JSON di MoveResponse senza allocazioni.
+ * Produce gli stessi campi, nello stesso ordine, della serializzazione Gson di MoveResponse, scrivendo le cifre
+ * in un buffer riutilizzato per thread: nessun oggetto risposta, nessuna stringa e nessun array per richiesta.
+ */
+public final class MoveResponseEncoder {
+    private static final byte[] PLAYER_X = ascii("{\"playerX\":");
+    private static final byte[] PLAYER_Y = ascii(",\"playerY\":");
+    private static final byte[] SCORE = ascii(",\"score\":");
+    private static final byte[] ITEM_COLLECTED = ascii(",\"itemCollected\":");
+    private static final byte[] LAST_SEQUENCE = ascii(",\"lastSequence\":");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final int BUFFER_SIZE = 128; // Campi fissi più quattro numeri al massimo di 20 caratteri
+
+    // Un buffer per thread del server: il contenuto non sopravvive alla singola richiesta
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private MoveResponseEncoder() {
+    }
+
+    /**
+     * Scrive {"playerX":..,"playerY":..,"score":..,"itemCollected":..,"lastSequence":..} sullo stream.
+     */
+    public static void write(OutputStream out, int playerX, int playerY, int score, boolean itemCollected, long lastSequence)
+            throws IOException {
+        writeEncoded(out, encode(playerX, playerY, score, itemCollected, lastSequence));
+    }
+
+    /**
+     * Codifica la risposta nel buffer del thread senza scriverla: permette di misurare la codifica
+     * e di impostare gli header prima che il corpo parta.
+     *
+     * @return il numero di byte da passare a writeEncoded
+     */
+    public static int encode(int playerX, int playerY, int score, boolean itemCollected, long lastSequence) {
+        byte[] buffer = BUFFER.get();
+        int pos = put(buffer, 0, PLAYER_X);
+        pos = putLong(buffer, pos, playerX);
+        pos = put(buffer, pos, PLAYER_Y);
+        pos = putLong(buffer, pos, playerY);
+        pos = put(buffer, pos, SCORE);
+        pos = putLong(buffer, pos, score);
+        pos = put(buffer, pos, ITEM_COLLECTED);
+        pos = put(buffer, pos, itemCollected ? TRUE : FALSE);
+        pos = put(buffer, pos, LAST_SEQUENCE);
+        pos = putLong(buffer, pos, lastSequence);
+        buffer[pos++] = '}';
+        return pos;
+    }
+
+    /**
+     * Scrive sullo stream la risposta codificata da encode sullo stesso thread.
+     */
+    public static void writeEncoded(OutputStream out, int length) throws IOException {
+        out.write(BUFFER.get(), 0, length);
+    }
+
+    private static int put(byte[] buffer, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    // Cifre decimali scritte da destra a sinistra, senza Long.toString
+    private static int putLong(byte[] buffer, int pos, long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(buffer, pos, ascii(Long.toString(value)));
+        }
+        if (value < 0) {
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
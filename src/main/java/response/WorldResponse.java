@@ -17,14 +17,44 @@ public class WorldResponse {
     private final boolean collected;
     private final boolean gameActive;
     private final int timeRemaining;
+    // Origine del viewport nel mondo: (0, 0) quando la griglia contiene l'intera mappa
+    private final int viewX;
+    private final int viewY;
+    // Intervallo di aggiornamento suggerito al client, da gameUpdateFPS (0 = scelto dal client)
+    private final int updateIntervalMillis;
+    // Ultimo input del client incluso nella griglia e dimensioni del mondo, per la previsione lato client
+    private final long lastSequence;
+    private final int worldWidth;
+    private final int worldHeight;
 
     public WorldResponse(String[][] grid, int score, int recentScoreGained, boolean collected, boolean gameActive, int timeRemaining) {
+        this(grid, score, recentScoreGained, collected, gameActive, timeRemaining, 0, 0);
+    }
+
+    public WorldResponse(String[][] grid, int score, int recentScoreGained, boolean collected, boolean gameActive, int timeRemaining,
+                         int viewX, int viewY) {
+        this(grid, score, recentScoreGained, collected, gameActive, timeRemaining, viewX, viewY, 0);
+    }
+
+    public WorldResponse(String[][] grid, int score, int recentScoreGained, boolean collected, boolean gameActive, int timeRemaining,
+                         int viewX, int viewY, int updateIntervalMillis) {
+        this(grid, score, recentScoreGained, collected, gameActive, timeRemaining, viewX, viewY, updateIntervalMillis, 0, 0, 0);
+    }
+
+    public WorldResponse(String[][] grid, int score, int recentScoreGained, boolean collected, boolean gameActive, int timeRemaining,
+                         int viewX, int viewY, int updateIntervalMillis, long lastSequence, int worldWidth, int worldHeight) {
         this.grid = grid;
         this.score = score;
         this.recentScoreGained = recentScoreGained;
         this.collected = collected;
         this.gameActive = gameActive;
         this.timeRemaining = timeRemaining;
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.updateIntervalMillis = updateIntervalMillis;
+        this.lastSequence = lastSequence;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
     }
 
     public String[][] getGrid() {
@@ -46,4 +76,28 @@ public class WorldResponse {
     public boolean isGameActive() { // Getter per gameActive
         return gameActive;
     }
-}
\ No newline at end of file
+
+    public int getViewX() {
+        return viewX;
+    }
+
+    public int getViewY() {
+        return viewY;
+    }
+
+    public int getUpdateIntervalMillis() {
+        return updateIntervalMillis;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+}
@@ -0,0 +1,63 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import util.GameSettings;
+
+/**
+ * Controllo di ammissione globale: limita il numero di partite in corso nel processo.
+ * Oltre il limite /start e /restart rispondono subito con 503 invece di avviare altri thread di gioco.
+ */
+public class GameAdmission {
+    private final int maxConcurrentGames;
+    private final AtomicInteger runningGames = new AtomicInteger();
+
+    private static GameAdmission instance;
+
+    // Singleton Pattern: limite unico per l'intero processo, configurato da GameSettings
+    public static synchronized GameAdmission getInstance() {
+        if (instance == null) {
+            instance = new GameAdmission(GameSettings.getInstance().getMaxConcurrentGames());
+        }
+        return instance;
+    }
+
+    public GameAdmission(int maxConcurrentGames) {
+        this.maxConcurrentGames = maxConcurrentGames;
+    }
+
+    /**
+     * Riserva un posto per una nuova partita; il chiamante deve invocare release() quando la partita termina.
+     */
+    public boolean tryAdmit() {
+        while (true) {
+            int current = runningGames.get();
+            if (current >= maxConcurrentGames) {
+                return false;
+            }
+            if (runningGames.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Riserva un posto senza controllare il limite: solo per una partita già in corso, che passa da una partita
+     * sostituita (che libera il suo posto quando il timer viene fermato) o da un altro processo.
+     */
+    public void transfer() {
+        runningGames.incrementAndGet();
+    }
+
+    public void release() {
+        runningGames.decrementAndGet();
+    }
+
+    public int getRunningGames() {
+        return runningGames.get();
+    }
+
+    public int getMaxConcurrentGames() {
+        return maxConcurrentGames;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Strategy Pattern:
+ *   Come HeadlessSimulation, il riscaldamento usa mondi usa e getta con un VirtualClock: fisica, mosse e codifiche
+ *   girano senza Thread.sleep, senza server HTTP e senza toccare il mondo reale o i file di salvataggio.
+ *
+ * Motivo dell'utilizzo:
+ * - Dopo un deploy le prime richieste girerebbero nell'interprete e in C1. Eseguendo prima gli stessi percorsi
+ *   di /world, /move e /moves (griglia, collisioni, Gson, codifica manuale) il JIT li compila prima che
+ *   il server apra la porta, e /ready segnala al bilanciatore solo i nodi già riscaldati.
+ */
+
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import com.google.gson.Gson;
+
+import exception.EmojiCraftException;
+import game.Direction;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+import response.MoveResponse;
+import response.MoveResponseEncoder;
+import response.WorldResponse;
+import util.GameConsole;
+import util.VirtualClock;
+
+public class JitWarmUp {
+    private static final String BATCH = "DDAWSA";
+    private static final int VIEWPORT = 16;
+
+    /**
+     * DTO Pattern: quanto lavoro sintetico è stato eseguito e quanto è costato.
+     *
+     * @param compileMillis tempo speso dai compilatori JIT durante il riscaldamento (-1 se non misurabile)
+     */
+    public record Result(long ticks, long moves, long encodes, int worlds, long elapsedNanos, long compileMillis) {
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+
+    private JitWarmUp() {
+    }
+
+    /**
+     * Esegue il numero indicato di tick sintetici: a ogni tick una mossa (singola o a lotti), un passo di fisica,
+     * la griglia di /world (intera e come viewport) codificata con Gson, e la risposta di /move e /moves.
+     */
+    public static Result run(long ticks, int durationSeconds, int width, int height, long seed) {
+        boolean consoleWasEnabled = GameConsole.isEnabled();
+        GameConsole.setEnabled(false);
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean timed = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long compileBefore = timed ? compiler.getTotalCompilationTime() : 0;
+        Gson gson = new Gson();
+        OutputStream discard = OutputStream.nullOutputStream();
+        SplittableRandom inputs = new SplittableRandom(seed);
+        long moves = 0;
+        long encodes = 0;
+        int worlds = 0;
+        long start = System.nanoTime();
+        try {
+            long done = 0;
+            while (done < ticks) {
+                VirtualClock clock = new VirtualClock();
+                GameWorld gameWorld = new GameWorld(width, height, clock, inputs.nextLong());
+                gameWorld.setWorldId("warmup");
+                Player player = new Player(Math.min(2, width - 1), Math.min(5, height - 3));
+                GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+                gameWorld.setPhysics(gamePhysics);
+                worlds++;
+                // Una partita per mondo, come HeadlessSimulation: spawn, scadenze e raccolte, poi un mondo nuovo
+                long interval = Math.max(1, gamePhysics.getInterval());
+                long gameTicks = Math.max(1, durationSeconds * 1000L / interval);
+                long sequence = 0;
+                for (int tick = 0; tick < gameTicks && done < ticks; tick++, done++) {
+                    boolean collected;
+                    if (tick % 8 == 0) {
+                        long[] sequences = new long[BATCH.length()];
+                        for (int i = 0; i < sequences.length; i++) {
+                            sequences[i] = ++sequence;
+                        }
+                        collected = gameWorld.movePlayerBatch(player, BATCH, sequences, gamePhysics);
+                        MoveResponse response = gameWorld.getMoveResponse(player, collected, player.getLastSequence());
+                        gson.toJson(response);
+                        moves += BATCH.length();
+                        encodes++;
+                    } else {
+                        Direction direction = Direction.byIndex(inputs.nextInt(Direction.count()));
+                        collected = gameWorld.movePlayer(player, direction, ++sequence, gamePhysics);
+                        int length = MoveResponseEncoder.encode(player.getX(), player.getY(), gameWorld.getScore(),
+                                collected, player.getLastSequence());
+                        MoveResponseEncoder.writeEncoded(discard, length);
+                        moves++;
+                        encodes++;
+                    }
+                    clock.advance(interval);
+                    gamePhysics.tick();
+                    gameWorld.setTimeRemaining((int) (durationSeconds - clock.millis() / 1000));
+
+                    String[][] grid = tick % 2 == 0
+                            ? gameWorld.getWorldState(player)
+                            : gameWorld.getWorldState(player, gameWorld.getViewportOriginX(player, VIEWPORT),
+                                    gameWorld.getViewportOriginY(player, VIEWPORT), VIEWPORT, VIEWPORT);
+                    WorldResponse world = new WorldResponse(grid, gameWorld.getScore(), gameWorld.getRecentScoreGained(),
+                            gameWorld.isItemCollected(), true, gameWorld.getTimeRemaining(), 0, 0, 100,
+                            player.getLastSequence(), gameWorld.getWidth(), gameWorld.getHeight());
+                    gson.toJson(world);
+                    encodes++;
+                }
+                gameWorld.setGameActive(false);
+                gameWorld.dispose(); // Mondo usa e getta: il file dei chunk (se attivo) viene chiuso e cancellato
+            }
+        } catch (IOException e) {
+            throw new EmojiCraftException("Errore di scrittura durante il riscaldamento", e);
+        } finally {
+            GameConsole.setEnabled(consoleWasEnabled);
+        }
+        long compileMillis = timed ? compiler.getTotalCompilationTime() - compileBefore : -1;
+        return new Result(ticks, moves, encodes, worlds, System.nanoTime() - start, compileMillis);
+    }
+}
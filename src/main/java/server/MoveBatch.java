@@ -0,0 +1,128 @@
+package server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import exception.EmojiCraftException;
+
+/**
+ * DTO Pattern: lotto ordinato di mosse ricevuto da /moves.
+ * Ogni lotto non valido viene segnalato con EmojiCraftException, che /moves trasforma in una risposta 400.
+ * Formati accettati:
+ * - compatto: dirs=DDWA&seq=12 (seq è il numero di sequenza della prima mossa, le successive sono consecutive)
+ * - JSON: [{"seq": 12, "dir": "D"}, {"seq": 13, "dir": "D"}, ...]
+ *
+ * @param directions direzioni in ordine di applicazione, una lettera WASD per mossa
+ * @param sequences  numero di sequenza di ogni mossa (null se il client non li usa)
+ */
+public record MoveBatch(String directions, long[] sequences) {
+    public static final int MAX_MOVES = 32; // Mosse per richiesta: oltre questo limite il lotto viene rifiutato
+
+    /**
+     * Formato compatto: una lettera per mossa.
+     */
+    public static MoveBatch fromString(String dirs, String firstSequence) {
+        if (dirs == null || dirs.isEmpty()) {
+            throw new EmojiCraftException("Nessuna mossa nel lotto");
+        }
+        String directions = dirs.toUpperCase();
+        checkSize(directions.length());
+        for (int i = 0; i < directions.length(); i++) {
+            checkDirection(directions.charAt(i));
+        }
+        long[] sequences = null;
+        if (firstSequence != null && !firstSequence.isEmpty()) {
+            long first;
+            try {
+                first = Long.parseLong(firstSequence);
+            } catch (NumberFormatException e) {
+                throw new EmojiCraftException("Numero di sequenza non valido: " + firstSequence, e);
+            }
+            sequences = new long[directions.length()];
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = first + i;
+            }
+        }
+        return new MoveBatch(directions, sequences);
+    }
+
+    /**
+     * Formato JSON: array di oggetti {seq, dir} con numeri di sequenza crescenti.
+     */
+    public static MoveBatch fromJson(String body) {
+        JsonArray moves;
+        try {
+            moves = JsonParser.parseString(body).getAsJsonArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new EmojiCraftException("Lotto di mosse non valido: atteso un array JSON", e);
+        }
+        if (moves.isEmpty()) {
+            throw new EmojiCraftException("Nessuna mossa nel lotto");
+        }
+        checkSize(moves.size());
+        StringBuilder directions = new StringBuilder(moves.size());
+        long[] sequences = new long[moves.size()];
+        long lastSequence = -1;
+        int sequenced = 0;
+        for (JsonElement element : moves) {
+            if (!element.isJsonObject()) {
+                throw new EmojiCraftException("Mossa non valida nel lotto: " + element);
+            }
+            JsonObject move = element.getAsJsonObject();
+            // Tipi controllati prima della conversione: {"dir": {}} o "seq": "x" sono errori del client, non eccezioni di Gson
+            JsonElement dirElement = move.get("dir");
+            String dir = dirElement != null && dirElement.isJsonPrimitive() && dirElement.getAsJsonPrimitive().isString()
+                    ? dirElement.getAsString().toUpperCase() : "";
+            if (dir.length() != 1) {
+                throw new EmojiCraftException("Invalid direction: " + dirElement);
+            }
+            checkDirection(dir.charAt(0));
+            if (move.has("seq")) {
+                long seq = parseSequence(move.get("seq"));
+                if (seq <= lastSequence) {
+                    throw new EmojiCraftException("Numeri di sequenza non crescenti nel lotto: " + seq);
+                }
+                lastSequence = seq;
+                sequences[sequenced++] = seq;
+            }
+            directions.append(dir.charAt(0));
+        }
+        if (sequenced != 0 && sequenced != sequences.length) {
+            throw new EmojiCraftException("Numero di sequenza mancante in alcune mosse del lotto");
+        }
+        return new MoveBatch(directions.toString(), sequenced == 0 ? null : sequences);
+    }
+
+    /**
+     * Numero di sequenza dell'ultima mossa del lotto (-1 se il client non li usa).
+     */
+    public long lastSequence() {
+        return sequences == null ? -1 : sequences[sequences.length - 1];
+    }
+
+    private static long parseSequence(JsonElement element) {
+        if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            throw new EmojiCraftException("Numero di sequenza non valido: " + element);
+        }
+        try {
+            return element.getAsLong();
+        } catch (NumberFormatException e) {
+            throw new EmojiCraftException("Numero di sequenza non valido: " + element, e);
+        }
+    }
+
+    private static void checkSize(int size) {
+        if (size > MAX_MOVES) {
+            throw new EmojiCraftException("Troppe mosse nel lotto: " + size + " (massimo " + MAX_MOVES + ")");
+        }
+    }
+
+    private static void checkDirection(char dir) {
+        if (dir != 'W' && dir != 'A' && dir != 'S' && dir != 'D') {
+            throw new EmojiCraftException("Invalid direction: " + dir);
+        }
+    }
+}
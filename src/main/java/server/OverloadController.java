@@ -0,0 +1,217 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Singleton Pattern:
+ *   OverloadController osserva il carico dell'intero processo, quindi ne esiste una sola istanza condivisa.
+ *
+ * - Observer Pattern:
+ *   I thread della fisica pubblicano il ritardo dei tick sui rispettivi GameWorld e i filtri HTTP contano le richieste
+ *   in corso; il controller campiona questi valori a intervalli regolari.
+ *
+ * - Hysteresis (controllo a isteresi):
+ *   Si degrada un mondo per campione sopra soglia e si ripristina un livello solo dopo diversi campioni consecutivi
+ *   sotto metà soglia, così il sistema non oscilla tra velocità piena e ridotta.
+ *
+ * Motivo dell'utilizzo:
+ * - Sotto sovraccarico è meglio servire tutti a frequenza leggermente ridotta che far crollare la latenza ovunque.
+ * - I mondi meno importanti (partite finite, inattive o seguite da spettatori) rallentano per primi e tornano
+ *   a piena velocità per ultimi: per uno spettatore un aggiornamento più rado pesa meno che per chi sta giocando.
+ */
+
+package server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import game.GameWorld;
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class OverloadController {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+    private static final int MAX_EVENTS = 100; // Eventi recenti esposti da /overload
+
+    // Priorità dei mondi: i valori più bassi vengono degradati per primi
+    static final int PRIORITY_ENDED = 0;
+    static final int PRIORITY_IDLE = 1;
+    static final int PRIORITY_SPECTATED = 2; // Partita in corso ma con spettatori: rallentare costa poco a chi guarda
+    static final int PRIORITY_ACTIVE = 3;
+
+    private static OverloadController instance;
+
+    private final Map<String, GameWorld> worlds = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final Deque<OverloadEvent> events = new ArrayDeque<>();
+    private ScheduledExecutorService sampler;
+    // Stato del ciclo di controllo (accesso solo da sample(), che è synchronized)
+    private int calmSamples = 0;
+    private boolean overloaded = false;
+    private long lastTickLagMillis = 0;
+
+    // Singleton Pattern: controller unico del processo
+    public static synchronized OverloadController getInstance() {
+        if (instance == null) {
+            instance = new OverloadController();
+        }
+        return instance;
+    }
+
+    /**
+     * Avvia il campionamento periodico su un thread daemon (le chiamate successive non hanno effetto).
+     */
+    public synchronized void start() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overload-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Controllo del sovraccarico avviato.");
+    }
+
+    public void register(String name, GameWorld gameWorld) {
+        worlds.put(name, gameWorld);
+    }
+
+    public void unregister(String name) {
+        GameWorld gameWorld = worlds.remove(name);
+        if (gameWorld != null) {
+            gameWorld.setDegradationLevel(0);
+        }
+    }
+
+    // Filtri HTTP: profondità della coda di richieste
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * Un passo del ciclo di controllo: al massimo un mondo cambia livello per campione.
+     */
+    public synchronized void sample() {
+        GameSettings settings = GameSettings.getInstance();
+        long lagThreshold = settings.getOverloadTickLagMillis();
+        int inFlightThreshold = settings.getOverloadInFlightRequests();
+
+        long tickLag = 0;
+        for (GameWorld gameWorld : worlds.values()) {
+            tickLag = Math.max(tickLag, gameWorld.getTickLagMillis());
+        }
+        int inFlight = inFlightRequests.get();
+        lastTickLagMillis = tickLag;
+
+        overloaded = tickLag > lagThreshold || inFlight > inFlightThreshold;
+        if (overloaded) {
+            calmSamples = 0;
+            degradeOne(settings, tickLag, inFlight);
+        } else if (tickLag <= lagThreshold / 2 && inFlight <= inFlightThreshold / 2) {
+            if (++calmSamples >= settings.getOverloadRestoreSamples()) {
+                calmSamples = 0;
+                restoreOne(tickLag, inFlight);
+            }
+        } else {
+            calmSamples = 0; // Banda di isteresi: nessun cambiamento
+        }
+    }
+
+    // Degrada il mondo con priorità più bassa che non ha ancora raggiunto il livello massimo
+    private void degradeOne(GameSettings settings, long tickLag, int inFlight) {
+        long now = System.currentTimeMillis();
+        Map.Entry<String, GameWorld> target = worlds.entrySet().stream()
+                .filter(entry -> entry.getValue().getDegradationLevel() < settings.getOverloadMaxLevel())
+                .min(Comparator.comparingInt((Map.Entry<String, GameWorld> entry) -> priorityOf(entry.getValue(), settings))
+                        .thenComparingInt(entry -> entry.getValue().getDegradationLevel()))
+                .orElse(null);
+        if (target == null) {
+            return; // Tutti i mondi sono già al livello massimo
+        }
+        int level = target.getValue().getDegradationLevel() + 1;
+        target.getValue().setDegradationLevel(level);
+        addEvent(new OverloadEvent(now, target.getKey(), "DEGRADE", level, tickLag, inFlight));
+        logger.warning("Sovraccarico (ritardo tick " + tickLag + " ms, richieste in corso " + inFlight
+                + "): mondo " + target.getKey() + " degradato al livello " + level);
+    }
+
+    // Ripristina per primo il mondo con priorità più alta (a parità, il più degradato)
+    private void restoreOne(long tickLag, int inFlight) {
+        GameSettings settings = GameSettings.getInstance();
+        Map.Entry<String, GameWorld> target = worlds.entrySet().stream()
+                .filter(entry -> entry.getValue().getDegradationLevel() > 0)
+                .max(Comparator.comparingInt((Map.Entry<String, GameWorld> entry) -> priorityOf(entry.getValue(), settings))
+                        .thenComparingInt(entry -> entry.getValue().getDegradationLevel()))
+                .orElse(null);
+        if (target == null) {
+            return;
+        }
+        int level = target.getValue().getDegradationLevel() - 1;
+        target.getValue().setDegradationLevel(level);
+        addEvent(new OverloadEvent(System.currentTimeMillis(), target.getKey(), "RESTORE", level, tickLag, inFlight));
+        logger.info("Carico rientrato: mondo " + target.getKey() + " ripristinato al livello " + level);
+    }
+
+    static int priorityOf(GameWorld gameWorld, GameSettings settings) {
+        if (!gameWorld.isGameActive()) {
+            return PRIORITY_ENDED;
+        }
+        long idleFor = gameWorld.getClock().millis() - gameWorld.getLastInputMillis();
+        if (idleFor > settings.getOverloadIdleMillis()) {
+            return PRIORITY_IDLE;
+        }
+        return gameWorld.getSpectatorCount() > 0 ? PRIORITY_SPECTATED : PRIORITY_ACTIVE;
+    }
+
+    private void addEvent(OverloadEvent event) {
+        synchronized (events) {
+            if (events.size() == MAX_EVENTS) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public List<OverloadEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    /**
+     * Stato corrente per l'endpoint /overload: soglie, misure e livello di ogni mondo.
+     */
+    public synchronized Map<String, Object> getStatus() {
+        GameSettings settings = GameSettings.getInstance();
+        Map<String, Integer> levels = new LinkedHashMap<>();
+        worlds.forEach((name, gameWorld) -> levels.put(name, gameWorld.getDegradationLevel()));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("overloaded", overloaded);
+        status.put("tickLagMillis", lastTickLagMillis);
+        status.put("tickLagThresholdMillis", settings.getOverloadTickLagMillis());
+        status.put("inFlightRequests", inFlightRequests.get());
+        status.put("inFlightThreshold", settings.getOverloadInFlightRequests());
+        status.put("degradationLevels", levels);
+        status.put("events", getEvents());
+        return status;
+    }
+}
@@ -0,0 +1,14 @@
+package server;
+
+/**
+ * DTO Pattern: evento di degrado o ripristino deciso da OverloadController.
+ *
+ * @param timestamp        istante dell'evento (millisecondi epoch)
+ * @param world            nome del mondo interessato
+ * @param type             DEGRADE oppure RESTORE
+ * @param level            nuovo livello di degrado del mondo
+ * @param tickLagMillis    ritardo dei tick misurato al momento della decisione
+ * @param inFlightRequests richieste HTTP in corso al momento della decisione
+ */
+public record OverloadEvent(long timestamp, String world, String type, int level, long tickLagMillis, int inFlightRequests) {
+}
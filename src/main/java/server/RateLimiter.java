@@ -0,0 +1,62 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Flyweight/Registry Pattern:
+ *   RateLimiter mantiene un TokenBucket per ogni client, creato al primo accesso e scartato quando torna pieno.
+ *
+ * Motivo dell'utilizzo:
+ * - Un client che invia richieste a raffica (o un tasto bloccato in ripetizione) consuma solo i propri gettoni
+ *   e riceve subito un 429, senza far crescere la latenza dei tick per gli altri giocatori.
+ * - Il controllo è senza lock: una lettura della mappa concorrente e un CAS per richiesta.
+ */
+
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RateLimiter {
+    private final String name;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxClients;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(String name, double ratePerSecond, int burst, int maxClients) {
+        this.name = name;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * @return 0 se la richiesta del client è ammessa, altrimenti i millisecondi da attendere
+     */
+    public long tryAcquire(String clientId) {
+        return tryAcquire(clientId, System.nanoTime());
+    }
+
+    long tryAcquire(String clientId, long nowNanos) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                evictFullBuckets(nowNanos);
+            }
+            bucket = buckets.computeIfAbsent(clientId, id -> new TokenBucket(ratePerSecond, burst, nowNanos));
+        }
+        long waitNanos = bucket.tryAcquire(nowNanos);
+        return waitNanos == 0 ? 0 : Math.max(1, waitNanos / 1_000_000);
+    }
+
+    // I bucket pieni non contengono informazioni: rimuoverli limita la memoria con molti client
+    private void evictFullBuckets(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,59 @@
+package server;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Singleton Pattern: stato di prontezza del processo per i bilanciatori di carico (/ready).
+ * Il nodo è pronto quando il riscaldamento del JIT è terminato (o disattivato) e Spark ha registrato tutte le rotte.
+ */
+public final class Readiness {
+    private static final Readiness instance = new Readiness();
+
+    private volatile boolean ready;
+    private volatile JitWarmUp.Result warmUp;
+    // Uptime della JVM nel momento in cui il nodo è diventato pronto (-1 = non ancora)
+    private volatile long readyAfterMillis = -1;
+
+    private Readiness() {
+    }
+
+    public static Readiness getInstance() {
+        return instance;
+    }
+
+    public void setWarmUp(JitWarmUp.Result warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public void markReady() {
+        if (!ready) {
+            readyAfterMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            ready = true;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * DTO Pattern: corpo JSON di /ready.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("readyAfterMillis", readyAfterMillis);
+        JitWarmUp.Result result = warmUp;
+        status.put("warmedUp", result != null);
+        if (result != null) {
+            status.put("warmUpMillis", result.elapsedMillis());
+            status.put("warmUpTicks", result.ticks());
+            status.put("warmUpMoves", result.moves());
+            status.put("warmUpEncodes", result.encodes());
+            status.put("jitCompileMillis", result.compileMillis());
+        }
+        return status;
+    }
+}
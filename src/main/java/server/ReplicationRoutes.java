@@ -0,0 +1,135 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Facade Pattern:
+ *   ReplicationRoutes espone via HTTP lo stato della replica (ruolo, follower collegati, ritardo) e la promozione
+ *   del follower, qualunque sia il ruolo di questo processo.
+ *
+ * - Guard Pattern:
+ *   Finché il processo è un follower le rotte che modificano il mondo rispondono 503: l'unica fonte di verità
+ *   è il primario, e una scrittura locale verrebbe sovrascritta dal batch successivo. Per lo stesso motivo
+ *   il registro delle sessioni non ne crea di nuove, e la promozione è riservata ai peer autenticati
+ *   (ShardRouter.isTrustedPeer): un client qualsiasi causerebbe un secondo primario (split brain).
+ *
+ * Configurazione (proprietà di sistema):
+ *   emojicraft.replication.port    porta TCP su cui il primario accetta i follower
+ *   emojicraft.replication.primary host:porta del primario da seguire (questo processo parte come follower)
+ */
+
+package server;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import game.GameWorld;
+import game.Player;
+import replication.ReplicationFollower;
+import replication.ReplicationPrimary;
+import shard.SessionRegistry;
+
+import static spark.Spark.before;
+import static spark.Spark.get;
+import static spark.Spark.halt;
+import static spark.Spark.post;
+
+public class ReplicationRoutes {
+    private static final String[] WRITE_PATHS = {"/move", "/moves", "/start", "/restart"};
+
+    private final ReplicationPrimary primary;
+    private final ReplicationFollower follower;
+    private final SessionRegistry registry;
+    // Avvio del motore principale dopo la promozione (il follower non lo esegue mai)
+    private final Runnable onPromote;
+    private final Gson gson = new Gson();
+
+    public ReplicationRoutes(ReplicationPrimary primary, ReplicationFollower follower, SessionRegistry registry,
+                             Runnable onPromote) {
+        this.primary = primary;
+        this.follower = follower;
+        this.registry = registry;
+        this.onPromote = onPromote;
+    }
+
+    /**
+     * Replica configurata dalle proprietà di sistema, oppure null se questo processo non replica.
+     */
+    public static ReplicationRoutes fromSystemProperties(GameWorld gameWorld, Player player, SessionRegistry registry,
+                                                         Runnable onPromote) throws IOException {
+        ReplicationFollower follower = ReplicationFollower.fromSystemProperties(gameWorld, player, registry);
+        ReplicationPrimary primary = ReplicationPrimary.fromSystemProperties(gameWorld, player, registry);
+        if (follower == null && primary == null) {
+            return null;
+        }
+        return new ReplicationRoutes(primary, follower, registry, onPromote);
+    }
+
+    /**
+     * Avvia la replica e registra filtri e rotte. Va chiamato prima delle rotte di gioco.
+     */
+    public void install() {
+        if (follower != null) {
+            for (String path : WRITE_PATHS) {
+                before(path, (req, res) -> {
+                    if (!follower.isPromoted()) {
+                        res.type("application/json");
+                        halt(503, "{\"error\": \"Read-only follower\"}");
+                    }
+                });
+            }
+            follower.start();
+        } else {
+            primary.start();
+        }
+
+        get("/replication", (req, res) -> {
+            res.type("application/json");
+            return gson.toJson(status());
+        });
+
+        // Promozione manuale: il follower smette di seguire il primario e avvia fisica e timer
+        post("/replication/promote", (req, res) -> {
+            res.type("application/json");
+            if (!ShardRouter.isTrustedPeer(req)) {
+                halt(403, "{\"error\": \"Shard authentication required\"}");
+            }
+            if (follower == null) {
+                res.status(409);
+                return "{\"error\": \"Not a follower\"}";
+            }
+            if (follower.promote()) {
+                onPromote.run();
+                if (primary != null) {
+                    primary.start(); // Il nuovo primario può a sua volta essere seguito
+                }
+            }
+            return gson.toJson(status());
+        });
+    }
+
+    private Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        boolean following = follower != null && !follower.isPromoted();
+        status.put("role", following ? "follower" : "primary");
+        status.put("sessions", registry.size());
+        if (follower != null) {
+            status.put("connected", follower.isConnected());
+            status.put("promoted", follower.isPromoted());
+            status.put("appliedSequence", follower.getAppliedSequence());
+            status.put("lagMillis", follower.getLagMillis());
+            status.put("batchesReceived", follower.getBatches());
+            status.put("bytesReceived", follower.getBytesReceived());
+            status.put("connections", follower.getConnections());
+        }
+        if (primary != null && !following) {
+            status.put("port", primary.getPort());
+            status.put("followers", primary.getFollowerCount());
+            status.put("sequence", primary.getSequence());
+            status.put("batchesSent", primary.getBatches());
+            status.put("bytesSent", primary.getBytesSent());
+            status.put("resyncs", primary.getResyncs());
+        }
+        return status;
+    }
+}
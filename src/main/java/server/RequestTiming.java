@@ -0,0 +1,113 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Object Pool (per thread):
+ *   Ogni thread del server riusa lo stesso RequestTiming: array delle durate e StringBuilder dell'header
+ *   vengono azzerati a ogni richiesta, quindi la misura non alloca nulla oltre alla stringa dell'header.
+ *
+ * - Template Method:
+ *   Le rotte chiamano mark(fase) al termine di ogni fase; la durata è la distanza dal mark precedente,
+ *   quindi ogni fase costa una sola lettura di System.nanoTime e una somma.
+ *
+ * Fasi misurate:
+ *   lock   attesa del monitor di GameWorld
+ *   logic  logica di gioco e lettura dei parametri (mossa, collisioni, dimensioni del viewport)
+ *   render origine del viewport, griglia e DTO della risposta
+ *   encode serializzazione della risposta
+ */
+
+package server;
+
+import java.util.Arrays;
+
+import spark.Response;
+
+public final class RequestTiming {
+    public static final int LOCK = 0;
+    public static final int LOGIC = 1;
+    public static final int RENDER = 2;
+    public static final int ENCODE = 3;
+    private static final String[] PHASES = {"lock", "logic", "render", "encode"};
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = ThreadLocal.withInitial(RequestTiming::new);
+
+    private final long[] durations = new long[PHASES.length];
+    private final boolean[] measured = new boolean[PHASES.length];
+    private final StringBuilder text = new StringBuilder(128);
+    private long startNanos;
+    private long lastNanos;
+
+    private RequestTiming() {
+    }
+
+    /**
+     * Inizio della misura sul thread corrente (il timing precedente del thread viene azzerato).
+     */
+    public static RequestTiming start() {
+        RequestTiming timing = CURRENT.get();
+        Arrays.fill(timing.durations, 0);
+        Arrays.fill(timing.measured, false);
+        timing.startNanos = System.nanoTime();
+        timing.lastNanos = timing.startNanos;
+        return timing;
+    }
+
+    /**
+     * Chiude la fase indicata: il tempo trascorso dal mark precedente viene attribuito alla fase.
+     */
+    public void mark(int phase) {
+        long now = System.nanoTime();
+        durations[phase] += now - lastNanos;
+        measured[phase] = true;
+        lastNanos = now;
+    }
+
+    /**
+     * Scrive l'header Server-Timing (va chiamato prima del corpo) e segnala la richiesta al log delle lente.
+     */
+    public void finish(Response res, String route, String worldId) {
+        res.header(HEADER, format(true));
+        SlowRequestLog.getInstance().record(route, worldId, this);
+    }
+
+    public long getDuration(int phase) {
+        return durations[phase];
+    }
+
+    public long getTotalNanos() {
+        return lastNanos - startNanos;
+    }
+
+    /**
+     * Fasi misurate nel formato di Server-Timing, ad esempio "lock;dur=0.004, logic;dur=0.031, total;dur=0.035".
+     */
+    String format(boolean withTotal) {
+        text.setLength(0);
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            if (measured[phase]) {
+                appendMetric(PHASES[phase], durations[phase]);
+            }
+        }
+        if (withTotal) {
+            appendMetric("total", getTotalNanos());
+        }
+        return text.toString();
+    }
+
+    // Millisecondi con tre decimali, senza String.format
+    private void appendMetric(String name, long nanos) {
+        if (text.length() > 0) {
+            text.append(", ");
+        }
+        long micros = Math.max(0, nanos / 1000);
+        long fraction = micros % 1000;
+        text.append(name).append(";dur=").append(micros / 1000).append('.');
+        if (fraction < 100) {
+            text.append('0');
+        }
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+}
@@ -4,20 +4,53 @@ import com.google.gson.Gson;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import analytics.AnalyticsRecorder;
 import exception.EmojiCraftException;
+import event.EventConsumer;
+import event.EventMetrics;
+import game.Direction;
+import interest.InterestManager;
+import jdk.jfr.EventType;
+import jfr.RequestEvent;
+import game.GameEngine;
 import game.GamePhysics;
 import game.GameWorld;
 import game.Player;
+import game.ReplayRecorder;
+import leaderboard.LeaderboardService;
+import replication.ReplicationFollower;
+import response.MoveResponse;
+import response.MoveResponseEncoder;
 import response.WorldResponse;
-import util.GameUtils;
+import shard.GameSession;
+import shard.SessionRegistry;
+import spectator.SpectatorFrame;
+import spectator.SpectatorHub;
+import spark.Request;
+import spark.Response;
+import terminal.TerminalFrame;
+import terminal.TerminalServer;
+import util.GameSettings;
 import util.LoggerUtil;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static spark.Spark.afterAfter;
+import static spark.Spark.awaitInitialization;
+import static spark.Spark.before;
 import static spark.Spark.get;
+import static spark.Spark.halt;
+import static spark.Spark.head;
 import static spark.Spark.port;
 import static spark.Spark.post;
-import static spark.Spark.staticFiles;
+import static spark.Spark.webSocket;
 
 public class ServerManager {
     /**
@@ -39,6 +72,26 @@ public class ServerManager {
     private final AtomicBoolean gameActive;
     private final Gson gson = new Gson();
     private final int timerRemaining;
+    // Proprietario di tutti i thread di gioco (fisica e timer): le rotte non creano mai thread
+    private final GameEngine engine;
+    // Destinazione delle rotte di gioco senza sessione: il mondo principale di questo processo
+    private final Target mainTarget;
+
+    /**
+     * Mondo su cui agisce una richiesta: quello principale o quello di una sessione ospitata da questo shard.
+     */
+    private record Target(GameWorld world, Player player, AtomicBoolean gameActive) {
+    }
+    // Risposte costanti per gli input non validi di /move
+    private static final String INVALID_DIRECTION = "{\"error\": \"Invalid direction\"}";
+    private static final String INVALID_SEQUENCE = "{\"error\": \"Invalid sequence\"}";
+    private static final String INVALID_BATCH = "{\"error\": \"Invalid move batch\"}";
+    private static final String INVALID_NUMBER = "{\"error\": \"Invalid number\"}";
+    private static final long NO_SEQUENCE = -1;
+    private static final long INVALID_SEQUENCE_VALUE = -2;
+    private static final int MAX_INTEREST_RADIUS = 64;
+    private static final String REQUEST_EVENT_ATTRIBUTE = "jfr.request";
+    private static final EventType REQUEST_EVENT_TYPE = EventType.getEventType(RequestEvent.class);
 
     /**
      * Facade Pattern:
@@ -50,48 +103,292 @@ public class ServerManager {
      * e rende il codice più leggibile e manutenibile.
      */
     public ServerManager(GameWorld gameWorld, Player player, AtomicBoolean gameActive, int timerRemaining) {
+        this(gameWorld, player, gameActive, timerRemaining, new GameEngine("main", gameWorld, player, gameActive));
+    }
+
+    public ServerManager(GameWorld gameWorld, Player player, AtomicBoolean gameActive, int timerRemaining, GameEngine engine) {
         this.gameWorld = gameWorld;
         this.player = player;
         this.gameActive = gameActive;
         this.timerRemaining = timerRemaining;
+        this.engine = engine;
+        this.mainTarget = new Target(gameWorld, player, gameActive);
     }
 
     public void startServer() {
-        staticFiles.location("/public"); // Cartella per i file statici (HTML, CSS, JS)
-        port(4567);
+        port(GameSettings.getInstance().getServerPort());
+        // File statici caricati all'avvio: testi precompressi, audio mappato, ETag e URL con hash del contenuto
+        StaticAssets staticAssets = StaticAssets.fromClasspath("/public", GameSettings.getInstance().getStaticMaxTransfers());
+
+        // Observer Pattern: spettatori in sola lettura via WebSocket (va registrato prima delle rotte HTTP).
+        // Ogni fotogramma è serializzato una volta sola e condiviso da tutte le connessioni.
+        SpectatorHub spectatorHub = new SpectatorHub("main", gameWorld, this::spectatorFrameJson);
+        webSocket("/spectate", new SpectatorSocket(spectatorHub));
+        spectatorHub.start();
+
+        // Observer Pattern: OverloadController conta le richieste in corso (afterAfter viene eseguito anche in caso di errore)
+        OverloadController overloadController = OverloadController.getInstance();
+        before((req, res) -> overloadController.requestStarted());
+        afterAfter((req, res) -> overloadController.requestFinished());
+
+        // Evento JFR per richiesta (rotta, mondo, stato), creato solo quando una registrazione lo abilita
+        before((req, res) -> {
+            if (REQUEST_EVENT_TYPE.isEnabled()) {
+                RequestEvent event = new RequestEvent();
+                event.begin();
+                req.attribute(REQUEST_EVENT_ATTRIBUTE, event);
+            }
+        });
+        afterAfter((req, res) -> {
+            RequestEvent event = req.attribute(REQUEST_EVENT_ATTRIBUTE);
+            if (event != null && event.shouldCommit()) {
+                String sessionId = req.queryParams("session");
+                event.method = req.requestMethod();
+                event.route = req.pathInfo();
+                event.worldId = sessionId != null && !sessionId.isEmpty() ? sessionId : gameWorld.getWorldId();
+                event.status = res.raw().getStatus();
+                event.commit();
+            }
+        });
+
+        // Token bucket per client: un client che invia richieste a raffica riceve subito 429
+        GameSettings settings = GameSettings.getInstance();
+        RateLimiter moveLimiter = new RateLimiter("move", settings.getMoveRatePerSecond(), settings.getMoveBurst(),
+                settings.getRateLimitMaxClients());
+        RateLimiter worldLimiter = new RateLimiter("world", settings.getWorldRatePerSecond(), settings.getWorldBurst(),
+                settings.getRateLimitMaxClients());
+        before("/move", (req, res) -> limit(moveLimiter, ShardRouter.clientIp(req), res));
+        before("/moves", (req, res) -> limit(moveLimiter, ShardRouter.clientIp(req), res));
+        before("/world", (req, res) -> limit(worldLimiter, ShardRouter.clientIp(req), res));
+        before("/updates", (req, res) -> limit(worldLimiter, ShardRouter.clientIp(req), res));
+
+        // Le partite delle sessioni occupano posti di GameAdmission e i loro mondi seguono OverloadController
+        GameAdmission admission = GameAdmission.getInstance();
+        SessionRegistry sessions = SessionRegistry.getInstance();
+        sessions.setListener(new SessionAdmission(admission, OverloadController.getInstance()));
+        long sessionIdleMillis = GameSettings.getInstance().getSessionIdleSeconds() * 1000L;
+
+        // Proxy Pattern: in modalità a shard le richieste con ?session= vanno allo shard proprietario della sessione
+        ShardRouter shardRouter = ShardRouter.fromSystemProperties(sessions);
+        if (shardRouter != null) {
+            shardRouter.install();
+            if (!ReplicationFollower.isConfigured()) {
+                sessions.startEviction(sessionIdleMillis);
+            }
+            logger.info("Modalità a shard attiva: questo processo è " + shardRouter.getSelf());
+        }
+
+        // Hot standby: il primario invia lo stato ai follower; un follower resta in sola lettura finché non è promosso
+        try {
+            ReplicationRoutes replication = ReplicationRoutes.fromSystemProperties(gameWorld, player,
+                    sessions, () -> {
+                        if (gameWorld.isGameActive()) {
+                            // Il posto va liberato a fine partita solo se è stato davvero riservato
+                            Runnable onGameEnd = admission.tryAdmit() ? admission::release : () -> { };
+                            engine.restart(gameWorld.getTimeRemaining(), onGameEnd);
+                        } else {
+                            gameActive.set(false); // Partita replicata già conclusa: resta conclusa fino a /start
+                        }
+                        if (shardRouter != null) {
+                            sessions.startEviction(sessionIdleMillis); // Da primario scarica le sessioni inattive
+                        }
+                    });
+            if (replication != null) {
+                replication.install();
+            }
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile avviare la replica", e);
+        }
 
         // Rotta per ottenere lo stato del mondo
         get("/world", (req, res) -> {
+            // Server-Timing: parametri, attesa del monitor, viewport e griglia, codifica misurati separatamente
+            RequestTiming timing = RequestTiming.start();
             res.type("application/json");
+            Target target = target(req);
+            GameWorld gameWorld = target.world();
+            Player player = target.player();
 
-            String[][] grid = gameWorld.getWorldState(player);
-            int score = gameWorld.getScore();
-            int recentScore = gameWorld.getRecentScoreGained();
-            boolean collected = gameWorld.isItemCollected();
+            // Viewport: con x/y/w/h (o view=player) si renderizza solo l'area visibile dal client
+            int viewX = 0;
+            int viewY = 0;
+            String[][] grid;
+            WorldResponse response;
+            // Griglia e ultima sequenza confermata letti insieme: il client riapplica solo gli input successivi
+            boolean viewport = req.queryParams("w") != null || req.queryParams("h") != null;
+            // Parametri letti prima del lock: un valore non valido risponde 400, le dimensioni sono limitate al mondo
+            // (nel mondo a chunk a MAX_CHUNKED_VIEW: senza viewport si riceve l'area attorno al giocatore)
+            int maxWidth = gameWorld.getMaxViewWidth();
+            int maxHeight = gameWorld.getMaxViewHeight();
+            int w = clamp(parseIntParam(req.queryParams("w"), maxWidth, res), 1, maxWidth);
+            int h = clamp(parseIntParam(req.queryParams("h"), maxHeight, res), 1, maxHeight);
+            int x = parseIntParam(req.queryParams("x"), 0, res);
+            int y = parseIntParam(req.queryParams("y"), 0, res);
+            timing.mark(RequestTiming.LOGIC); // Lettura dei parametri: non è attesa del monitor
+            synchronized (gameWorld) {
+                timing.mark(RequestTiming.LOCK);
+                // Origine del viewport, griglia e DTO: tutto ciò che si costruisce sotto il monitor è rendering
+                if (viewport || gameWorld.isChunked()) {
+                    if (!viewport || "player".equals(req.queryParams("view"))) {
+                        viewX = gameWorld.getViewportOriginX(player, w);
+                        viewY = gameWorld.getViewportOriginY(player, h);
+                    } else {
+                        viewX = GameWorld.clampOrigin(x, w, gameWorld.getWidth());
+                        viewY = GameWorld.clampOrigin(y, h, gameWorld.getHeight());
+                    }
+                    grid = gameWorld.getWorldState(player, viewX, viewY, w, h);
+                } else {
+                    grid = gameWorld.getWorldState(player);
+                }
+                response = worldResponse(target, grid, viewX, viewY, player.getLastSequence());
+                timing.mark(RequestTiming.RENDER);
+            }
+            String body = gson.toJson(response);
+            timing.mark(RequestTiming.ENCODE);
+            timing.finish(res, "/world", gameWorld.getWorldId());
+            return body;
+        });
 
-            // Usa il tempo rimanente aggiornato da GameWorld
-            int currentTimeRemaining = gameWorld.getTimeRemaining();
+        // Ultimo fotogramma degli spettatori per i client senza WebSocket: gli stessi byte condivisi, senza ricodifica
+        get("/spectate/frame", (req, res) -> {
+            SpectatorFrame frame = spectatorHub.getLatestFrame();
+            if (frame == null) {
+                res.status(204);
+                return "";
+            }
+            res.type("application/json");
+            res.header("X-Frame-Version", String.valueOf(frame.version()));
+            Channels.newChannel(res.raw().getOutputStream()).write(frame.buffer());
+            return "";
+        });
 
-            /**
-             * DTO Pattern:
-             * WorldResponse incapsula lo stato globale del mondo di gioco in un oggetto trasferibile.
-             * Il Data Transfer Object (DTO) permette di raggruppare tutte le informazioni rilevanti
-             * per il client in modo strutturato e serializzabile, favorendo la separazione tra logica
-             * di business e presentazione. Questo pattern è particolarmente utile nelle comunicazioni
-             * tra server e client, dove serve trasferire dati in modo efficiente e sicuro.
-             */
-            return gson.toJson(new WorldResponse(grid, score, recentScore, collected, gameActive.get(), currentTimeRemaining));
+        get("/spectators", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("spectators", spectatorHub.getSpectatorCount());
+            status.put("encodes", spectatorHub.getEncodes());
+            SpectatorFrame frame = spectatorHub.getLatestFrame();
+            status.put("version", frame != null ? frame.version() : 0);
+            status.put("frameBytes", frame != null ? frame.size() : 0);
+            status.put("droppedFrames", spectatorHub.getDroppedFrames());
+            return gson.toJson(status);
+        });
+
+        // Front end testuale: client telnet sul mondo principale, un selettore NIO per core e fotogrammi ANSI
+        // con le sole celle cambiate, codificati una volta e condivisi da tutte le connessioni
+        int terminalPort = settings.getTerminalPort();
+        if (terminalPort > 0) {
+            TerminalServer terminalServer = new TerminalServer(gameWorld, player, gameActive, () -> movePhysics(mainTarget));
+            try {
+                terminalServer.start(terminalPort, settings.getTerminalSelectorThreads());
+            } catch (IOException e) {
+                throw new EmojiCraftException("Impossibile avviare il server testuale sulla porta " + terminalPort, e);
+            }
+            get("/terminal", (req, res) -> {
+                res.type("application/json");
+                Map<String, Object> status = new LinkedHashMap<>();
+                status.put("port", terminalServer.getPort());
+                status.put("selectors", terminalServer.getSelectorCount());
+                status.put("connections", terminalServer.getConnectionCount());
+                status.put("frames", terminalServer.getFramesRendered());
+                TerminalFrame frame = terminalServer.getLatestFrame();
+                status.put("version", frame != null ? frame.version() : 0);
+                status.put("fullBytes", frame != null ? frame.fullSize() : 0);
+                status.put("diffBytes", frame != null ? frame.diffSize() : 0);
+                return gson.toJson(status);
+            });
+        }
+
+        // Rotta per la classifica: legge l'ultima istantanea pubblicata, senza lock
+        get("/leaderboard", (req, res) -> {
+            res.type("application/json");
+            LeaderboardService leaderboard = LeaderboardService.getInstance();
+            int limit = clamp(parseIntParam(req.queryParams("limit"), 10, res), 0, leaderboard.getCapacity());
+            return gson.toJson(leaderboard.getTop(limit));
+        });
+
+        // Rotta per lo stato del controllo del sovraccarico: misure, livelli di degrado ed eventi recenti
+        get("/overload", (req, res) -> {
+            res.type("application/json");
+            return gson.toJson(overloadController.getStatus());
+        });
+
+        // Observer Pattern: consumatore degli eventi di gioco che conta gli eventi per tipo
+        EventMetrics eventMetrics = new EventMetrics();
+        engine.subscribe("metrics", eventMetrics);
+        // Raccolte, scadenze e fine partita esportate nei file di analisi giornalieri (se configurati)
+        AnalyticsRecorder analytics = AnalyticsRecorder.getInstance();
+        if (analytics != null) {
+            engine.subscribe("analytics", analytics.forWorld(gameWorld.getWorldId()));
+        }
+        get("/events", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("capacity", gameWorld.getEvents().getCapacity());
+            status.put("published", gameWorld.getEvents().getCursor() + 1);
+            status.put("counts", eventMetrics.getCounts());
+            List<Map<String, Object>> consumers = new ArrayList<>();
+            for (EventConsumer consumer : engine.getConsumers()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("name", consumer.getName());
+                entry.put("lag", consumer.getLag());
+                entry.put("processed", consumer.getProcessed());
+                entry.put("lost", consumer.getLost());
+                consumers.add(entry);
+            }
+            status.put("consumers", consumers);
+            return gson.toJson(status);
+        });
+
+        // Area di interesse: ogni client riceve solo ingressi e uscite vicino al proprio giocatore
+        InterestManager interestManager = new InterestManager(gameWorld);
+        engine.subscribe("interest", interestManager);
+        get("/updates", (req, res) -> {
+            res.type("application/json");
+            String clientId = req.queryParams("client") != null ? req.queryParams("client") : ShardRouter.clientIp(req);
+            int radius = clamp(parseIntParam(req.queryParams("radius"), GameSettings.getInstance().getInterestRadius(), res),
+                    0, MAX_INTEREST_RADIUS);
+            // Con ?session= il client segue il giocatore della sessione, con gli eventi del mondo della sessione
+            GameSession session = req.attribute(ShardRouter.SESSION_ATTRIBUTE);
+            InterestManager interests = session != null ? session.getInterests() : interestManager;
+            interests.subscribe(clientId, target(req).player(), radius);
+            return gson.toJson(interests.poll(clientId));
+        });
+
+        // Rotta per lo stato del motore: thread di gioco vivi e thread totali della JVM (devono restare costanti)
+        get("/engine", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("name", engine.getName());
+            status.put("physicsRunning", engine.isPhysicsRunning());
+            status.put("timerRunning", engine.isTimerRunning());
+            status.put("liveWorkers", engine.getLiveWorkers());
+            status.put("startedWorkers", engine.getStartedWorkers());
+            status.put("jvmThreads", ManagementFactory.getThreadMXBean().getThreadCount());
+            return gson.toJson(status);
         });
 
         // Rotta per gestire il movimento del giocatore
         post("/move", (req, res) -> {
-            if (!gameActive.get()) {
+            RequestTiming timing = RequestTiming.start();
+            Target target = target(req);
+            GameWorld gameWorld = target.world();
+            Player player = target.player();
+            if (!target.gameActive().get()) {
                 return gson.toJson(new WorldResponse(gameWorld.getWorldState(player), gameWorld.getScore(), 0, false, false, timerRemaining));
             }
 
-            String dir = req.queryParams("dir");
-            if (dir == null || !dir.matches("[WASD]")) {
-                throw new EmojiCraftException("Invalid direction: " + dir);
+            // Tabella precalcolata al posto di dir.matches("[WASD]"): nessuna regex compilata a ogni richiesta
+            Direction direction = Direction.parse(req.queryParams("dir"));
+            res.type("application/json");
+            if (direction == null) {
+                res.status(400); // Input non valido: codice di stato e corpo costante, nessuna eccezione con stack trace
+                return INVALID_DIRECTION;
+            }
+            long sequence = parseSequence(req.queryParams("seq"));
+            if (sequence == INVALID_SEQUENCE_VALUE) {
+                res.status(400);
+                return INVALID_SEQUENCE;
             }
             /**
              * Command Pattern:
@@ -100,10 +397,60 @@ public class ServerManager {
              * l'estensione, la manutenzione e la gestione di operazioni undo/redo. In questo contesto,
              * ogni richiesta di movimento viene trattata come un comando che modifica lo stato del gioco.
              */
-            boolean itemCollected = gameWorld.movePlayer(player, dir.toUpperCase(), new GamePhysics(gameWorld, player));
+            GamePhysics physics = movePhysics(target);
+            int length;
+            synchronized (gameWorld) {
+                timing.mark(RequestTiming.LOCK);
+                boolean itemCollected = sequence == NO_SEQUENCE
+                        ? gameWorld.movePlayer(player, direction, physics)
+                        : gameWorld.movePlayer(player, direction, sequence, physics);
+                timing.mark(RequestTiming.LOGIC);
+                // DTO Pattern: stessi campi di MoveResponse, codificati in un buffer riutilizzato per thread
+                length = MoveResponseEncoder.encode(player.getX(), player.getY(), gameWorld.getScore(),
+                        itemCollected, player.getLastSequence());
+            }
+            timing.mark(RequestTiming.ENCODE);
+            timing.finish(res, "/move", gameWorld.getWorldId()); // Header prima del corpo, scritto direttamente sullo stream
+            MoveResponseEncoder.writeEncoded(res.raw().getOutputStream(), length);
+            return "";
+        });
+
+        // Rotta per un lotto di mosse: una richiesta e un solo lock del mondo per tutti i tasti premuti in un frame
+        post("/moves", (req, res) -> {
+            RequestTiming timing = RequestTiming.start();
+            Target target = target(req);
+            GameWorld gameWorld = target.world();
+            Player player = target.player();
+            if (!target.gameActive().get()) {
+                return gson.toJson(new WorldResponse(gameWorld.getWorldState(player), gameWorld.getScore(), 0, false, false, timerRemaining));
+            }
+
+            String contentType = req.contentType();
+            MoveBatch batch;
+            try {
+                batch = contentType != null && contentType.startsWith("application/json")
+                        ? MoveBatch.fromJson(req.body())
+                        : MoveBatch.fromString(req.queryParams("dirs"), req.queryParams("seq"));
+            } catch (EmojiCraftException e) {
+                res.type("application/json");
+                res.status(400); // Lotto non valido: errore del client, stesso corpo costante di /move
+                return INVALID_BATCH;
+            }
+            GamePhysics physics = movePhysics(target);
+            MoveResponse response;
+            synchronized (gameWorld) {
+                timing.mark(RequestTiming.LOCK);
+                // Command Pattern: il lotto viene eseguito come una sequenza di comandi di movimento
+                boolean itemCollected = gameWorld.movePlayerBatch(player, batch.directions(), batch.sequences(), physics);
+                // Posizione autorevole e ultima sequenza applicata: il client riconcilia la propria previsione
+                response = gameWorld.getMoveResponse(player, itemCollected, player.getLastSequence());
+                timing.mark(RequestTiming.LOGIC);
+            }
             res.type("application/json");
-            // DTO Pattern: MoveResponse incapsula il risultato del movimento
-            return gson.toJson(gameWorld.getMoveResponse(player, itemCollected));
+            String body = gson.toJson(response);
+            timing.mark(RequestTiming.ENCODE);
+            timing.finish(res, "/moves", gameWorld.getWorldId());
+            return body;
         });
 
         // Nuova rotta per avviare la partita
@@ -113,7 +460,12 @@ public class ServerManager {
                 return "{\"message\": \"Game is already active\", \"gameActive\": true}";
             }
 
+            // Controllo di ammissione: oltre il limite di partite contemporanee si risponde subito 503
+            if (!admission.tryAdmit()) {
+                reject(res, 503, "Too many concurrent games", 1000);
+            }
             gameActive.set(true); // Imposta il gioco come attivo
+            gameWorld.recordInput(ReplayRecorder.START);
             logger.info("Gioco e Timer Avviato. gameActive = " + gameActive.get());
 
             // Reinizializza il giocatore
@@ -124,10 +476,11 @@ public class ServerManager {
             /**
              * Thread Pattern:
              * Il timer di gioco viene avviato in un thread separato per evitare blocchi e garantire
-             * la reattività del server. Il Thread Pattern permette di gestire operazioni concorrenti
-             * (come timer e fisica) in modo indipendente dal flusso principale dell'applicazione.
+             * la reattività del server. Il thread appartiene a GameEngine, che sostituisce un eventuale
+             * timer precedente invece di affiancarne un altro.
              */
-            new Thread(() -> GameUtils.startGameTimer(gameWorld, player, gameActive, 180)).start();
+            engine.startPhysics();
+            engine.startTimer(180, admission::release);
 
             res.type("application/json");
             return "{\"message\": \"Game started\", \"gameActive\": true}";
@@ -135,31 +488,164 @@ public class ServerManager {
 
         post("/restart", (req, res) -> {
             logger.info("Richiesta di riavvio del gioco ricevuta.");
+            // Il posto viene riservato prima di toccare la partita in corso, così un 503 la lascia intatta.
+            // Se il timer è attivo la partita ha già un posto: passa al nuovo timer, il vecchio lo libera quando viene fermato
+            if (engine.isTimerRunning()) {
+                admission.transfer();
+            } else if (!admission.tryAdmit()) {
+                reject(res, 503, "Too many concurrent games", 1000);
+            }
+            engine.stopTimer();
 
             // Ripristina lo stato del gioco
+            gameWorld.recordInput(ReplayRecorder.RESTART);
             gameWorld.resetGame();
             player.setPosition(2, 5); // Reimposta la posizione del giocatore
-            gameActive.set(true); // Riattiva il gioco
-
-            // Thread Pattern: Avvia nuovamente il motore fisico in un thread separato
-            // Questo consente al motore fisico di funzionare in modo indipendente
-            // dal thread principale del server, migliorando la reattività
-            // e la gestione delle operazioni di gioco.
-            Thread physicsThread = new Thread(new GamePhysics(gameWorld, player));
-            physicsThread.start();
-            // Log per confermare l'avvio del motore fisico, utile per il debugging
+
+            // Thread Pattern: GameEngine riattiva il gioco, riusa il thread della fisica se è ancora in esecuzione
+            // e avvia un unico nuovo timer, quindi /restart ripetuti non accumulano thread.
             // La differenza tra logger e System.out.println è che il logger
             // permette di gestire i livelli di log e la destinazione dei messaggi
             // (console, file, ecc.), migliorando la tracciabilità e la manutenzione
             // dei log dell'applicazione.
-            logger.log(Level.INFO, "Motore fisico riavviato.");
-            // Thread Pattern: Avvia il timer del gioco in un thread separato
-            new Thread(() -> GameUtils.startGameTimer(gameWorld, player, gameActive, gameWorld.getTimeRemaining())).start();
-            logger.info("Timer del gioco riavviato.");
+            engine.restart(gameWorld.getTimeRemaining(), admission::release);
+            logger.log(Level.INFO, "Motore fisico attivo, timer del gioco riavviato.");
 
             res.type("application/json");
             return "{\"message\": \"Game restarted\", \"gameActive\": true}";
         });
 
+        // Prontezza per il bilanciatore: 503 finché riscaldamento del JIT e registrazione delle rotte non sono finiti
+        get("/ready", (req, res) -> {
+            res.type("application/json");
+            Readiness readiness = Readiness.getInstance();
+            if (!readiness.isReady()) {
+                res.status(503);
+            }
+            return gson.toJson(readiness.getStatus());
+        });
+
+        // File statici: registrati per ultimi, rispondono solo ai percorsi che nessuna rotta di gioco ha gestito
+        get("/*", (req, res) -> serveStatic(staticAssets, req, res));
+        head("/*", (req, res) -> serveStatic(staticAssets, req, res));
+
+        awaitInitialization();
+        Readiness.getInstance().markReady();
+
+    }
+
+    /**
+     * DTO Pattern:
+     * WorldResponse incapsula lo stato globale del mondo di gioco in un oggetto trasferibile.
+     * Il Data Transfer Object (DTO) permette di raggruppare tutte le informazioni rilevanti
+     * per il client in modo strutturato e serializzabile, favorendo la separazione tra logica
+     * di business e presentazione. Questo pattern è particolarmente utile nelle comunicazioni
+     * tra server e client, dove serve trasferire dati in modo efficiente e sicuro.
+     */
+    private static WorldResponse worldResponse(Target target, String[][] grid, int viewX, int viewY, long lastSequence) {
+        GameWorld gameWorld = target.world();
+        // Il client adegua la frequenza di aggiornamento a gameUpdateFPS, anche dopo un ricaricamento a caldo;
+        // sotto sovraccarico l'intervallo cresce con il livello di degrado del mondo
+        int updateIntervalMillis = gameWorld.getUpdateIntervalMillis();
+        // Usa il tempo rimanente aggiornato da GameWorld
+        return new WorldResponse(grid, gameWorld.getScore(), gameWorld.getRecentScoreGained(), gameWorld.isItemCollected(),
+                target.gameActive().get(), gameWorld.getTimeRemaining(), viewX, viewY, updateIntervalMillis, lastSequence,
+                gameWorld.getWidth(), gameWorld.getHeight());
+    }
+
+    // Sessione locale scelta da ShardRouter (se presente), altrimenti il mondo principale senza allocazioni
+    private Target target(Request req) {
+        GameSession session = req.attribute(ShardRouter.SESSION_ATTRIBUTE);
+        return session != null ? new Target(session.getWorld(), session.getPlayer(), session.getGameActive()) : mainTarget;
+    }
+
+    // Fotogramma degli spettatori: mondo intero, senza sequenza (gli spettatori non inviano mosse)
+    private String spectatorFrameJson() {
+        String[][] grid;
+        int viewX;
+        int viewY;
+        synchronized (gameWorld) {
+            grid = gameWorld.getWorldState(player);
+            // Origine 0 per il mondo intero; nel mondo a chunk la griglia è l'area attorno al giocatore
+            viewX = gameWorld.getViewportOriginX(player, gameWorld.getMaxViewWidth());
+            viewY = gameWorld.getViewportOriginY(player, gameWorld.getMaxViewHeight());
+        }
+        return gson.toJson(worldResponse(mainTarget, grid, viewX, viewY, NO_SEQUENCE));
+    }
+
+    // Handle di fisica per le mosse: quello del thread del motore, creato una sola volta se il motore non è avviato
+    private static GamePhysics movePhysics(Target target) {
+        GameWorld gameWorld = target.world();
+        GamePhysics physics = gameWorld.getPhysics();
+        if (physics == null) {
+            synchronized (gameWorld) {
+                physics = gameWorld.getPhysics();
+                if (physics == null) {
+                    physics = new GamePhysics(gameWorld, target.player());
+                    gameWorld.setPhysics(physics);
+                }
+            }
+        }
+        return physics;
+    }
+
+    // Numero di sequenza opzionale di /move, letto senza Long.parseLong (che segnala gli errori con un'eccezione)
+    private static long parseSequence(String value) {
+        if (value == null) {
+            return NO_SEQUENCE;
+        }
+        if (value.isEmpty() || value.length() > 18) {
+            return INVALID_SEQUENCE_VALUE;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID_SEQUENCE_VALUE;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    // Risposta già scritta da StaticAssets (Spark non aggiunge nulla a una risposta inviata), altrimenti 404
+    private static String serveStatic(StaticAssets staticAssets, Request req, Response res) throws IOException {
+        if (!staticAssets.serve(req.raw(), res.raw())) {
+            res.status(404);
+            return "Not found";
+        }
+        return "";
+    }
+
+    // Consuma un gettone del client o interrompe la richiesta con 429
+    private static void limit(RateLimiter limiter, String clientId, Response res) {
+        long waitMillis = limiter.tryAcquire(clientId);
+        if (waitMillis > 0) {
+            reject(res, 429, "Too many requests", waitMillis);
+        }
+    }
+
+    // Risposta rapida di rifiuto: nessun accesso al mondo di gioco, solo un piccolo JSON e Retry-After
+    private static void reject(Response res, int status, String message, long retryAfterMillis) {
+        res.type("application/json");
+        res.header("Retry-After", String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        halt(status, "{\"error\": \"" + message + "\", \"retryAfterMillis\": " + retryAfterMillis + "}");
+    }
+
+    // Converte un parametro numerico della query; un valore non valido è un errore del client: 400 con corpo costante
+    private static int parseIntParam(String value, int defaultValue, Response res) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            res.type("application/json");
+            throw halt(400, INVALID_NUMBER);
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package server;
+
+import shard.GameSession;
+import shard.SessionListener;
+
+/**
+ * Observer Pattern: applica alle sessioni degli shard gli stessi controlli della partita principale.
+ * Ogni partita di sessione occupa un posto in GameAdmission e ogni mondo di sessione viene rallentato
+ * da OverloadController insieme al mondo principale.
+ */
+public class SessionAdmission implements SessionListener {
+    private static final String WORLD_PREFIX = "session:";
+
+    private final GameAdmission admission;
+    private final OverloadController overloadController;
+
+    public SessionAdmission(GameAdmission admission, OverloadController overloadController) {
+        this.admission = admission;
+        this.overloadController = overloadController;
+    }
+
+    @Override
+    public boolean admit(String sessionId, boolean force) {
+        if (force) {
+            admission.transfer();
+            return true;
+        }
+        return admission.tryAdmit();
+    }
+
+    @Override
+    public void started(GameSession session) {
+        overloadController.register(WORLD_PREFIX + session.getId(), session.getWorld());
+    }
+
+    @Override
+    public void gameEnded(GameSession session) {
+        admission.release();
+    }
+
+    @Override
+    public void closed(GameSession session) {
+        overloadController.unregister(WORLD_PREFIX + session.getId());
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Proxy Pattern:
+ *   Le richieste di una sessione ospitata da un altro processo vengono inoltrate allo shard proprietario
+ *   e la risposta viene restituita al client così com'è: qualunque shard può fare da punto di ingresso.
+ *
+ * - Consistent Hashing:
+ *   Il proprietario di una sessione è deciso da ConsistentHashRing sull'id della sessione.
+ *
+ * - Drain-and-Transfer:
+ *   Quando cambiano i membri, ogni shard consegna al nuovo proprietario le sessioni che non gli appartengono più
+ *   (push); uno shard che riceve una sessione non ancora arrivata la richiede al proprietario precedente (pull).
+ *   In entrambi i casi il trasferimento avviene sotto il lock in scrittura della sessione, quindi esattamente
+ *   una copia dello stato sopravvive.
+ *
+ * Configurazione (proprietà di sistema):
+ *   emojicraft.shard.self    URL di questo processo, ad esempio http://localhost:4567
+ *   emojicraft.shard.members URL di tutti gli shard separati da virgole (compreso questo)
+ *   emojicraft.shard.secret  segreto condiviso tra gli shard (facoltativo): se manca, sono considerati shard
+ *                            solo i mittenti con l'indirizzo di uno dei membri configurati
+ *
+ * Le rotte /shards/* e le intestazioni di inoltro (X-Shard-Forwarded, X-Forwarded-For) valgono solo per gli shard
+ * autenticati: un client non può trasferire sessioni, cambiare i membri o scegliersi l'indirizzo dei limiti per client.
+ */
+
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+
+import exception.EmojiCraftException;
+import shard.ConsistentHashRing;
+import shard.GameSession;
+import shard.SessionRegistry;
+import spark.Request;
+import spark.Response;
+import util.LoggerUtil;
+
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+import static spark.Spark.get;
+import static spark.Spark.halt;
+import static spark.Spark.post;
+
+public class ShardRouter {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    public static final String SELF_PROPERTY = "emojicraft.shard.self";
+    public static final String MEMBERS_PROPERTY = "emojicraft.shard.members";
+    public static final String SECRET_PROPERTY = "emojicraft.shard.secret";
+    // Attributo della richiesta con la sessione locale (lock in lettura tenuto fino alla fine della richiesta)
+    public static final String SESSION_ATTRIBUTE = "shard.session";
+    private static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final String SECRET_HEADER = "X-Shard-Secret";
+    private static final String[] ROUTED_PATHS = {"/world", "/move", "/moves", "/updates"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    // Header della singola connessione o scritti da Jetty: non vengono copiati dalla risposta inoltrata
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "content-length", "date", "server", "upgrade");
+    // Router installato in questo processo (null = modalità a shard non attiva): lo usa clientIp
+    private static volatile ShardRouter active;
+
+    private final String self;
+    private final byte[] secret; // null = autenticazione per indirizzo dei membri
+    // Indirizzi IP dei membri configurati, ricalcolati a ogni cambio di membri
+    private final AtomicReference<Set<String>> memberAddresses = new AtomicReference<>(Set.of());
+    private final SessionRegistry registry;
+    private final AtomicReference<ConsistentHashRing> ring = new AtomicReference<>();
+    // Anello precedente all'ultimo cambio di membri: indica a chi chiedere le sessioni non ancora arrivate
+    private final AtomicReference<ConsistentHashRing> previousRing = new AtomicReference<>();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private final ExecutorService rebalancer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-rebalance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Single-flight per sessione: richieste concorrenti per la stessa sessione attendono un solo pull,
+    // mentre i pull di sessioni diverse procedono in parallelo
+    private final Map<String, CompletableFuture<GameSession>> pulls = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong handoffsOut = new AtomicLong();
+    private final AtomicLong handoffsIn = new AtomicLong();
+
+    public ShardRouter(String self, List<String> members, SessionRegistry registry) {
+        this(self, members, null, registry);
+    }
+
+    public ShardRouter(String self, List<String> members, String secret, SessionRegistry registry) {
+        this.self = normalize(self);
+        this.secret = secret == null || secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+        this.registry = registry;
+        List<String> normalized = normalizeAll(members);
+        if (!normalized.contains(this.self)) {
+            normalized.add(this.self);
+        }
+        this.ring.set(new ConsistentHashRing(normalized));
+        this.memberAddresses.set(resolveAddresses(normalized));
+    }
+
+    /**
+     * Router configurato dalle proprietà di sistema, oppure null se la modalità a shard non è attiva.
+     */
+    public static ShardRouter fromSystemProperties(SessionRegistry registry) {
+        String self = System.getProperty(SELF_PROPERTY);
+        if (self == null || self.isBlank()) {
+            return null;
+        }
+        String members = System.getProperty(MEMBERS_PROPERTY, self);
+        return new ShardRouter(self, Arrays.asList(members.split(",")), System.getProperty(SECRET_PROPERTY), registry);
+    }
+
+    /**
+     * Registra filtri e rotte di amministrazione. Va chiamato prima delle rotte di gioco.
+     */
+    public void install() {
+        active = this;
+        for (String path : ROUTED_PATHS) {
+            before(path, this::route);
+        }
+        // Rotte di amministrazione: solo gli altri shard possono cambiare i membri o trasferire sessioni
+        before("/shards/*", (req, res) -> {
+            if (!isPeer(req)) {
+                res.type("application/json");
+                halt(403, "{\"error\": \"Shard authentication required\"}");
+            }
+        });
+        afterAfter((req, res) -> {
+            GameSession session = req.attribute(SESSION_ATTRIBUTE);
+            if (session != null) {
+                session.exit();
+            }
+        });
+
+        // Stato dello shard: membri, sessioni ospitate e trasferimenti
+        get("/shards", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("self", self);
+            status.put("members", ring.get().getMembers());
+            status.put("sessions", registry.size());
+            status.put("forwarded", forwarded.get());
+            status.put("handoffsOut", handoffsOut.get());
+            status.put("handoffsIn", handoffsIn.get());
+            return gson.toJson(status);
+        });
+
+        // Nuovo elenco di membri (separati da virgole nel corpo); con propagate=true viene inoltrato a tutti gli shard
+        post("/shards/members", (req, res) -> {
+            List<String> members = normalizeAll(Arrays.asList(req.body().split(",")));
+            if (members.isEmpty()) {
+                res.status(400);
+                return "{\"error\": \"No members\"}";
+            }
+            if ("true".equals(req.queryParams("propagate"))) {
+                List<String> targets = new ArrayList<>(members);
+                for (String member : ring.get().getMembers()) {
+                    if (!targets.contains(member)) {
+                        targets.add(member); // Anche gli shard che escono devono consegnare le proprie sessioni
+                    }
+                }
+                for (String member : targets) {
+                    if (!member.equals(self)) {
+                        send(HttpRequest.newBuilder(URI.create(member + "/shards/members"))
+                                .POST(HttpRequest.BodyPublishers.ofString(String.join(",", members))));
+                    }
+                }
+            }
+            updateMembers(members);
+            res.type("application/json");
+            return gson.toJson(Map.of("members", ring.get().getMembers()));
+        });
+
+        // Push: stato di una sessione consegnato da un altro shard
+        post("/shards/handoff", (req, res) -> {
+            registry.restore(requireSession(req), req.bodyAsBytes());
+            handoffsIn.incrementAndGet();
+            res.status(204);
+            return "";
+        });
+
+        // Pull: un altro shard chiede una sessione che ora gli appartiene
+        get("/shards/handoff", (req, res) -> {
+            String destination = normalize(req.queryParams("to"));
+            byte[] state = registry.handOff(requireSession(req), destination, (id, bytes) -> { });
+            if (state == null) {
+                res.status(404);
+                return "";
+            }
+            handoffsOut.incrementAndGet();
+            res.type("application/octet-stream");
+            res.raw().getOutputStream().write(state);
+            return "";
+        });
+    }
+
+    /**
+     * Applica un nuovo elenco di membri e trasferisce in background le sessioni che ora appartengono ad altri.
+     */
+    public void updateMembers(List<String> members) {
+        ConsistentHashRing updated = new ConsistentHashRing(normalizeAll(members));
+        memberAddresses.set(resolveAddresses(updated.getMembers()));
+        previousRing.set(ring.getAndSet(updated));
+        logger.info("Membri degli shard aggiornati: " + updated.getMembers());
+        rebalancer.execute(this::rebalance);
+    }
+
+    private void rebalance() {
+        for (String sessionId : List.copyOf(registry.getSessionIds())) {
+            String owner = ring.get().ownerOf(sessionId);
+            if (owner.equals(self)) {
+                continue;
+            }
+            try {
+                byte[] state = registry.handOff(sessionId, owner, (id, bytes) -> push(owner, id, bytes));
+                if (state != null) {
+                    handoffsOut.incrementAndGet();
+                    logger.info("Sessione " + sessionId + " trasferita a " + owner);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Trasferimento della sessione " + sessionId + " a " + owner + " fallito: {0}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    // Filtro: richiesta locale (con lock della sessione) oppure inoltrata allo shard proprietario
+    private void route(Request req, Response res) {
+        String sessionId = req.queryParams("session");
+        if (sessionId == null || sessionId.isEmpty()) {
+            return; // Nessuna sessione: mondo principale di questo processo
+        }
+        String owner = ring.get().ownerOf(sessionId);
+        // Una richiesta già inoltrata viene servita qui anche se gli anelli sono momentaneamente diversi (niente cicli)
+        if (!owner.equals(self) && !isForwardedByPeer(req)) {
+            forward(req, res, owner);
+        }
+        GameSession session = registry.get(sessionId);
+        if (session == null) {
+            session = pullOrCreate(sessionId);
+        }
+        if (session == null && registry.isReadOnly()) {
+            // Follower di replica: le sessioni arrivano solo dal primario, niente fisica né timer locali
+            res.type("application/json");
+            halt(503, "{\"error\": \"Read-only follower\"}");
+        }
+        if (session == null) {
+            // Nuova sessione oltre il limite di sessioni o di partite contemporanee di questo shard
+            res.type("application/json");
+            res.header("Retry-After", "1");
+            halt(503, "{\"error\": \"Too many sessions\", \"retryAfterMillis\": 1000}");
+        }
+        if (!session.enter()) {
+            if (session.getMovedTo() == null) {
+                halt(503, "{\"error\": \"Session is being transferred\"}");
+            }
+            forward(req, res, session.getMovedTo());
+        }
+        req.attribute(SESSION_ATTRIBUTE, session);
+    }
+
+    private GameSession pullOrCreate(String sessionId) {
+        CompletableFuture<GameSession> pull = new CompletableFuture<>();
+        CompletableFuture<GameSession> inFlight = pulls.putIfAbsent(sessionId, pull);
+        if (inFlight != null) {
+            return inFlight.join(); // Stessa sessione già richiesta da un'altra richiesta: se ne attende l'esito
+        }
+        try {
+            GameSession session = pullFromPreviousOwner(sessionId);
+            pull.complete(session);
+            return session;
+        } catch (RuntimeException e) {
+            pull.completeExceptionally(e);
+            throw e;
+        } finally {
+            pulls.remove(sessionId, pull);
+        }
+    }
+
+    private GameSession pullFromPreviousOwner(String sessionId) {
+        GameSession session = registry.get(sessionId);
+        if (session != null) {
+            return session;
+        }
+        ConsistentHashRing previous = previousRing.get();
+        String previousOwner = previous != null ? previous.ownerOf(sessionId) : self;
+        if (!previousOwner.equals(self)) {
+            String uri = previousOwner + "/shards/handoff?session=" + encode(sessionId) + "&to=" + encode(self);
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(uri)).GET());
+            if (response != null && response.statusCode() == 200) {
+                handoffsIn.incrementAndGet();
+                return registry.restore(sessionId, response.body());
+            }
+        }
+        // Mai vista, oppure già consegnata con un push (in tal caso è già nel registro); null se rifiutata
+        return registry.getOrCreate(sessionId);
+    }
+
+    private void push(String owner, String sessionId, byte[] state) throws IOException {
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(
+                URI.create(owner + "/shards/handoff?session=" + encode(sessionId)))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(state)));
+        if (response == null || response.statusCode() / 100 != 2) {
+            throw new IOException("lo shard " + owner + " non ha accettato la sessione");
+        }
+    }
+
+    // Inoltra la richiesta così com'è e interrompe la gestione locale con la risposta del proprietario
+    private void forward(Request req, Response res, String owner) {
+        String query = req.queryString() != null ? "?" + req.queryString() : "";
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(owner + req.pathInfo() + query))
+                .header(FORWARDED_HEADER, self)
+                .header(FORWARDED_FOR_HEADER, clientIp(req))
+                .method(req.requestMethod(), req.bodyAsBytes().length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(req.bodyAsBytes())
+                        : HttpRequest.BodyPublishers.noBody());
+        if (req.contentType() != null) {
+            builder.header("Content-Type", req.contentType());
+        }
+        if (req.headers("If-None-Match") != null) {
+            builder.header("If-None-Match", req.headers("If-None-Match"));
+        }
+        HttpResponse<byte[]> response = send(builder);
+        if (response == null) {
+            halt(502, "{\"error\": \"Shard unavailable\"}");
+        }
+        forwarded.incrementAndGet();
+        // Header del proprietario (Content-Type, Retry-After, Server-Timing, ETag...) restituiti al client
+        response.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> res.raw().addHeader(name, value));
+            }
+        });
+        halt(response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder builder) {
+        if (secret != null) {
+            builder.header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8));
+        }
+        try {
+            return client.send(builder.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Shard non raggiungibile: {0}", e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String requireSession(Request req) {
+        String sessionId = req.queryParams("session");
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new EmojiCraftException("Parametro session mancante");
+        }
+        return sessionId;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private static List<String> normalizeAll(List<String> urls) {
+        List<String> normalized = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank() && !normalized.contains(normalize(url))) {
+                normalized.add(normalize(url));
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Indirizzo del client originale: per le richieste inoltrate da un altro shard è quello indicato dallo shard
+     * di ingresso, così i limiti per client non contano tutti i client dietro uno shard come uno solo.
+     * Senza modalità a shard, o se il mittente non è uno shard autenticato, vale sempre l'indirizzo della connessione.
+     */
+    public static String clientIp(Request req) {
+        ShardRouter router = active;
+        String original = router != null && router.isForwardedByPeer(req) ? req.headers(FORWARDED_FOR_HEADER) : null;
+        return original != null ? original : remoteAddress(req);
+    }
+
+    /**
+     * Controllo condiviso dalle rotte di amministrazione (shard e replica): con la modalità a shard attiva vale
+     * isPeer; altrimenti il segreto di emojicraft.shard.secret se configurato, o solo le connessioni locali.
+     */
+    public static boolean isTrustedPeer(Request req) {
+        ShardRouter router = active;
+        if (router != null) {
+            return router.isPeer(req);
+        }
+        String secret = System.getProperty(SECRET_PROPERTY);
+        if (secret != null && !secret.isEmpty()) {
+            return matchesSecret(req, secret.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return InetAddress.getByName(remoteAddress(req)).isLoopbackAddress(); // Indirizzo letterale: niente DNS
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Il mittente è uno shard: presenta il segreto condiviso oppure, se non è configurato,
+     * si connette dall'indirizzo di uno dei membri.
+     */
+    boolean isPeer(Request req) {
+        if (secret != null) {
+            return matchesSecret(req, secret);
+        }
+        return memberAddresses.get().contains(remoteAddress(req));
+    }
+
+    /**
+     * Indirizzo della connessione TCP. req.ip() non basta: Jetty lo sostituisce con X-Forwarded-For,
+     * che qualunque client può scrivere.
+     */
+    static String remoteAddress(Request req) {
+        org.eclipse.jetty.server.Request base = org.eclipse.jetty.server.Request.getBaseRequest(req.raw());
+        if (base == null || base.getHttpChannel() == null) {
+            return req.ip();
+        }
+        InetSocketAddress address = base.getHttpChannel().getRemoteAddress();
+        return address != null && address.getAddress() != null ? address.getAddress().getHostAddress() : req.ip();
+    }
+
+    private static boolean matchesSecret(Request req, byte[] secret) {
+        String presented = req.headers(SECRET_HEADER);
+        return presented != null && MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isForwardedByPeer(Request req) {
+        return req.headers(FORWARDED_HEADER) != null && isPeer(req);
+    }
+
+    private static Set<String> resolveAddresses(List<String> members) {
+        Set<String> addresses = new HashSet<>();
+        for (String member : members) {
+            try {
+                String host = URI.create(member).getHost();
+                if (host == null) {
+                    throw new IllegalArgumentException("host mancante");
+                }
+                for (InetAddress address : InetAddress.getAllByName(host)) {
+                    addresses.add(address.getHostAddress());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Indirizzo dello shard " + member + " non risolvibile: {0}", e.getMessage());
+            }
+        }
+        return Set.copyOf(addresses);
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public String ownerOf(String sessionId) {
+        return ring.get().ownerOf(sessionId);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Singleton Pattern:
+ *   Un unico log delle richieste lente per processo, con soglia letta da GameSettings (ricaricabile a caldo).
+ *
+ * - Sampling:
+ *   Sotto un rallentamento generale ogni richiesta supererebbe la soglia: il log registra al massimo
+ *   slowRequestLogPerSecond richieste al secondo e conta quelle scartate, quindi non peggiora il problema.
+ */
+
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class SlowRequestLog {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private static SlowRequestLog instance;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    private final AtomicLong slow = new AtomicLong();
+    private final AtomicLong logged = new AtomicLong();
+
+    // Singleton Pattern: log condiviso da tutte le rotte
+    public static synchronized SlowRequestLog getInstance() {
+        if (instance == null) {
+            instance = new SlowRequestLog();
+        }
+        return instance;
+    }
+
+    /**
+     * Registra la richiesta se supera la soglia; il confronto con la soglia è l'unico costo per le richieste veloci.
+     */
+    public void record(String route, String worldId, RequestTiming timing) {
+        GameSettings settings = GameSettings.getInstance();
+        long total = timing.getTotalNanos();
+        if (total < settings.getSlowRequestMillis() * 1_000_000L) {
+            return;
+        }
+        slow.incrementAndGet();
+        if (!sample(settings.getSlowRequestLogPerSecond(), System.nanoTime())) {
+            return;
+        }
+        logged.incrementAndGet();
+        logger.warning("Richiesta lenta " + route + " (mondo " + worldId + "): " + timing.format(true)
+                + " [lente: " + slow.get() + ", registrate: " + logged.get() + "]");
+    }
+
+    // Finestra di un secondo: le prime N richieste lente vengono registrate, le altre solo contate
+    boolean sample(int perSecond, long nowNanos) {
+        long start = windowStart.get();
+        if (nowNanos - start >= WINDOW_NANOS && windowStart.compareAndSet(start, nowNanos)) {
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= perSecond;
+    }
+
+    public long getSlowCount() {
+        return slow.get();
+    }
+
+    public long getLoggedCount() {
+        return logged.get();
+    }
+}
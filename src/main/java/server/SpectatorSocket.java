@@ -0,0 +1,69 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+
+import spectator.FrameSink;
+import spectator.Spectator;
+import spectator.SpectatorHub;
+
+/**
+ * Adapter Pattern: collega le sessioni WebSocket di Jetty a SpectatorHub.
+ * I fotogrammi sono inviati come messaggi binari (JSON in UTF-8) con scrittura asincrona,
+ * quindi lo stesso buffer condiviso arriva a ogni spettatore senza ricodifica.
+ */
+@WebSocket
+public class SpectatorSocket {
+    private final SpectatorHub hub;
+    private final Map<Session, Spectator> spectators = new ConcurrentHashMap<>();
+
+    public SpectatorSocket(SpectatorHub hub) {
+        this.hub = hub;
+    }
+
+    @OnWebSocketConnect
+    public void onConnect(Session session) {
+        spectators.put(session, hub.subscribe(new SessionSink(session)));
+    }
+
+    @OnWebSocketClose
+    public void onClose(Session session, int statusCode, String reason) {
+        Spectator spectator = spectators.remove(session);
+        if (spectator != null) {
+            hub.unsubscribe(spectator);
+        }
+    }
+
+    private record SessionSink(Session session) implements FrameSink {
+        @Override
+        public void send(ByteBuffer frame, Runnable onComplete) {
+            if (!session.isOpen()) {
+                onComplete.run();
+                return;
+            }
+            session.getRemote().sendBytes(frame, new WriteCallback() {
+                @Override
+                public void writeFailed(Throwable cause) {
+                    onComplete.run();
+                }
+
+                @Override
+                public void writeSuccess() {
+                    onComplete.run();
+                }
+            });
+        }
+
+        @Override
+        public boolean isOpen() {
+            return session.isOpen();
+        }
+    }
+}
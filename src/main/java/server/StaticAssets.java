@@ -0,0 +1,402 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Cache-Aside caricata all'avvio:
+ *   Tutti i file di /public vengono letti una sola volta: i testi (HTML, JS, CSS) restano in memoria insieme alla
+ *   versione gzip precalcolata, i file grandi (audio) vengono mappati in memoria. Una richiesta non legge mai dal
+ *   classpath e non comprime nulla: il costo per richiesta è una ricerca in mappa e la scrittura dei byte.
+ *
+ * - Content Addressing:
+ *   Ogni file ha un hash del contenuto: ETag forte e URL con hash (logic.<hash>.js), servito con cache di un anno.
+ *   Le pagine HTML vengono riscritte all'avvio per puntare agli URL con hash e si rivalidano a ogni caricamento.
+ *
+ * Motivo dell'utilizzo:
+ * - Un'ondata di caricamenti della pagina non ruba CPU al gioco: niente I/O, niente compressione, e i trasferimenti
+ *   dei file mappati sono limitati da un semaforo (oltre il limite si risponde subito 503 con Retry-After).
+ */
+
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+import exception.EmojiCraftException;
+import util.LoggerUtil;
+
+public class StaticAssets {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    private static final String INDEX = "index.html";
+    private static final int MAP_THRESHOLD = 64 * 1024; // File binari più grandi di così vengono mappati
+    private static final int HASH_LENGTH = 16;
+    static final long[] UNSATISFIABLE = new long[0];
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("html", "text/html; charset=utf-8"),
+            Map.entry("js", "application/javascript; charset=utf-8"),
+            Map.entry("css", "text/css; charset=utf-8"),
+            Map.entry("json", "application/json; charset=utf-8"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("txt", "text/plain; charset=utf-8"),
+            Map.entry("mp3", "audio/mpeg"),
+            Map.entry("ogg", "audio/ogg"),
+            Map.entry("wav", "audio/wav"),
+            Map.entry("png", "image/png"),
+            Map.entry("ico", "image/x-icon"));
+
+    /**
+     * Un file pubblico già pronto per l'invio. content è un buffer in heap oppure mappato (file != null).
+     */
+    record Asset(String path, String hashedPath, String contentType, ByteBuffer content, ByteBuffer gzip,
+                 String etag, String gzipEtag, Path file) {
+
+        long length() {
+            return content.remaining();
+        }
+
+        boolean mapped() {
+            return file != null;
+        }
+    }
+
+    private final Map<String, Asset> byPath = new HashMap<>();
+    private final Map<String, Asset> byHashedPath = new HashMap<>();
+    private final Semaphore transfers;
+
+    private StaticAssets(Collection<Asset> assets, int maxTransfers) {
+        for (Asset asset : assets) {
+            byPath.put(asset.path(), asset);
+            byHashedPath.put(asset.hashedPath(), asset);
+        }
+        this.transfers = new Semaphore(Math.max(1, maxTransfers));
+    }
+
+    /**
+     * Carica la cartella del classpath (ad esempio "/public"), sia da directory sia da dentro il jar.
+     */
+    public static StaticAssets fromClasspath(String location, int maxTransfers) {
+        URL url = StaticAssets.class.getResource(location);
+        if (url == null) {
+            throw new EmojiCraftException("Cartella dei file statici non trovata nel classpath: " + location);
+        }
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                FileSystem jar;
+                try {
+                    jar = FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    jar = FileSystems.getFileSystem(uri);
+                }
+                return load(jar.getPath(location), maxTransfers);
+            }
+            return load(Path.of(uri), maxTransfers);
+        } catch (URISyntaxException | IOException e) {
+            throw new EmojiCraftException("Impossibile caricare i file statici da " + location, e);
+        }
+    }
+
+    /**
+     * Legge, comprime e indicizza tutti i file sotto root. Le pagine HTML sono elaborate per ultime,
+     * perché i riferimenti agli altri file vanno sostituiti con gli URL con hash.
+     */
+    public static StaticAssets load(Path root, int maxTransfers) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        Map<String, String> hashedNames = new HashMap<>();
+        List<Asset> assets = new ArrayList<>();
+        List<Path> pages = new ArrayList<>();
+        long bytes = 0;
+        for (Path file : files) {
+            if (extension(file).equals("html")) {
+                pages.add(file);
+                continue;
+            }
+            Asset asset = loadAsset(root, file, null);
+            hashedNames.put(asset.path().substring(1), asset.hashedPath().substring(1));
+            assets.add(asset);
+            bytes += asset.length();
+        }
+        for (Path page : pages) {
+            String html = Files.readString(page, StandardCharsets.UTF_8);
+            for (Map.Entry<String, String> entry : hashedNames.entrySet()) {
+                html = html.replace("\"" + entry.getKey() + "\"", "\"" + entry.getValue() + "\"");
+            }
+            Asset asset = loadAsset(root, page, html.getBytes(StandardCharsets.UTF_8));
+            assets.add(asset);
+            bytes += asset.length();
+        }
+        logger.info("File statici caricati: " + assets.size() + " (" + bytes / 1024 + " KB)");
+        return new StaticAssets(assets, maxTransfers);
+    }
+
+    private static Asset loadAsset(Path root, Path file, byte[] rewritten) throws IOException {
+        String path = "/" + root.relativize(file).toString().replace('\\', '/');
+        String extension = extension(file);
+        String contentType = CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+        boolean text = contentType.startsWith("text/") || contentType.contains("javascript")
+                || contentType.contains("json") || contentType.contains("svg");
+        ByteBuffer content;
+        Path mappedFile = null;
+        if (rewritten != null) {
+            content = ByteBuffer.wrap(rewritten);
+        } else if (!text && Files.size(file) > MAP_THRESHOLD && file.getFileSystem() == FileSystems.getDefault()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mappedFile = file;
+        } else {
+            content = ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+        String hash = hash(content.duplicate());
+        ByteBuffer gzip = text ? gzip(content.duplicate()) : null;
+        if (gzip != null && gzip.remaining() >= content.remaining()) {
+            gzip = null; // Compressione inutile per file minuscoli
+        }
+        int dot = path.lastIndexOf('.');
+        String hashedPath = dot > path.lastIndexOf('/')
+                ? path.substring(0, dot) + "." + hash.substring(0, 10) + path.substring(dot)
+                : path + "." + hash.substring(0, 10);
+        return new Asset(path, hashedPath, contentType, content.asReadOnlyBuffer(),
+                gzip != null ? gzip.asReadOnlyBuffer() : null,
+                "\"" + hash + "\"", "\"" + hash + "-gz\"", mappedFile);
+    }
+
+    /**
+     * Serve la richiesta se corrisponde a un file pubblico.
+     *
+     * @return false se il percorso non è un file statico
+     */
+    public boolean serve(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        String path = req.getPathInfo() != null ? req.getPathInfo() : req.getRequestURI();
+        if (path.endsWith("/")) {
+            path += INDEX;
+        }
+        boolean immutable = false;
+        Asset asset = byPath.get(path);
+        if (asset == null) {
+            asset = byHashedPath.get(path);
+            immutable = asset != null;
+        }
+        if (asset == null) {
+            return false;
+        }
+
+        String range = req.getHeader("Range");
+        boolean gzip = asset.gzip() != null && range == null && acceptsGzip(req.getHeader("Accept-Encoding"));
+        String etag = gzip ? asset.gzipEtag() : asset.etag();
+        res.setHeader("Cache-Control", immutable ? IMMUTABLE : REVALIDATE);
+        res.setHeader("ETag", etag);
+        res.setHeader("Accept-Ranges", "bytes");
+        if (asset.gzip() != null) {
+            res.setHeader("Vary", "Accept-Encoding");
+        }
+        res.setContentType(asset.contentType());
+        if (matchesEtag(req.getHeader("If-None-Match"), etag)) {
+            res.setStatus(304);
+            res.flushBuffer(); // Risposta già inviata: Spark non aggiunge altro
+            return true;
+        }
+
+        long start = 0;
+        long length = asset.length();
+        if (range != null && matchesIfRange(req.getHeader("If-Range"), asset.etag())) {
+            long[] bounds = parseRange(range, asset.length());
+            if (bounds == UNSATISFIABLE) {
+                res.setStatus(416);
+                res.setHeader("Content-Range", "bytes */" + asset.length());
+                res.setContentLength(0);
+                res.flushBuffer();
+                return true;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                res.setStatus(206);
+                res.setHeader("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + asset.length());
+            }
+        }
+
+        // I file mappati (audio) occupano la connessione a lungo: pochi alla volta, gli altri riprovano
+        boolean limited = asset.mapped() && !"HEAD".equals(req.getMethod());
+        if (limited && !transfers.tryAcquire()) {
+            res.reset();
+            res.setStatus(503);
+            res.setHeader("Retry-After", "1");
+            res.setContentLength(0);
+            res.flushBuffer();
+            return true;
+        }
+        try {
+            ByteBuffer body = gzip ? asset.gzip() : asset.content();
+            if (gzip) {
+                res.setHeader("Content-Encoding", "gzip");
+                length = body.remaining();
+            }
+            res.setContentLengthLong(length);
+            if ("HEAD".equals(req.getMethod())) {
+                res.flushBuffer();
+                return true;
+            }
+            write(res.getOutputStream(), asset, body, start, length);
+            res.flushBuffer();
+        } finally {
+            if (limited) {
+                transfers.release();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Jetty scrive direttamente sul socket il buffer (anche mappato) senza copiarlo nell'heap;
+     * con un altro contenitore i file mappati passano da FileChannel.transferTo.
+     */
+    private static void write(OutputStream out, Asset asset, ByteBuffer body, long start, long length) throws IOException {
+        ByteBuffer slice = body.duplicate().position((int) start).limit((int) (start + length)).slice();
+        if (out instanceof HttpOutput jetty) {
+            jetty.sendContent(slice);
+        } else if (asset.mapped() && body == asset.content()) {
+            try (FileChannel channel = FileChannel.open(asset.file(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                for (long sent = 0; sent < length; ) {
+                    sent += channel.transferTo(start + sent, length - sent, target);
+                }
+            }
+        } else {
+            Channels.newChannel(out).write(slice);
+        }
+    }
+
+    /**
+     * Intervallo singolo "bytes=a-b", "bytes=a-" o "bytes=-n".
+     *
+     * @return [inizio, fine] inclusi, UNSATISFIABLE se fuori dal file, null se l'intestazione va ignorata
+     *         (sintassi non valida o più intervalli: si risponde con il file intero)
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return start <= end ? new long[] {start, end} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Range con un ETag diverso: il client ha una versione vecchia e riceve il file intero
+    private static boolean matchesIfRange(String ifRange, String etag) {
+        return ifRange == null || ifRange.equals(etag);
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1).toLowerCase() : "";
+    }
+
+    private static String hash(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            return HexFormat.of().formatHex(digest.digest()).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new EmojiCraftException("SHA-256 non disponibile", e);
+        }
+    }
+
+    private static ByteBuffer gzip(ByteBuffer content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.remaining() / 3 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            Channels.newChannel(out).write(content);
+        }
+        return ByteBuffer.wrap(compressed.toByteArray());
+    }
+
+    Asset get(String path) {
+        Asset asset = byPath.get(path);
+        return asset != null ? asset : byHashedPath.get(path);
+    }
+
+    /**
+     * URL con hash di un file pubblico (ad esempio "/logic.js" → "/logic.0123456789.js"), null se non esiste.
+     */
+    public String hashedPath(String path) {
+        Asset asset = byPath.get(path);
+        return asset != null ? asset.hashedPath() : null;
+    }
+
+    public int size() {
+        return byPath.size();
+    }
+}
@@ -0,0 +1,52 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket senza lock per un singolo client.
+ * Invece di due variabili (gettoni e ultimo riempimento) si memorizza un solo istante teorico di arrivo
+ * (algoritmo GCRA, equivalente a un token bucket): ogni richiesta lo sposta avanti di un intervallo di emissione
+ * e viene rifiutata se supererebbe la tolleranza di burst. Un solo AtomicLong aggiornato con CAS.
+ */
+public final class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param ratePerSecond richieste sostenibili al secondo
+     * @param burst         richieste accettate di fila a bucket pieno
+     * @param nowNanos      istante di creazione (il bucket parte pieno)
+     */
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Consuma un gettone se disponibile.
+     *
+     * @return 0 se la richiesta è ammessa, altrimenti i nanosecondi da attendere prima di riprovare
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Un bucket tornato pieno equivale a uno appena creato e può essere scartato.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Consistent Hashing:
+ *   Ogni shard occupa molti punti (nodi virtuali) su un anello di hash a 64 bit; una sessione appartiene al primo
+ *   punto che segue l'hash del suo id. Aggiungere o togliere uno shard sposta solo le sessioni dei suoi intervalli.
+ *
+ * - Immutable Object:
+ *   L'anello non cambia dopo la costruzione: un cambio di membri crea un nuovo anello, letto senza lock dal router.
+ */
+
+package shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import exception.EmojiCraftException;
+
+public class ConsistentHashRing {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final List<String> members;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> members) {
+        if (members.isEmpty()) {
+            throw new EmojiCraftException("L'anello di hash richiede almeno uno shard");
+        }
+        this.members = List.copyOf(members);
+        for (String member : this.members) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    /**
+     * Shard proprietario della sessione.
+     */
+    public String ownerOf(String sessionId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(sessionId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    // FNV-1a a 64 bit con mescolamento finale: stabile tra processi e JVM diverse (String.hashCode non basta)
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
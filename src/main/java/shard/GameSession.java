@@ -0,0 +1,135 @@
+package shard;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import analytics.AnalyticsRecorder;
+import game.GameEngine;
+import game.GameWorld;
+import game.Player;
+import interest.InterestManager;
+
+/**
+ * Una sessione ospitata da questo processo: mondo, giocatore e motore dedicati.
+ * Le richieste tengono il lock in lettura per tutta la loro durata; il trasferimento a un altro shard
+ * prende il lock in scrittura, quindi attende le richieste in corso e blocca le nuove (drain).
+ */
+public class GameSession {
+    private static final long ENTER_TIMEOUT_SECONDS = 5;
+
+    private final String id;
+    private final GameWorld gameWorld;
+    private final Player player;
+    private final AtomicBoolean gameActive = new AtomicBoolean(true);
+    private final GameEngine engine;
+    // Area di interesse dei client della sessione: riceve gli eventi del mondo della sessione, non di quello principale
+    private final InterestManager interests;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Shard che ospita ora la sessione dopo un trasferimento (null = ancora qui)
+    private volatile String movedTo;
+    // Sessione trasferita, scaricata o rimossa: il motore è fermo e lo stato non va più salvato da qui
+    private volatile boolean closed;
+    private volatile boolean started;
+    // Ultima richiesta ricevuta: le sessioni inattive vengono scaricate da SessionRegistry.evictIdle
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    GameSession(String id, GameWorld gameWorld, Player player) {
+        this.id = id;
+        this.gameWorld = gameWorld;
+        this.player = player;
+        this.engine = new GameEngine(id, gameWorld, player, gameActive);
+        this.interests = new InterestManager(gameWorld);
+    }
+
+    /**
+     * Inizio di una richiesta sulla sessione.
+     *
+     * @return false se la sessione è stata trasferita (la richiesta va inoltrata a getMovedTo) o chiusa
+     */
+    public boolean enter() {
+        try {
+            if (!lock.readLock().tryLock(ENTER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (closed) {
+            lock.readLock().unlock();
+            return false;
+        }
+        lastAccessMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    public void exit() {
+        lock.readLock().unlock();
+    }
+
+    void lockForHandoff() {
+        lock.writeLock().lock();
+    }
+
+    void unlockAfterHandoff() {
+        lock.writeLock().unlock();
+    }
+
+    void markMoved(String shard) {
+        movedTo = shard;
+        closed = true;
+        engine.stop();
+    }
+
+    /**
+     * Avvia fisica e timer della partita (con il tempo rimanente del mondo); onGameEnd viene eseguito
+     * una volta alla fine della partita, anche quando la sessione viene chiusa prima dello scadere.
+     */
+    void start(Runnable onGameEnd) {
+        started = true;
+        engine.startPhysics();
+        engine.startTimer(gameWorld.getTimeRemaining(), onGameEnd);
+        engine.subscribe("interest", interests);
+        AnalyticsRecorder analytics = AnalyticsRecorder.getInstance();
+        if (analytics != null) {
+            engine.subscribe("analytics", analytics.forWorld(id));
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameWorld getWorld() {
+        return gameWorld;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public InterestManager getInterests() {
+        return interests;
+    }
+
+    public AtomicBoolean getGameActive() {
+        return gameActive;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    public String getMovedTo() {
+        return movedTo;
+    }
+}
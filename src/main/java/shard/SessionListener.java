@@ -0,0 +1,39 @@
+package shard;
+
+/**
+ * Observer Pattern: ciclo di vita delle sessioni ospitate da SessionRegistry.
+ * Permette al server di applicare alle sessioni lo stesso controllo di ammissione e di sovraccarico
+ * del mondo principale senza che il registro dipenda dal server HTTP.
+ */
+public interface SessionListener {
+    SessionListener NONE = new SessionListener() {
+    };
+
+    /**
+     * Riserva un posto per la partita di una sessione. Con force la sessione esiste già (trasferita da un altro shard
+     * o promossa dalla replica) e il posto viene riservato anche oltre il limite.
+     *
+     * @return false se la nuova sessione va rifiutata
+     */
+    default boolean admit(String sessionId, boolean force) {
+        return true;
+    }
+
+    /**
+     * Sessione avviata: fisica e timer della partita sono in esecuzione.
+     */
+    default void started(GameSession session) {
+    }
+
+    /**
+     * Partita della sessione conclusa (tempo scaduto o sessione chiusa): libera il posto riservato da admit.
+     */
+    default void gameEnded(GameSession session) {
+    }
+
+    /**
+     * Sessione rimossa da questo processo (trasferita, scaricata o eliminata).
+     */
+    default void closed(GameSession session) {
+    }
+}
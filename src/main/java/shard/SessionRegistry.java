@@ -0,0 +1,396 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Registry Pattern:
+ *   SessionRegistry tiene le sessioni ospitate da questo processo, ciascuna con il proprio mondo e motore.
+ *
+ * - Memento Pattern:
+ *   Una sessione trasferita viene serializzata con lo stesso formato binario di SessionStore (giocatore, punteggio,
+ *   tempo, senza griglia) seguito dagli oggetti attivi con il loro punteggio e dallo stato della partita (in corso o
+ *   conclusa), e ricostruita sullo shard di destinazione. Una partita conclusa non riparte: niente timer, niente fisica
+ *   e niente secondo punteggio in classifica.
+ *   Le sessioni ospitate vengono anche salvate in SessionStore e ricaricate quando lo stesso id torna su questo processo.
+ *
+ * - Observer Pattern:
+ *   SessionListener riceve ammissione, avvio, fine partita e chiusura di ogni sessione: il server vi collega
+ *   GameAdmission e OverloadController. Il numero di sessioni è limitato e quelle inattive vengono salvate e scaricate.
+ */
+
+package shard;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import exception.EmojiCraftException;
+import game.GameState;
+import game.GameStateManager;
+import game.GameWorld;
+import game.Player;
+import game.SessionStore;
+import model.Item;
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class SessionRegistry {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final int HANDOFF_MAGIC = 0x45434832; // "ECH2": con lo stato della partita in coda
+    private static final int START_X = 2;
+    private static final int START_Y = 5;
+
+    private static SessionRegistry instance;
+
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    // Archivio in cui salvare le sessioni (null = sessioni solo in memoria)
+    private final SessionStore store;
+    private final int maxSessions;
+    private volatile SessionListener listener = SessionListener.NONE;
+    // Follower di replica non promosso: le sessioni arrivano solo con apply, getOrCreate non ne crea
+    private volatile boolean readOnly;
+    private ScheduledExecutorService evictor;
+
+    public SessionRegistry() {
+        this(null);
+    }
+
+    public SessionRegistry(SessionStore store) {
+        this(store, GameSettings.getInstance().getMaxSessions());
+    }
+
+    public SessionRegistry(SessionStore store, int maxSessions) {
+        this.store = store;
+        this.maxSessions = maxSessions;
+    }
+
+    // Singleton Pattern: sessioni ospitate dall'intero processo (router degli shard e replica le condividono)
+    public static synchronized SessionRegistry getInstance() {
+        if (instance == null) {
+            instance = new SessionRegistry(SessionStore.getInstance());
+        }
+        return instance;
+    }
+
+    public GameSession get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public void setListener(SessionListener listener) {
+        this.listener = listener;
+    }
+
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Restituisce la sessione, creandone una nuova (mondo, fisica e timer dedicati) se non esiste.
+     * Una sessione salvata in precedenza nell'archivio riprende dallo stato salvato.
+     *
+     * @return null se la nuova sessione è stata rifiutata (limite di sessioni o di partite contemporanee,
+     *         oppure registro in sola lettura su un follower)
+     */
+    public GameSession getOrCreate(String sessionId) {
+        GameSession existing = sessions.get(sessionId);
+        if (existing != null) {
+            return existing;
+        }
+        return sessions.computeIfAbsent(sessionId, id -> {
+            if (readOnly || sessions.size() >= maxSessions) {
+                return null;
+            }
+            GameSession session = new GameSession(id, newWorld(), new Player(START_X, START_Y));
+            GameState saved = store != null ? GameStateManager.loadGameState(store, id) : null;
+            if (saved != null) {
+                session.getWorld().restoreSession(saved, session.getPlayer());
+                // Tempo a 0: la partita salvata era scaduta (GameUtils.runGameTimer)
+                session.getWorld().setGameActive(saved.getTimeRemaining() > 0);
+            }
+            return activate(session, false) ? session : null;
+        });
+    }
+
+    /**
+     * Avvia la partita di una sessione ripristinata, se è ancora in corso; una partita conclusa resta consultabile
+     * senza timer né fisica e senza occupare un posto di ammissione.
+     *
+     * @return false se la partita in corso non è stata ammessa
+     */
+    private boolean activate(GameSession session, boolean force) {
+        if (!session.getWorld().isGameActive()) {
+            session.getGameActive().set(false);
+            return true;
+        }
+        if (!listener.admit(session.getId(), force)) {
+            return false;
+        }
+        start(session);
+        return true;
+    }
+
+    // Sessione con un posto già riservato: fisica e timer, poi notifica al listener
+    private void start(GameSession session) {
+        session.start(() -> gameEnded(session));
+        listener.started(session);
+    }
+
+    // Fine della partita: lo stato finale viene salvato (se la sessione è ancora qui) e il posto liberato
+    private void gameEnded(GameSession session) {
+        if (!session.isClosed()) {
+            save(session);
+        }
+        listener.gameEnded(session);
+    }
+
+    // Ferma il motore della sessione (il timer ancora attivo chiama gameEnded) e la toglie dal listener
+    private void close(GameSession session, String movedTo) {
+        session.markMoved(movedTo);
+        listener.closed(session);
+    }
+
+    // Mondo di una sessione: dimensioni globali e sovrascritture configurate per le sessioni (sessionOverrides)
+    private static GameWorld newWorld() {
+        GameWorld gameWorld = new GameWorld();
+        gameWorld.setSettingsOverrides(GameSettings.getInstance().getSessionOverrides());
+        return gameWorld;
+    }
+
+    /**
+     * Accoda il salvataggio della sessione nell'archivio (nessun effetto se il registro non è persistente).
+     */
+    public CompletableFuture<Void> save(GameSession session) {
+        if (store == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GameWorld gameWorld = session.getWorld();
+        Player player = session.getPlayer();
+        GameState gameState;
+        synchronized (gameWorld) {
+            gameState = new GameState(player.getX(), player.getY(), gameWorld.getScore(),
+                    gameWorld.getWorldState(player), gameWorld.getTimeRemaining());
+        }
+        return GameStateManager.saveGameState(store, session.getId(), gameState);
+    }
+
+    /**
+     * Salva tutte le sessioni ospitate e attende il group commit (chiusura del processo).
+     */
+    public void saveAll() {
+        if (store == null) {
+            return;
+        }
+        sessions.values().forEach(this::save);
+        store.flush();
+    }
+
+    /**
+     * Ricostruisce una sessione ricevuta da un altro shard; se la sessione è già presente viene mantenuta quella locale.
+     */
+    public GameSession restore(String sessionId, byte[] state) {
+        return sessions.computeIfAbsent(sessionId, id -> {
+            GameSession session = new GameSession(id, newWorld(), new Player(START_X, START_Y));
+            decode(state, session.getWorld(), session.getPlayer());
+            activate(session, true); // Partita già in corso su un altro shard: il posto la segue
+            return session;
+        });
+    }
+
+    /**
+     * Applica uno stato replicato: aggiorna la sessione esistente o ne crea una senza avviarne la fisica
+     * (su un processo follower il mondo segue solo il primario).
+     */
+    public GameSession apply(String sessionId, byte[] state) {
+        GameSession session = sessions.computeIfAbsent(sessionId,
+                id -> new GameSession(id, newWorld(), new Player(START_X, START_Y)));
+        decode(state, session.getWorld(), session.getPlayer());
+        session.getGameActive().set(session.getWorld().isGameActive());
+        return session;
+    }
+
+    /**
+     * Rimuove una sessione senza trasferirla (ad esempio quando il primario l'ha consegnata a un altro shard).
+     */
+    public void remove(String sessionId) {
+        GameSession session = sessions.remove(sessionId);
+        if (session != null) {
+            close(session, null);
+        }
+    }
+
+    /**
+     * Avvia fisica e timer di tutte le sessioni (promozione di un follower a primario).
+     */
+    public void startAll() {
+        for (GameSession session : sessions.values()) {
+            if (!session.isStarted()) {
+                activate(session, true);
+            }
+        }
+    }
+
+    /**
+     * Salva e scarica le sessioni senza richieste da almeno idleMillis: la prossima richiesta le ricarica dall'archivio.
+     *
+     * @return il numero di sessioni scaricate
+     */
+    public int evictIdle(long idleMillis) {
+        int evicted = 0;
+        for (GameSession session : List.copyOf(sessions.values())) {
+            if (System.currentTimeMillis() - session.getLastAccessMillis() < idleMillis) {
+                continue;
+            }
+            session.lockForHandoff(); // Attende le richieste in corso, come un trasferimento
+            try {
+                if (session.isClosed() || System.currentTimeMillis() - session.getLastAccessMillis() < idleMillis) {
+                    continue;
+                }
+                save(session).join();
+                sessions.remove(session.getId(), session);
+                close(session, null);
+                evicted++;
+            } finally {
+                session.unlockAfterHandoff();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Avvia lo scaricamento periodico delle sessioni inattive (chiamate ripetute non hanno effetto).
+     */
+    public synchronized void startEviction(long idleMillis) {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleMillis / 4);
+        evictor.scheduleWithFixedDelay(() -> {
+            try {
+                int evicted = evictIdle(idleMillis);
+                if (evicted > 0) {
+                    logger.info("Sessioni inattive scaricate: " + evicted);
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Scaricamento delle sessioni inattive fallito: {0}", e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drain-and-transfer: attende le richieste in corso, serializza la sessione, la consegna con transfer
+     * (ancora sotto lock, quindi nessuna richiesta vede uno stato intermedio) e la rimuove da questo processo.
+     *
+     * @return lo stato serializzato, oppure null se la sessione non è (più) ospitata qui
+     */
+    public byte[] handOff(String sessionId, String destination, Transfer transfer) throws IOException {
+        GameSession session = sessions.get(sessionId);
+        if (session == null) {
+            return null;
+        }
+        session.lockForHandoff();
+        try {
+            if (session.getMovedTo() != null) {
+                return null;
+            }
+            byte[] state = encode(session.getWorld(), session.getPlayer());
+            transfer.send(sessionId, state);
+            close(session, destination);
+            sessions.remove(sessionId, session);
+            if (store != null) {
+                store.delete(sessionId); // Ora la salva il nuovo proprietario: una copia vecchia non deve riapparire qui
+            }
+            return state;
+        } finally {
+            session.unlockAfterHandoff();
+        }
+    }
+
+    /**
+     * Consegna dello stato allo shard di destinazione durante il trasferimento.
+     */
+    @FunctionalInterface
+    public interface Transfer {
+        void send(String sessionId, byte[] state) throws IOException;
+    }
+
+    public Set<String> getSessionIds() {
+        return sessions.keySet();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Serializza mondo e giocatore di una sessione (usato per i trasferimenti tra shard e per la replica).
+     * Sotto il lock del mondo vengono copiati solo giocatore, punteggio, tempo e oggetti attivi: la griglia non viene
+     * né costruita né inviata (rows=0), perché decode ricostruisce il mondo dagli oggetti con restoreSession.
+     */
+    public static byte[] encode(GameWorld gameWorld, Player player) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            List<Item> activeItems = new ArrayList<>();
+            GameState gameState;
+            boolean ended;
+            synchronized (gameWorld) {
+                ended = !gameWorld.isGameActive();
+                for (Item item : gameWorld.getActiveItems()) {
+                    activeItems.add(new Item(item.getX(), item.getY(), item.getSymbol(), item.getScore()));
+                }
+                gameState = new GameState(player.getX(), player.getY(), gameWorld.getScore(), null,
+                        gameWorld.getTimeRemaining());
+            }
+            out.writeInt(HANDOFF_MAGIC);
+            SessionStore.encodeState(out, gameState);
+            out.writeInt(activeItems.size());
+            for (Item item : activeItems) {
+                out.writeInt(item.getX());
+                out.writeInt(item.getY());
+                out.writeUTF(item.getSymbol());
+                out.writeInt(item.getScore());
+            }
+            out.writeBoolean(ended);
+        } catch (IOException e) {
+            throw new EmojiCraftException("Impossibile serializzare la sessione", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void decode(byte[] state, GameWorld gameWorld, Player player) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state))) {
+            if (in.readInt() != HANDOFF_MAGIC) {
+                throw new EmojiCraftException("Stato di sessione non valido");
+            }
+            GameState gameState = SessionStore.decodeState(in);
+            int count = in.readInt();
+            List<Item> activeItems = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                activeItems.add(new Item(in.readInt(), in.readInt(), in.readUTF(), in.readInt()));
+            }
+            boolean ended = in.readBoolean();
+            gameWorld.restoreSession(gameState, activeItems, player);
+            gameWorld.setGameActive(!ended);
+        } catch (IOException e) {
+            throw new EmojiCraftException("Stato di sessione non leggibile", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package spectator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Adapter Pattern: connessione di uno spettatore (WebSocket o altro trasporto).
+ * send deve essere asincrono e chiamare onComplete alla fine dell'invio, riuscito o fallito.
+ */
+public interface FrameSink {
+    void send(ByteBuffer frame, Runnable onComplete);
+
+    boolean isOpen();
+}
@@ -0,0 +1,71 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Latest-Value Mailbox:
+ *   Ogni spettatore ha una coda limitata a un solo fotogramma in attesa, oltre a quello in invio.
+ *   Se arriva un fotogramma nuovo mentre il precedente è ancora in attesa, il vecchio viene scartato:
+ *   uno spettatore lento salta i fotogrammi intermedi e riceve sempre il più recente.
+ *
+ * Motivo dell'utilizzo:
+ * - La memoria per spettatore è costante e il broadcaster non attende mai una connessione lenta.
+ */
+
+package spectator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Spectator {
+    private final FrameSink sink;
+    private final AtomicReference<SpectatorFrame> pending = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    Spectator(FrameSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Consegna un fotogramma: sostituisce quello ancora in attesa e avvia l'invio se la connessione è libera.
+     */
+    void offer(SpectatorFrame frame) {
+        if (pending.getAndSet(frame) != null) {
+            dropped.incrementAndGet();
+        }
+        sendNext();
+    }
+
+    private void sendNext() {
+        // Al più un invio alla volta per connessione; chi completa l'invio riprova con l'eventuale fotogramma in attesa
+        while (sending.compareAndSet(false, true)) {
+            SpectatorFrame frame = pending.getAndSet(null);
+            if (frame != null) {
+                sink.send(frame.buffer(), this::onSent);
+                return;
+            }
+            sending.set(false);
+            if (pending.get() == null) {
+                return;
+            }
+        }
+    }
+
+    private void onSent() {
+        sent.incrementAndGet();
+        sending.set(false);
+        sendNext();
+    }
+
+    public boolean isOpen() {
+        return sink.isOpen();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
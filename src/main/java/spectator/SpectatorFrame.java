@@ -0,0 +1,25 @@
+package spectator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight Pattern: un fotogramma codificato una sola volta e condiviso da tutti gli spettatori.
+ * Il contenuto è immutabile; ogni invio usa una vista indipendente (posizione e limite propri) sugli stessi byte.
+ */
+public record SpectatorFrame(long version, ByteBuffer data) {
+
+    public SpectatorFrame {
+        data = data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Vista di sola lettura sui byte condivisi, pronta per l'invio (nessuna copia).
+     */
+    public ByteBuffer buffer() {
+        return data.duplicate();
+    }
+
+    public int size() {
+        return data.remaining();
+    }
+}
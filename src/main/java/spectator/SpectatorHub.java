@@ -0,0 +1,165 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   Gli spettatori si iscrivono a un mondo e ricevono i suoi fotogrammi in sola lettura.
+ *
+ * - Encode-once Fan-out:
+ *   A ogni intervallo lo stato del mondo viene serializzato una sola volta; se i byte sono cambiati nasce una
+ *   nuova versione, e lo stesso buffer immutabile viene consegnato a tutti gli spettatori. Il costo di
+ *   serializzazione non dipende dal numero di spettatori.
+ *
+ * Motivo dell'utilizzo:
+ * - Una partita seguita da migliaia di spettatori costa circa una serializzazione per fotogramma,
+ *   invece di una chiamata a Gson per ogni spettatore.
+ */
+
+package spectator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import game.GameWorld;
+import util.LoggerUtil;
+
+public class SpectatorHub {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+
+    private final String name;
+    private final GameWorld gameWorld;
+    // Serializzazione dello stato visibile agli spettatori (ad esempio il JSON di /world)
+    private final Supplier<String> encoder;
+    private final Set<Spectator> spectators = new CopyOnWriteArraySet<>();
+    private final AtomicReference<SpectatorFrame> latest = new AtomicReference<>();
+    private final AtomicLong encodes = new AtomicLong();
+    private byte[] lastBytes; // Accesso solo dal thread che esegue broadcast
+    private volatile boolean running;
+    private Thread thread;
+
+    public SpectatorHub(String name, GameWorld gameWorld, Supplier<String> encoder) {
+        this.name = name;
+        this.gameWorld = gameWorld;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Iscrive uno spettatore; riceve subito l'ultimo fotogramma disponibile.
+     */
+    public Spectator subscribe(FrameSink sink) {
+        Spectator spectator = new Spectator(sink);
+        spectators.add(spectator);
+        gameWorld.setSpectatorCount(spectators.size());
+        SpectatorFrame frame = latest.get();
+        if (frame != null) {
+            spectator.offer(frame);
+        }
+        return spectator;
+    }
+
+    public void unsubscribe(Spectator spectator) {
+        if (spectators.remove(spectator)) {
+            gameWorld.setSpectatorCount(spectators.size());
+        }
+    }
+
+    /**
+     * Codifica lo stato corrente e, se è cambiato, lo consegna a tutti gli spettatori.
+     * Senza spettatori non codifica nulla. Da chiamare sempre dallo stesso thread.
+     *
+     * @return il fotogramma consegnato, oppure null se lo stato non è cambiato
+     */
+    public SpectatorFrame broadcast() {
+        if (spectators.isEmpty()) {
+            return null;
+        }
+        byte[] bytes = encoder.get().getBytes(StandardCharsets.UTF_8);
+        encodes.incrementAndGet();
+        if (Arrays.equals(bytes, lastBytes)) {
+            return null; // Stessa versione: gli spettatori hanno già questo fotogramma
+        }
+        lastBytes = bytes;
+        SpectatorFrame previous = latest.get();
+        SpectatorFrame frame = new SpectatorFrame(previous != null ? previous.version() + 1 : 1, ByteBuffer.wrap(bytes));
+        latest.set(frame);
+        for (Spectator spectator : spectators) {
+            if (spectator.isOpen()) {
+                spectator.offer(frame);
+            } else {
+                unsubscribe(spectator);
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Avvia il broadcaster: un fotogramma per intervallo di aggiornamento del mondo (più lento sotto sovraccarico).
+     */
+    public synchronized SpectatorHub start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this::run, "spectators-" + name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                broadcast();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Errore durante l''invio agli spettatori: {0}", e.getMessage());
+            }
+            try {
+                long interval = gameWorld.getUpdateIntervalMillis();
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (thread != null) {
+            running = false;
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public SpectatorFrame getLatestFrame() {
+        return latest.get();
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    /**
+     * Serializzazioni eseguite dall'avvio: cresce con i fotogrammi, non con gli spettatori.
+     */
+    public long getEncodes() {
+        return encodes.get();
+    }
+
+    public long getDroppedFrames() {
+        long dropped = 0;
+        for (Spectator spectator : spectators) {
+            dropped += spectator.getDropped();
+        }
+        return dropped;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
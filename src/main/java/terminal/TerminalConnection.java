@@ -0,0 +1,117 @@
+package terminal;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import game.Direction;
+import server.TokenBucket;
+
+/**
+ * Stato di una connessione testuale, usato solo dal thread del selettore che la possiede.
+ * Nessun buffer proprio: in invio c'è al più una vista su un fotogramma condiviso, la lettura usa il buffer del selettore.
+ * Decodifica i tasti scartando le negoziazioni telnet (IAC ...) e traducendo le frecce (ESC [ A..D) in WASD.
+ */
+final class TerminalConnection {
+    // Risultati di decode oltre ai caratteri
+    static final int NONE = -1;
+    static final int QUIT = -2;
+
+    private static final int IAC = 0xFF;
+    private static final int SB = 0xFA;
+    private static final int SE = 0xF0;
+    private static final int WILL = 0xFB;
+    private static final int DONT = 0xFE;
+    private static final int ESC = 0x1B;
+    private static final int CTRL_C = 0x03;
+    private static final int CTRL_D = 0x04;
+
+    // Stati del decodificatore
+    private static final int DATA = 0;
+    private static final int COMMAND = 1;       // dopo IAC
+    private static final int OPTION = 2;        // dopo IAC WILL/WONT/DO/DONT
+    private static final int SUBNEGOTIATION = 3; // dopo IAC SB, fino a IAC SE
+    private static final int SUBNEGOTIATION_IAC = 4;
+    private static final int ESCAPE = 5;        // dopo ESC
+    private static final int CSI = 6;           // dopo ESC [
+
+    private final SocketChannel channel;
+    private final TokenBucket moves;
+    // Vista in invio su un fotogramma condiviso (null = nulla in sospeso)
+    ByteBuffer pending;
+    // Ultima versione del fotogramma assegnata alla connessione (0 = nessuna)
+    long version;
+    private int state = DATA;
+
+    TerminalConnection(SocketChannel channel, TokenBucket moves) {
+        this.channel = channel;
+        this.moves = moves;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Consuma un byte ricevuto.
+     *
+     * @return la direzione come carattere W/A/S/D, QUIT, oppure NONE se il byte non produce un comando
+     */
+    int decode(int b) {
+        switch (state) {
+            case COMMAND -> {
+                state = b == SB ? SUBNEGOTIATION : b >= WILL && b <= DONT ? OPTION : DATA;
+                return NONE;
+            }
+            case OPTION -> {
+                state = DATA;
+                return NONE;
+            }
+            case SUBNEGOTIATION -> {
+                if (b == IAC) {
+                    state = SUBNEGOTIATION_IAC;
+                }
+                return NONE;
+            }
+            case SUBNEGOTIATION_IAC -> {
+                state = b == SE ? DATA : SUBNEGOTIATION;
+                return NONE;
+            }
+            case ESCAPE -> {
+                state = b == '[' || b == 'O' ? CSI : DATA;
+                return NONE;
+            }
+            case CSI -> {
+                state = DATA;
+                return switch (b) {
+                    case 'A' -> 'W';
+                    case 'B' -> 'S';
+                    case 'C' -> 'D';
+                    case 'D' -> 'A';
+                    default -> NONE;
+                };
+            }
+            default -> {
+                if (b == IAC) {
+                    state = COMMAND;
+                    return NONE;
+                }
+                if (b == ESC) {
+                    state = ESCAPE;
+                    return NONE;
+                }
+                if (b == 'q' || b == 'Q' || b == CTRL_C || b == CTRL_D) {
+                    return QUIT;
+                }
+                Direction direction = Direction.fromChar((char) b);
+                return direction != null ? direction.name().charAt(0) : NONE;
+            }
+        }
+    }
+
+    /**
+     * Token bucket della connessione: i tasti oltre il limite di mosse vengono ignorati.
+     */
+    boolean tryMove(long nowNanos) {
+        return moves.tryAcquire(nowNanos) == 0;
+    }
+}
@@ -0,0 +1,32 @@
+package terminal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight Pattern: un fotogramma ANSI codificato una sola volta e condiviso da tutte le connessioni testuali.
+ * full ridisegna lo schermo intero; diff contiene solo le celle cambiate rispetto alla versione precedente
+ * (null se il viewport ha cambiato dimensione). I buffer sono diretti: il canale li scrive senza copie intermedie.
+ */
+public record TerminalFrame(long version, ByteBuffer full, ByteBuffer diff) {
+
+    public TerminalFrame {
+        full = full.asReadOnlyBuffer();
+        diff = diff != null ? diff.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * Vista da inviare a un client che ha già ricevuto clientVersion: le sole differenze se è alla versione
+     * precedente, altrimenti (client nuovo o rimasto indietro) lo schermo intero.
+     */
+    public ByteBuffer bufferFor(long clientVersion) {
+        return diff != null && clientVersion == version - 1 ? diff.duplicate() : full.duplicate();
+    }
+
+    public int fullSize() {
+        return full.remaining();
+    }
+
+    public int diffSize() {
+        return diff != null ? diff.remaining() : 0;
+    }
+}
@@ -0,0 +1,210 @@
+package terminal;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import util.LoggerUtil;
+
+/**
+ * Reactor Pattern: un thread con un selettore serve migliaia di connessioni non bloccanti.
+ * Una connessione inattiva costa solo la sua chiave e un piccolo oggetto di stato; il buffer di lettura è unico
+ * per selettore (diretto) e i fotogrammi in uscita sono viste sui buffer condivisi di TerminalFrame.
+ * Un client lento non blocca gli altri: resta con OP_WRITE finché il fotogramma in corso non è partito,
+ * poi riceve direttamente l'ultimo (Latest-Value, come gli spettatori WebSocket).
+ */
+final class TerminalReactor implements Runnable {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    private static final int READ_BUFFER_SIZE = 512;
+
+    private final TerminalServer server;
+    private final Selector selector;
+    private final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    // Ultimo fotogramma distribuito alle connessioni di questo selettore
+    private TerminalFrame dispatched;
+
+    TerminalReactor(TerminalServer server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+    }
+
+    void registerAcceptor(ServerSocketChannel serverChannel) throws IOException {
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Affida una nuova connessione a questo selettore (chiamabile da qualsiasi thread).
+     */
+    void assign(SocketChannel channel) {
+        incoming.add(channel);
+        selector.wakeup();
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (server.isRunning()) {
+                selector.select();
+                registerIncoming();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        read(key);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(key);
+                    }
+                }
+                dispatchLatest();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Selettore testuale interrotto: {0}", e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Chiusura in spegnimento
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            server.nextReactor().assign(channel);
+        }
+    }
+
+    private void registerIncoming() {
+        SocketChannel channel;
+        while ((channel = incoming.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                TerminalConnection connection = new TerminalConnection(channel, server.newMoveBucket());
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+                // Negoziazione telnet e cursore nascosto, poi il primo fotogramma completo
+                connection.pending = server.greeting();
+                server.connectionOpened();
+                flush(key);
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Connessione già chiusa dal client
+                }
+            }
+        }
+    }
+
+    private void read(SelectionKey key) {
+        TerminalConnection connection = (TerminalConnection) key.attachment();
+        try {
+            readBuffer.clear();
+            if (connection.channel().read(readBuffer) < 0) {
+                close(key);
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                int command = connection.decode(readBuffer.get() & 0xFF);
+                if (command == TerminalConnection.QUIT) {
+                    connection.channel().write(server.goodbye());
+                    close(key);
+                    return;
+                }
+                if (command != TerminalConnection.NONE && connection.tryMove(System.nanoTime())) {
+                    server.move((char) command);
+                }
+            }
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+
+    /**
+     * Scrive quanto possibile: il fotogramma in sospeso e, appena terminato, l'ultimo disponibile se più recente.
+     */
+    private void flush(SelectionKey key) {
+        TerminalConnection connection = (TerminalConnection) key.attachment();
+        try {
+            while (true) {
+                ByteBuffer pending = connection.pending;
+                if (pending == null) {
+                    TerminalFrame frame = dispatched;
+                    if (frame == null || frame.version() <= connection.version) {
+                        break;
+                    }
+                    pending = frame.bufferFor(connection.version);
+                    connection.pending = pending;
+                    connection.version = frame.version();
+                }
+                connection.channel().write(pending);
+                if (pending.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.pending = null;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+
+    // Nuovo fotogramma: lo si offre a tutte le connessioni libere; quelle ancora in invio lo prenderanno dopo
+    private void dispatchLatest() {
+        TerminalFrame latest = server.getLatestFrame();
+        if (latest == null || latest == dispatched) {
+            return;
+        }
+        dispatched = latest;
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof TerminalConnection connection && connection.pending == null) {
+                flush(key);
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        if (key.attachment() instanceof TerminalConnection) {
+            server.connectionClosed();
+        }
+        closeQuietly(key);
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Il client ha già chiuso
+        }
+    }
+}
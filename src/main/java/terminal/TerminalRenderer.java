@@ -0,0 +1,93 @@
+package terminal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Codifica la griglia del mondo in sequenze ANSI per i terminali.
+ * Ogni cella occupa due colonne (le emoji sono larghe due caratteri); il fotogramma completo pulisce lo schermo,
+ * quello differenziale posiziona il cursore (ESC[riga;colonnaH) solo sulle celle cambiate.
+ * Da usare sempre dallo stesso thread: conserva l'ultima griglia codificata.
+ */
+public class TerminalRenderer {
+    static final String CSI = "\u001b[";
+    static final int STATUS_ROW = 1;
+    static final int HELP_ROW = 2;
+    static final int FIRST_GRID_ROW = 3;
+    private static final String EMPTY_CELL = "  ";
+    private static final String HELP = "WASD o frecce per muoversi, Q per uscire";
+
+    private String[][] previous;
+    private String previousStatus;
+    private long version;
+
+    /**
+     * @return il nuovo fotogramma, oppure null se griglia e riga di stato non sono cambiate
+     */
+    public TerminalFrame render(String[][] grid, String status) {
+        boolean sameSize = previous != null && previous.length == grid.length
+                && (grid.length == 0 || previous[0].length == grid[0].length);
+        if (sameSize && status.equals(previousStatus) && Arrays.deepEquals(previous, grid)) {
+            return null;
+        }
+
+        StringBuilder full = new StringBuilder(64 + grid.length * (16 + (grid.length > 0 ? grid[0].length * 4 : 0)));
+        full.append(CSI).append("0m").append(CSI).append('H').append(CSI).append("2J");
+        appendStatus(full, status);
+        moveTo(full, HELP_ROW, 1).append(HELP);
+        for (int y = 0; y < grid.length; y++) {
+            moveTo(full, FIRST_GRID_ROW + y, 1);
+            for (String cell : grid[y]) {
+                full.append(cell(cell));
+            }
+        }
+        parkCursor(full, grid.length);
+
+        StringBuilder diff = null;
+        if (sameSize) {
+            diff = new StringBuilder();
+            if (!status.equals(previousStatus)) {
+                appendStatus(diff, status);
+            }
+            for (int y = 0; y < grid.length; y++) {
+                for (int x = 0; x < grid[y].length; x++) {
+                    if (!cell(grid[y][x]).equals(cell(previous[y][x]))) {
+                        moveTo(diff, FIRST_GRID_ROW + y, 1 + x * 2).append(cell(grid[y][x]));
+                    }
+                }
+            }
+            parkCursor(diff, grid.length);
+        }
+
+        previous = new String[grid.length][];
+        for (int y = 0; y < grid.length; y++) {
+            previous[y] = grid[y].clone();
+        }
+        previousStatus = status;
+        version++;
+        return new TerminalFrame(version, encode(full), diff != null ? encode(diff) : null);
+    }
+
+    private static String cell(String symbol) {
+        return symbol == null || symbol.isBlank() ? EMPTY_CELL : symbol;
+    }
+
+    private static StringBuilder moveTo(StringBuilder out, int row, int column) {
+        return out.append(CSI).append(row).append(';').append(column).append('H');
+    }
+
+    private static void appendStatus(StringBuilder out, String status) {
+        moveTo(out, STATUS_ROW, 1).append(CSI).append("2K").append(status);
+    }
+
+    // Il cursore resta sotto la griglia, così l'eco del terminale non sporca le celle
+    private static void parkCursor(StringBuilder out, int rows) {
+        moveTo(out, FIRST_GRID_ROW + rows + 1, 1);
+    }
+
+    private static ByteBuffer encode(CharSequence text) {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+}
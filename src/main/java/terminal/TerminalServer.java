@@ -0,0 +1,250 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Reactor Pattern:
+ *   Il server TCP testuale usa java.nio: un selettore per core (TerminalReactor), nessun thread per connessione.
+ *   Il primo selettore accetta anche le connessioni e le distribuisce a turno tra tutti.
+ *
+ * - Encode-once Fan-out:
+ *   Un solo thread di rendering legge il viewport del mondo e produce un TerminalFrame per versione: lo schermo
+ *   completo e le sole celle cambiate, in buffer diretti condivisi da tutte le connessioni.
+ *
+ * - Facade Pattern:
+ *   I tasti WASD (o le frecce) diventano chiamate a GameWorld.movePlayer, come /move su HTTP.
+ *
+ * Motivo dell'utilizzo:
+ * - Un chiosco con client telnet a bassa banda riceve pochi byte per fotogramma, e decine di migliaia di
+ *   connessioni inattive costano memoria per connessione, non thread.
+ */
+
+package terminal;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import game.Direction;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+import server.TokenBucket;
+import util.GameSettings;
+import util.LoggerUtil;
+
+public class TerminalServer {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    // IAC WILL ECHO, IAC WILL SUPPRESS-GO-AHEAD: il client telnet passa in modalità carattere e non fa l'eco dei tasti
+    private static final byte[] TELNET_CHARACTER_MODE = {(byte) 0xFF, (byte) 0xFB, 0x01, (byte) 0xFF, (byte) 0xFB, 0x03};
+    private static final ByteBuffer GREETING = direct(TELNET_CHARACTER_MODE, TerminalRenderer.CSI + "?25l");
+    private static final ByteBuffer GOODBYE = direct(new byte[0], TerminalRenderer.CSI + "0m" + TerminalRenderer.CSI + "?25h\r\n");
+
+    private final GameWorld gameWorld;
+    private final Player player;
+    private final AtomicBoolean gameActive;
+    private final Supplier<GamePhysics> physics;
+    private final TerminalRenderer renderer = new TerminalRenderer();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicInteger nextReactor = new AtomicInteger();
+    private final Object frameSignal = new Object();
+    private TerminalReactor[] reactors;
+    private ServerSocketChannel serverChannel;
+    private volatile TerminalFrame latest;
+    private volatile boolean running;
+    private boolean frameRequested; // Protetto da frameSignal
+    private Thread renderThread;
+
+    public TerminalServer(GameWorld gameWorld, Player player, AtomicBoolean gameActive, Supplier<GamePhysics> physics) {
+        this.gameWorld = gameWorld;
+        this.player = player;
+        this.gameActive = gameActive;
+        this.physics = physics;
+    }
+
+    /**
+     * Apre la porta (0 = porta libera scelta dal sistema) e avvia selettori e rendering.
+     *
+     * @param selectorThreads numero di selettori (0 = uno per core)
+     */
+    public synchronized TerminalServer start(int port, int selectorThreads) throws IOException {
+        if (running) {
+            return this;
+        }
+        int threads = selectorThreads > 0 ? selectorThreads : Runtime.getRuntime().availableProcessors();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        reactors = new TerminalReactor[threads];
+        for (int i = 0; i < threads; i++) {
+            reactors[i] = new TerminalReactor(this);
+        }
+        reactors[0].registerAcceptor(serverChannel);
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(reactors[i], "terminal-selector-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        renderThread = new Thread(this::renderLoop, "terminal-frames");
+        renderThread.setDaemon(true);
+        renderThread.start();
+        logger.info("Server testuale in ascolto sulla porta " + getPort() + " con " + threads + " selettori");
+        return this;
+    }
+
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        renderThread.interrupt();
+        for (TerminalReactor reactor : reactors) {
+            reactor.wakeup();
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Errore nella chiusura del server testuale: {0}", e.getMessage());
+        }
+    }
+
+    // Un fotogramma per intervallo di aggiornamento, o subito dopo una mossa o una nuova connessione
+    private void renderLoop() {
+        while (running) {
+            try {
+                if (connections.get() > 0) {
+                    renderFrame();
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Errore nel rendering testuale: {0}", e.getMessage());
+            }
+            long interval = gameWorld.getUpdateIntervalMillis();
+            synchronized (frameSignal) {
+                try {
+                    if (!frameRequested) {
+                        frameSignal.wait(interval);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                frameRequested = false;
+            }
+        }
+    }
+
+    /**
+     * Codifica il viewport attorno al giocatore e, se è cambiato, lo pubblica ai selettori.
+     * Da chiamare solo dal thread di rendering (o nei test, a server fermo).
+     */
+    TerminalFrame renderFrame() {
+        GameSettings settings = GameSettings.getInstance();
+        String[][] grid;
+        String status;
+        synchronized (gameWorld) {
+            int width = settings.getTerminalViewWidth();
+            int height = settings.getTerminalViewHeight();
+            grid = gameWorld.getWorldState(player, gameWorld.getViewportOriginX(player, width),
+                    gameWorld.getViewportOriginY(player, height), width, height);
+            status = gameActive.get()
+                    ? "Punteggio: " + gameWorld.getScore() + "   Tempo: " + gameWorld.getTimeRemaining() + " s"
+                    : "Partita terminata - punteggio finale: " + gameWorld.getScore();
+        }
+        TerminalFrame frame = renderer.render(grid, status);
+        if (frame != null) {
+            latest = frame;
+            frames.incrementAndGet();
+            if (reactors != null) {
+                for (TerminalReactor reactor : reactors) {
+                    reactor.wakeup();
+                }
+            }
+        }
+        return frame;
+    }
+
+    private void requestFrame() {
+        synchronized (frameSignal) {
+            frameRequested = true;
+            frameSignal.notifyAll();
+        }
+    }
+
+    // Command Pattern: un tasto è una mossa, con lo stesso percorso senza allocazioni di /move
+    void move(char key) {
+        if (!gameActive.get()) {
+            return;
+        }
+        // Stesso lock del mondo di /move: i selettori e le richieste HTTP muovono lo stesso giocatore
+        synchronized (gameWorld) {
+            gameWorld.movePlayer(player, Direction.fromChar(key), physics.get());
+        }
+        requestFrame();
+    }
+
+    TerminalReactor nextReactor() {
+        return reactors[Math.floorMod(nextReactor.getAndIncrement(), reactors.length)];
+    }
+
+    TokenBucket newMoveBucket() {
+        GameSettings settings = GameSettings.getInstance();
+        return new TokenBucket(settings.getMoveRatePerSecond(), settings.getMoveBurst(), System.nanoTime());
+    }
+
+    void connectionOpened() {
+        connections.incrementAndGet();
+        requestFrame();
+    }
+
+    void connectionClosed() {
+        connections.decrementAndGet();
+    }
+
+    ByteBuffer greeting() {
+        return GREETING.duplicate();
+    }
+
+    ByteBuffer goodbye() {
+        return GOODBYE.duplicate();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    public TerminalFrame getLatestFrame() {
+        return latest;
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getFramesRendered() {
+        return frames.get();
+    }
+
+    public int getSelectorCount() {
+        return reactors != null ? reactors.length : 0;
+    }
+
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static ByteBuffer direct(byte[] prefix, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(prefix.length + bytes.length).put(prefix).put(bytes).flip().asReadOnlyBuffer();
+    }
+}
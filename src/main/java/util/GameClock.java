@@ -0,0 +1,26 @@
+package util;
+
+/**
+ * Strategy Pattern:
+ * L'interfaccia GameClock astrae la lettura del tempo e l'attesa tra un tick e l'altro.
+ * Il motore di gioco usa sempre un GameClock invece di System.currentTimeMillis() e Thread.sleep(),
+ * così la stessa logica può girare in tempo reale (SystemClock) oppure in tempo virtuale (VirtualClock)
+ * per le simulazioni headless accelerate.
+ */
+public interface GameClock {
+    // Tempo monotono in nanosecondi, con origine arbitraria
+    long nanoTime();
+
+    // Tempo monotono in millisecondi, stessa origine di nanoTime()
+    default long millis() {
+        return nanoTime() / 1_000_000L;
+    }
+
+    // Attende l'intervallo indicato secondo questo orologio
+    void sleep(long millis) throws InterruptedException;
+
+    // Orologio reale condiviso
+    static GameClock system() {
+        return SystemClock.INSTANCE;
+    }
+}
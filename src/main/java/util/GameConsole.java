@@ -0,0 +1,27 @@
+package util;
+
+/**
+ * Uscita su console del motore di gioco.
+ * Le simulazioni headless e i benchmark disattivano la console, così i messaggi diagnostici
+ * non vengono né formattati né stampati nei percorsi caldi.
+ */
+public final class GameConsole {
+    private static volatile boolean enabled = true;
+
+    private GameConsole() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static void println(String message) {
+        if (enabled) {
+            System.out.println(message);
+        }
+    }
+}
@@ -3,17 +3,36 @@ package util;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
-import java.io.FileReader;
+import com.google.gson.JsonParseException;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
+/**
+ * Immutable Snapshot Pattern:
+ * ogni istanza di GameSettings è un'istantanea immutabile della configurazione (nessun setter).
+ * Il ricaricamento a caldo costruisce e valida una nuova istantanea e la pubblica in modo atomico,
+ * quindi chi legge vede sempre un insieme di valori coerente, mai metà vecchio e metà nuovo.
+ */
 public class GameSettings {
     // Logger per la classe GameSettings, usiamo il logger globale
     // per mantenere coerenza nei log dell'applicazione, evitando duplicazioni
     // e facilitando la tracciabilità degli eventi.
     // Singleton Pattern: LoggerUtil fornisce un'unica istanza globale del logger.
     private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
-    private static final String SETTINGS_FILE = "src/main/resources/GameSettings.json"; // Percorso file impostazioni
+    // Proprietà di sistema con il percorso di un file di impostazioni esterno (es. -Demojicraft.settings=/etc/emojicraft.json)
+    public static final String SETTINGS_PATH_PROPERTY = "emojicraft.settings";
+    private static final String DEV_SETTINGS_FILE = "src/main/resources/GameSettings.json"; // File usato in sviluppo
+    private static final String SETTINGS_RESOURCE = "/GameSettings.json"; // Risorsa nel classpath (anche dentro il jar)
     /**
      * Singleton Pattern:
      * La variabile instance mantiene l'unica istanza di GameSettings per tutta l'applicazione.
@@ -26,8 +45,8 @@ public class GameSettings {
      * - Riduce il rischio di inconsistenze tra diverse parti del sistema.
      * - Migliora la manutenibilità e la scalabilità dell'applicazione.
      */
-    // Istanza singleton di GameSettings
-    private static GameSettings instance;
+    // Istantanea corrente, sostituita in modo atomico a ogni ricaricamento valido
+    private static final AtomicReference<GameSettings> current = new AtomicReference<>();
 
     // Parametri di configurazione del gioco
     // Questi valori saranno caricati dal file JSON, con valori di default in caso di errore
@@ -35,32 +54,347 @@ public class GameSettings {
     private int gameDurationInSeconds;
     private int physicsStrength;
     private int gameUpdateFPS;
+    // Dimensioni del mondo e parametri del partizionamento in regioni (0 = valore predefinito)
+    private int worldWidth;
+    private int worldHeight;
+    private int regionSize;
+    private int parallelRegionThreshold;
+    // Mondo a chunk: generazione su richiesta, cache LRU e paging su file
+    private boolean chunkedWorld;
+    private int maxLoadedChunks;
+    private boolean offHeapChunks;
+    private String chunkFile;
+    // File di replay della partita (vuoto = registrazione disattivata)
+    private String replayFile;
+    // Classifica persistente
+    private String leaderboardFile;
+    private int leaderboardSize;
+    // Archivio log-structured delle sessioni salvate
+    private String sessionStoreFile;
+    // Sovrascritture applicate ai mondi delle sessioni ospitate (null = stessi valori del mondo principale)
+    private SettingsOverrides sessionOverrides;
+    // Controllo del sovraccarico: soglie di ritardo dei tick e di richieste in corso
+    private int overloadTickLagMillis;
+    private int overloadInFlightRequests;
+    private int overloadMaxLevel;
+    private int overloadRestoreSamples;
+    private int overloadIdleMillis;
+    // Limiti per client (token bucket) e ammissione globale delle partite
+    private int moveRatePerSecond;
+    private int moveBurst;
+    private int worldRatePerSecond;
+    private int worldBurst;
+    private int rateLimitMaxClients;
+    private int maxConcurrentGames;
+    // Sessioni ospitate da un processo in modalità a shard e secondi senza richieste prima di scaricarne una
+    private int maxSessions;
+    private int sessionIdleSeconds;
+    // Messaggi diagnostici su console (null = attivi)
+    private Boolean consoleOutput;
+    // Eventi di gioco: slot preallocati del ring buffer di ogni mondo (arrotondati a una potenza di 2)
+    private int eventBufferSize;
+    // Area di interesse dei client: raggio attorno al giocatore, lato delle celle spaziali, aggiornamenti in coda
+    private int interestRadius;
+    private int interestCellSize;
+    private int interestQueueSize;
+    // Porta HTTP del server (sovrascrivibile con -Demojicraft.port, ad esempio per più shard sulla stessa macchina)
+    private int serverPort;
+    // Registrazione JFR continua: file scritto allo spegnimento (vuoto = disattivata), età e dimensione del buffer
+    private String flightRecordingFile;
+    private int flightRecordingMaxAgeSeconds;
+    private int flightRecordingMaxSizeMb;
+    // Log delle richieste lente: soglia in millisecondi e massimo di richieste registrate al secondo
+    private int slowRequestMillis;
+    private int slowRequestLogPerSecond;
+    // Esportazione dei dati di analisi in file a colonne: cartella (vuoto = disattivata), righe per blocco, intervallo di scrittura
+    private String analyticsDir;
+    private int analyticsBatchSize;
+    private int analyticsFlushMillis;
+    // Front end testuale (telnet): porta TCP (0 = disattivato), selettori NIO (0 = uno per core), dimensioni del viewport
+    private int terminalPort;
+    private int terminalSelectorThreads;
+    private int terminalViewWidth;
+    private int terminalViewHeight;
+    // File statici: trasferimenti contemporanei di file mappati (audio) prima di rispondere 503
+    private int staticMaxTransfers;
+    // Riscaldamento del JIT prima di aprire la porta: tick sintetici (0 = disattivato)
+    private int warmUpTicks;
+
+    // Valori predefiniti usati quando il file JSON non specifica i parametri del mondo
+    private static final int DEFAULT_WORLD_WIDTH = 24;
+    private static final int DEFAULT_WORLD_HEIGHT = 10;
+    private static final int DEFAULT_REGION_SIZE = 64;
+    private static final int DEFAULT_PARALLEL_REGION_THRESHOLD = 65_536; // Celle oltre le quali si usano le regioni
+    private static final int DEFAULT_MAX_LOADED_CHUNKS = 256;
+    private static final String DEFAULT_CHUNK_FILE = "world_chunks.dat";
+    private static final String DEFAULT_LEADERBOARD_FILE = "leaderboard.log";
+    private static final int DEFAULT_LEADERBOARD_SIZE = 100;
+    private static final String DEFAULT_SESSION_STORE_FILE = "sessions.log";
+    private static final int DEFAULT_OVERLOAD_TICK_LAG_MILLIS = 50;
+    private static final int DEFAULT_OVERLOAD_IN_FLIGHT_REQUESTS = 256;
+    private static final int DEFAULT_OVERLOAD_MAX_LEVEL = 3; // Fino a 8 volte l'intervallo normale
+    private static final int DEFAULT_OVERLOAD_RESTORE_SAMPLES = 5;
+    private static final int DEFAULT_OVERLOAD_IDLE_MILLIS = 30_000;
+    private static final int DEFAULT_MOVE_RATE_PER_SECOND = 20;
+    private static final int DEFAULT_MOVE_BURST = 10;
+    private static final int DEFAULT_WORLD_RATE_PER_SECOND = 30; // Il client ne chiede 10 al secondo
+    private static final int DEFAULT_WORLD_BURST = 30;
+    private static final int DEFAULT_RATE_LIMIT_MAX_CLIENTS = 10_000;
+    private static final int DEFAULT_MAX_CONCURRENT_GAMES = 1000;
+    private static final int DEFAULT_MAX_SESSIONS = 1000;
+    private static final int DEFAULT_SESSION_IDLE_SECONDS = 300;
+    private static final int DEFAULT_EVENT_BUFFER_SIZE = 1024;
+    private static final int DEFAULT_INTEREST_RADIUS = 8;
+    private static final int DEFAULT_INTEREST_CELL_SIZE = 16;
+    private static final int DEFAULT_INTEREST_QUEUE_SIZE = 1024;
+    private static final int DEFAULT_SERVER_PORT = 4567;
+    public static final String PORT_PROPERTY = "emojicraft.port";
+    private static final int DEFAULT_FLIGHT_RECORDING_MAX_AGE_SECONDS = 600;
+    private static final int DEFAULT_FLIGHT_RECORDING_MAX_SIZE_MB = 64;
+    private static final int DEFAULT_SLOW_REQUEST_MILLIS = 100;
+    private static final int DEFAULT_SLOW_REQUEST_LOG_PER_SECOND = 5;
+    private static final int DEFAULT_ANALYTICS_BATCH_SIZE = 4096;
+    private static final int DEFAULT_ANALYTICS_FLUSH_MILLIS = 1000;
+    private static final int DEFAULT_TERMINAL_VIEW_WIDTH = 38; // 2 colonne per cella: entra in un terminale 80x24
+    private static final int DEFAULT_TERMINAL_VIEW_HEIGHT = 20;
+    private static final int DEFAULT_STATIC_MAX_TRANSFERS = 16;
 
-    // Singleton per ottenere l'istanza caricata
+    private GameSettings() {
+    }
+
+    // Singleton per ottenere l'istantanea corrente (thread-safe: più thread possono caricarla, ne vince una sola)
     public static GameSettings getInstance() {
-        if (instance == null) {
-            instance = loadSettings();
+        GameSettings settings = current.get();
+        if (settings == null) {
+            current.compareAndSet(null, loadSettings());
+            settings = current.get();
+        }
+        return settings;
+    }
+
+    /**
+     * File esterno da cui leggere (e osservare) le impostazioni: la proprietà di sistema, se presente,
+     * altrimenti il file dei sorgenti quando il gioco è avviato dalla cartella del progetto.
+     * Restituisce null quando le impostazioni arrivano solo dal classpath.
+     */
+    public static Path getExternalPath() {
+        String configured = System.getProperty(SETTINGS_PATH_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        Path devFile = Path.of(DEV_SETTINGS_FILE);
+        return Files.isRegularFile(devFile) ? devFile : null;
+    }
+
+    /**
+     * Rilegge le impostazioni e pubblica la nuova istantanea solo se è valida.
+     * I mondi in esecuzione vedono i nuovi valori al tick successivo.
+     *
+     * @return true se la nuova istantanea è stata pubblicata
+     */
+    public static boolean reload() {
+        GameSettings candidate;
+        try {
+            candidate = read();
+        } catch (IOException | JsonParseException e) {
+            logger.warning("Ricaricamento impostazioni ignorato, file non leggibile: " + e.getMessage());
+            return false;
+        }
+        return publish(candidate);
+    }
+
+    /**
+     * Pubblica un'istantanea già costruita (dopo la validazione), ad esempio letta da un percorso diverso.
+     */
+    public static boolean publish(GameSettings candidate) {
+        List<String> errors = candidate.validate();
+        if (!errors.isEmpty()) {
+            logger.warning("Ricaricamento impostazioni ignorato, valori non validi: " + String.join("; ", errors));
+            return false;
         }
-        return instance;
+        current.set(candidate);
+        logger.info("Impostazioni ricaricate: spawnItemInterval=" + candidate.spawnItemInterval
+                + ", physicsStrength=" + candidate.physicsStrength + ", gameUpdateFPS=" + candidate.gameUpdateFPS);
+        return true;
     }
 
-    // Metodo per caricare le impostazioni dal file JSON
+    /**
+     * Legge un'istantanea dal file indicato senza pubblicarla.
+     */
+    public static GameSettings read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    // Metodo per caricare le impostazioni al primo accesso (valori predefiniti in caso di errore)
     private static GameSettings loadSettings() {
-        try (FileReader reader = new FileReader(SETTINGS_FILE)) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            return gson.fromJson(reader, GameSettings.class);
-        } catch (IOException e) {
+        try {
+            GameSettings settings = read();
+            List<String> errors = settings.validate();
+            if (errors.isEmpty()) {
+                return settings;
+            }
+            logger.severe("Impostazioni non valide, uso i valori predefiniti: " + String.join("; ", errors));
+        } catch (IOException | JsonParseException e) {
             logger.severe("Impossibile caricare il file delle impostazioni: " + e.getMessage());
-            // Configura valori predefiniti in caso di errore
-            GameSettings defaultSettings = new GameSettings();
-            defaultSettings.spawnItemInterval = 4000;
-            defaultSettings.gameDurationInSeconds = 180;
-            defaultSettings.physicsStrength = 200;
-            defaultSettings.gameUpdateFPS = 60;
-            return defaultSettings;
+        }
+        // Configura valori predefiniti in caso di errore
+        GameSettings defaultSettings = new GameSettings();
+        defaultSettings.spawnItemInterval = 4000;
+        defaultSettings.gameDurationInSeconds = 180;
+        defaultSettings.physicsStrength = 200;
+        defaultSettings.gameUpdateFPS = 60;
+        return defaultSettings;
+    }
+
+    // Prima il file esterno, poi la risorsa nel classpath
+    private static GameSettings read() throws IOException {
+        Path external = getExternalPath();
+        if (external != null) {
+            return read(external);
+        }
+        try (InputStream in = GameSettings.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Risorsa " + SETTINGS_RESOURCE + " non trovata nel classpath");
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static GameSettings parse(Reader reader) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        GameSettings settings = gson.fromJson(reader, GameSettings.class);
+        if (settings == null) {
+            throw new IOException("File delle impostazioni vuoto");
+        }
+        return settings;
+    }
+
+    /**
+     * Controlla i valori che il motore usa come intervalli: zero o negativi bloccherebbero i thread di gioco.
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        checkSpawnItemInterval(errors, spawnItemInterval);
+        if (gameDurationInSeconds <= 0) {
+            errors.add("gameDurationInSeconds deve essere positivo");
+        }
+        checkPhysicsStrength(errors, physicsStrength);
+        checkGameUpdateFPS(errors, gameUpdateFPS);
+        if (sessionOverrides != null) {
+            validate(sessionOverrides).forEach(error -> errors.add("sessionOverrides: " + error));
+        }
+        return errors;
+    }
+
+    /**
+     * Stesse regole di validate() per i soli valori sovrascritti da un mondo (null = valore globale, già validato).
+     */
+    public static List<String> validate(SettingsOverrides overrides) {
+        List<String> errors = new ArrayList<>();
+        if (overrides.getSpawnItemInterval() != null) {
+            checkSpawnItemInterval(errors, overrides.getSpawnItemInterval());
+        }
+        if (overrides.getPhysicsStrength() != null) {
+            checkPhysicsStrength(errors, overrides.getPhysicsStrength());
+        }
+        if (overrides.getGameUpdateFPS() != null) {
+            checkGameUpdateFPS(errors, overrides.getGameUpdateFPS());
+        }
+        return errors;
+    }
+
+    private static void checkSpawnItemInterval(List<String> errors, int value) {
+        if (value <= 0) {
+            errors.add("spawnItemInterval deve essere positivo");
+        }
+    }
+
+    private static void checkPhysicsStrength(List<String> errors, int value) {
+        if (value <= 0) {
+            errors.add("physicsStrength deve essere positivo");
+        }
+    }
+
+    private static void checkGameUpdateFPS(List<String> errors, int value) {
+        if (value <= 0 || value > 1000) {
+            errors.add("gameUpdateFPS deve essere compreso tra 1 e 1000");
         }
     }
 
+    /**
+     * Restituisce una nuova istantanea con i valori sovrascritti dal singolo mondo.
+     */
+    public GameSettings withOverrides(SettingsOverrides overrides) {
+        GameSettings copy = copy();
+        if (overrides.getSpawnItemInterval() != null) {
+            copy.spawnItemInterval = overrides.getSpawnItemInterval();
+        }
+        if (overrides.getPhysicsStrength() != null) {
+            copy.physicsStrength = overrides.getPhysicsStrength();
+        }
+        if (overrides.getGameUpdateFPS() != null) {
+            copy.gameUpdateFPS = overrides.getGameUpdateFPS();
+        }
+        return copy;
+    }
+
+    private GameSettings copy() {
+        GameSettings copy = new GameSettings();
+        copy.spawnItemInterval = spawnItemInterval;
+        copy.gameDurationInSeconds = gameDurationInSeconds;
+        copy.physicsStrength = physicsStrength;
+        copy.gameUpdateFPS = gameUpdateFPS;
+        copy.worldWidth = worldWidth;
+        copy.worldHeight = worldHeight;
+        copy.regionSize = regionSize;
+        copy.parallelRegionThreshold = parallelRegionThreshold;
+        copy.chunkedWorld = chunkedWorld;
+        copy.maxLoadedChunks = maxLoadedChunks;
+        copy.offHeapChunks = offHeapChunks;
+        copy.chunkFile = chunkFile;
+        copy.replayFile = replayFile;
+        copy.leaderboardFile = leaderboardFile;
+        copy.leaderboardSize = leaderboardSize;
+        copy.sessionStoreFile = sessionStoreFile;
+        copy.sessionOverrides = sessionOverrides;
+        copy.overloadTickLagMillis = overloadTickLagMillis;
+        copy.overloadInFlightRequests = overloadInFlightRequests;
+        copy.overloadMaxLevel = overloadMaxLevel;
+        copy.overloadRestoreSamples = overloadRestoreSamples;
+        copy.overloadIdleMillis = overloadIdleMillis;
+        copy.moveRatePerSecond = moveRatePerSecond;
+        copy.moveBurst = moveBurst;
+        copy.worldRatePerSecond = worldRatePerSecond;
+        copy.worldBurst = worldBurst;
+        copy.rateLimitMaxClients = rateLimitMaxClients;
+        copy.maxConcurrentGames = maxConcurrentGames;
+        copy.maxSessions = maxSessions;
+        copy.sessionIdleSeconds = sessionIdleSeconds;
+        copy.consoleOutput = consoleOutput;
+        copy.eventBufferSize = eventBufferSize;
+        copy.interestRadius = interestRadius;
+        copy.interestCellSize = interestCellSize;
+        copy.interestQueueSize = interestQueueSize;
+        copy.serverPort = serverPort;
+        copy.flightRecordingFile = flightRecordingFile;
+        copy.flightRecordingMaxAgeSeconds = flightRecordingMaxAgeSeconds;
+        copy.flightRecordingMaxSizeMb = flightRecordingMaxSizeMb;
+        copy.slowRequestMillis = slowRequestMillis;
+        copy.slowRequestLogPerSecond = slowRequestLogPerSecond;
+        copy.analyticsDir = analyticsDir;
+        copy.analyticsBatchSize = analyticsBatchSize;
+        copy.analyticsFlushMillis = analyticsFlushMillis;
+        copy.terminalPort = terminalPort;
+        copy.terminalSelectorThreads = terminalSelectorThreads;
+        copy.terminalViewWidth = terminalViewWidth;
+        copy.terminalViewHeight = terminalViewHeight;
+        copy.staticMaxTransfers = staticMaxTransfers;
+        copy.warmUpTicks = warmUpTicks;
+        return copy;
+    }
+
     // Getter per le impostazioni
     public int getSpawnItemInterval() {
         return spawnItemInterval;
@@ -77,4 +411,188 @@ public class GameSettings {
     public int getGameUpdateFPS() {
         return gameUpdateFPS;
     }
+
+    public int getWorldWidth() {
+        return worldWidth > 0 ? worldWidth : DEFAULT_WORLD_WIDTH;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight > 0 ? worldHeight : DEFAULT_WORLD_HEIGHT;
+    }
+
+    public int getRegionSize() {
+        return regionSize > 0 ? regionSize : DEFAULT_REGION_SIZE;
+    }
+
+    public int getParallelRegionThreshold() {
+        return parallelRegionThreshold > 0 ? parallelRegionThreshold : DEFAULT_PARALLEL_REGION_THRESHOLD;
+    }
+
+    public boolean isChunkedWorld() {
+        return chunkedWorld;
+    }
+
+    public int getMaxLoadedChunks() {
+        return maxLoadedChunks > 0 ? maxLoadedChunks : DEFAULT_MAX_LOADED_CHUNKS;
+    }
+
+    public boolean isOffHeapChunks() {
+        return offHeapChunks;
+    }
+
+    public String getReplayFile() {
+        return replayFile != null ? replayFile : "";
+    }
+
+    public String getLeaderboardFile() {
+        return leaderboardFile != null && !leaderboardFile.isEmpty() ? leaderboardFile : DEFAULT_LEADERBOARD_FILE;
+    }
+
+    public int getLeaderboardSize() {
+        return leaderboardSize > 0 ? leaderboardSize : DEFAULT_LEADERBOARD_SIZE;
+    }
+
+    public String getSessionStoreFile() {
+        return sessionStoreFile != null && !sessionStoreFile.isEmpty() ? sessionStoreFile : DEFAULT_SESSION_STORE_FILE;
+    }
+
+    public SettingsOverrides getSessionOverrides() {
+        return sessionOverrides;
+    }
+
+    public int getOverloadTickLagMillis() {
+        return overloadTickLagMillis > 0 ? overloadTickLagMillis : DEFAULT_OVERLOAD_TICK_LAG_MILLIS;
+    }
+
+    public int getOverloadInFlightRequests() {
+        return overloadInFlightRequests > 0 ? overloadInFlightRequests : DEFAULT_OVERLOAD_IN_FLIGHT_REQUESTS;
+    }
+
+    public int getOverloadMaxLevel() {
+        return overloadMaxLevel > 0 ? overloadMaxLevel : DEFAULT_OVERLOAD_MAX_LEVEL;
+    }
+
+    public int getOverloadRestoreSamples() {
+        return overloadRestoreSamples > 0 ? overloadRestoreSamples : DEFAULT_OVERLOAD_RESTORE_SAMPLES;
+    }
+
+    public int getOverloadIdleMillis() {
+        return overloadIdleMillis > 0 ? overloadIdleMillis : DEFAULT_OVERLOAD_IDLE_MILLIS;
+    }
+
+    public int getMoveRatePerSecond() {
+        return moveRatePerSecond > 0 ? moveRatePerSecond : DEFAULT_MOVE_RATE_PER_SECOND;
+    }
+
+    public int getMoveBurst() {
+        return moveBurst > 0 ? moveBurst : DEFAULT_MOVE_BURST;
+    }
+
+    public int getWorldRatePerSecond() {
+        return worldRatePerSecond > 0 ? worldRatePerSecond : DEFAULT_WORLD_RATE_PER_SECOND;
+    }
+
+    public int getWorldBurst() {
+        return worldBurst > 0 ? worldBurst : DEFAULT_WORLD_BURST;
+    }
+
+    public int getRateLimitMaxClients() {
+        return rateLimitMaxClients > 0 ? rateLimitMaxClients : DEFAULT_RATE_LIMIT_MAX_CLIENTS;
+    }
+
+    public int getMaxConcurrentGames() {
+        return maxConcurrentGames > 0 ? maxConcurrentGames : DEFAULT_MAX_CONCURRENT_GAMES;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions > 0 ? maxSessions : DEFAULT_MAX_SESSIONS;
+    }
+
+    public int getSessionIdleSeconds() {
+        return sessionIdleSeconds > 0 ? sessionIdleSeconds : DEFAULT_SESSION_IDLE_SECONDS;
+    }
+
+    public boolean isConsoleOutput() {
+        return consoleOutput == null || consoleOutput;
+    }
+
+    public int getEventBufferSize() {
+        return eventBufferSize > 0 ? eventBufferSize : DEFAULT_EVENT_BUFFER_SIZE;
+    }
+
+    public int getInterestRadius() {
+        return interestRadius > 0 ? interestRadius : DEFAULT_INTEREST_RADIUS;
+    }
+
+    public int getInterestCellSize() {
+        return interestCellSize > 0 ? interestCellSize : DEFAULT_INTEREST_CELL_SIZE;
+    }
+
+    public int getInterestQueueSize() {
+        return interestQueueSize > 0 ? interestQueueSize : DEFAULT_INTEREST_QUEUE_SIZE;
+    }
+
+    public int getServerPort() {
+        return Integer.getInteger(PORT_PROPERTY, serverPort > 0 ? serverPort : DEFAULT_SERVER_PORT);
+    }
+
+    public String getFlightRecordingFile() {
+        return flightRecordingFile != null ? flightRecordingFile : "";
+    }
+
+    public int getFlightRecordingMaxAgeSeconds() {
+        return flightRecordingMaxAgeSeconds > 0 ? flightRecordingMaxAgeSeconds : DEFAULT_FLIGHT_RECORDING_MAX_AGE_SECONDS;
+    }
+
+    public int getFlightRecordingMaxSizeMb() {
+        return flightRecordingMaxSizeMb > 0 ? flightRecordingMaxSizeMb : DEFAULT_FLIGHT_RECORDING_MAX_SIZE_MB;
+    }
+
+    public int getSlowRequestMillis() {
+        return slowRequestMillis > 0 ? slowRequestMillis : DEFAULT_SLOW_REQUEST_MILLIS;
+    }
+
+    public int getSlowRequestLogPerSecond() {
+        return slowRequestLogPerSecond > 0 ? slowRequestLogPerSecond : DEFAULT_SLOW_REQUEST_LOG_PER_SECOND;
+    }
+
+    public String getAnalyticsDir() {
+        return analyticsDir != null ? analyticsDir : "";
+    }
+
+    public int getAnalyticsBatchSize() {
+        return analyticsBatchSize > 0 ? analyticsBatchSize : DEFAULT_ANALYTICS_BATCH_SIZE;
+    }
+
+    public int getAnalyticsFlushMillis() {
+        return analyticsFlushMillis > 0 ? analyticsFlushMillis : DEFAULT_ANALYTICS_FLUSH_MILLIS;
+    }
+
+    public int getTerminalPort() {
+        return Math.max(0, terminalPort);
+    }
+
+    public int getTerminalSelectorThreads() {
+        return Math.max(0, terminalSelectorThreads);
+    }
+
+    public int getTerminalViewWidth() {
+        return terminalViewWidth > 0 ? terminalViewWidth : DEFAULT_TERMINAL_VIEW_WIDTH;
+    }
+
+    public int getTerminalViewHeight() {
+        return terminalViewHeight > 0 ? terminalViewHeight : DEFAULT_TERMINAL_VIEW_HEIGHT;
+    }
+
+    public int getStaticMaxTransfers() {
+        return staticMaxTransfers > 0 ? staticMaxTransfers : DEFAULT_STATIC_MAX_TRANSFERS;
+    }
+
+    public int getWarmUpTicks() {
+        return Math.max(0, warmUpTicks);
+    }
+
+    public String getChunkFile() {
+        return chunkFile != null && !chunkFile.isEmpty() ? chunkFile : DEFAULT_CHUNK_FILE;
+    }
 }
@@ -3,6 +3,7 @@ package util;
 import game.GameWorld;
 import game.Player;
 import game.GameStateManager;
+import leaderboard.LeaderboardService;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -25,25 +26,48 @@ public class GameUtils {
      * - Favorisce la separazione tra logica di gioco e gestione del tempo.
      */
     public static void startGameTimer(GameWorld gameWorld, Player player, AtomicBoolean gameActive, int durationInSeconds) {
+        startGameTimer(gameWorld, player, gameActive, durationInSeconds, () -> { });
+    }
+
+    /**
+     * Come startGameTimer, ma esegue onGameEnd al termine della partita (ad esempio per liberare il posto di ammissione).
+     */
+    public static void startGameTimer(GameWorld gameWorld, Player player, AtomicBoolean gameActive, int durationInSeconds,
+                                      Runnable onGameEnd) {
+        // Un solo thread per il timer: il conto alla rovescia gira direttamente al suo interno
+        new Thread(() -> runGameTimer(gameWorld, gameActive, durationInSeconds, onGameEnd)).start();
+    }
+
+    /**
+     * Conto alla rovescia della partita nel thread chiamante (usato da GameEngine, che possiede il thread).
+     * Un'interruzione termina la partita senza registrare il punteggio in classifica.
+     * Il mondo segue la partita: è attivo durante il conto alla rovescia e inattivo alla fine; una partita
+     * scaduta (non interrotta) lascia timeRemaining a 0, così chi ripristina lo stato sa che è conclusa.
+     */
+    public static void runGameTimer(GameWorld gameWorld, AtomicBoolean gameActive, int durationInSeconds, Runnable onGameEnd) {
         // Usa la durata specificata o un valore di default se non valido, evitando valori negativi
         int duration = durationInSeconds > 0 ? durationInSeconds : GameSettings.getInstance().getGameDurationInSeconds(); // Tempo dal JSON
-        // Thread separato per il timer, che aggiorna il tempo rimanente ogni secondo
-        // e termina il gioco quando il tempo scade
-        new Thread(() -> {
-            try {
-                for (int i = duration; i > 0; i--) {
-                    logger.log(Level.INFO, "Tempo rimanente: " + i + " secondi");
-                    Thread.sleep(1000); // 1 secondo
-                    // Aggiorna il tempo rimanente nel mondo di gioco
-                    gameWorld.setTimeRemaining(i);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("Timer interrotto: " + e.getMessage());
-            } finally {
-                gameActive.set(false); // Termina il gioco
-                System.out.println("Tempo scaduto. Termina il gioco.");
+        // Aggiorna il tempo rimanente ogni secondo e termina il gioco quando il tempo scade
+        gameWorld.setTimeRemaining(duration);
+        gameWorld.setGameActive(true);
+        try {
+            for (int i = duration; i > 0; i--) {
+                logger.log(Level.INFO, "Tempo rimanente: " + i + " secondi");
+                gameWorld.getClock().sleep(1000); // 1 secondo, secondo l'orologio del mondo
+                // Aggiorna il tempo rimanente nel mondo di gioco
+                gameWorld.setTimeRemaining(i);
             }
-        }).start();
+            // Partita conclusa allo scadere del tempo: il punteggio finale entra in classifica
+            gameWorld.setTimeRemaining(0);
+            LeaderboardService.getInstance().recordScore(gameWorld.getScore());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Timer interrotto: " + e.getMessage());
+        } finally {
+            gameActive.set(false); // Termina il gioco
+            gameWorld.setGameActive(false); // Niente più generazioni né sostituzioni di oggetti
+            GameConsole.println("Tempo scaduto. Termina il gioco.");
+            onGameEnd.run();
+        }
     }
-}
\ No newline at end of file
+}
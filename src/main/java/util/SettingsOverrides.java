@@ -0,0 +1,30 @@
+package util;
+
+/**
+ * Value Object Pattern:
+ * valori di GameSettings sovrascritti per un singolo mondo (null = usa il valore globale).
+ * Le sovrascritture restano valide anche dopo un ricaricamento a caldo delle impostazioni globali.
+ */
+public final class SettingsOverrides {
+    private final Integer physicsStrength;
+    private final Integer spawnItemInterval;
+    private final Integer gameUpdateFPS;
+
+    public SettingsOverrides(Integer physicsStrength, Integer spawnItemInterval, Integer gameUpdateFPS) {
+        this.physicsStrength = physicsStrength;
+        this.spawnItemInterval = spawnItemInterval;
+        this.gameUpdateFPS = gameUpdateFPS;
+    }
+
+    public Integer getPhysicsStrength() {
+        return physicsStrength;
+    }
+
+    public Integer getSpawnItemInterval() {
+        return spawnItemInterval;
+    }
+
+    public Integer getGameUpdateFPS() {
+        return gameUpdateFPS;
+    }
+}
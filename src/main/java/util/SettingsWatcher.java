@@ -0,0 +1,104 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Observer Pattern:
+ *   SettingsWatcher osserva la cartella del file di impostazioni tramite WatchService e, a ogni modifica,
+ *   chiede a GameSettings di ricaricare e pubblicare una nuova istantanea validata.
+ *
+ * Motivo dell'utilizzo:
+ * - Permette di regolare fisica e spawn su un server in produzione senza riavviarlo.
+ */
+
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.logging.Logger;
+
+public class SettingsWatcher implements Closeable {
+    private static final Logger logger = LoggerUtil.getInstance().getGlobalLogger();
+    // Gli editor salvano spesso in più scritture: si attende che il file smetta di cambiare
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private SettingsWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        // Si osserva la cartella: molti editor sostituiscono il file invece di modificarlo
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "settings-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Avvia l'osservazione del file esterno delle impostazioni, se presente.
+     *
+     * @return il watcher avviato, oppure null se le impostazioni arrivano solo dal classpath
+     */
+    public static SettingsWatcher start() {
+        Path external = GameSettings.getExternalPath();
+        if (external == null) {
+            logger.info("Nessun file di impostazioni esterno: ricaricamento a caldo disattivato.");
+            return null;
+        }
+        try {
+            SettingsWatcher watcher = new SettingsWatcher(external);
+            watcher.thread.start();
+            logger.info("Ricaricamento a caldo attivo per " + watcher.file);
+            return watcher;
+        } catch (IOException e) {
+            logger.warning("Impossibile osservare il file delle impostazioni: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path changedPath && file.getFileName().equals(changedPath)) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(DEBOUNCE_MILLIS);
+                    drainPendingEvents();
+                    GameSettings.reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Watcher chiuso
+        }
+    }
+
+    // Scarta gli eventi arrivati durante l'attesa: un solo ricaricamento per salvataggio
+    private void drainPendingEvents() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
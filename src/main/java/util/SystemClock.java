@@ -0,0 +1,22 @@
+package util;
+
+/**
+ * Orologio reale basato su System.nanoTime(): monotono, quindi non risente delle correzioni
+ * dell'orologio di sistema (NTP, cambio di ora) durante la partita.
+ */
+public final class SystemClock implements GameClock {
+    static final SystemClock INSTANCE = new SystemClock();
+
+    private SystemClock() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+}
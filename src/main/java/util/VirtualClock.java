@@ -0,0 +1,29 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orologio virtuale: il tempo avanza solo quando viene chiamato advance() o sleep().
+ * sleep() non blocca il thread ma sposta in avanti il tempo, quindi una partita intera
+ * può essere simulata alla massima velocità consentita dalla CPU.
+ */
+public final class VirtualClock implements GameClock {
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Attesa virtuale interrotta");
+        }
+        advance(millis);
+    }
+
+    public void advance(long millis) {
+        nanos.addAndGet(millis * 1_000_000L);
+    }
+}
@@ -46,7 +46,7 @@ function renderGrid(grid) {
         html += '<tr>';
         for (let x = 0; x < grid[y].length; x++) {
             const cell = grid[y][x];
-            if (cell.includes('🧍') || cell.includes('🚶')) {
+            if (cell.includes('🧍') || cell.includes('🚶') || cell.includes('🧎') || cell.includes('🤸')) {
                 playerX = x;
                 playerY = y;
             }
@@ -58,21 +58,156 @@ function renderGrid(grid) {
     gridElement.innerHTML = html;
 }
 
+// Previsione lato client: ogni tasto viene applicato subito sulla griglia locale e inviato con un numero di sequenza.
+// Alla risposta si riparte dalla posizione autorevole del server e si riapplicano solo gli input non ancora
+// confermati (riconciliazione), quindi il server resta l'unica fonte di verità.
+const PLAYER_EMOJI = { W: "🤸🏻‍♂️", S: "🧎🏻‍♂️‍➡️", A: "🚶🏻‍♂️", D: "🚶🏻‍♂️‍➡️" }; // Come GameWorld.directionToEmoji
+const DELTAS = { W: [0, -1], S: [0, 1], A: [-1, 0], D: [1, 0] };
+let serverGrid = null; // Ultima griglia ricevuta da /world, senza previsioni
+let view = { x: 0, y: 0, worldWidth: 0, worldHeight: 0 };
+let authoritative = null; // Posizione confermata dal server, in coordinate del mondo
+let acknowledgedSequence = 0;
+let unacknowledged = []; // Input applicati localmente e non ancora confermati: { seq, dir }
+let sendQueue = []; // Input premuti nello stesso frame e non ancora inviati a /moves
+let nextSequence = 0; // 0 = non ancora sincronizzato con l'ultima sequenza nota al server
+let flushScheduled = false;
+let batchInFlight = false;
+
 document.addEventListener("keydown", (e) => {
     if (["w", "a", "s", "d"].includes(e.key)) {
         movePlayer(e.key.toUpperCase());
     }
 });
 
-async function movePlayer(direction) {
-    const response = await fetch("/move", {
-        method: "POST",
-        headers: { "Content-Type": "application/x-www-form-urlencoded" },
-        body: `dir=${direction}`,
-    });
-    if (response.ok) {
-        updateWorld(await response.json());
+function movePlayer(direction) {
+    if (nextSequence === 0) {
+        return; // Prima del primo /world non ci sono né griglia né sequenza di partenza
+    }
+    const input = { seq: nextSequence++, dir: direction };
+    unacknowledged.push(input);
+    sendQueue.push(input);
+    renderPrediction();
+    if (!flushScheduled) {
+        flushScheduled = true;
+        requestAnimationFrame(flushMoves);
+    }
+}
+
+async function flushMoves() {
+    flushScheduled = false;
+    if (batchInFlight || sendQueue.length === 0) {
+        return; // Il lotto successivo parte quando il precedente ha ricevuto risposta
     }
+    const batch = sendQueue.splice(0, 32);
+    batchInFlight = true;
+    try {
+        const response = await fetch("/moves", {
+            method: "POST",
+            headers: { "Content-Type": "application/x-www-form-urlencoded" },
+            body: `dirs=${batch.map(input => input.dir).join("")}&seq=${batch[0].seq}`,
+        });
+        if (response.ok) {
+            updateMove(await response.json());
+        } else {
+            // Lotto rifiutato (es. 429): le mosse previste vengono annullate
+            unacknowledged = unacknowledged.filter(input => !batch.includes(input));
+            renderPrediction();
+        }
+    } finally {
+        batchInFlight = false;
+        if (sendQueue.length > 0 && !flushScheduled) {
+            flushScheduled = true;
+            requestAnimationFrame(flushMoves);
+        }
+    }
+}
+
+// MoveResponse: posizione autorevole e ultima sequenza applicata dal server
+function updateMove(data) {
+    if (data.grid) {
+        updateWorld(data); // Partita terminata: il server risponde con lo stato del mondo
+        return;
+    }
+    document.getElementById("score").textContent = data.score;
+    if (data.itemCollected) playSound("collectSound");
+    if (data.lastSequence >= acknowledgedSequence) {
+        authoritative = { x: data.playerX, y: data.playerY, emoji: authoritative ? authoritative.emoji : null };
+        acknowledge(data.lastSequence);
+    }
+    renderPrediction();
+}
+
+// WorldResponse: nuova griglia autorevole, comprensiva degli input fino a data.lastSequence
+function applyServerWorld(data) {
+    serverGrid = data.grid;
+    view = {
+        x: data.viewX,
+        y: data.viewY,
+        worldWidth: data.worldWidth || data.grid[0].length,
+        worldHeight: data.worldHeight || data.grid.length,
+    };
+    if (nextSequence === 0) {
+        nextSequence = data.lastSequence + 1;
+    }
+    // Le risposte possono arrivare fuori ordine: una griglia più vecchia dell'ultima conferma non sposta il giocatore
+    const found = findPlayer(data.grid);
+    if (found && data.lastSequence >= acknowledgedSequence) {
+        authoritative = { x: found.x + view.x, y: found.y + view.y, emoji: found.emoji };
+        acknowledge(data.lastSequence);
+    }
+    renderPrediction();
+}
+
+function acknowledge(sequence) {
+    acknowledgedSequence = sequence;
+    unacknowledged = unacknowledged.filter(input => input.seq > sequence);
+}
+
+function findPlayer(grid) {
+    for (let y = 0; y < grid.length; y++) {
+        for (let x = 0; x < grid[y].length; x++) {
+            const cell = grid[y][x];
+            if (cell.includes('🧍') || cell.includes('🚶') || cell.includes('🧎') || cell.includes('🤸')) {
+                return { x, y, emoji: cell };
+            }
+        }
+    }
+    return null;
+}
+
+// Riapplica gli input non confermati sulla posizione autorevole, con le stesse regole di GameWorld.movePlayer
+function renderPrediction() {
+    if (!serverGrid) {
+        return;
+    }
+    if (!authoritative) {
+        renderGrid(serverGrid);
+        return;
+    }
+    let x = authoritative.x;
+    let y = authoritative.y;
+    let emoji = authoritative.emoji;
+    for (const input of unacknowledged) {
+        const nx = x + DELTAS[input.dir][0];
+        const ny = y + DELTAS[input.dir][1];
+        if (nx >= 0 && nx < view.worldWidth && ny >= 0 && ny < view.worldHeight - 2) {
+            x = nx;
+            y = ny;
+            emoji = PLAYER_EMOJI[input.dir];
+        }
+    }
+    const grid = serverGrid.map(row => row.slice());
+    const shown = findPlayer(grid);
+    if (shown) {
+        emoji = emoji || shown.emoji;
+        grid[shown.y][shown.x] = " ";
+    }
+    const localX = x - view.x;
+    const localY = y - view.y;
+    if (emoji && localY >= 0 && localY < grid.length && localX >= 0 && localX < grid[localY].length) {
+        grid[localY][localX] = emoji;
+    }
+    renderGrid(grid);
 }
 
 async function updateWorld(data) {
@@ -115,16 +250,25 @@ function restartGame() {
         .catch(error => console.error("Errore nel riavvio del gioco:", error));
         location.reload();
 }
+// Dimensioni del viewport: sulle mappe grandi il server invia solo le celle visibili attorno al giocatore
+const VIEW_WIDTH = 24;
+const VIEW_HEIGHT = 10;
+// Intervallo di aggiornamento: il server lo ricava da gameUpdateFPS e può cambiarlo a caldo
+let updateIntervalMillis = 100;
+
 async function loadWorld() {
-    const response = await fetch('/world');
+    const response = await fetch(`/world?view=player&w=${VIEW_WIDTH}&h=${VIEW_HEIGHT}`);
     if (response.ok) {
         const data = await response.json();
 
         // Aggiorna il timer dal valore restituito dal server
         timerDuration = data.timeRemaining;
+        if (data.updateIntervalMillis > 0) {
+            updateIntervalMillis = data.updateIntervalMillis;
+        }
 
-        // Aggiorna la griglia
-        renderGrid(data.grid);
+        // Aggiorna la griglia, riapplicando le mosse previste non ancora confermate
+        applyServerWorld(data);
 
         // Aggiorna il punteggio
         document.getElementById("score").textContent = data.score;
@@ -138,10 +282,16 @@ async function loadWorld() {
         if (!data.gameActive) {
             endGame();
         }
-    } else {
+    } else if (response.status !== 429) {
+        // 429: limite di richieste raggiunto, il prossimo aggiornamento riproverà
         console.error("Errore nel caricamento del mondo.");
     }
 }
-setInterval(() => {
-    loadWorld(); // Chiama la funzione per aggiornare la griglia
-}, 100); // Intervallo di tempo: 100ms
\ No newline at end of file
+async function pollWorld() {
+    try {
+        await loadWorld(); // Chiama la funzione per aggiornare la griglia
+    } finally {
+        setTimeout(pollWorld, updateIntervalMillis); // Intervallo suggerito dal server (predefinito 100ms)
+    }
+}
+pollWorld();
\ No newline at end of file
@@ -0,0 +1,34 @@
+// Spettatore in sola lettura: riceve dal server fotogrammi binari (JSON in UTF-8), sempre il più recente
+const decoder = new TextDecoder("utf-8");
+const RECONNECT_DELAY_MILLIS = 2000;
+
+function renderFrame(data) {
+    const grid = data.grid;
+    let html = '<table>';
+    for (let y = 0; y < grid.length; y++) {
+        html += '<tr>';
+        for (let x = 0; x < grid[y].length; x++) {
+            html += `<td>${grid[y][x]}</td>`;
+        }
+        html += '</tr>';
+    }
+    html += '</table>';
+    document.getElementById("grid").innerHTML = html;
+    document.getElementById("score").textContent = data.score;
+
+    const minutes = Math.floor(data.timeRemaining / 60);
+    const seconds = data.timeRemaining % 60;
+    document.getElementById("timer").textContent = data.gameActive
+        ? `Time Left: ${minutes}:${seconds < 10 ? '0' : ''}${seconds}`
+        : "Game Over";
+}
+
+function connect() {
+    const protocol = location.protocol === "https:" ? "wss:" : "ws:";
+    const socket = new WebSocket(`${protocol}//${location.host}/spectate`);
+    socket.binaryType = "arraybuffer";
+    socket.onmessage = event => renderFrame(JSON.parse(decoder.decode(event.data)));
+    socket.onclose = () => setTimeout(connect, RECONNECT_DELAY_MILLIS);
+}
+
+connect();
@@ -0,0 +1,112 @@
+package analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import event.EventConsumer;
+import event.GameEventType;
+import game.GameWorld;
+import util.VirtualClock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsTest {
+    private static final long DAY = 86_400_000L;
+    private static final long BASE = 20_000 * DAY; // 2024-10-04, UTC
+
+    private static Map<String, AnalyticsQuery.Row> query(Path dir, String groupBy, String type) {
+        return new AnalyticsQuery(groupBy, type).run(List.of(dir)).rows().stream()
+                .collect(Collectors.toMap(AnalyticsQuery.Row::key, Function.identity()));
+    }
+
+    @Test
+    void testRecordedEventsAreAggregatedFromDailyFiles(@TempDir Path dir) {
+        AnalyticsRecorder recorder = new AnalyticsRecorder(dir, 3, 60_000);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(BASE + i * 10, AnalyticsBatch.COLLECTED, "main", "💎", 10, i, 2);
+        }
+        recorder.record(BASE + 200, AnalyticsBatch.COLLECTED, "main", "💣", -5, 1, 1);
+        recorder.record(BASE + 300, AnalyticsBatch.EXPIRED, "s1", "💎", 10, 4, 4);
+        recorder.record(BASE + DAY + 5, AnalyticsBatch.GAME_ENDED, "s1", null, -3, 0, 0);
+        recorder.flush();
+
+        assertEquals(13, recorder.getWritten());
+        assertTrue(Files.exists(dir.resolve("analytics-2024-10-04.eca")));
+        assertTrue(Files.exists(dir.resolve("analytics-2024-10-05.eca")));
+
+        Map<String, AnalyticsQuery.Row> byType = query(dir, "type", null);
+        assertEquals(11, byType.get("collected").count());
+        assertEquals(95, byType.get("collected").sum());
+        assertEquals(-5, byType.get("collected").min());
+        assertEquals(1, byType.get("expired").count());
+        assertEquals(-3, byType.get("ended").sum());
+
+        Map<String, AnalyticsQuery.Row> bySymbol = query(dir, "symbol", "collected");
+        assertEquals(10, bySymbol.get("💎").count());
+        assertEquals(1, bySymbol.get("💣").count());
+
+        // Il punteggio finale negativo non rende "negativo" l'evento di fine partita
+        Map<String, AnalyticsQuery.Row> byFlag = query(dir, "negative", null);
+        assertEquals(1, byFlag.get("negative").count());
+        assertEquals(12, byFlag.get("positive").count());
+
+        Map<String, AnalyticsQuery.Row> byDay = query(dir, "day", null);
+        assertEquals(12, byDay.get("2024-10-04").count());
+        assertEquals(1, byDay.get("2024-10-05").count());
+
+        Map<String, AnalyticsQuery.Row> byWorld = query(dir, "world", null);
+        assertEquals(11, byWorld.get("main").count());
+        assertEquals(2, byWorld.get("s1").count());
+    }
+
+    @Test
+    void testTruncatedTrailingBlockIsIgnored(@TempDir Path dir) throws IOException {
+        AnalyticsRecorder recorder = new AnalyticsRecorder(dir, 16, 60_000);
+        recorder.record(BASE, AnalyticsBatch.COLLECTED, "main", "🍎", 1, 0, 0);
+        recorder.record(BASE + 1, AnalyticsBatch.COLLECTED, "main", "🍎", 1, 0, 0);
+        recorder.flush();
+        Path file = dir.resolve("analytics-2024-10-04.eca");
+        // Scrittura interrotta: lunghezza di un blocco che non è mai arrivato su disco
+        Files.write(file, new byte[] {0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+
+        AnalyticsQuery.Result result = new AnalyticsQuery("bucket=10", null).run(List.of(file));
+        assertEquals(2, result.scanned());
+        assertEquals("0..9", result.rows().get(0).key());
+    }
+
+    @Test
+    void testWorldEventsAreFiledUnderTheCurrentDay(@TempDir Path dir) throws InterruptedException {
+        AnalyticsRecorder recorder = new AnalyticsRecorder(dir, 16, 60_000);
+        // Orologio virtuale fermo a 0: con il timestamp dell'evento le righe finirebbero nel 1970
+        GameWorld gameWorld = new GameWorld(24, 10, new VirtualClock(), 42L);
+        EventConsumer consumer = new EventConsumer("analytics-test", gameWorld.getEvents(), recorder.forWorld("main"))
+                .start();
+        long before = System.currentTimeMillis();
+        gameWorld.publishEvent(GameEventType.ITEM_COLLECTED, 1, 2, 10, "💎");
+        gameWorld.publishEvent(GameEventType.GAME_ENDED, 1, 2, 10, null);
+        for (int i = 0; i < 500 && recorder.getRecorded() < 2; i++) {
+            Thread.sleep(10);
+        }
+        consumer.close();
+        long after = System.currentTimeMillis();
+        recorder.flush();
+        gameWorld.dispose();
+
+        assertEquals(2, recorder.getWritten());
+        String day = LocalDate.ofEpochDay(Math.floorDiv(before, DAY)).toString();
+        String nextDay = LocalDate.ofEpochDay(Math.floorDiv(after, DAY)).toString(); // Test a cavallo della mezzanotte
+        Map<String, AnalyticsQuery.Row> byDay = query(dir, "day", null);
+        assertEquals(2, byDay.getOrDefault(day, byDay.get(nextDay)).count(), "Righe nel file del giorno: " + byDay.keySet());
+        assertFalse(Files.exists(dir.resolve("analytics-1970-01-01.eca")));
+    }
+}
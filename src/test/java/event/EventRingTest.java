@@ -0,0 +1,57 @@
+package event;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import game.Direction;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+
+class EventRingTest {
+
+    @Test
+    void testConsumersDrainInOrderAndSlowConsumersLoseOldestEvents() {
+        EventRing ring = new EventRing(6); // Arrotondato a 8
+        assertEquals(8, ring.getCapacity());
+        List<Integer> fast = new ArrayList<>();
+        List<Integer> slow = new ArrayList<>();
+        EventConsumer fastConsumer = new EventConsumer("fast", ring, (event, sequence) -> fast.add(event.getValue()));
+        EventConsumer slowConsumer = new EventConsumer("slow", ring, (event, sequence) -> slow.add(event.getValue()));
+
+        for (int i = 0; i < 5; i++) {
+            ring.publish(GameEventType.PLAYER_MOVED, i, 0, 0, 0, i, null);
+        }
+        assertEquals(3, fastConsumer.drain(3), "Il lotto è limitato a maxBatch");
+        assertEquals(2, fastConsumer.drain(100));
+        assertEquals(List.of(0, 1, 2, 3, 4), fast);
+
+        // Il produttore non attende il consumatore lento: dopo 20 eventi restano solo gli ultimi 8
+        for (int i = 5; i < 20; i++) {
+            ring.publish(GameEventType.PLAYER_MOVED, i, 0, 0, 0, i, null);
+        }
+        assertEquals(20, slowConsumer.getLag());
+        assertEquals(8, slowConsumer.drain(100));
+        assertEquals(12, slowConsumer.getLost());
+        assertEquals(List.of(12, 13, 14, 15, 16, 17, 18, 19), slow);
+        assertEquals(0, slowConsumer.getLag());
+    }
+
+    @Test
+    void testWorldPublishesMovesAndCollections() {
+        GameWorld gameWorld = new GameWorld(24, 10);
+        Player player = new Player(2, 5);
+        EventMetrics metrics = new EventMetrics();
+        EventConsumer consumer = new EventConsumer("metrics", gameWorld.getEvents(), metrics);
+
+        gameWorld.movePlayer(player, Direction.D, new GamePhysics(gameWorld, player));
+        consumer.drain(100);
+
+        assertEquals(1, metrics.getCount(GameEventType.PLAYER_MOVED));
+        assertEquals(metrics.getCount(GameEventType.ITEM_COLLECTED), metrics.getCount(GameEventType.ITEM_SPAWNED),
+                "Ogni oggetto raccolto viene sostituito da uno nuovo");
+    }
+}
@@ -0,0 +1,134 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import util.GameSettings;
+import util.VirtualClock;
+
+class ChunkManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEvictedChunkIsRestoredByteForByte() throws Exception {
+        try (ChunkManager chunks = new ChunkManager(42L, 40, 2, true, tempDir.resolve("chunks.dat"))) {
+            chunks.setCell(3, 4, "🙂", 5);
+            ByteBuffer before = ByteBuffer.allocate(Chunk.CHUNK_BYTES).put(chunks.getChunk(0, 0).contents()).flip();
+
+            // Carica altri chunk finché il primo viene espulso su disco
+            chunks.getChunk(1, 0);
+            chunks.getChunk(2, 0);
+            assertEquals(2, chunks.getLoadedChunkCount());
+            assertTrue(chunks.getStoredChunkCount() >= 1);
+
+            ByteBuffer after = chunks.getChunk(0, 0).contents();
+            assertEquals(before, after);
+            assertEquals("🙂", chunks.getSymbol(3, 4));
+            assertEquals(5, chunks.getScore(3, 4));
+            assertEquals(3, chunks.getGeneratedChunkCount(), "Il chunk ricaricato non deve essere rigenerato");
+        }
+    }
+
+    @Test
+    void testChunkStoreSpansSeveralMappedSegments() throws Exception {
+        // Segmenti piccoli: lo stesso percorso che oltre 1 GiB passa al segmento successivo con offset long
+        try (ChunkStore store = new ChunkStore(tempDir.resolve("segmenti.dat"), 100)) {
+            for (int key = 0; key < 250; key++) {
+                Chunk chunk = new Chunk(key, 0, false);
+                chunk.setCell(key % Chunk.CHUNK_SIZE, 0, (short) key, (short) -key);
+                store.write(key, chunk.contents());
+            }
+            assertEquals(250, store.size());
+            for (int key = 0; key < 250; key++) {
+                Chunk restored = new Chunk(key, 0, false);
+                assertTrue(store.read(key, restored));
+                assertEquals(key, restored.getSymbolId(key % Chunk.CHUNK_SIZE, 0));
+                assertEquals(-key, restored.getScore(key % Chunk.CHUNK_SIZE, 0));
+            }
+        }
+    }
+
+    @Test
+    void testGroundIsGeneratedBelowGroundLevel() throws Exception {
+        try (ChunkManager chunks = new ChunkManager(7L, 40, 4, false, tempDir.resolve("ground.dat"))) {
+            assertFalse(chunks.isCellEmpty(10, 45));
+            assertEquals("🧱", chunks.getSymbol(10, 45));
+        }
+    }
+
+    @Test
+    void testEveryWorldPagesToItsOwnFileDeletedOnDispose() throws Exception {
+        GameSettings original = GameSettings.getInstance();
+        try {
+            publishChunkedSettings();
+            GameWorld first = new GameWorld(200, 40, new VirtualClock(), 1L);
+            first.getChunkManager().setCell(3, 4, "🙂", 5);
+            for (int chunkX = 1; chunkX <= 3; chunkX++) {
+                first.getChunkManager().getChunk(chunkX, 0); // Il chunk (0, 0) finisce nel file del primo mondo
+            }
+            // Un secondo mondo (sessione, riscaldamento) che espelle i propri chunk non tocca il file del primo
+            GameWorld second = new GameWorld(200, 40, new VirtualClock(), 2L);
+            for (int chunkX = 0; chunkX <= 3; chunkX++) {
+                second.getChunkManager().getChunk(chunkX, 0);
+            }
+            assertEquals("🙂", first.getChunkManager().getSymbol(3, 4));
+            assertEquals(5, first.getChunkManager().getScore(3, 4));
+
+            first.dispose();
+            second.dispose();
+            assertEquals(List.of(), chunkFiles(), "I file dei chunk vengono cancellati quando il mondo è scartato");
+        } finally {
+            GameSettings.publish(original);
+        }
+    }
+
+    @Test
+    void testChunkedWorldNeverAllocatesTheWholeMap() throws Exception {
+        GameSettings original = GameSettings.getInstance();
+        try {
+            publishChunkedSettings();
+            GameWorld gameWorld = new GameWorld(100_000, 1_000, new VirtualClock(), 3L);
+            Player player = new Player(50_000, 500);
+            // Il terreno arriva dai chunk: nessun muro allocato per l'intera larghezza
+            assertEquals(1, gameWorld.getItemsGroup().getComponents().size(), "Solo l'oggetto generato all'avvio");
+            assertFalse(gameWorld.isCellEmpty(50_000, 998), "Il terreno generato occupa la cella");
+
+            ChunkManager chunks = gameWorld.getChunkManager();
+            chunks.setCell(50_001, 500, "🙂", 5);
+            assertFalse(gameWorld.isCellEmpty(50_001, 500), "Un oggetto del chunk non è spazio vuoto per spawn e gravità");
+
+            String[][] grid = gameWorld.getWorldState(player);
+            assertEquals(GameWorld.MAX_CHUNKED_VIEW, grid.length);
+            assertEquals(GameWorld.MAX_CHUNKED_VIEW, grid[0].length);
+            int originX = gameWorld.getViewportOriginX(player, gameWorld.getMaxViewWidth());
+            int originY = gameWorld.getViewportOriginY(player, gameWorld.getMaxViewHeight());
+            assertEquals("🙂", grid[500 - originY][50_001 - originX]);
+            gameWorld.dispose();
+        } finally {
+            GameSettings.publish(original);
+        }
+    }
+
+    private void publishChunkedSettings() throws Exception {
+        Path settingsFile = tempDir.resolve("chunked.json");
+        Files.writeString(settingsFile, "{ \"spawnItemInterval\": 4000, \"gameDurationInSeconds\": 60,"
+                + " \"physicsStrength\": 200, \"gameUpdateFPS\": 60, \"chunkedWorld\": true, \"maxLoadedChunks\": 2,"
+                + " \"chunkFile\": \"" + tempDir.resolve("world_chunks.dat").toString().replace("\\", "/") + "\" }");
+        assertTrue(GameSettings.publish(GameSettings.read(settingsFile)));
+    }
+
+    private List<Path> chunkFiles() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("world_chunks-")).toList();
+        }
+    }
+}
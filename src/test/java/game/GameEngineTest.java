@@ -0,0 +1,33 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class GameEngineTest {
+
+    @Test
+    void testRepeatedRestartsKeepWorkerCountFlat() {
+        GameWorld gameWorld = new GameWorld(24, 10);
+        AtomicBoolean gameActive = new AtomicBoolean(false);
+        AtomicInteger endedGames = new AtomicInteger();
+        GameEngine engine = new GameEngine("test", gameWorld, new Player(2, 5), gameActive);
+
+        for (int i = 0; i < 20; i++) {
+            engine.restart(600, endedGames::incrementAndGet);
+            assertTrue(engine.getLiveWorkers() <= 2, "Fisica e timer: mai più di due thread vivi");
+        }
+        assertTrue(gameActive.get());
+        assertTrue(engine.isPhysicsRunning());
+        assertEquals(21, engine.getStartedWorkers(), "Un solo thread di fisica, un timer per ogni riavvio");
+        assertEquals(19, endedGames.get(), "Ogni timer sostituito termina la propria partita");
+
+        engine.stop();
+        engine.stop(); // Idempotente
+        assertEquals(0, engine.getLiveWorkers());
+        assertEquals(20, endedGames.get());
+        assertFalse(gameActive.get());
+    }
+}
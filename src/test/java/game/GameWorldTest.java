@@ -2,7 +2,17 @@ package game;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import event.EventConsumer;
+import event.GameEventType;
 import model.Item;
+import util.GameClock;
+import util.GameSettings;
+import util.SettingsOverrides;
+import util.VirtualClock;
 
 class GameWorldTest {
 
@@ -38,4 +48,108 @@ class GameWorldTest {
         boolean collected = gameWorld.checkItemCollision(player);
         assertTrue(collected, "Il giocatore dovrebbe raccogliere l'oggetto");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMovePlayerBatchAppliesMovesInOrder() {
+        GameWorld gameWorld = new GameWorld(24, 10, GameClock.system(), 7L);
+        Player player = new Player(5, 5);
+        GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+
+        gameWorld.movePlayerBatch(player, "DDWA", gamePhysics);
+        assertEquals(6, player.getX(), "Due passi a destra e uno a sinistra");
+        assertEquals(4, player.getY(), "Un passo in alto");
+        assertEquals(41, gameWorld.getMoveResponse(player, false, 41).getLastSequence());
+    }
+
+    @Test
+    void testSequencedMovesAreAppliedOnce() {
+        GameWorld gameWorld = new GameWorld(24, 10, GameClock.system(), 7L);
+        Player player = new Player(5, 5);
+        GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+
+        gameWorld.movePlayerBatch(player, "DD", new long[] {1, 2}, gamePhysics);
+        assertEquals(7, player.getX());
+        assertEquals(2, player.getLastSequence());
+
+        // Il client ripete il lotto (es. risposta persa) aggiungendo una mossa: solo la nuova viene applicata
+        gameWorld.movePlayerBatch(player, "DDA", new long[] {1, 2, 3}, gamePhysics);
+        assertEquals(6, player.getX());
+        assertEquals(3, player.getLastSequence());
+        assertEquals(3, gameWorld.getMoveResponse(player, false, player.getLastSequence()).getLastSequence());
+    }
+
+    @Test
+    void testCollectedItemNeverExpires() {
+        assertCollectedItemNeverExpires(new GameWorld(24, 10, new VirtualClock(), 7L));
+    }
+
+    @Test
+    void testCollectedItemNeverExpiresInPartitionedWorld() {
+        GameWorld gameWorld = new GameWorld(512, 256, new VirtualClock(), 7L);
+        assertTrue(gameWorld.isPartitioned());
+        assertCollectedItemNeverExpires(gameWorld);
+    }
+
+    private static void assertCollectedItemNeverExpires(GameWorld gameWorld) {
+        VirtualClock clock = (VirtualClock) gameWorld.getClock();
+        long lifetime = gameWorld.getSettings().getSpawnItemInterval();
+        List<GameEventType> events = new ArrayList<>();
+        EventConsumer consumer = new EventConsumer("test", gameWorld.getEvents(), (event, sequence) -> events.add(event.getType()));
+
+        // Oggetto generato a t=0 e raccolto a metà della sua durata: il sostituto nasce a t=lifetime/2
+        Item first = gameWorld.getActiveItems().get(0);
+        clock.advance(lifetime / 2);
+        assertTrue(gameWorld.checkItemCollision(new Player(first.getX(), first.getY())));
+        int itemsAfterCollection = gameWorld.getActiveItems().size();
+
+        // Oltre la durata del primo oggetto ma non del sostituto: nessuna scadenza e nessuna generazione in più
+        clock.advance(lifetime / 2 + 1);
+        gameWorld.updateItems();
+        consumer.drain(Integer.MAX_VALUE);
+        assertEquals(1, events.stream().filter(type -> type == GameEventType.ITEM_COLLECTED).count());
+        assertFalse(events.contains(GameEventType.ITEM_EXPIRED), "Oggetto raccolto segnalato come scaduto: " + events);
+        assertEquals(1, events.stream().filter(type -> type == GameEventType.ITEM_SPAWNED).count(),
+                "Solo il sostituto dell'oggetto raccolto: " + events);
+        assertEquals(itemsAfterCollection, gameWorld.getActiveItems().size());
+        gameWorld.dispose();
+    }
+
+    @Test
+    void testSettingsOverridesNeverLeaveStaleMergedSettings() throws Exception {
+        GameWorld gameWorld = new GameWorld(24, 10, new VirtualClock(), 1L);
+        SettingsOverrides slow = new SettingsOverrides(50, 1000, null);
+        SettingsOverrides fast = new SettingsOverrides(70, 3000, null);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean torn = new AtomicBoolean(false);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    GameSettings settings = gameWorld.getSettings();
+                    int physics = settings.getPhysicsStrength();
+                    int lifetime = settings.getSpawnItemInterval();
+                    // Ogni lettura deve venire da un'unica coppia di sovrascritture
+                    if ((physics == 50 && lifetime != 1000) || (physics == 70 && lifetime != 3000)) {
+                        torn.set(true);
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            gameWorld.setSettingsOverrides(i % 2 == 0 ? slow : fast);
+        }
+        gameWorld.setSettingsOverrides(slow);
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertFalse(torn.get());
+        // Nessun lettore può aver ripubblicato un'unione calcolata su sovrascritture ormai sostituite
+        assertEquals(50, gameWorld.getSettings().getPhysicsStrength());
+        assertEquals(1000, gameWorld.getSettings().getSpawnItemInterval());
+        assertSame(slow, gameWorld.getSettingsOverrides());
+    }
+}
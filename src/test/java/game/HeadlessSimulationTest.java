@@ -0,0 +1,45 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import util.VirtualClock;
+
+class HeadlessSimulationTest {
+
+    @Test
+    void testSimulationRunsCompleteGamesWithoutSleeping() {
+        long start = System.nanoTime();
+        HeadlessSimulation.Result result = HeadlessSimulation.run(3, 60, 24, 10, 1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, result.games());
+        assertEquals(3 * (60_000 / GamePhysics.getPhysicsInterval()), result.ticks());
+        assertTrue(elapsedMillis < 60_000, "Tre partite da un minuto non devono durare tre minuti reali");
+    }
+
+    @Test
+    void testSameSeedGivesIdenticalSimulation() {
+        HeadlessSimulation.Result first = HeadlessSimulation.run(5, 60, 24, 10, 42L);
+        HeadlessSimulation.Result second = HeadlessSimulation.run(5, 60, 24, 10, 42L);
+
+        assertEquals(first.ticks(), second.ticks());
+        assertEquals(first.moves(), second.moves());
+        assertEquals(first.totalScore(), second.totalScore());
+    }
+
+    @Test
+    void testItemsExpireOnVirtualTime() {
+        VirtualClock clock = new VirtualClock();
+        GameWorld gameWorld = new GameWorld(24, 10, clock);
+        map.MapComponent first = gameWorld.getItemsGroup().getComponents().stream()
+                .filter(c -> c instanceof model.Item).findFirst().orElseThrow();
+
+        gameWorld.updateItems();
+        assertTrue(gameWorld.getItemsGroup().getComponents().contains(first), "Senza avanzare il tempo nulla scade");
+
+        clock.advance(60_000);
+        gameWorld.updateItems();
+        assertFalse(gameWorld.getItemsGroup().getComponents().contains(first), "L'oggetto scade sul tempo virtuale");
+    }
+}
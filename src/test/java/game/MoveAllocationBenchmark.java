@@ -0,0 +1,113 @@
+/*
+ * Design Patterns utilizzati in questo file:
+ * - Strategy Pattern:
+ *   Come HeadlessSimulation, il benchmark usa un VirtualClock e la console disattivata: si misura solo il motore.
+ *
+ * Motivo dell'utilizzo:
+ * - Verifica che il percorso di /move (direzione da tabella, mossa, collisione, codifica della risposta)
+ *   non allochi memoria a regime, leggendo i byte allocati dal thread tramite ThreadMXBean.
+ * - Sta tra i sorgenti di test: serve a MoveAllocationBenchmarkTest e si lancia a mano dal classpath di test,
+ *   senza finire nel jar di produzione.
+ */
+
+package game;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import exception.EmojiCraftException;
+import response.MoveResponseEncoder;
+import util.GameConsole;
+import util.VirtualClock;
+
+public class MoveAllocationBenchmark {
+    private static final String INPUTS = "DADAWSWS"; // Avanti e indietro: a regime nessuna raccolta e nessuno spawn
+    private static final int WARMUP_MOVES = 200_000;
+
+    /**
+     * DTO Pattern: byte allocati e tempo per un certo numero di mosse.
+     */
+    public record Result(long moves, long allocatedBytes, long elapsedNanos) {
+        public double bytesPerMove() {
+            return moves == 0 ? 0 : (double) allocatedBytes / moves;
+        }
+
+        public double nanosPerMove() {
+            return moves == 0 ? 0 : (double) elapsedNanos / moves;
+        }
+    }
+
+    // Stream che scarta i byte: il benchmark misura la codifica, non la rete
+    private static final class DiscardingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static Result run(long moves) {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        boolean consoleWasEnabled = GameConsole.isEnabled();
+        GameConsole.setEnabled(false);
+        try {
+            GameWorld gameWorld = new GameWorld(24, 10, new VirtualClock(), 42L);
+            Player player = new Player(5, 5);
+            GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+            gameWorld.setPhysics(gamePhysics);
+            DiscardingOutputStream out = new DiscardingOutputStream();
+
+            runMoves(gameWorld, player, out, WARMUP_MOVES); // Compilazione JIT e inizializzazione dei buffer per thread
+
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            runMoves(gameWorld, player, out, moves);
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            return new Result(moves, allocated, elapsed);
+        } finally {
+            GameConsole.setEnabled(consoleWasEnabled);
+        }
+    }
+
+    // Stessi passi della rotta /move, senza il server HTTP
+    private static void runMoves(GameWorld gameWorld, Player player, OutputStream out, long moves) {
+        try {
+            for (long i = 0; i < moves; i++) {
+                Direction direction = Direction.fromChar(INPUTS.charAt((int) (i % INPUTS.length())));
+                boolean collected = gameWorld.movePlayer(player, direction, i + 1, gameWorld.getPhysics());
+                MoveResponseEncoder.write(out, player.getX(), player.getY(), gameWorld.getScore(), collected,
+                        player.getLastSequence());
+            }
+        } catch (IOException e) {
+            throw new EmojiCraftException("Errore di scrittura nel benchmark", e);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            throw new EmojiCraftException("La JVM non misura la memoria allocata per thread");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /**
+     * Uso: MoveAllocationBenchmark [mosse]
+     */
+    public static void main(String[] args) {
+        long moves = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        Result result = run(moves);
+        System.out.printf("Mosse: %d, byte allocati: %d (%.3f byte/mossa), %.0f ns/mossa%n",
+                result.moves(), result.allocatedBytes(), result.bytesPerMove(), result.nanosPerMove());
+    }
+}
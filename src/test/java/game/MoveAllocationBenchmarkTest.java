@@ -0,0 +1,30 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveAllocationBenchmarkTest {
+
+    // Limite predefinito: qualsiasi oggetto per mossa (almeno 16 byte) lo supera, anche senza C2 ed escape analysis.
+    // Con -Dbenchmark.strictAllocation=true si richiede invece l'assenza totale di allocazioni.
+    private static final double MAX_BYTES_PER_MOVE = 16.0;
+    private static final double STRICT_MAX_BYTES_PER_MOVE = 1.0;
+
+    @Test
+    void testMovePathDoesNotAllocateInSteadyState() {
+        MoveAllocationBenchmark.Result result = MoveAllocationBenchmark.run(100_000);
+        double limit = Boolean.getBoolean("benchmark.strictAllocation") ? STRICT_MAX_BYTES_PER_MOVE : MAX_BYTES_PER_MOVE;
+        assertTrue(result.bytesPerMove() < limit,
+                "Il percorso di /move non dovrebbe allocare: " + result.bytesPerMove() + " byte/mossa");
+    }
+
+    @Test
+    void testDirectionLookupTable() {
+        assertSame(Direction.W, Direction.parse("W"));
+        assertSame(Direction.D, Direction.parse("d"));
+        assertNull(Direction.parse("X"));
+        assertNull(Direction.parse("WA"));
+        assertNull(Direction.parse(null));
+        assertNull(Direction.fromChar('é'));
+    }
+}
@@ -0,0 +1,54 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import model.Item;
+
+class RegionPartitionTest {
+
+    @Test
+    void testExpiredItemsAreReturnedInRegionOrder() {
+        RegionPartition partition = new RegionPartition(256, 256, 64);
+        Item late = new Item(200, 200, "🙂", 5);
+        Item early = new Item(10, 10, "😄", 10);
+        partition.add(late, 0);
+        partition.add(early, 0);
+
+        List<Item> expired = partition.collectExpired(5000, 1000);
+
+        // L'ordine dipende dall'indice di regione, non dall'ordine di inserimento
+        assertEquals(List.of(early, late), expired);
+        assertTrue(partition.isCellEmpty(10, 10));
+    }
+
+    @Test
+    void testItemCrossingBorderIsHandedOff() {
+        RegionPartition partition = new RegionPartition(256, 256, 64);
+        Item item = new Item(63, 5, "🙂", 5);
+        partition.add(item, 1000);
+
+        // L'oggetto attraversa il confine tra la prima e la seconda regione
+        item.setPosition(64, 5);
+        assertTrue(partition.collectExpired(1500, 1000).isEmpty());
+
+        assertSame(item, partition.findAt(64, 5));
+        assertNull(partition.findAt(63, 5));
+        // Il timer segue l'oggetto nella nuova regione
+        assertEquals(List.of(item), partition.collectExpired(3000, 1000));
+    }
+
+    @Test
+    void testLargeWorldIsPartitioned() {
+        GameWorld gameWorld = new GameWorld(512, 256);
+        assertTrue(gameWorld.isPartitioned());
+        assertFalse(gameWorld.isCellEmpty(0, 255), "Il terreno deve essere indicizzato nelle regioni");
+
+        Item item = new Item(100, 100, "🙂", 10);
+        gameWorld.getItemsGroup().add(item);
+        Player player = new Player(300, 100);
+        assertFalse(gameWorld.checkItemCollision(player));
+    }
+}
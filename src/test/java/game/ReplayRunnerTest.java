@@ -0,0 +1,105 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import util.GameConsole;
+import util.VirtualClock;
+
+class ReplayRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplayReproducesRecordedGame() throws Exception {
+        Path file = tempDir.resolve("partita.replay");
+        String[] directions = {"W", "A", "S", "D"};
+        SplittableRandom inputs = new SplittableRandom(3);
+
+        GameConsole.setEnabled(false);
+        VirtualClock clock = new VirtualClock();
+        GameWorld gameWorld = new GameWorld(24, 10, clock, 12345L);
+        Player player = new Player(2, 5);
+        GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+        try (ReplayRecorder recorder = new ReplayRecorder(file, gameWorld, player)) {
+            gameWorld.setReplayRecorder(recorder);
+            for (int tick = 0; tick < 500; tick++) {
+                if (inputs.nextInt(3) > 0) {
+                    gameWorld.movePlayer(player, directions[inputs.nextInt(4)], gamePhysics);
+                }
+                clock.advance(GamePhysics.getPhysicsInterval());
+                gamePhysics.tick();
+            }
+        } finally {
+            GameConsole.setEnabled(true);
+        }
+
+        ReplayRunner.Result first = ReplayRunner.replay(file);
+        ReplayRunner.Result second = ReplayRunner.replay(file);
+
+        assertEquals(12345L, first.seed());
+        assertEquals(gameWorld.getScore(), first.score());
+        assertEquals(player.getX(), first.playerX());
+        assertEquals(player.getY(), first.playerY());
+        assertEquals(500, first.ticks());
+        assertEquals(first.score(), second.score(), "La riesecuzione deve essere deterministica");
+    }
+
+    @Test
+    void testReplayFollowsTickTimingSettingsLoadAndGameEnd() throws Exception {
+        Path file = tempDir.resolve("irregolare.replay");
+        String[] directions = {"W", "A", "S", "D"};
+        SplittableRandom inputs = new SplittableRandom(11);
+
+        GameConsole.setEnabled(false);
+        VirtualClock clock = new VirtualClock();
+        GameWorld gameWorld = new GameWorld(24, 10, clock, 777L);
+        Player player = new Player(2, 5);
+        GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+        try (ReplayRecorder recorder = new ReplayRecorder(file, gameWorld, player)) {
+            gameWorld.setReplayRecorder(recorder);
+            String[][] grid = new String[10][24];
+            for (String[] row : grid) {
+                java.util.Arrays.fill(row, " ");
+            }
+            grid[8][3] = "🧱";
+            gameWorld.applyLoadedState(new GameState(4, 2, 90, grid, 45), player); // Stato caricato da disco
+            for (int tick = 0; tick < 600; tick++) {
+                if (tick == 150) {
+                    // Ricaricamento a caldo: oggetti di breve durata, quindi scadenze e nuovi spawn casuali
+                    gameWorld.setSettingsOverrides(new util.SettingsOverrides(null, 250, null));
+                }
+                if (tick == 300) {
+                    gameWorld.setDegradationLevel(2); // Degrado per sovraccarico: tick più radi
+                }
+                if (tick == 400) {
+                    gameWorld.setGameActive(false); // Fine della partita decisa dal timer
+                }
+                if (tick == 450) {
+                    gameWorld.recordInput(ReplayRecorder.RESTART);
+                    gameWorld.resetGame();
+                    player.setPosition(2, 5);
+                }
+                if (inputs.nextInt(3) > 0) {
+                    gameWorld.movePlayer(player, directions[inputs.nextInt(4)], gamePhysics);
+                }
+                // Intervallo reale irregolare: sleep in ritardo e tick lenti
+                clock.advance(gamePhysics.getInterval() + inputs.nextInt(40));
+                gamePhysics.tick();
+            }
+        } finally {
+            GameConsole.setEnabled(true);
+        }
+
+        ReplayRunner.Result result = ReplayRunner.replay(file);
+        assertEquals(gameWorld.getScore(), result.score());
+        assertEquals(player.getX(), result.playerX());
+        assertEquals(player.getY(), result.playerY());
+        assertEquals(gameWorld.getTick(), result.ticks());
+    }
+}
@@ -0,0 +1,113 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exception.EmojiCraftException;
+
+class SessionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testManySessionsInOneFileSurviveRestart() throws Exception {
+        Path file = tempDir.resolve("sessions.log");
+        try (SessionStore store = new SessionStore(file)) {
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                saves.add(store.save("sessione-" + i, new GameState(i % 24, 3, i, new String[][] {{"🧱", " "}}, 60)));
+            }
+            saves.add(store.save("sessione-7", new GameState(1, 1, 777, new String[][] {{"🙂"}}, 30)));
+            CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0])).join();
+            assertEquals(1000, store.getSessionCount());
+        }
+
+        try (SessionStore reopened = new SessionStore(file)) {
+            assertEquals(1000, reopened.getSessionCount());
+            GameState latest = reopened.load("sessione-7");
+            assertEquals(777, latest.getScore());
+            assertEquals("🙂", latest.getGrid()[0][0]);
+            assertEquals(42, reopened.load("sessione-42").getScore());
+            assertNull(reopened.load("sconosciuta"));
+        }
+    }
+
+    @Test
+    void testSupersededRecordsAreCompacted() throws Exception {
+        Path file = tempDir.resolve("compact.log");
+        String[][] grid = new String[10][24];
+        for (String[] row : grid) {
+            java.util.Arrays.fill(row, "🧱");
+        }
+        try (SessionStore store = new SessionStore(file)) {
+            // La stessa sessione salvata molte volte: quasi tutti i record diventano superati
+            for (int i = 0; i < 2000; i++) {
+                store.save("unica", new GameState(0, 0, i, grid, 60));
+            }
+            store.flush();
+            assertEquals(1999, store.load("unica").getScore());
+            assertTrue(store.getFileSize() < 1 << 20, "Il segmento deve essere stato compattato");
+        }
+    }
+
+    @Test
+    void testSecondStoreOnSamePathFailsFast() throws Exception {
+        Path file = tempDir.resolve("shared.log");
+        try (SessionStore owner = new SessionStore(file)) {
+            owner.save("a", new GameState(0, 0, 1, new String[][] {{" "}}, 60)).join();
+            EmojiCraftException error = assertThrows(EmojiCraftException.class, () -> new SessionStore(file));
+            assertTrue(error.getMessage().contains("già in uso"));
+            assertEquals(1, owner.load("a").getScore());
+        }
+
+        // Chiuso il primo archivio il lock è libero e il segmento è intatto
+        try (SessionStore reopened = new SessionStore(file)) {
+            assertEquals(1, reopened.load("a").getScore());
+        }
+    }
+
+    @Test
+    void testFailedCompactionKeepsOriginalSegmentReadable() throws Exception {
+        Path file = tempDir.resolve("fallita.log");
+        String[][] grid = new String[10][24];
+        for (String[] row : grid) {
+            java.util.Arrays.fill(row, "🧱");
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        try (SessionStore store = new SessionStore(file) {
+            @Override
+            void replaceSegment(Path temp) throws IOException {
+                attempts.incrementAndGet();
+                throw new IOException("Disco pieno (simulato)");
+            }
+        }) {
+            for (int i = 0; i < 2000; i++) {
+                store.save("unica", new GameState(0, 0, i, grid, 60));
+            }
+            store.save("altra", new GameState(1, 1, 5, grid, 30)).join();
+            store.flush();
+
+            assertTrue(attempts.get() > 0, "La compattazione deve essere stata tentata");
+            assertEquals(1999, store.load("unica").getScore());
+            assertEquals(5, store.load("altra").getScore());
+            // Dopo il fallimento l'archivio continua ad accettare salvataggi sul segmento originale
+            store.save("dopo", new GameState(2, 2, 7, grid, 10)).join();
+        }
+        assertFalse(Files.exists(tempDir.resolve("fallita.log.compact")), "La copia compattata viene scartata");
+
+        try (SessionStore reopened = new SessionStore(file)) {
+            assertEquals(1999, reopened.load("unica").getScore());
+            assertEquals(7, reopened.load("dopo").getScore());
+        }
+    }
+}
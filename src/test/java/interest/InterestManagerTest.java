@@ -0,0 +1,78 @@
+package interest;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import event.EventConsumer;
+import game.Direction;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+
+class InterestManagerTest {
+
+    @Test
+    void testClientsOnlyReceiveChangesInsideTheirArea() {
+        GameWorld gameWorld = new GameWorld(200, 12);
+        InterestManager interest = new InterestManager(gameWorld, 8, 1024);
+        EventConsumer consumer = new EventConsumer("interest", gameWorld.getEvents(), interest);
+        Player near = new Player(5, 5);
+        Player far = new Player(180, 5);
+        interest.subscribe("near", near, 4);
+        interest.subscribe("far", far, 4);
+        interest.poll("near");
+        interest.poll("far"); // Stato iniziale consegnato
+
+        // Un oggetto appare vicino al primo giocatore e viene raccolto: il secondo client non riceve nulla
+        gameWorld.publishEvent(event.GameEventType.ITEM_SPAWNED, 6, 5, 1, "🍎");
+        gameWorld.publishEvent(event.GameEventType.ITEM_COLLECTED, 6, 5, 1, "🍎");
+        consumer.drain(100);
+
+        List<InterestUpdate> nearUpdates = interest.poll("near").updates();
+        assertEquals(List.of(
+                new InterestUpdate(InterestUpdate.ENTER, InterestUpdate.CELL, null, 6, 5, "🍎"),
+                new InterestUpdate(InterestUpdate.LEAVE, InterestUpdate.CELL, null, 6, 5, "🍎")), nearUpdates);
+        assertTrue(interest.poll("far").updates().isEmpty());
+    }
+
+    @Test
+    void testMovingAreaProducesEnterAndLeaveForCellsAndPlayers() {
+        GameWorld gameWorld = new GameWorld(200, 12);
+        InterestManager interest = new InterestManager(gameWorld, 8, 1024);
+        Player mover = new Player(20, 9);
+        Player other = new Player(23, 9);
+        interest.subscribe("mover", mover, 3);
+        interest.subscribe("other", other, 3);
+
+        List<InterestUpdate> initial = interest.poll("mover").updates();
+        assertTrue(initial.contains(new InterestUpdate(InterestUpdate.ENTER, InterestUpdate.PLAYER, "other", 23, 9, other.getEmoji())));
+        assertTrue(initial.stream().anyMatch(u -> u.entity().equals(InterestUpdate.CELL) && u.y() == 10),
+                "Il terreno sotto il giocatore entra nell'area");
+
+        gameWorld.movePlayer(mover, Direction.A, new GamePhysics(gameWorld, mover));
+        List<InterestUpdate> moved = interest.poll("mover").updates();
+        assertTrue(moved.contains(new InterestUpdate(InterestUpdate.LEAVE, InterestUpdate.PLAYER, "other", 23, 9, null)));
+        assertTrue(moved.stream().anyMatch(u -> u.type().equals(InterestUpdate.LEAVE) && u.x() == 23),
+                "La colonna rimasta fuori dall'area esce");
+        assertTrue(moved.stream().anyMatch(u -> u.type().equals(InterestUpdate.ENTER) && u.x() == 16),
+                "La nuova colonna entra nell'area");
+    }
+
+    @Test
+    void testSlowClientIsAskedToResync() {
+        GameWorld gameWorld = new GameWorld(200, 12);
+        InterestManager interest = new InterestManager(gameWorld, 8, 2);
+        EventConsumer consumer = new EventConsumer("interest", gameWorld.getEvents(), interest);
+        interest.subscribe("slow", new Player(5, 5), 4);
+        interest.poll("slow");
+
+        for (int i = 0; i < 5; i++) {
+            gameWorld.publishEvent(event.GameEventType.ITEM_SPAWNED, 4 + i, 4, 1, "🍎");
+        }
+        consumer.drain(100);
+        InterestManager.Poll poll = interest.poll("slow");
+        assertTrue(poll.resync());
+    }
+}
@@ -0,0 +1,61 @@
+package jfr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.Direction;
+import game.GameEngine;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class GameEventsRecordingTest {
+
+    @Test
+    void testGameOperationsAreRecordedWithWorldId(@TempDir Path tempDir) throws Exception {
+        GameWorld gameWorld = new GameWorld();
+        Player player = new Player(2, 5);
+        new GameEngine("jfr-test", gameWorld, player, new AtomicBoolean(true)); // Assegna l'id del mondo
+        GamePhysics gamePhysics = new GamePhysics(gameWorld, player);
+
+        Path file = tempDir.resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            // Soglie azzerate: nel test ogni operazione è troppo veloce per superare quelle di produzione
+            for (Class<? extends jdk.jfr.Event> type : List.of(TickEvent.class, CollisionEvent.class,
+                    ItemSpawnEvent.class, ItemSweepEvent.class)) {
+                recording.enable(type).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            gameWorld.movePlayer(player, Direction.D, gamePhysics);
+            gameWorld.spawnNewItem();
+            gamePhysics.tick();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        for (String name : List.of("emojicraft.Tick", "emojicraft.Collision", "emojicraft.ItemSpawn",
+                "emojicraft.ItemSweep")) {
+            RecordedEvent event = events.stream()
+                    .filter(e -> e.getEventType().getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Evento mancante: " + name));
+            assertEquals("jfr-test", event.getString("worldId"));
+        }
+        RecordedEvent tick = events.stream()
+                .filter(e -> e.getEventType().getName().equals("emojicraft.Tick"))
+                .findFirst().orElseThrow();
+        assertEquals(gameWorld.getWidth(), tick.getInt("width"));
+        assertEquals(gameWorld.getHeight(), tick.getInt("height"));
+        assertTrue(tick.getInt("items") > 0);
+    }
+}
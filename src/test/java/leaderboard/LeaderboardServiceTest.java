@@ -0,0 +1,74 @@
+package leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class LeaderboardServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTopScoresAreOrderedAndBounded() {
+        LeaderboardService leaderboard = new LeaderboardService(tempDir.resolve("classifica.log"), 3);
+        for (int score : new int[] {10, 50, -5, 30, 20}) {
+            leaderboard.recordScore(score);
+        }
+
+        List<ScoreEntry> top = leaderboard.getTop(10);
+        assertEquals(3, top.size());
+        assertEquals(50, top.get(0).getScore());
+        assertEquals(30, top.get(1).getScore());
+        assertEquals(20, top.get(2).getScore());
+        assertEquals(1, leaderboard.getTop(1).size());
+    }
+
+    @Test
+    void testScoresSurviveRestartAndCompaction() {
+        Path file = tempDir.resolve("classifica.log");
+        LeaderboardService first = new LeaderboardService(file, 2);
+        // Più di capacità * fattore di compattazione record, così il log viene compattato
+        for (int i = 0; i < 50; i++) {
+            first.recordScore(i);
+        }
+        first.flush();
+
+        LeaderboardService reloaded = new LeaderboardService(file, 2);
+        List<ScoreEntry> top = reloaded.getTop(2);
+        assertEquals(49, top.get(0).getScore());
+        assertEquals(48, top.get(1).getScore());
+        assertTrue(file.toFile().length() < 50L * 12, "Il log compattato non deve contenere tutti i record");
+    }
+
+    @Test
+    void testConcurrentScoresKeepExactlyTheTopK() throws Exception {
+        LeaderboardService leaderboard = new LeaderboardService(tempDir.resolve("concorrente.log"), 10);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    leaderboard.recordScore(i * 8 + offset); // Punteggi tutti distinti tra i thread
+                    leaderboard.getTop(10);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        leaderboard.flush();
+
+        List<ScoreEntry> top = leaderboard.getTop(20);
+        assertEquals(10, top.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2_000 * 8 - 1 - i, top.get(i).getScore());
+        }
+    }
+}
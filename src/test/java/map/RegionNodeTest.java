@@ -0,0 +1,40 @@
+package map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import model.Item;
+import model.Wall;
+
+class RegionNodeTest {
+
+    @Test
+    void testQueryReturnsOnlyComponentsInArea() {
+        RegionNode root = new RegionNode(0, 0, 1000, 1000);
+        for (int i = 0; i < 1000; i++) {
+            root.add(new Wall(i, 999));
+        }
+        Item item = new Item(500, 500, "🙂", 5);
+        root.add(item);
+
+        assertEquals(List.of(item), root.query(490, 490, 20, 20));
+        assertEquals(10, root.query(0, 990, 10, 10).size());
+        assertEquals(1001, root.size());
+    }
+
+    @Test
+    void testCulledRenderUsesViewportCoordinates() {
+        RegionNode root = new RegionNode(0, 0, 100, 100);
+        root.add(new Item(50, 40, "🙂", 5));
+        root.add(new Item(5, 5, "😄", 10));
+
+        String[][] viewport = new String[10][10];
+        root.render(viewport, 45, 35);
+
+        assertEquals("🙂", viewport[5][5]);
+        assertTrue(root.remove(root.query(50, 40, 1, 1).get(0)));
+        assertEquals(1, root.size());
+    }
+}
@@ -0,0 +1,77 @@
+package replication;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetSocketAddress;
+import java.util.function.BooleanSupplier;
+
+import game.Direction;
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+import shard.GameSession;
+import shard.SessionRegistry;
+
+class ReplicationTest {
+
+    @Test
+    void testFollowerMirrorsSessionsAndCanBePromoted() throws Exception {
+        GameWorld primaryWorld = new GameWorld();
+        Player primaryPlayer = new Player(2, 5);
+        SessionRegistry primaryRegistry = new SessionRegistry();
+        ReplicationPrimary primary = new ReplicationPrimary(0, primaryWorld, primaryPlayer, primaryRegistry, 10);
+        primary.start();
+
+        GameWorld followerWorld = new GameWorld();
+        Player followerPlayer = new Player(0, 0);
+        SessionRegistry followerRegistry = new SessionRegistry();
+        ReplicationFollower follower = new ReplicationFollower(
+                new InetSocketAddress("localhost", primary.getPort()), followerWorld, followerPlayer, followerRegistry);
+        try {
+            follower.start();
+            awaitTrue(() -> follower.getAppliedSequence() > 0, "Il follower riceve lo snapshot iniziale");
+            assertEquals(primaryPlayer.getX(), followerPlayer.getX());
+            assertEquals(primaryWorld.getActiveItems().size(), followerWorld.getActiveItems().size());
+
+            // Modifiche sul primario: mondo principale e una nuova sessione
+            primaryWorld.movePlayer(primaryPlayer, Direction.D, new GamePhysics(primaryWorld, primaryPlayer));
+            GameSession session = primaryRegistry.getOrCreate("alice");
+            session.getWorld().movePlayer(session.getPlayer(), Direction.D, session.getWorld().getPhysics());
+            awaitTrue(() -> followerPlayer.getX() == primaryPlayer.getX()
+                    && followerRegistry.get("alice") != null
+                    && followerRegistry.get("alice").getPlayer().getX() == session.getPlayer().getX(),
+                    "Il follower applica i delta");
+            assertTrue(follower.getLagMillis() >= 0);
+
+            // Una sessione che lascia il primario viene rimossa anche dal follower
+            primaryRegistry.remove("alice");
+            awaitTrue(() -> followerRegistry.get("alice") == null, "Il follower applica le rimozioni");
+
+            primaryRegistry.getOrCreate("bob");
+            awaitTrue(() -> followerRegistry.get("bob") != null, "Il follower riceve la nuova sessione");
+            assertNull(followerRegistry.getOrCreate("carol"), "Un follower non crea sessioni con fisica e timer locali");
+            assertTrue(follower.promote());
+            assertFalse(followerRegistry.isReadOnly(), "Dopo la promozione il registro accetta nuove sessioni");
+            assertFalse(follower.promote(), "La promozione avviene una sola volta");
+            assertTrue(follower.isPromoted());
+            assertFalse(follower.isConnected());
+            assertEquals(1, followerRegistry.size(), "Le sessioni replicate restano intatte dopo la promozione");
+        } finally {
+            follower.promote();
+            primary.close();
+            primaryRegistry.remove("bob");
+            followerRegistry.remove("bob");
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameAdmissionTest {
+
+    @Test
+    void testLimitAndRelease() {
+        GameAdmission admission = new GameAdmission(1);
+        assertTrue(admission.tryAdmit());
+        assertFalse(admission.tryAdmit(), "Oltre il limite la partita va rifiutata");
+        admission.release();
+        assertTrue(admission.tryAdmit());
+    }
+
+    @Test
+    void testTransferKeepsTheSlotOfTheReplacedGame() {
+        GameAdmission admission = new GameAdmission(1);
+        assertTrue(admission.tryAdmit());
+        // /restart: il posto passa alla nuova partita, poi il timer sostituito lo libera
+        admission.transfer();
+        admission.release();
+        assertEquals(1, admission.getRunningGames());
+        assertFalse(admission.tryAdmit(), "La partita riavviata occupa ancora il suo posto");
+    }
+}
@@ -0,0 +1,29 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+class JitWarmUpTest {
+
+    @Test
+    void testWarmUpRunsRequestedTicksOnThrowawayWorlds() {
+        JitWarmUp.Result result = JitWarmUp.run(500, 10, 24, 10, 42L);
+        assertEquals(500, result.ticks());
+        assertTrue(result.worlds() > 1, "Un mondo nuovo per ogni partita simulata");
+        assertTrue(result.moves() >= 500);
+        assertEquals(1000, result.encodes(), "Una risposta di mossa e una di /world per tick");
+    }
+
+    @Test
+    void testReadinessReportsWarmUp() {
+        Readiness readiness = Readiness.getInstance();
+        readiness.setWarmUp(new JitWarmUp.Result(10, 12, 20, 1, 5_000_000L, 3));
+        readiness.markReady();
+        Map<String, Object> status = readiness.getStatus();
+        assertEquals(true, status.get("ready"));
+        assertEquals(5L, status.get("warmUpMillis"));
+        assertTrue((Long) status.get("readyAfterMillis") > 0);
+    }
+}
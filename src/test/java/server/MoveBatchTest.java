@@ -0,0 +1,34 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import exception.EmojiCraftException;
+
+class MoveBatchTest {
+
+    @Test
+    void testCompactAndJsonFormats() {
+        MoveBatch compact = MoveBatch.fromString("ddwa", "10");
+        assertEquals("DDWA", compact.directions());
+        assertEquals(13, compact.lastSequence());
+        assertEquals(-1, MoveBatch.fromString("W", null).lastSequence());
+
+        MoveBatch json = MoveBatch.fromJson("[{\"seq\": 4, \"dir\": \"S\"}, {\"seq\": 5, \"dir\": \"d\"}]");
+        assertEquals("SD", json.directions());
+        assertEquals(5, json.lastSequence());
+    }
+
+    @Test
+    void testInvalidBatchesAreRejectedBeforeAnyMove() {
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromString("DDX", "1"));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromString("D".repeat(MoveBatch.MAX_MOVES + 1), null));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson("[{\"seq\": 5, \"dir\": \"D\"}, {\"seq\": 5, \"dir\": \"A\"}]"));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson("{\"dir\": \"D\"}"));
+        // Tipi JSON sbagliati: sempre EmojiCraftException (400), mai eccezioni di Gson (500)
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson("[{\"dir\": {}}]"));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson("[{\"dir\": \"D\", \"seq\": \"x\"}]"));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson("[{\"dir\": \"D\", \"seq\": null}]"));
+        assertThrows(EmojiCraftException.class, () -> MoveBatch.fromJson(""));
+    }
+}
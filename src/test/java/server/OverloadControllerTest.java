@@ -0,0 +1,88 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import game.GameWorld;
+import util.GameSettings;
+import util.VirtualClock;
+
+class OverloadControllerTest {
+
+    @Test
+    void testLowPriorityWorldsDegradeFirstAndRestoreWithHysteresis() {
+        GameSettings settings = GameSettings.getInstance();
+        OverloadController controller = new OverloadController();
+        VirtualClock clock = new VirtualClock();
+        GameWorld active = new GameWorld(24, 10, clock, 1L);
+        GameWorld idle = new GameWorld(24, 10, clock, 2L);
+        controller.register("attivo", active);
+        controller.register("inattivo", idle);
+
+        clock.advance(settings.getOverloadIdleMillis() + 1);
+        active.recordInput(0);
+
+        // Ritardo dei tick ben oltre la soglia: il mondo inattivo viene degradato fino al massimo prima dell'altro
+        for (int i = 0; i < 20; i++) {
+            active.recordTickLag(settings.getOverloadTickLagMillis() * 10L);
+        }
+        for (int i = 0; i < settings.getOverloadMaxLevel(); i++) {
+            controller.sample();
+        }
+        assertEquals(settings.getOverloadMaxLevel(), idle.getDegradationLevel());
+        assertEquals(0, active.getDegradationLevel());
+        controller.sample();
+        assertEquals(1, active.getDegradationLevel());
+        assertEquals(2, active.getRateMultiplier());
+
+        // Il carico rientra: serve una serie di campioni tranquilli prima di ogni ripristino
+        for (int i = 0; i < 40; i++) {
+            active.recordTickLag(0);
+        }
+        for (int i = 0; i < settings.getOverloadRestoreSamples() - 1; i++) {
+            controller.sample();
+        }
+        assertEquals(1, active.getDegradationLevel());
+        controller.sample();
+        assertEquals(0, active.getDegradationLevel(), "Il mondo attivo viene ripristinato per primo");
+        assertEquals(settings.getOverloadMaxLevel(), idle.getDegradationLevel());
+
+        List<OverloadEvent> events = controller.getEvents();
+        assertEquals(settings.getOverloadMaxLevel() + 2, events.size());
+        assertEquals("RESTORE", events.get(events.size() - 1).type());
+        assertEquals("attivo", events.get(events.size() - 1).world());
+    }
+
+    @Test
+    void testSpectatedWorldsDegradeBeforeActiveOnes() {
+        GameSettings settings = GameSettings.getInstance();
+        OverloadController controller = new OverloadController();
+        VirtualClock clock = new VirtualClock();
+        GameWorld active = new GameWorld(24, 10, clock, 1L);
+        GameWorld spectated = new GameWorld(24, 10, clock, 2L);
+        GameWorld idle = new GameWorld(24, 10, clock, 3L);
+        controller.register("attivo", active);
+        controller.register("spettatori", spectated);
+        controller.register("inattivo", idle);
+
+        clock.advance(settings.getOverloadIdleMillis() + 1);
+        active.recordInput(0);
+        spectated.recordInput(0);
+        spectated.setSpectatorCount(500);
+
+        assertTrue(OverloadController.priorityOf(idle, settings) < OverloadController.priorityOf(spectated, settings));
+        assertTrue(OverloadController.priorityOf(spectated, settings) < OverloadController.priorityOf(active, settings));
+
+        for (int i = 0; i < 20; i++) {
+            active.recordTickLag(settings.getOverloadTickLagMillis() * 10L);
+        }
+        for (int i = 0; i < settings.getOverloadMaxLevel() + 1; i++) {
+            controller.sample();
+        }
+        assertEquals(settings.getOverloadMaxLevel(), idle.getDegradationLevel());
+        assertEquals(1, spectated.getDegradationLevel(), "Dopo i mondi inattivi rallentano quelli con spettatori");
+        assertEquals(0, active.getDegradationLevel());
+    }
+}
@@ -0,0 +1,65 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testBurstThenSteadyRatePerClient() {
+        RateLimiter limiter = new RateLimiter("move", 10, 5, 100);
+        long now = 42 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("abuso", now), "Il burst iniziale viene ammesso");
+        }
+        long wait = limiter.tryAcquire("abuso", now);
+        assertTrue(wait > 0 && wait <= 100, "Il sesto gettone arriva entro un intervallo di emissione: " + wait);
+
+        // Un altro client non risente del primo
+        assertEquals(0, limiter.tryAcquire("onesto", now));
+
+        // Dopo 100 ms si è ricaricato esattamente un gettone
+        assertEquals(0, limiter.tryAcquire("abuso", now + SECOND / 10));
+        assertTrue(limiter.tryAcquire("abuso", now + SECOND / 10) > 0);
+    }
+
+    @Test
+    void testConcurrentClientsNeverExceedBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 50, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(50, admitted.get());
+    }
+
+    @Test
+    void testFullBucketsAreEvictedWhenClientLimitIsReached() {
+        RateLimiter limiter = new RateLimiter("world", 10, 2, 3);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+        limiter.tryAcquire("c", 0);
+        assertEquals(3, limiter.getClientCount());
+        // Un secondo dopo tutti i bucket sono tornati pieni e possono essere scartati
+        assertEquals(0, limiter.tryAcquire("d", SECOND));
+        assertEquals(1, limiter.getClientCount());
+    }
+}
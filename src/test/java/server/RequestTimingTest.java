@@ -0,0 +1,43 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingTest {
+
+    @Test
+    void testHeaderListsOnlyMeasuredPhasesInMilliseconds() throws Exception {
+        RequestTiming timing = RequestTiming.start();
+        timing.mark(RequestTiming.LOCK);
+        Thread.sleep(2);
+        timing.mark(RequestTiming.LOGIC);
+        timing.mark(RequestTiming.ENCODE);
+
+        String header = timing.format(true);
+        assertTrue(header.matches("lock;dur=\\d+\\.\\d{3}, logic;dur=\\d+\\.\\d{3}, encode;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"),
+                header);
+        assertFalse(header.contains("render"), "Le fasi non misurate non compaiono");
+        assertTrue(timing.getDuration(RequestTiming.LOGIC) >= 2_000_000L);
+        assertEquals(timing.getTotalNanos(), timing.getDuration(RequestTiming.LOCK)
+                + timing.getDuration(RequestTiming.LOGIC) + timing.getDuration(RequestTiming.ENCODE));
+
+        // Lo stesso oggetto del thread viene azzerato dalla richiesta successiva
+        RequestTiming next = RequestTiming.start();
+        assertSame(timing, next);
+        assertEquals("total;dur=0.000", next.format(true));
+    }
+
+    @Test
+    void testSlowRequestLogSamplesAtMostNPerSecond() {
+        SlowRequestLog log = new SlowRequestLog();
+        long now = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (log.sample(3, now)) {
+                accepted++;
+            }
+        }
+        assertEquals(3, accepted);
+        assertTrue(log.sample(3, now + 1_000_000_000L), "Una nuova finestra riparte da zero");
+    }
+}
@@ -0,0 +1,61 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+class StaticAssetsTest {
+
+    @Test
+    void testAssetsArePrecompressedHashedAndReferencedByHashedUrl(@TempDir Path root) throws Exception {
+        String script = "console.log('emojicraft');\n".repeat(100);
+        Files.writeString(root.resolve("app.js"), script);
+        Files.createDirectories(root.resolve("sounds"));
+        Files.write(root.resolve("sounds/music.mp3"), new byte[200_000]);
+        Files.writeString(root.resolve("index.html"),
+                "<script src=\"app.js\"></script><audio src=\"sounds/music.mp3\"></audio>");
+
+        StaticAssets assets = StaticAssets.load(root, 4);
+        assertEquals(3, assets.size());
+
+        String hashedScript = assets.hashedPath("/app.js");
+        assertTrue(hashedScript.matches("/app\\.[0-9a-f]{10}\\.js"), hashedScript);
+        StaticAssets.Asset js = assets.get(hashedScript);
+        assertSame(assets.get("/app.js"), js);
+        assertNotNull(js.gzip(), "I testi vengono compressi all'avvio");
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(bytes(js.gzip()))).readAllBytes();
+        assertEquals(script, new String(unzipped, StandardCharsets.UTF_8));
+
+        StaticAssets.Asset music = assets.get("/sounds/music.mp3");
+        assertTrue(music.mapped(), "I file audio grandi vengono mappati, non copiati nell'heap");
+        assertNull(music.gzip());
+
+        String html = new String(bytes(assets.get("/index.html").content()), StandardCharsets.UTF_8);
+        assertTrue(html.contains("\"" + hashedScript.substring(1) + "\""), html);
+        assertTrue(html.contains("\"" + assets.hashedPath("/sounds/music.mp3").substring(1) + "\""), html);
+    }
+
+    @Test
+    void testRangeParsing() {
+        assertArrayEquals(new long[] {100, 199}, StaticAssets.parseRange("bytes=100-199", 1000));
+        assertArrayEquals(new long[] {900, 999}, StaticAssets.parseRange("bytes=900-", 1000));
+        assertArrayEquals(new long[] {950, 999}, StaticAssets.parseRange("bytes=-50", 1000));
+        assertArrayEquals(new long[] {990, 999}, StaticAssets.parseRange("bytes=990-5000", 1000));
+        assertSame(StaticAssets.UNSATISFIABLE, StaticAssets.parseRange("bytes=1000-", 1000));
+        assertNull(StaticAssets.parseRange("bytes=0-1,5-6", 1000), "Più intervalli: file intero");
+        assertNull(StaticAssets.parseRange("items=0-1", 1000));
+        assertNull(StaticAssets.parseRange("bytes=a-b", 1000));
+    }
+
+    private static byte[] bytes(java.nio.ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,41 @@
+package shard;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void testAddingAShardMovesOnlyItsShareOfSessions() {
+        ConsistentHashRing two = new ConsistentHashRing(List.of("http://localhost:4567", "http://localhost:4568"));
+        ConsistentHashRing three = new ConsistentHashRing(
+                List.of("http://localhost:4567", "http://localhost:4568", "http://localhost:4569"));
+        int sessions = 30_000;
+        int moved = 0;
+        Map<String, Integer> load = new HashMap<>();
+        for (int i = 0; i < sessions; i++) {
+            String id = "session-" + i;
+            String before = two.ownerOf(id);
+            String after = three.ownerOf(id);
+            load.merge(after, 1, Integer::sum);
+            if (!before.equals(after)) {
+                assertEquals("http://localhost:4569", after, "Le sessioni si spostano solo verso il nuovo shard");
+                moved++;
+            }
+        }
+        assertTrue(moved > sessions / 5 && moved < sessions / 2, "Circa un terzo delle sessioni cambia shard: " + moved);
+        for (int count : load.values()) {
+            assertTrue(count > sessions / 5, "Carico bilanciato tra gli shard: " + load);
+        }
+    }
+
+    @Test
+    void testOwnershipIsStableAcrossInstances() {
+        List<String> members = List.of("http://a:1", "http://b:2");
+        assertEquals(new ConsistentHashRing(members).ownerOf("player-42"), new ConsistentHashRing(members).ownerOf("player-42"));
+    }
+}
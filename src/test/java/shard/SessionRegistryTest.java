@@ -0,0 +1,179 @@
+package shard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import game.Direction;
+import game.GameState;
+import game.GameStateManager;
+import game.SessionStore;
+import model.Item;
+
+class SessionRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHandOffTransfersStateAndDrainsTheSession() throws Exception {
+        SessionRegistry source = new SessionRegistry();
+        SessionRegistry destination = new SessionRegistry();
+        GameSession session = source.getOrCreate("alice");
+        session.getWorld().movePlayer(session.getPlayer(), Direction.D, session.getWorld().getPhysics());
+        int x = session.getPlayer().getX();
+        int score = session.getWorld().getScore();
+        int items = session.getWorld().getActiveItems().size();
+
+        AtomicReference<GameSession> restored = new AtomicReference<>();
+        byte[] state = source.handOff("alice", "http://other",
+                (id, bytes) -> restored.set(destination.restore(id, bytes)));
+
+        assertNotNull(state);
+        // La griglia non viene trasferita: ogni cella costerebbe almeno 3 byte (writeUTF)
+        assertTrue(state.length < 3 * session.getWorld().getWidth() * session.getWorld().getHeight(),
+                "Stato trasferito senza griglia: " + state.length + " byte");
+        assertNull(source.get("alice"), "La sessione lascia lo shard di origine");
+        assertEquals("http://other", session.getMovedTo());
+        assertFalse(session.enter(), "Le richieste in ritardo vengono inoltrate al nuovo shard");
+
+        GameSession copy = restored.get();
+        assertSame(copy, destination.get("alice"));
+        assertEquals(x, copy.getPlayer().getX());
+        assertEquals(score, copy.getWorld().getScore());
+        assertEquals(items, copy.getWorld().getActiveItems().size());
+        Item original = session.getWorld().getActiveItems().get(0);
+        Item transferred = copy.getWorld().getActiveItems().get(0);
+        assertEquals(original.getSymbol(), transferred.getSymbol());
+        assertEquals(original.getScore(), transferred.getScore());
+
+        assertNull(source.handOff("alice", "http://other", (id, bytes) -> fail("Già trasferita")));
+    }
+
+    @Test
+    void testSessionsAreSavedToTheStoreAndResumed() throws Exception {
+        try (SessionStore store = new SessionStore(tempDir.resolve("sessions.log"))) {
+            SessionRegistry registry = new SessionRegistry(store);
+            GameSession session = registry.getOrCreate("bob");
+            session.getWorld().movePlayer(session.getPlayer(), Direction.D, session.getWorld().getPhysics());
+            registry.saveAll();
+            GameState saved = GameStateManager.loadGameState(store, "bob");
+            assertNotNull(saved);
+            registry.remove("bob");
+
+            // Lo stesso id su un registro nuovo (riavvio del processo) riprende dallo stato salvato
+            SessionRegistry restarted = new SessionRegistry(store);
+            GameSession resumed = restarted.getOrCreate("bob");
+            assertEquals(saved.getPlayerX(), resumed.getPlayer().getX());
+            assertEquals(saved.getScore(), resumed.getWorld().getScore());
+            Item item = resumed.getWorld().getActiveItems().get(0);
+            assertEquals(saved.getGrid()[item.getY()][item.getX()], item.getSymbol(), "Oggetti ricreati dalla griglia salvata");
+
+            // Una sessione mai salvata non eredita il salvataggio di nessun altro mondo
+            assertNull(GameStateManager.loadGameState(store, "carol"));
+            GameSession fresh = restarted.getOrCreate("carol");
+            assertEquals(0, fresh.getWorld().getScore());
+            restarted.remove("bob");
+            restarted.remove("carol");
+        }
+    }
+
+    @Test
+    void testSessionLimitAdmissionAndIdleEviction() throws Exception {
+        try (SessionStore store = new SessionStore(tempDir.resolve("sessions.log"))) {
+            SessionRegistry registry = new SessionRegistry(store, 2);
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            registry.setListener(new SessionListener() {
+                @Override
+                public boolean admit(String sessionId, boolean force) {
+                    events.add("admit " + sessionId);
+                    return !sessionId.equals("rejected");
+                }
+
+                @Override
+                public void started(GameSession session) {
+                    events.add("started " + session.getId());
+                }
+
+                @Override
+                public void gameEnded(GameSession session) {
+                    events.add("ended " + session.getId());
+                }
+
+                @Override
+                public void closed(GameSession session) {
+                    events.add("closed " + session.getId());
+                }
+            });
+
+            assertNull(registry.getOrCreate("rejected"), "Ammissione rifiutata: nessuna sessione");
+            assertNull(registry.get("rejected"));
+            GameSession dave = registry.getOrCreate("dave");
+            assertNotNull(registry.getOrCreate("erin"));
+            assertNull(registry.getOrCreate("frank"), "Oltre maxSessions le nuove sessioni vengono rifiutate");
+            assertSame(dave, registry.getOrCreate("dave"), "Una sessione esistente resta raggiungibile");
+            assertTrue(events.contains("started dave"));
+
+            dave.getWorld().movePlayer(dave.getPlayer(), Direction.D, dave.getWorld().getPhysics());
+            assertEquals(0, registry.evictIdle(60_000), "Sessioni usate di recente restano in memoria");
+            assertEquals(2, registry.evictIdle(0));
+            assertEquals(0, registry.size());
+            assertTrue(dave.isClosed());
+            assertFalse(dave.enter(), "Una sessione scaricata non accetta richieste");
+            GameState saved = GameStateManager.loadGameState(store, "dave");
+            assertNotNull(saved, "Salvata prima di essere scaricata");
+            assertEquals(dave.getPlayer().getX(), saved.getPlayerX());
+            assertTrue(events.indexOf("ended dave") >= 0 && events.indexOf("ended dave") < events.indexOf("closed dave"),
+                    "Il posto viene liberato quando il timer della sessione si ferma: " + events);
+            assertEquals(1, Collections.frequency(events, "ended erin"));
+        }
+    }
+
+    @Test
+    void testEndedGameIsNotRestartedAfterHandOffOrReload() throws Exception {
+        try (SessionStore store = new SessionStore(tempDir.resolve("sessions.log"))) {
+            SessionRegistry source = new SessionRegistry(store);
+            SessionRegistry destination = new SessionRegistry(store);
+            List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+            SessionListener recording = new SessionListener() {
+                @Override
+                public boolean admit(String sessionId, boolean force) {
+                    admitted.add(sessionId);
+                    return true;
+                }
+            };
+            source.setListener(recording);
+            destination.setListener(recording);
+
+            // Stato lasciato da GameUtils.runGameTimer allo scadere del tempo
+            GameSession session = source.getOrCreate("gina");
+            session.getWorld().setTimeRemaining(0);
+            session.getWorld().setGameActive(false);
+            session.getGameActive().set(false);
+            admitted.clear();
+
+            AtomicReference<GameSession> restored = new AtomicReference<>();
+            source.handOff("gina", "http://other", (id, bytes) -> restored.set(destination.restore(id, bytes)));
+            GameSession copy = restored.get();
+            assertFalse(copy.isStarted(), "Una partita conclusa non riparte dopo un trasferimento");
+            assertFalse(copy.getGameActive().get());
+            assertFalse(copy.getWorld().isGameActive());
+
+            destination.saveAll();
+            destination.evictIdle(0);
+            SessionRegistry restarted = new SessionRegistry(store);
+            restarted.setListener(recording);
+            GameSession reloaded = restarted.getOrCreate("gina");
+            assertFalse(reloaded.isStarted(), "Né dopo essere stata scaricata e ricaricata");
+            assertFalse(reloaded.getGameActive().get());
+            assertTrue(admitted.isEmpty(), "Una partita conclusa non occupa posti: " + admitted);
+            restarted.remove("gina");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package spectator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import game.GameWorld;
+
+class SpectatorHubTest {
+
+    // Connessione di prova: completa subito gli invii, oppure li lascia in sospeso (spettatore lento)
+    private static class TestSink implements FrameSink {
+        final boolean slow;
+        final List<String> received = new ArrayList<>();
+        final List<Runnable> inFlight = new ArrayList<>();
+
+        TestSink(boolean slow) {
+            this.slow = slow;
+        }
+
+        @Override
+        public void send(ByteBuffer frame, Runnable onComplete) {
+            received.add(StandardCharsets.UTF_8.decode(frame).toString());
+            if (slow) {
+                inFlight.add(onComplete);
+            } else {
+                onComplete.run();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+    }
+
+    @Test
+    void testFramesAreEncodedOncePerVersionForAllSpectators() {
+        GameWorld gameWorld = new GameWorld(24, 10);
+        AtomicInteger state = new AtomicInteger();
+        SpectatorHub hub = new SpectatorHub("test", gameWorld, () -> "{\"state\": " + state.get() + "}");
+        List<TestSink> sinks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            TestSink sink = new TestSink(false);
+            sinks.add(sink);
+            hub.subscribe(sink);
+        }
+        assertEquals(1000, gameWorld.getSpectatorCount());
+
+        SpectatorFrame first = hub.broadcast();
+        assertNotNull(first);
+        assertNull(hub.broadcast(), "Stato invariato: nessuna nuova versione");
+        state.set(1);
+        SpectatorFrame second = hub.broadcast();
+
+        assertEquals(3, hub.getEncodes(), "Una serializzazione per fotogramma, non per spettatore");
+        assertEquals(first.version() + 1, second.version());
+        for (TestSink sink : sinks) {
+            assertEquals(List.of("{\"state\": 0}", "{\"state\": 1}"), sink.received);
+        }
+    }
+
+    @Test
+    void testSlowSpectatorSkipsToLatestFrame() {
+        GameWorld gameWorld = new GameWorld(24, 10);
+        AtomicInteger state = new AtomicInteger();
+        SpectatorHub hub = new SpectatorHub("test", gameWorld, () -> "{\"state\": " + state.get() + "}");
+        TestSink slow = new TestSink(true);
+        TestSink fast = new TestSink(false);
+        hub.subscribe(slow);
+        hub.subscribe(fast);
+
+        for (int i = 0; i < 10; i++) {
+            state.set(i);
+            hub.broadcast();
+        }
+        assertEquals(10, fast.received.size());
+        assertEquals(List.of("{\"state\": 0}"), slow.received, "Un solo invio in corso per connessione");
+        assertEquals(8, hub.getDroppedFrames(), "I fotogrammi intermedi vengono scartati");
+
+        slow.inFlight.get(0).run(); // La connessione lenta si libera: riceve direttamente l'ultimo fotogramma
+        assertEquals(List.of("{\"state\": 0}", "{\"state\": 9}"), slow.received);
+    }
+}
@@ -0,0 +1,85 @@
+package terminal;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import game.GamePhysics;
+import game.GameWorld;
+import game.Player;
+
+class TerminalServerTest {
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    @Test
+    void testDiffRedrawsOnlyChangedCells() {
+        TerminalRenderer renderer = new TerminalRenderer();
+        String[][] grid = {{" ", "💎", " "}, {"🟫", "🟫", "🟫"}};
+        TerminalFrame first = renderer.render(grid, "Punteggio: 0");
+        assertNotNull(first);
+        assertNull(first.diff(), "Il primo fotogramma non ha una versione precedente");
+        assertTrue(text(first.bufferFor(0)).contains("\u001b[2J"));
+
+        assertNull(renderer.render(grid, "Punteggio: 0"), "Nessun cambiamento, nessun fotogramma");
+
+        grid[0][1] = " ";
+        grid[0][2] = "🍎";
+        TerminalFrame second = renderer.render(grid, "Punteggio: 0");
+        String diff = text(second.bufferFor(first.version()));
+        // Solo le due celle cambiate della prima riga della griglia (riga 3 dello schermo, colonne 3 e 5)
+        assertTrue(diff.startsWith("\u001b[3;3H  \u001b[3;5H🍎"), diff);
+        assertFalse(diff.contains("🟫"));
+        assertFalse(diff.contains("2K"), "La riga di stato non è cambiata");
+        assertTrue(text(second.bufferFor(0)).contains("🟫"), "Un client rimasto indietro riceve lo schermo intero");
+    }
+
+    @Test
+    void testTelnetClientReceivesFramesAndMovesPlayer() throws Exception {
+        GameWorld world = new GameWorld();
+        Player player = new Player(2, 5);
+        AtomicBoolean gameActive = new AtomicBoolean(true);
+        GamePhysics physics = new GamePhysics(world, player);
+        TerminalServer server = new TerminalServer(world, player, gameActive, () -> physics).start(0, 2);
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(5000);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            while (!received.toString(StandardCharsets.UTF_8).contains("Punteggio")) {
+                received.write(chunk, 0, in.read(chunk));
+            }
+            assertEquals(0xFF, received.toByteArray()[0] & 0xFF, "Negoziazione telnet in apertura");
+            assertEquals(1, server.getConnectionCount());
+
+            // Negoziazione del client (IAC DO ECHO) seguita da "d" e dalla freccia a destra
+            out.write(new byte[] {(byte) 0xFF, (byte) 0xFD, 0x01, 'd', 0x1B, '[', 'C'});
+            out.flush();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (player.getX() != 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, player.getX());
+
+            out.write('q');
+            out.flush();
+            deadline = System.currentTimeMillis() + 5000;
+            while (server.getConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, server.getConnectionCount());
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import exception.EmojiCraftException;
+import game.GameWorld;
+
+class GameSettingsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReloadPublishesOnlyValidSnapshots() throws Exception {
+        Path file = tempDir.resolve("GameSettings.json");
+        GameSettings original = GameSettings.getInstance();
+        System.setProperty(GameSettings.SETTINGS_PATH_PROPERTY, file.toString());
+        try {
+            Files.writeString(file, "{ \"spawnItemInterval\": 1234, // commento\n"
+                    + "\"gameDurationInSeconds\": 60, \"physicsStrength\": 50, \"gameUpdateFPS\": 20 }");
+            assertTrue(GameSettings.reload());
+            GameSettings reloaded = GameSettings.getInstance();
+            assertNotSame(original, reloaded);
+            assertEquals(1234, reloaded.getSpawnItemInterval());
+            assertEquals(50, reloaded.getPhysicsStrength());
+
+            // Un intervallo a zero bloccherebbe la fisica: l'istantanea precedente resta in uso
+            Files.writeString(file, "{ \"spawnItemInterval\": 1000, \"gameDurationInSeconds\": 60,"
+                    + " \"physicsStrength\": 0, \"gameUpdateFPS\": 20 }");
+            assertFalse(GameSettings.reload());
+            assertSame(reloaded, GameSettings.getInstance());
+
+            Files.writeString(file, "{ non è json");
+            assertFalse(GameSettings.reload());
+            assertSame(reloaded, GameSettings.getInstance());
+        } finally {
+            System.clearProperty(GameSettings.SETTINGS_PATH_PROPERTY);
+            GameSettings.publish(original);
+        }
+    }
+
+    @Test
+    void testWorldOverridesFollowGlobalReload() throws Exception {
+        GameSettings original = GameSettings.getInstance();
+        Path file = tempDir.resolve("altre.json");
+        Files.writeString(file, "{ \"spawnItemInterval\": 900, \"gameDurationInSeconds\": 30,"
+                + " \"physicsStrength\": 80, \"gameUpdateFPS\": 30 }");
+        try {
+            GameWorld gameWorld = new GameWorld(24, 10, new VirtualClock(), 1L);
+            gameWorld.setSettingsOverrides(new SettingsOverrides(5, null, null));
+            assertEquals(5, gameWorld.getSettings().getPhysicsStrength());
+            assertEquals(original.getSpawnItemInterval(), gameWorld.getSettings().getSpawnItemInterval());
+
+            assertTrue(GameSettings.publish(GameSettings.read(file)));
+            assertEquals(5, gameWorld.getSettings().getPhysicsStrength());
+            assertEquals(900, gameWorld.getSettings().getSpawnItemInterval());
+
+            gameWorld.setSettingsOverrides(null);
+            assertEquals(80, gameWorld.getSettings().getPhysicsStrength());
+
+            // Stesse regole del ricaricamento: FPS a 0 (divisione per zero) o fisica a 0 (ciclo attivo) vengono rifiutati
+            assertThrows(EmojiCraftException.class, () -> gameWorld.setSettingsOverrides(new SettingsOverrides(null, null, 0)));
+            assertThrows(EmojiCraftException.class, () -> gameWorld.setSettingsOverrides(new SettingsOverrides(-1, null, null)));
+            assertEquals(80, gameWorld.getSettings().getPhysicsStrength());
+            assertEquals(1000 / 30, gameWorld.getUpdateIntervalMillis());
+
+            Files.writeString(file, "{ \"spawnItemInterval\": 900, \"gameDurationInSeconds\": 30,"
+                    + " \"physicsStrength\": 80, \"gameUpdateFPS\": 30, \"sessionOverrides\": { \"gameUpdateFPS\": 0 } }");
+            assertFalse(GameSettings.publish(GameSettings.read(file)), "Sovrascritture delle sessioni non valide");
+        } finally {
+            GameSettings.publish(original);
+        }
+    }
+}